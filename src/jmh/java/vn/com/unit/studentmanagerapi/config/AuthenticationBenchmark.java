@@ -0,0 +1,175 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import vn.com.unit.studentmanagerapi.entity.Account;
+
+import javax.servlet.FilterChain;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the JWT authentication path with a stubbed {@link UserDetailsService}.
+ * Run with {@code mvn -P benchmark test-compile exec:exec}; the default
+ * arguments add the gc profiler for allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+    static final String SIGNER_KEY = "c2VjcmV0LWtleS1mb3ItYmVuY2htYXJrcy1vbmx5LW11c3QtYmUtbG9uZy1lbm91Z2g=";
+    static final String EMAIL = "student@mail.com";
+
+    @Param({"false", "true"})
+    boolean cacheEnabled;
+
+    @Param({"false", "true"})
+    boolean stateless;
+
+    Account account;
+    JwtTokenProvider jwtTokenProvider;
+    JwtAuthenticationFilter jwtAuthenticationFilter;
+    String token;
+    MockHttpServletRequest request;
+    MockHttpServletResponse response;
+    FilterChain filterChain;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // the filter logs every request URI, keep it out of the measurement
+        ((Logger) LoggerFactory.getLogger(JwtAuthenticationFilter.class)).setLevel(ch.qos.logback.classic.Level.WARN);
+
+        GlobalValue config = new BenchmarkGlobalValue(cacheEnabled, stateless);
+        account = Account.builder()
+                .email(EMAIL)
+                .password("encodedPassword")
+                .role('T')
+                .build();
+        UserDetailsService userDetailsService = username -> account;
+
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(config);
+        jwtTokenProvider = new JwtTokenProvider(config, userDetailsService, new AccountChangeTracker(),
+                new JwtKeyRing(config, verifiedTokenCache), verifiedTokenCache, new TokenDenylist(config));
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(config, jwtTokenProvider);
+        token = jwtTokenProvider.createToken(account);
+
+        request = new MockHttpServletRequest("GET", "/api/v1/students");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        response = new MockHttpServletResponse();
+        filterChain = (servletRequest, servletResponse) -> { };
+    }
+
+    @Benchmark
+    public String createToken() {
+        return jwtTokenProvider.createToken(account);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public Authentication getAuthentication() {
+        return jwtTokenProvider.getAuthentication(token);
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return jwtTokenProvider.authenticate(token);
+    }
+
+    @Benchmark
+    public String resolveToken() {
+        return jwtTokenProvider.resolveToken(request);
+    }
+
+    @Benchmark
+    public Authentication doFilterInternal() throws Exception {
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    static class BenchmarkGlobalValue extends GlobalValue {
+        final boolean cacheEnabled;
+        final boolean stateless;
+
+        BenchmarkGlobalValue(boolean cacheEnabled, boolean stateless) {
+            this.cacheEnabled = cacheEnabled;
+            this.stateless = stateless;
+        }
+
+        @Override
+        public String getSignerKey() {
+            return SIGNER_KEY;
+        }
+
+        @Override
+        public String getSignerKeyId() {
+            return "default";
+        }
+
+        @Override
+        public Duration getExpiration() {
+            return Duration.ofHours(24);
+        }
+
+        @Override
+        public boolean isJwtStateless() {
+            return stateless;
+        }
+
+        @Override
+        public boolean isJwtCacheEnabled() {
+            return cacheEnabled;
+        }
+
+        @Override
+        public int getJwtCacheMaxSize() {
+            return 10000;
+        }
+
+        @Override
+        public Duration getJwtCacheTtl() {
+            return Duration.ofMinutes(15);
+        }
+
+        @Override
+        public long getJwtDenylistCapacity() {
+            return 100000;
+        }
+
+        @Override
+        public double getJwtDenylistFalsePositiveRate() {
+            return 0.001;
+        }
+
+        @Override
+        public String[] getApiPublic() {
+            return new String[]{"/api/v1/accounts/login"};
+        }
+    }
+}
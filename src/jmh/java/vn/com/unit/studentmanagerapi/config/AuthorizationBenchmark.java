@@ -0,0 +1,80 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+import vn.com.unit.studentmanagerapi.annotation.security.Authorize;
+import vn.com.unit.studentmanagerapi.controller.StudentController;
+import vn.com.unit.studentmanagerapi.dto.request.StudentUpdateRequest;
+import vn.com.unit.studentmanagerapi.entity.Account;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the {@code updateStudent} rule evaluated as SpEL, the way
+ * {@code @PreAuthorize} does it, against the compiled policy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorizationBenchmark {
+
+    @Param({"admin@gmail.com:A", "student@mail.com:T", "other@mail.com:T"})
+    String caller;
+
+    DefaultMethodSecurityExpressionHandler expressionHandler;
+    Expression expression;
+    SimpleMethodInvocation invocation;
+    AuthorizationPolicy policy;
+    Authentication authentication;
+    Object[] arguments;
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        Method method = StudentController.class.getDeclaredMethod("updateStudent", String.class, StudentUpdateRequest.class);
+        String rule = method.getAnnotation(Authorize.class).value();
+        arguments = new Object[]{"student@mail.com", null};
+
+        expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        expression = expressionHandler.getExpressionParser().parseExpression(rule);
+        invocation = new SimpleMethodInvocation(new Object(), method, arguments);
+        policy = AuthorizationPolicyCompiler.compile(rule, method);
+
+        String[] parts = caller.split(":");
+        Account account = Account.builder().email(parts[0]).role(parts[1].charAt(0)).build();
+        UsernamePasswordAuthenticationToken token =
+                new UsernamePasswordAuthenticationToken(account, "", account.getAuthorities());
+        token.setDetails(AuthPrincipal.of(token));
+        authentication = token;
+    }
+
+    @Benchmark
+    public boolean spel() {
+        return ExpressionUtils.evaluateAsBoolean(expression,
+                expressionHandler.createEvaluationContext(authentication, invocation));
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return policy.isGranted(AuthPrincipal.from(authentication), arguments);
+    }
+}
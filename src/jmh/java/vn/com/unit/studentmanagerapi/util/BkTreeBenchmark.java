@@ -0,0 +1,97 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fuzzy name lookup through {@link BkTree} against a linear Levenshtein scan
+ * over the same generated names. Run with
+ * {@code mvn -P benchmark test-compile exec:exec -Dbenchmark.args=BkTreeBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BkTreeBenchmark {
+    static final String[] FAMILY = {"Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Huỳnh", "Phan", "Vũ", "Võ", "Đặng",
+            "Bùi", "Đỗ", "Hồ", "Ngô", "Dương", "Lý"};
+    static final String[] MIDDLE = {"Văn", "Thị", "Hữu", "Đức", "Minh", "Ngọc", "Thanh", "Quốc", "Gia", "Xuân",
+            "Hoài", "Kim"};
+    static final String[] GIVEN = {"An", "Anh", "Bình", "Châu", "Cường", "Dũng", "Duy", "Giang", "Hà", "Hải",
+            "Hạnh", "Hiếu", "Hoa", "Hùng", "Huy", "Khánh", "Khoa", "Lan", "Linh", "Long", "Mai", "Nam", "Ngân",
+            "Nhung", "Phong", "Phúc", "Quân", "Quang", "Sơn", "Tâm", "Thảo", "Thắng", "Trang", "Trung", "Tuấn",
+            "Vân", "Việt", "Yến"};
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    @Param({"1", "2"})
+    int maxDistance;
+
+    BkTree tree;
+    String[] names;
+    String[] queries;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(20240501L);
+        tree = new BkTree();
+        names = new String[size];
+        for (int i = 0; i < size; i++) {
+            // two given names keep the number of distinct keys close to size
+            String name = FAMILY[random.nextInt(FAMILY.length)] + " " + MIDDLE[random.nextInt(MIDDLE.length)] + " "
+                    + GIVEN[random.nextInt(GIVEN.length)] + " " + GIVEN[random.nextInt(GIVEN.length)]
+                    + " " + random.nextInt(100);
+            names[i] = TrigramIndex.fold(name);
+            tree.put(names[i], i);
+        }
+
+        // existing names with one or two typos
+        queries = new String[256];
+        for (int i = 0; i < queries.length; i++) {
+            char[] chars = names[random.nextInt(size)].toCharArray();
+            for (int typo = 0; typo <= i % 2; typo++) {
+                chars[random.nextInt(chars.length)] = (char) ('a' + random.nextInt(26));
+            }
+            queries[i] = new String(chars);
+        }
+    }
+
+    @Benchmark
+    public List<BkTree.Match> bkTree() {
+        return tree.search(nextQuery(), maxDistance);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        String query = nextQuery();
+        int[] previous = new int[query.length() + 1];
+        int[] current = new int[query.length() + 1];
+        int matches = 0;
+        for (String name : names) {
+            if (BkTree.distance(name, query, previous, current) <= maxDistance) matches++;
+        }
+        return matches;
+    }
+
+    private String nextQuery() {
+        return queries[next++ & (queries.length - 1)];
+    }
+}
@@ -2,8 +2,10 @@ package vn.com.unit.studentmanagerapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class StudentManagerApiApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,6 @@
+package vn.com.unit.studentmanagerapi.annotation.constant;
+
+public class SubjectIDsFieldError {
+    public static final String NULL = "SUBJECT_IDS_NULL";
+    public static final String SIZE = "SUBJECT_IDS_SIZE";
+}
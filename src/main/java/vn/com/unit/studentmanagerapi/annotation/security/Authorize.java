@@ -0,0 +1,20 @@
+package vn.com.unit.studentmanagerapi.annotation.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Authorization rule for a controller method, written in the subset of the
+ * {@code @PreAuthorize} language that {@code AuthorizationPolicyCompiler}
+ * understands: {@code hasAuthority('X')}, {@code hasAnyAuthority('X', 'Y')}
+ * and {@code principal.username == #param}, combined with {@code and}/{@code or}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Authorize {
+    String value();
+}
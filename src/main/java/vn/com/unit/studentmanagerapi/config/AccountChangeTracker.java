@@ -0,0 +1,39 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when an account was last changed so that tokens issued before
+ * the change are re-checked against the database instead of being trusted
+ * from their claims alone. Changes are also stored in
+ * {@code common_revoked_token}, from where every node loads them, and are
+ * forgotten once the tokens issued before them have expired.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AccountChangeTracker {
+    // email -> time of the last change in millis
+    Map<String, Long> changedAt = new ConcurrentHashMap<>();
+
+    public void markChanged(String email) {
+        markChanged(email, System.currentTimeMillis());
+    }
+
+    public void markChanged(String email, long changedAt) {
+        this.changedAt.merge(email, changedAt, Math::max);
+    }
+
+    public boolean isChangedSince(String email, long issuedAt) {
+        Long lastChange = changedAt.get(email);
+        return lastChange != null && lastChange >= issuedAt;
+    }
+
+    public void removeChangedBefore(long time) {
+        changedAt.values().removeIf(lastChange -> lastChange < time);
+    }
+}
@@ -0,0 +1,139 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import vn.com.unit.studentmanagerapi.util.BloomFilter;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bloom filter over every email in {@code common_account}, so lookups for an
+ * email that was never signed up are answered without a query.
+ * Until the filter is loaded every email is reported as possibly present.
+ * Accounts created on other nodes are added by {@link #refresh}.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AccountEmailFilter implements MeterBinder {
+    GlobalValue config;
+    LongAdder absent = new LongAdder();
+    LongAdder maybePresent = new LongAdder();
+    LongAdder falsePositives = new LongAdder();
+
+    @NonFinal
+    volatile BloomFilter filter;
+    // emails inserted while a load is running, guarded by this
+    @NonFinal
+    Set<String> pending;
+    // start of the last load or refresh, null until loaded
+    @NonFinal
+    volatile LocalDateTime loadedAt;
+
+    public AccountEmailFilter(GlobalValue config) {
+        this.config = config;
+    }
+
+    public boolean mightContain(String email) {
+        BloomFilter current = filter;
+        if (current == null || current.mightContain(email)) {
+            maybePresent.increment();
+            return true;
+        }
+        absent.increment();
+        return false;
+    }
+
+    public synchronized void put(String email) {
+        if (filter != null) filter.put(email);
+        if (pending != null) pending.add(email);
+    }
+
+
+    /**
+     * Called when {@link #mightContain} answered {@code true} but the account
+     * table had no row for the email.
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * Replaces the filter with one built from {@code emails}, sized for twice
+     * the loaded count. Emails put while the supplier runs are kept.
+     */
+    public void load(Supplier<Collection<String>> emails) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        synchronized (this) {
+            pending = new HashSet<>();
+        }
+
+        Collection<String> loaded = emails.get();
+        long expectedInsertions = Math.max(config.getAccountEmailFilterExpectedInsertions(), loaded.size() * 2L);
+        BloomFilter next = new BloomFilter(expectedInsertions, config.getAccountEmailFilterFalsePositiveRate());
+        loaded.forEach(next::put);
+
+        synchronized (this) {
+            pending.forEach(next::put);
+            pending = null;
+            filter = next;
+        }
+        loadedAt = startedAt;
+        log.info("Account email filter loaded with {} emails", loaded.size());
+    }
+
+    /**
+     * Adds the emails created since the previous load or refresh, less
+     * {@code refresh-overlap}: a row only becomes visible when its transaction
+     * commits, and its {@code created_at} comes from the clock of the node
+     * that wrote it. Does nothing until the filter is loaded.
+     */
+    public void refresh(Function<LocalDateTime, Collection<String>> emailsCreatedSince) {
+        LocalDateTime since = loadedAt;
+        if (since == null) return;
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        Collection<String> created = emailsCreatedSince.apply(since.minus(config.getAccountEmailFilterRefreshOverlap()));
+        synchronized (this) {
+            created.forEach(this::put);
+        }
+        loadedAt = startedAt;
+    }
+
+    public boolean isLoaded() {
+        return filter != null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("account.email-filter.fpp", this, AccountEmailFilter::expectedFalsePositiveProbability)
+                .description("False positive probability for the emails inserted so far")
+                .register(registry);
+        FunctionCounter.builder("account.email-filter.checks", absent, LongAdder::sum)
+                .tag("result", "absent")
+                .register(registry);
+        FunctionCounter.builder("account.email-filter.checks", maybePresent, LongAdder::sum)
+                .tag("result", "maybe-present")
+                .register(registry);
+        FunctionCounter.builder("account.email-filter.false-positives", falsePositives, LongAdder::sum)
+                .register(registry);
+    }
+
+    private double expectedFalsePositiveProbability() {
+        BloomFilter current = filter;
+        return current != null ? current.expectedFalsePositiveProbability() : 1.0;
+    }
+}
@@ -11,6 +11,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import vn.com.unit.studentmanagerapi.entity.Account;
 import vn.com.unit.studentmanagerapi.entity.enums.Role;
 import vn.com.unit.studentmanagerapi.repository.AccountRepository;
+import vn.com.unit.studentmanagerapi.repository.RegistrationSubjectRepository;
+import vn.com.unit.studentmanagerapi.repository.StudentRepository;
+import vn.com.unit.studentmanagerapi.repository.SubjectRepository;
+import vn.com.unit.studentmanagerapi.service.AccountService;
+import vn.com.unit.studentmanagerapi.service.TokenRevocationService;
 
 import java.time.LocalDateTime;
 
@@ -32,7 +37,7 @@ public class ApplicationInitConfig {
     private String ADMIN_PASSWORD;
 
     @Bean
-    ApplicationRunner applicationRunner(AccountRepository accountRepository) {
+    ApplicationRunner applicationRunner(AccountRepository accountRepository, AccountEmailFilter accountEmailFilter) {
         return args -> {
             if (!accountRepository.existsByEmail(ADMIN_EMAIL)) {
                 Account account = Account.builder()
@@ -54,10 +59,37 @@ public class ApplicationInitConfig {
                         account.getUpdateBy(),
                         account.isDeleted()
                 );
+                accountEmailFilter.put(account.getEmail());
                 log.warn("Admin has been created with default " +
                         "email: {} and password: {}. Please change it", ADMIN_EMAIL, ADMIN_PASSWORD);
             }
         };
     }
 
+    @Bean
+    ApplicationRunner accountEmailFilterLoader(AccountService accountService) {
+        return args -> accountService.reloadEmailFilter();
+    }
+
+    @Bean
+    ApplicationRunner studentNameIndexLoader(StudentRepository studentRepository, StudentNameIndex studentNameIndex) {
+        return args -> studentNameIndex.load(studentRepository::findAllSummaries);
+    }
+
+    @Bean
+    ApplicationRunner seatAllocatorLoader(SubjectRepository subjectRepository,
+                                          RegistrationSubjectRepository registrationSubjectRepository,
+                                          SeatAllocator seatAllocator) {
+        return args -> {
+            if (seatAllocator.isEnabled()) {
+                seatAllocator.load(subjectRepository.findAll(), registrationSubjectRepository.findAllIDs());
+            }
+        };
+    }
+
+    @Bean
+    ApplicationRunner tokenDenylistLoader(TokenRevocationService tokenRevocationService) {
+        return args -> tokenRevocationService.reload();
+    }
+
 }
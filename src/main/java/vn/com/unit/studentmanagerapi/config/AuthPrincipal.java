@@ -0,0 +1,77 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import vn.com.unit.studentmanagerapi.entity.enums.Role;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Email and roles of the caller, resolved once from the authentication.
+ * {@link JwtTokenProvider} stores it as the authentication details so a
+ * cached token carries it along.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AuthPrincipal {
+    String email;
+    Set<Role> roles;
+    // role of the first authority, the one the services used to look at
+    Role role;
+
+    public static AuthPrincipal current() {
+        return from(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    public static AuthPrincipal from(Authentication authentication) {
+        if (authentication.getDetails() instanceof AuthPrincipal) {
+            return (AuthPrincipal) authentication.getDetails();
+        }
+        return of(authentication);
+    }
+
+    public static AuthPrincipal of(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof UserDetails) {
+            UserDetails userDetails = (UserDetails) principal;
+            return of(userDetails.getUsername(), userDetails.getAuthorities());
+        }
+        return of(authentication.getName(), authentication.getAuthorities());
+    }
+
+    private static AuthPrincipal of(String email, Collection<? extends GrantedAuthority> authorities) {
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        Role first = null;
+        for (GrantedAuthority authority : authorities) {
+            Role role = toRole(authority.getAuthority());
+            if (role == null) continue;
+            roles.add(role);
+            if (first == null) first = role;
+        }
+        return new AuthPrincipal(email, roles, first != null ? first : Role.NULL);
+    }
+
+    public boolean hasRole(Role role) {
+        return roles.contains(role);
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+
+    private static Role toRole(String authority) {
+        for (Role role : Role.values()) {
+            if (role.name().equals(authority)) return role;
+        }
+        return null;
+    }
+}
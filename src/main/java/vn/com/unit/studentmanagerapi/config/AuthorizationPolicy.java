@@ -0,0 +1,17 @@
+package vn.com.unit.studentmanagerapi.config;
+
+/**
+ * Authorization rule compiled from an {@code @Authorize} expression.
+ */
+@FunctionalInterface
+public interface AuthorizationPolicy {
+    boolean isGranted(AuthPrincipal principal, Object[] arguments);
+
+    default AuthorizationPolicy and(AuthorizationPolicy other) {
+        return (principal, arguments) -> isGranted(principal, arguments) && other.isGranted(principal, arguments);
+    }
+
+    default AuthorizationPolicy or(AuthorizationPolicy other) {
+        return (principal, arguments) -> isGranted(principal, arguments) || other.isGranted(principal, arguments);
+    }
+}
@@ -0,0 +1,88 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import vn.com.unit.studentmanagerapi.entity.enums.Role;
+
+import java.lang.reflect.Method;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns {@code @Authorize} expressions into {@link AuthorizationPolicy}
+ * predicates. Authority names are resolved to {@link Role}s and method
+ * parameters to argument indexes here, so nothing is parsed per request.
+ */
+public class AuthorizationPolicyCompiler {
+
+    private static final Pattern OR = Pattern.compile("\\s+or\\s+");
+    private static final Pattern AND = Pattern.compile("\\s+and\\s+");
+    private static final Pattern HAS_AUTHORITY = Pattern.compile("hasAuthority\\(\\s*'(\\w+)'\\s*\\)");
+    private static final Pattern HAS_ANY_AUTHORITY = Pattern.compile("hasAnyAuthority\\(([^)]*)\\)");
+    private static final Pattern QUOTED = Pattern.compile("'(\\w+)'");
+    private static final Pattern PRINCIPAL_IS = Pattern.compile("principal\\.username\\s*==\\s*#(\\w+)");
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    public static AuthorizationPolicy compile(String expression, Method method) {
+        AuthorizationPolicy policy = null;
+        for (String alternative : OR.split(expression.trim())) {
+            AuthorizationPolicy conjunction = null;
+            for (String term : AND.split(alternative.trim())) {
+                AuthorizationPolicy compiled = compileTerm(term.trim(), method, expression);
+                conjunction = conjunction == null ? compiled : conjunction.and(compiled);
+            }
+            policy = policy == null ? conjunction : policy.or(conjunction);
+        }
+        return policy;
+    }
+
+    private static AuthorizationPolicy compileTerm(String term, Method method, String expression) {
+        Matcher matcher = HAS_AUTHORITY.matcher(term);
+        if (matcher.matches()) {
+            Role role = toRole(matcher.group(1), expression);
+            return (principal, arguments) -> principal.hasRole(role);
+        }
+
+        matcher = HAS_ANY_AUTHORITY.matcher(term);
+        if (matcher.matches()) {
+            Set<Role> roles = EnumSet.noneOf(Role.class);
+            Matcher quoted = QUOTED.matcher(matcher.group(1));
+            while (quoted.find()) roles.add(toRole(quoted.group(1), expression));
+            return (principal, arguments) -> {
+                for (Role role : roles) {
+                    if (principal.hasRole(role)) return true;
+                }
+                return false;
+            };
+        }
+
+        matcher = PRINCIPAL_IS.matcher(term);
+        if (matcher.matches()) {
+            int index = parameterIndex(method, matcher.group(1), expression);
+            return (principal, arguments) -> Objects.equals(principal.getEmail(), arguments[index]);
+        }
+
+        throw new IllegalArgumentException("Unsupported authorization expression '" + expression + "' on " + method);
+    }
+
+    private static Role toRole(String authority, String expression) {
+        for (Role role : Role.values()) {
+            if (role.name().equals(authority)) return role;
+        }
+        throw new IllegalArgumentException("Unknown authority '" + authority + "' in '" + expression + "'");
+    }
+
+    private static int parameterIndex(Method method, String name, String expression) {
+        String[] names = PARAMETER_NAMES.getParameterNames(method);
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) return i;
+            }
+        }
+        throw new IllegalArgumentException("No parameter #" + name + " for '" + expression + "' on " + method);
+    }
+}
@@ -0,0 +1,120 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import vn.com.unit.studentmanagerapi.util.OffHeapLruCache;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Bytes of recently served avatars and thumbnails, kept off the heap and
+ * keyed like the store: the content hash, or {@code <hash>.<variant>} for a
+ * thumbnail. Keys never go stale since the content behind a hash cannot
+ * change; entries of a replaced avatar are dropped only to free the space.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AvatarCache implements MeterBinder {
+    OffHeapLruCache<String> cache;
+
+    public AvatarCache(GlobalValue config) {
+        this.cache = config.isAvatarCacheEnabled()
+                ? new OffHeapLruCache<>(config.getAvatarCacheCapacity().toBytes(),
+                        (int) config.getAvatarCachePageSize().toBytes())
+                : null;
+    }
+
+    public static String key(String hash, String variant) {
+        return variant == null ? hash : hash + "." + variant;
+    }
+
+    /**
+     * Returns the content cached under {@code key}, or loads and caches it.
+     * A hit is streamed straight from the cache; should it be evicted before
+     * it is read, the loader is asked again.
+     */
+    public Optional<Resource> get(String key, Supplier<Optional<Resource>> loader) {
+        if (cache == null) return loader.get();
+
+        int length = cache.length(key);
+        if (length >= 0) return Optional.of(new CachedResource(key, length, loader));
+
+        Optional<Resource> loaded = loader.get();
+        if (!loaded.isPresent()) return loaded;
+        byte[] content;
+        try (InputStream in = loaded.get().getInputStream()) {
+            content = StreamUtils.copyToByteArray(in);
+        } catch (IOException e) {
+            log.warn("Could not cache avatar {}", key, e);
+            return loaded;
+        }
+        cache.put(key, content);
+        return Optional.of(new ByteArrayResource(content));
+    }
+
+    public boolean contains(String key) {
+        return cache != null && cache.contains(key);
+    }
+
+    /**
+     * Drops the avatar with {@code hash} and all of its thumbnails.
+     */
+    public void evict(String hash) {
+        if (cache != null) cache.invalidateIf(key -> key.equals(hash) || key.startsWith(hash + "."));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) cache.bindTo(registry, "student.avatar");
+    }
+
+    private final class CachedResource extends AbstractResource {
+        private final String key;
+        private final int length;
+        private final Supplier<Optional<Resource>> loader;
+
+        CachedResource(String key, int length, Supplier<Optional<Resource>> loader) {
+            this.key = key;
+            this.length = length;
+            this.loader = loader;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            InputStream in = cache.open(key);
+            if (in != null) return in;
+
+            Optional<Resource> loaded = loader.get();
+            if (!loaded.isPresent()) throw new FileNotFoundException(getDescription() + " no longer exists");
+            return loaded.get().getInputStream();
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public String getDescription() {
+            return "avatar cache entry [" + key + "]";
+        }
+    }
+}
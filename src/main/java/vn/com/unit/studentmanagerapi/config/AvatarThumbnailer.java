@@ -0,0 +1,144 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import vn.com.unit.studentmanagerapi.service.AvatarStore;
+import vn.com.unit.studentmanagerapi.util.ThumbnailUtil;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Renders the configured thumbnail sizes of uploaded avatars on a small
+ * bounded pool, so uploads do not wait for resizing. Each image is decoded
+ * once for all of its sizes. When the queue is full the job is dropped and
+ * the avatar endpoint keeps serving the original for the missing sizes.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AvatarThumbnailer implements MeterBinder, DisposableBean {
+    AvatarStore avatarStore;
+    ThreadPoolExecutor executor;
+    int[] sizes;
+    long maxPixels;
+    // hashes queued or being rendered, so a re-upload does not render twice
+    Set<String> pending = ConcurrentHashMap.newKeySet();
+    LongAdder rejected = new LongAdder();
+    LongAdder failed = new LongAdder();
+
+    @NonFinal
+    Timer renderTimer;
+
+    public AvatarThumbnailer(AvatarStore avatarStore, GlobalValue config) {
+        int threads = config.getAvatarThumbnailThreads() > 0
+                ? config.getAvatarThumbnailThreads()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        this.avatarStore = avatarStore;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getAvatarThumbnailQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "avatar-thumbnail-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.sizes = config.getAvatarThumbnailSizes().clone();
+        this.maxPixels = config.getAvatarThumbnailMaxPixels();
+    }
+
+    public boolean isSupportedSize(int size) {
+        return Arrays.stream(sizes).anyMatch(supported -> supported == size);
+    }
+
+    /**
+     * Queues the thumbnails of the stored avatar {@code hash}; returns at once.
+     */
+    public void submit(String hash) {
+        if (!pending.add(hash)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    timed(() -> render(hash));
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    log.warn("Could not render thumbnails of avatar {}", hash, e);
+                } finally {
+                    pending.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(hash);
+            rejected.increment();
+            log.warn("Thumbnail queue is full, avatar {} is served without thumbnails", hash);
+        }
+    }
+
+    void render(String hash) {
+        int[] missing = Arrays.stream(sizes)
+                .filter(size -> !avatarStore.loadVariant(hash, String.valueOf(size)).isPresent())
+                .toArray();
+        if (missing.length == 0) return;
+
+        Optional<Resource> original = avatarStore.load(hash);
+        if (!original.isPresent()) return;
+
+        BufferedImage image;
+        try (InputStream in = original.get().getInputStream()) {
+            image = ThumbnailUtil.decode(in, maxPixels, Arrays.stream(missing).max().getAsInt());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        // a format ImageIO cannot read, such as svg
+        if (image == null) return;
+
+        for (int size : missing) {
+            try {
+                avatarStore.putVariant(hash, String.valueOf(size), ThumbnailUtil.encode(ThumbnailUtil.thumbnail(image, size)));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        renderTimer = Timer.builder("avatar.thumbnail.duration").register(registry);
+        Gauge.builder("avatar.thumbnail.queued", executor, pool -> pool.getQueue().size()).register(registry);
+        FunctionCounter.builder("avatar.thumbnail.rejected", rejected, LongAdder::sum).register(registry);
+        FunctionCounter.builder("avatar.thumbnail.failed", failed, LongAdder::sum).register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void timed(Runnable task) {
+        Timer timer = renderTimer;
+        if (timer != null) timer.record(task);
+        else task.run();
+    }
+}
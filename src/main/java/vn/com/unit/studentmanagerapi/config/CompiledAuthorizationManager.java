@@ -0,0 +1,68 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RestController;
+import vn.com.unit.studentmanagerapi.annotation.security.Authorize;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Checks {@link Authorize} rules with policies compiled once per method.
+ * Every controller rule is compiled at startup, so a rule the compiler does
+ * not understand fails the boot instead of the first request.
+ */
+@Component
+public class CompiledAuthorizationManager
+        implements AuthorizationManager<MethodInvocation>, SmartInitializingSingleton, ApplicationContextAware {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final Map<Method, AuthorizationPolicy> policies = new ConcurrentHashMap<>();
+    private ApplicationContext applicationContext;
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        AuthorizationPolicy policy = policyFor(AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass));
+        if (policy == null) return null;
+
+        AuthPrincipal principal = AuthPrincipal.from(authentication.get());
+        return policy.isGranted(principal, invocation.getArguments()) ? GRANTED : DENIED;
+    }
+
+    public AuthorizationPolicy policyFor(Method method) {
+        AuthorizationPolicy policy = policies.get(method);
+        if (policy != null) return policy;
+
+        Authorize authorize = AnnotatedElementUtils.findMergedAnnotation(method, Authorize.class);
+        if (authorize == null) return null;
+        return policies.computeIfAbsent(method, m -> AuthorizationPolicyCompiler.compile(authorize.value(), m));
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Object controller : applicationContext.getBeansWithAnnotation(RestController.class).values()) {
+            ReflectionUtils.doWithMethods(AopUtils.getTargetClass(controller), this::policyFor,
+                    method -> method.isAnnotationPresent(Authorize.class));
+        }
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
 
@@ -18,6 +19,90 @@ public class GlobalValue {
     @Value("${student-manager.jwt.signer-key}")
     String signerKey;
 
+    @Value("${student-manager.jwt.signer-key-id}")
+    String signerKeyId;
+
+    @Value("${student-manager.jwt.stateless}")
+    boolean jwtStateless;
+
+    @Value("${student-manager.jwt.cache.enabled}")
+    boolean jwtCacheEnabled;
+
+    @Value("${student-manager.jwt.cache.max-size}")
+    int jwtCacheMaxSize;
+
+    @Value("${student-manager.jwt.cache.ttl}")
+    Duration jwtCacheTtl;
+
+    @Value("${student-manager.jwt.denylist.capacity}")
+    long jwtDenylistCapacity;
+
+    @Value("${student-manager.jwt.denylist.false-positive-rate}")
+    double jwtDenylistFalsePositiveRate;
+
+    @Value("${student-manager.jwt.denylist.refresh-interval}")
+    Duration jwtDenylistRefreshInterval;
+
+    @Value("${student-manager.jwt.denylist.refresh-overlap}")
+    Duration jwtDenylistRefreshOverlap;
+
+    @Value("${student-manager.account.cache.enabled}")
+    boolean accountCacheEnabled;
+
+    @Value("${student-manager.account.cache.max-size}")
+    int accountCacheMaxSize;
+
+    @Value("${student-manager.account.cache.ttl}")
+    Duration accountCacheTtl;
+
+    @Value("${student-manager.account.email-filter.expected-insertions}")
+    long accountEmailFilterExpectedInsertions;
+
+    @Value("${student-manager.account.email-filter.false-positive-rate}")
+    double accountEmailFilterFalsePositiveRate;
+
+    @Value("${student-manager.account.email-filter.refresh-interval}")
+    Duration accountEmailFilterRefreshInterval;
+
+    @Value("${student-manager.account.email-filter.refresh-overlap}")
+    Duration accountEmailFilterRefreshOverlap;
+
+    @Value("${student-manager.student.name-index.refresh-interval}")
+    Duration studentNameIndexRefreshInterval;
+
+    @Value("${student-manager.student.name-index.refresh-overlap}")
+    Duration studentNameIndexRefreshOverlap;
+
+    @Value("${student-manager.password.bcrypt-strength}")
+    int bcryptStrength;
+
+    @Value("${student-manager.login.executor.threads}")
+    int loginThreads;
+
+    @Value("${student-manager.login.executor.queue-capacity}")
+    int loginQueueCapacity;
+
+    @Value("${student-manager.login.executor.queue-timeout}")
+    Duration loginQueueTimeout;
+
+    @Value("${student-manager.login.rate-limit.enabled}")
+    boolean loginRateLimitEnabled;
+
+    @Value("${student-manager.login.rate-limit.email.capacity}")
+    int loginRateLimitEmailCapacity;
+
+    @Value("${student-manager.login.rate-limit.email.period}")
+    Duration loginRateLimitEmailPeriod;
+
+    @Value("${student-manager.login.rate-limit.ip.capacity}")
+    int loginRateLimitIpCapacity;
+
+    @Value("${student-manager.login.rate-limit.ip.period}")
+    Duration loginRateLimitIpPeriod;
+
+    @Value("${student-manager.login.rate-limit.evict-interval}")
+    Duration loginRateLimitEvictInterval;
+
     @Value("${student-manager.api.public}")
     String[] apiPublic;
 
@@ -33,6 +118,87 @@ public class GlobalValue {
     @Value("${student-manager.paging.sort-direction}")
     String sortDirection;
 
+    @Value("${student-manager.student.suggest.max-size}")
+    int suggestMaxSize;
+
+    @Value("${student-manager.student.fuzzy.max-distance}")
+    int fuzzyMaxDistance;
+
+    @Value("${student-manager.student.avatar.max-age}")
+    Duration avatarMaxAge;
+
+    @Value("${student-manager.student.avatar.store.root}")
+    String avatarStoreRoot;
+
+    @Value("${student-manager.student.avatar.thumbnail.sizes}")
+    int[] avatarThumbnailSizes;
+
+    @Value("${student-manager.student.avatar.thumbnail.max-pixels}")
+    long avatarThumbnailMaxPixels;
+
+    @Value("${student-manager.student.avatar.thumbnail.threads}")
+    int avatarThumbnailThreads;
+
+    @Value("${student-manager.student.avatar.thumbnail.queue-capacity}")
+    int avatarThumbnailQueueCapacity;
+
+    @Value("${student-manager.student.avatar.cache.enabled}")
+    boolean avatarCacheEnabled;
+
+    @Value("${student-manager.student.avatar.cache.capacity}")
+    DataSize avatarCacheCapacity;
+
+    @Value("${student-manager.student.avatar.cache.page-size}")
+    DataSize avatarCachePageSize;
+
     @Value("${student-manager.subject.validation.subject-limit-for-course}")
     int subjectLimitForCourse ;
+
+    @Value("${student-manager.subject.registration.allocator.enabled}")
+    boolean registrationAllocatorEnabled;
+
+    @Value("${student-manager.subject.registration.allocator.lanes}")
+    int registrationAllocatorLanes;
+
+    @Value("${student-manager.subject.registration.allocator.queue-capacity}")
+    int registrationAllocatorQueueCapacity;
+
+    @Value("${student-manager.subject.registration.allocator.persist-batch-size}")
+    int registrationAllocatorPersistBatchSize;
+
+    @Value("${student-manager.subject.registration.allocator.retry-after}")
+    Duration registrationAllocatorRetryAfter;
+
+    @Value("${student-manager.subject.registration.group-commit.enabled}")
+    boolean registrationGroupCommitEnabled;
+
+    @Value("${student-manager.subject.registration.group-commit.max-batch-size}")
+    int registrationGroupCommitMaxBatchSize;
+
+    @Value("${student-manager.subject.registration.group-commit.max-linger}")
+    Duration registrationGroupCommitMaxLinger;
+
+    @Value("${student-manager.subject.registration.group-commit.queue-capacity}")
+    int registrationGroupCommitQueueCapacity;
+
+    @Value("${student-manager.subject.registration.group-commit.retry-after}")
+    Duration registrationGroupCommitRetryAfter;
+
+    @Value("${student-manager.subject.registration.waiting-room.enabled}")
+    boolean waitingRoomEnabled;
+
+    @Value("${student-manager.subject.registration.waiting-room.admitted}")
+    int waitingRoomAdmitted;
+
+    @Value("${student-manager.subject.registration.waiting-room.admission-ttl}")
+    Duration waitingRoomAdmissionTtl;
+
+    @Value("${student-manager.subject.registration.waiting-room.ticket-ttl}")
+    Duration waitingRoomTicketTtl;
+
+    @Value("${student-manager.subject.registration.waiting-room.capacity}")
+    int waitingRoomCapacity;
+
+    @Value("${student-manager.subject.registration.waiting-room.poll-interval}")
+    Duration waitingRoomPollInterval;
 }
@@ -37,8 +37,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             if(!match){
                 String token = jwtTokenProvider.resolveToken(request);
-                if(token != null && jwtTokenProvider.validateToken(token)){
-                    Authentication authentication = jwtTokenProvider.getAuthentication(token);
+                Authentication authentication = token != null ? jwtTokenProvider.authenticate(token) : null;
+                if(authentication != null){
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 } else {
                     throw new AppException(ErrorCode.UNAUTHENTICATED);
@@ -48,6 +48,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         } catch (JwtException e){
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
         }
+        catch (AppException e){
+            response.sendError(e.getErrorCode().getHttpStatus().value());
+        }
         catch (RuntimeException e){
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
         }
@@ -0,0 +1,114 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import vn.com.unit.studentmanagerapi.exception.AppException;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+
+import java.security.Key;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the decoded HMAC keys indexed by their {@code kid} header together
+ * with a single thread-safe parser that picks the key from the header.
+ * Keys can be added, activated for signing and retired at runtime.
+ * Retiring a key also forgets the tokens already verified, since cached
+ * tokens are not checked against their key again.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class JwtKeyRing {
+    final Map<String, Key> keys = new ConcurrentHashMap<>();
+    final String defaultKeyId;
+    final JwtParser parser;
+    final VerifiedTokenCache verifiedTokenCache;
+
+    volatile String activeKeyId;
+
+    public JwtKeyRing(GlobalValue config, VerifiedTokenCache verifiedTokenCache) {
+        this.defaultKeyId = config.getSignerKeyId();
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyIdResolver())
+                .build();
+        addKey(defaultKeyId, config.getSignerKey());
+        this.activeKeyId = defaultKeyId;
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public Key getActiveKey() {
+        return keys.get(activeKeyId);
+    }
+
+    public JwtParser getParser() {
+        return parser;
+    }
+
+    public Set<String> getKeyIds() {
+        return new TreeSet<>(keys.keySet());
+    }
+
+    /**
+     * Adds a key under a new {@code kid}. Replacing the key of an existing
+     * {@code kid} would invalidate every token signed with it, so that takes
+     * a retire first.
+     */
+    public void addKey(String keyId, String base64Secret) {
+        Key key;
+        try {
+            key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new AppException(ErrorCode.JWT_KEY_INVALID);
+        }
+        if (keys.putIfAbsent(keyId, key) != null)
+            throw new AppException(ErrorCode.JWT_KEY_EXISTS);
+        log.info("JwtKeyRing | key added: {}", keyId);
+    }
+
+    public void activate(String keyId) {
+        if (!keys.containsKey(keyId))
+            throw new AppException(ErrorCode.JWT_KEY_NOT_FOUND);
+        activeKeyId = keyId;
+        log.info("JwtKeyRing | active key: {}", keyId);
+    }
+
+    public void retire(String keyId) {
+        if (keyId.equals(activeKeyId))
+            throw new AppException(ErrorCode.JWT_KEY_ACTIVE);
+        if (keys.remove(keyId) == null)
+            throw new AppException(ErrorCode.JWT_KEY_NOT_FOUND);
+        // the cache does not know the kid of its tokens, a retired key is rare enough to drop them all
+        verifiedTokenCache.invalidateAll();
+        log.info("JwtKeyRing | key retired: {}", keyId);
+    }
+
+    private class KeyIdResolver extends SigningKeyResolverAdapter {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            // tokens issued before the key ring existed carry no kid
+            String keyId = header.getKeyId() != null ? header.getKeyId() : defaultKeyId;
+            Key key = keys.get(keyId);
+            if (key == null)
+                throw new SignatureException("Unknown signing key: " + keyId);
+            return key;
+        }
+    }
+}
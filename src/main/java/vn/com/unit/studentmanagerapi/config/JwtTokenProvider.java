@@ -1,11 +1,10 @@
 package vn.com.unit.studentmanagerapi.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -18,9 +17,9 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import vn.com.unit.studentmanagerapi.util.DigestUtil;
 
 import javax.servlet.http.HttpServletRequest;
-import java.security.Key;
 import java.util.*;
 
 @Slf4j
@@ -28,8 +27,15 @@ import java.util.*;
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class JwtTokenProvider {
+    // iat only has second precision, too coarse to tell a token from an account change in the same second
+    static final String ISSUED_AT_MILLIS = "iat_ms";
+
     GlobalValue config;
     UserDetailsService userDetailsService;
+    AccountChangeTracker accountChangeTracker;
+    JwtKeyRing jwtKeyRing;
+    VerifiedTokenCache verifiedTokenCache;
+    TokenDenylist tokenDenylist;
 
     public String createToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
@@ -40,12 +46,16 @@ public class JwtTokenProvider {
         }
         claims.put("role", roles);
 
+        Date issuedAt = new Date();
+        claims.put(ISSUED_AT_MILLIS, issuedAt.getTime());
+
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, jwtKeyRing.getActiveKeyId())
                 .setClaims(claims)
                 .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis()+config.getExpiration().toMillis()))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(issuedAt)
+                .setExpiration(new Date(issuedAt.getTime()+config.getExpiration().toMillis()))
+                .signWith(jwtKeyRing.getActiveKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -73,6 +83,62 @@ public class JwtTokenProvider {
         return new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
     }
 
+    /**
+     * Parses the token once and builds the authentication for it, or returns
+     * {@code null} when the token is expired, revoked or its user no longer exists.
+     * Tokens that were already verified are answered from the cache.
+     * In stateless mode the principal comes from the claims and the account
+     * table is only read for tokens issued before the account last changed.
+     */
+    public Authentication authenticate(String token) {
+        String digest = digest(token);
+        if(tokenDenylist.isRevoked(digest)) return null;
+
+        Authentication cached = verifiedTokenCache.get(digest);
+        if(cached != null) return cached;
+
+        Claims body = createClaim(token);
+
+        Date expiration = body.getExpiration();
+        if(expiration.before(new Date())) return null;
+
+        String subject = body.getSubject();
+        long issuedAt = issuedAtMillis(body);
+        if(tokenDenylist.isRevoked(subject, issuedAt)) return null;
+
+        UsernamePasswordAuthenticationToken authentication;
+        if(config.isJwtStateless() && !accountChangeTracker.isChangedSince(subject, issuedAt)){
+            JwtPrincipal principal = JwtPrincipal.of(subject, body.get("role", Collection.class));
+            authentication = new UsernamePasswordAuthenticationToken(principal, "", principal.getAuthorities());
+        } else {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
+            if(userDetails == null) return null;
+            authentication = new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
+        }
+
+        // resolved once here so authorization checks do not re-read the authorities
+        authentication.setDetails(AuthPrincipal.of(authentication));
+        verifiedTokenCache.put(digest, authentication, expiration);
+        // a revocation applied since the check above may have invalidated the cache before the put
+        if(tokenDenylist.isRevoked(subject, issuedAt)){
+            verifiedTokenCache.invalidateToken(digest);
+            return null;
+        }
+        return authentication;
+    }
+
+    public Date getExpiration(String token) {
+        return createClaim(token).getExpiration();
+    }
+
+    /**
+     * SHA-256 of the token in hex, used wherever a token has to be remembered
+     * without keeping the bearer credential itself.
+     */
+    public static String digest(String token) {
+        return DigestUtil.sha256Hex(token);
+    }
+
     public String resolveToken(HttpServletRequest request){
         String header = request.getHeader(HttpHeaders.AUTHORIZATION);
 
@@ -82,15 +148,15 @@ public class JwtTokenProvider {
         return header.substring(7);
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(config.getSignerKey());
-        return Keys.hmacShaKeyFor(keyBytes);
+    // tokens issued before iat_ms was added count from the start of their second
+    private static long issuedAtMillis(Claims body) {
+        Long issuedAt = body.get(ISSUED_AT_MILLIS, Long.class);
+        if(issuedAt != null) return issuedAt;
+        return body.getIssuedAt() != null ? body.getIssuedAt().getTime() : 0;
     }
 
     private Claims createClaim(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return jwtKeyRing.getParser()
                 .parseClaimsJws(token)
                 .getBody();
     }
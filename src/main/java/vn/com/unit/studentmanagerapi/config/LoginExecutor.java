@@ -0,0 +1,109 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.exception.ServiceBusyException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs password hashing for login on a fixed pool sized to the CPU count,
+ * so a login storm cannot take every servlet thread. A request waits at most
+ * {@code student-manager.login.executor.queue-timeout} for its turn and is
+ * rejected with 503 when the queue is full or the wait runs out.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LoginExecutor implements MeterBinder, DisposableBean {
+    ThreadPoolExecutor executor;
+    Duration queueTimeout;
+    LongAdder rejected = new LongAdder();
+
+    @NonFinal
+    Timer hashTimer;
+
+    public LoginExecutor(GlobalValue config) {
+        int threads = config.getLoginThreads() > 0
+                ? config.getLoginThreads()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getLoginQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.queueTimeout = config.getLoginQueueTimeout();
+    }
+
+    public <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timed(task));
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+
+        try {
+            return future.get(queueTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        hashTimer = Timer.builder("login.hash.duration").register(registry);
+        Gauge.builder("login.executor.queued", executor, pool -> pool.getQueue().size()).register(registry);
+        Gauge.builder("login.executor.active", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+        FunctionCounter.builder("login.executor.rejected", rejected, LongAdder::sum).register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T timed(Callable<T> task) throws Exception {
+        Timer timer = hashTimer;
+        return timer != null ? timer.recordCallable(task) : task.call();
+    }
+
+    private ServiceBusyException busy() {
+        rejected.increment();
+        return new ServiceBusyException(ErrorCode.LOGIN_BUSY, queueTimeout);
+    }
+}
@@ -0,0 +1,63 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.exception.ServiceBusyException;
+import vn.com.unit.studentmanagerapi.util.RateLimiter;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Token buckets per email and per client IP in front of login, checked before
+ * the account is read or a password is hashed.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LoginRateLimiter implements MeterBinder {
+    boolean enabled;
+    RateLimiter emailLimiter;
+    RateLimiter ipLimiter;
+
+    public LoginRateLimiter(GlobalValue config) {
+        this.enabled = config.isLoginRateLimitEnabled();
+        this.emailLimiter = new RateLimiter(config.getLoginRateLimitEmailCapacity(), config.getLoginRateLimitEmailPeriod());
+        this.ipLimiter = new RateLimiter(config.getLoginRateLimitIpCapacity(), config.getLoginRateLimitIpPeriod());
+    }
+
+    public void check(String email, String clientIp) {
+        if (!enabled) return;
+
+        long wait = ipLimiter.tryAcquire(clientIp);
+        if (wait == 0 && email != null) wait = emailLimiter.tryAcquire(email.toLowerCase(Locale.ROOT));
+        if (wait > 0) throw new ServiceBusyException(ErrorCode.LOGIN_RATE_LIMITED, Duration.ofNanos(wait));
+    }
+
+    @Scheduled(fixedDelayString = "#{@globalValue.loginRateLimitEvictInterval.toMillis()}")
+    public void evictIdle() {
+        emailLimiter.evictIdle();
+        ipLimiter.evictIdle();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, emailLimiter, "email");
+        bind(registry, ipLimiter, "ip");
+    }
+
+    private static void bind(MeterRegistry registry, RateLimiter limiter, String key) {
+        FunctionCounter.builder("login.rate-limit.rejected", limiter, RateLimiter::rejectedCount)
+                .tag("key", key)
+                .register(registry);
+        Gauge.builder("login.rate-limit.buckets", limiter, RateLimiter::size)
+                .tag("key", key)
+                .register(registry);
+    }
+}
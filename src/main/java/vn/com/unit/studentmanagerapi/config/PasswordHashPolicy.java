@@ -0,0 +1,40 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The BCrypt cost new hashes are created with. Stored hashes with any other
+ * cost are re-hashed on the next successful login.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PasswordHashPolicy {
+    static Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}$");
+
+    int strength;
+
+    public PasswordHashPolicy(GlobalValue config) {
+        this.strength = config.getBcryptStrength();
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public boolean needsRehash(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        // hashes that are not BCrypt cannot be verified, leave them alone
+        return cost > 0 && cost != strength;
+    }
+
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null) return -1;
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+}
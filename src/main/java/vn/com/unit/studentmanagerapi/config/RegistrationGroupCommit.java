@@ -0,0 +1,335 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.com.unit.studentmanagerapi.entity.RegistrationSubject;
+import vn.com.unit.studentmanagerapi.entity.RegistrationSubjectID;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.exception.ServiceBusyException;
+import vn.com.unit.studentmanagerapi.repository.RegistrationSubjectRepository;
+import vn.com.unit.studentmanagerapi.repository.SubjectRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Optional group commit for registrations. Registrations arriving within
+ * {@code max-linger} of each other are written together by one thread in a
+ * single transaction: the seats of the whole batch are claimed in one JDBC
+ * batch, the rows inserted in a second and the seats of refused rows given
+ * back in a third, instead of a transaction and two round trips each. Every
+ * caller still gets the outcome of its own registration.
+ * <p>
+ * Should a batch fail, for instance on a registration that already exists,
+ * its registrations are written again one by one so only the faulty one fails.
+ * Registrations still queued at shutdown are written once the web server has
+ * stopped, before the data source closes.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RegistrationGroupCommit implements MeterBinder, SmartLifecycle {
+    // stops together with the seat allocator, after the web server
+    static final int PHASE = SeatAllocator.PHASE;
+
+    SubjectRepository subjectRepository;
+    RegistrationSubjectRepository registrationSubjectRepository;
+    TransactionTemplate transactionTemplate;
+    int subjectLimitForCourse;
+    int maxBatchSize;
+    long maxLingerNanos;
+    Duration retryAfter;
+    // null when group commit is disabled
+    BlockingQueue<Pending> queue;
+    Thread writer;
+    LongAdder rejected = new LongAdder();
+    LongAdder failedBatches = new LongAdder();
+
+    @NonFinal
+    volatile boolean running;
+    @NonFinal
+    volatile boolean stopped;
+    @NonFinal
+    DistributionSummary batchSize;
+    @NonFinal
+    Timer lingerTimer;
+
+    public enum Outcome {
+        REGISTERED, FULL, LIMIT_EXCEEDED
+    }
+
+    // lazy, the meter registry binds this before the data source is ready
+    public RegistrationGroupCommit(GlobalValue config,
+                                   @Lazy SubjectRepository subjectRepository,
+                                   @Lazy RegistrationSubjectRepository registrationSubjectRepository,
+                                   @Lazy PlatformTransactionManager transactionManager) {
+        this.subjectRepository = subjectRepository;
+        this.registrationSubjectRepository = registrationSubjectRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.subjectLimitForCourse = config.getSubjectLimitForCourse();
+        this.maxBatchSize = Math.max(1, config.getRegistrationGroupCommitMaxBatchSize());
+        this.maxLingerNanos = config.getRegistrationGroupCommitMaxLinger().toNanos();
+        this.retryAfter = config.getRegistrationGroupCommitRetryAfter();
+
+        if (!config.isRegistrationGroupCommitEnabled()) {
+            this.queue = null;
+            this.writer = null;
+            return;
+        }
+        this.queue = new ArrayBlockingQueue<>(config.getRegistrationGroupCommitQueueCapacity());
+        this.writer = new Thread(this::writeLoop, "registration-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public boolean isEnabled() {
+        return queue != null;
+    }
+
+    /**
+     * Waits for the registration to be written with the next batch. Seats and
+     * limits are checked as {@code claimSeat} and {@code insert} would, a
+     * registration that already exists fails with
+     * {@link org.springframework.dao.DuplicateKeyException}.
+     */
+    public Outcome register(RegistrationSubject registration) {
+        Pending pending = new Pending(registration);
+        if (stopped || !queue.offer(pending)) throw busy();
+        // shutting down meanwhile, the queue may already have been written
+        if (stopped && queue.remove(pending)) throw busy();
+
+        try {
+            return pending.outcome.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!isEnabled()) return;
+        batchSize = DistributionSummary.builder("registration.group.commit.batch.size")
+                .baseUnit("registrations")
+                .maximumExpectedValue((double) maxBatchSize)
+                .register(registry);
+        lingerTimer = Timer.builder("registration.group.commit.linger").register(registry);
+        Gauge.builder("registration.group.commit.queued", queue, BlockingQueue::size).register(registry);
+        FunctionCounter.builder("registration.group.commit.rejected", rejected, LongAdder::sum).register(registry);
+        FunctionCounter.builder("registration.group.commit.failed", failedBatches, LongAdder::sum).register(registry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Stops taking registrations and writes the ones already queued. Runs
+     * before the singletons, the data source among them, are destroyed.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (!isEnabled() || stopped) return;
+        // not interrupted, that could fail the batch it is writing
+        stopped = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        boolean interrupted = false;
+        while (!stopped && !interrupted) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            // what was taken is written even when interrupted, its callers are waiting
+            write(batch);
+            batch.clear();
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    // takes the next registration and those arriving within max-linger after it
+    private void collect(List<Pending> batch) throws InterruptedException {
+        // wakes up now and then to notice stop()
+        Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) return;
+        batch.add(first);
+        long deadline = System.nanoTime() + maxLingerNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) return;
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) return;
+            batch.add(next);
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        if (batch.isEmpty()) return;
+        record(batch);
+
+        // the same registration twice would fail the whole batch on the primary key
+        List<Pending> together = new ArrayList<>(batch.size());
+        List<Pending> alone = new ArrayList<>();
+        Set<RegistrationSubjectID> seen = new HashSet<>();
+        for (Pending pending : batch) {
+            if (seen.add(pending.registration.getRegistrationSubjectID())) together.add(pending);
+            else alone.add(pending);
+        }
+
+        try {
+            List<Outcome> outcomes = transactionTemplate.execute(status -> writeAll(registrations(together)));
+            for (int i = 0; i < together.size(); i++) {
+                together.get(i).outcome.complete(outcomes.get(i));
+            }
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            log.warn("Could not write {} registrations together, writing them one by one", together.size(), e);
+            alone.addAll(0, together);
+        }
+
+        for (Pending pending : alone) {
+            try {
+                pending.outcome.complete(transactionTemplate.execute(status ->
+                        writeAll(Collections.singletonList(pending.registration))).get(0));
+            } catch (RuntimeException e) {
+                pending.outcome.completeExceptionally(e);
+            }
+        }
+    }
+
+    // runs in the transaction of the batch, returns the outcomes in the order of the registrations
+    private List<Outcome> writeAll(List<RegistrationSubject> registrations) {
+        // seats are locked in subject order, in arrival order two batches could deadlock each other
+        List<Integer> order = IntStream.range(0, registrations.size()).boxed()
+                .sorted(Comparator.comparing(i -> subjectID(registrations.get(i))))
+                .collect(Collectors.toList());
+        Outcome[] outcomes = new Outcome[registrations.size()];
+        // the seats of refused registrations are given back after each round, a registration
+        // found full in a subject that got one back is tried again, as it would be on its own
+        while (!order.isEmpty()) {
+            Set<Long> released = writeRound(registrations, order, outcomes);
+            order = order.stream()
+                    .filter(i -> outcomes[i] == Outcome.FULL && released.contains(subjectID(registrations.get(i))))
+                    .collect(Collectors.toList());
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    // writes the registrations at the indexes in order, returns the subjects whose seats were given back
+    private Set<Long> writeRound(List<RegistrationSubject> registrations, List<Integer> order, Outcome[] outcomes) {
+        int[] claimed = subjectRepository.claimSeats(order.stream()
+                .map(i -> subjectID(registrations.get(i)))
+                .collect(Collectors.toList()));
+
+        List<RegistrationSubject> seated = new ArrayList<>(order.size());
+        for (int k = 0; k < order.size(); k++) {
+            if (claimed[k] > 0) seated.add(registrations.get(order.get(k)));
+        }
+        int[] inserted = seated.isEmpty() ? new int[0]
+                : registrationSubjectRepository.insertAll(seated, subjectLimitForCourse);
+
+        List<Long> refused = new ArrayList<>();
+        for (int k = 0, j = 0; k < order.size(); k++) {
+            int i = order.get(k);
+            if (claimed[k] == 0) {
+                outcomes[i] = Outcome.FULL;
+            } else if (inserted[j++] > 0) {
+                outcomes[i] = Outcome.REGISTERED;
+            } else {
+                outcomes[i] = Outcome.LIMIT_EXCEEDED;
+                refused.add(subjectID(registrations.get(i)));
+            }
+        }
+        if (refused.isEmpty()) return Collections.emptySet();
+        subjectRepository.releaseSeats(refused);
+        return new HashSet<>(refused);
+    }
+
+    private void record(List<Pending> batch) {
+        DistributionSummary summary = batchSize;
+        Timer timer = lingerTimer;
+        if (summary == null || timer == null) return;
+        summary.record(batch.size());
+        long now = System.nanoTime();
+        for (Pending pending : batch) {
+            timer.record(now - pending.submittedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private ServiceBusyException busy() {
+        rejected.increment();
+        return new ServiceBusyException(ErrorCode.REGISTRATION_BUSY, retryAfter);
+    }
+
+    private static Long subjectID(RegistrationSubject registration) {
+        return registration.getRegistrationSubjectID().getSubjectID();
+    }
+
+    private static List<RegistrationSubject> registrations(List<Pending> batch) {
+        return batch.stream().map(pending -> pending.registration).collect(Collectors.toList());
+    }
+
+    private static final class Pending {
+        final RegistrationSubject registration;
+        final long submittedAt = System.nanoTime();
+        final CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+
+        Pending(RegistrationSubject registration) {
+            this.registration = registration;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import vn.com.unit.studentmanagerapi.dto.enums.WaitingRoomStatus;
+import vn.com.unit.studentmanagerapi.dto.response.WaitingRoomTicket;
+import vn.com.unit.studentmanagerapi.exception.AppException;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.exception.ServiceBusyException;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional waiting room in front of registration. Sessions join a line and
+ * are let in first come first served, no more than {@code admitted} at a
+ * time, each for {@code admission-ttl} or until it leaves; the others poll
+ * their position, or follow it as server-sent events, without touching the
+ * database. Registration calls must carry the ticket of an admitted session
+ * of the same account, admins excepted.
+ * <p>
+ * The line lives in memory, each instance of the API has its own.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RegistrationWaitingRoom implements MeterBinder, DisposableBean {
+    public static final String TICKET_HEADER = "X-Waiting-Room-Ticket";
+
+    boolean enabled;
+    int admittedLimit;
+    long admissionTtlMillis;
+    long ticketTtlMillis;
+    int capacity;
+    Duration pollInterval;
+    Clock clock;
+    // guarded by this, both in order: of arrival, and of admission so of expiry
+    LinkedHashMap<String, Ticket> waiting = new LinkedHashMap<>();
+    LinkedHashMap<String, Ticket> admitted = new LinkedHashMap<>();
+    Map<String, Ticket> byEmail = new HashMap<>();
+    Map<String, SseEmitter> subscribers = new ConcurrentHashMap<>();
+    // null when the waiting room is disabled
+    ScheduledExecutorService publisher;
+    LongAdder admissions = new LongAdder();
+    LongAdder expired = new LongAdder();
+    LongAdder abandoned = new LongAdder();
+    LongAdder rejected = new LongAdder();
+    LongAdder turnedAway = new LongAdder();
+
+    // guarded by this: sequence of the last ticket handed out, and of the last one out of the line
+    @NonFinal
+    long joined;
+    @NonFinal
+    long passed;
+
+    @Autowired
+    public RegistrationWaitingRoom(GlobalValue config) {
+        this(config, Clock.systemUTC());
+    }
+
+    RegistrationWaitingRoom(GlobalValue config, Clock clock) {
+        this.enabled = config.isWaitingRoomEnabled();
+        this.admittedLimit = Math.max(1, config.getWaitingRoomAdmitted());
+        this.admissionTtlMillis = config.getWaitingRoomAdmissionTtl().toMillis();
+        this.ticketTtlMillis = config.getWaitingRoomTicketTtl().toMillis();
+        this.capacity = config.getWaitingRoomCapacity();
+        this.pollInterval = config.getWaitingRoomPollInterval();
+        this.clock = clock;
+
+        if (!enabled) {
+            this.publisher = null;
+            return;
+        }
+        this.publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "registration-waiting-room");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = pollInterval.toMillis();
+        publisher.scheduleWithFixedDelay(this::publish, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Puts the account in line, or gives back its ticket when it already is.
+     */
+    public WaitingRoomTicket join(String email) {
+        if (!enabled) return open();
+        synchronized (this) {
+            long now = clock.millis();
+            admit(now);
+            Ticket ticket = byEmail.get(email);
+            if (ticket == null) {
+                if (waiting.size() >= capacity) {
+                    rejected.increment();
+                    throw new ServiceBusyException(ErrorCode.WAITING_ROOM_FULL, pollInterval);
+                }
+                ticket = new Ticket(UUID.randomUUID().toString(), email, ++joined, now);
+                waiting.put(ticket.id, ticket);
+                byEmail.put(email, ticket);
+                admit(now);
+            }
+            ticket.lastSeen = now;
+            return view(ticket, now);
+        }
+    }
+
+    /**
+     * Position of the ticket; polling keeps it in line, a ticket left
+     * unpolled for {@code ticket-ttl} is dropped when its turn comes.
+     */
+    public WaitingRoomTicket poll(String ticketID, String email) {
+        if (!enabled) return open();
+        synchronized (this) {
+            long now = clock.millis();
+            admit(now);
+            Ticket ticket = find(ticketID, email);
+            ticket.lastSeen = now;
+            return view(ticket, now);
+        }
+    }
+
+    /**
+     * Follows the position of the ticket, pushed every {@code poll-interval}
+     * until it is admitted. The stream ends with the request timeout of the
+     * server, the client reconnects as it would for any event source.
+     */
+    public SseEmitter subscribe(String ticketID, String email) {
+        WaitingRoomTicket current = poll(ticketID, email);
+        SseEmitter emitter = new SseEmitter();
+        if (current.getStatus() == WaitingRoomStatus.ADMITTED) {
+            send(emitter, current);
+            emitter.complete();
+            return emitter;
+        }
+        SseEmitter previous = subscribers.put(ticketID, emitter);
+        if (previous != null) previous.complete();
+        emitter.onCompletion(() -> subscribers.remove(ticketID, emitter));
+        emitter.onTimeout(() -> subscribers.remove(ticketID, emitter));
+        emitter.onError(error -> subscribers.remove(ticketID, emitter));
+        if (!send(emitter, current)) subscribers.remove(ticketID, emitter);
+        return emitter;
+    }
+
+    /**
+     * Gives up the ticket, its admission goes to the next in line.
+     */
+    public void leave(String ticketID, String email) {
+        if (!enabled) return;
+        synchronized (this) {
+            Ticket ticket = find(ticketID, email);
+            waiting.remove(ticket.id);
+            admitted.remove(ticket.id);
+            byEmail.remove(ticket.email, ticket);
+            admit(clock.millis());
+        }
+        SseEmitter emitter = subscribers.remove(ticketID);
+        if (emitter != null) emitter.complete();
+    }
+
+    public boolean isAdmitted(String ticketID, String email) {
+        if (!enabled) return true;
+        if (ticketID == null) return false;
+        synchronized (this) {
+            admit(clock.millis());
+            Ticket ticket = admitted.get(ticketID);
+            return ticket != null && ticket.email.equals(email);
+        }
+    }
+
+    /**
+     * Lets the caller through when its ticket is admitted, otherwise tells it
+     * to join the waiting room.
+     */
+    public void checkAdmitted(String ticketID) {
+        if (!enabled) return;
+        AuthPrincipal principal = AuthPrincipal.current();
+        if (principal.isAdmin() || isAdmitted(ticketID, principal.getEmail())) return;
+        turnedAway.increment();
+        throw new ServiceBusyException(ErrorCode.WAITING_ROOM_NOT_ADMITTED, pollInterval);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) return;
+        Gauge.builder("registration.waiting.room.waiting", this, RegistrationWaitingRoom::waitingCount)
+                .register(registry);
+        Gauge.builder("registration.waiting.room.admitted", this, RegistrationWaitingRoom::admittedCount)
+                .register(registry);
+        Gauge.builder("registration.waiting.room.subscribers", subscribers, Map::size).register(registry);
+        FunctionCounter.builder("registration.waiting.room.admissions", admissions, LongAdder::sum).register(registry);
+        FunctionCounter.builder("registration.waiting.room.expired", expired, LongAdder::sum).register(registry);
+        FunctionCounter.builder("registration.waiting.room.abandoned", abandoned, LongAdder::sum).register(registry);
+        FunctionCounter.builder("registration.waiting.room.rejected", rejected, LongAdder::sum).register(registry);
+        FunctionCounter.builder("registration.waiting.room.turned.away", turnedAway, LongAdder::sum).register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        if (!enabled) return;
+        publisher.shutdownNow();
+        subscribers.values().forEach(SseEmitter::complete);
+        subscribers.clear();
+    }
+
+    synchronized int waitingCount() {
+        return waiting.size();
+    }
+
+    synchronized int admittedCount() {
+        return admitted.size();
+    }
+
+    // drops abandoned tickets and pushes the positions to the subscribers
+    void publish() {
+        Map<String, WaitingRoomTicket> positions = new HashMap<>();
+        synchronized (this) {
+            long now = clock.millis();
+            for (String ticketID : subscribers.keySet()) {
+                // a subscriber is following its ticket, as good as polling
+                Ticket ticket = waiting.get(ticketID);
+                if (ticket != null) ticket.lastSeen = now;
+            }
+            Iterator<Ticket> line = waiting.values().iterator();
+            while (line.hasNext()) {
+                Ticket ticket = line.next();
+                if (now - ticket.lastSeen <= ticketTtlMillis) continue;
+                line.remove();
+                byEmail.remove(ticket.email, ticket);
+                abandoned.increment();
+            }
+            admit(now);
+            for (String ticketID : subscribers.keySet()) {
+                Ticket ticket = waiting.containsKey(ticketID) ? waiting.get(ticketID) : admitted.get(ticketID);
+                if (ticket != null) positions.put(ticketID, view(ticket, now));
+            }
+        }
+
+        subscribers.forEach((ticketID, emitter) -> {
+            WaitingRoomTicket position = positions.get(ticketID);
+            // done once admitted, or gone when the ticket left or expired meanwhile
+            boolean done = position == null || !send(emitter, position)
+                    || position.getStatus() == WaitingRoomStatus.ADMITTED;
+            if (!done) return;
+            subscribers.remove(ticketID, emitter);
+            emitter.complete();
+        });
+    }
+
+    // frees the admissions that ran out, then lets in the head of the line; holding the lock
+    private void admit(long now) {
+        Iterator<Ticket> admissionOrder = admitted.values().iterator();
+        while (admissionOrder.hasNext()) {
+            Ticket ticket = admissionOrder.next();
+            if (ticket.admittedUntil > now) break;
+            admissionOrder.remove();
+            byEmail.remove(ticket.email, ticket);
+            expired.increment();
+        }
+
+        Iterator<Ticket> line = waiting.values().iterator();
+        while (admitted.size() < admittedLimit && line.hasNext()) {
+            Ticket ticket = line.next();
+            line.remove();
+            passed = ticket.sequence;
+            if (now - ticket.lastSeen > ticketTtlMillis) {
+                byEmail.remove(ticket.email, ticket);
+                abandoned.increment();
+                continue;
+            }
+            ticket.admittedUntil = now + admissionTtlMillis;
+            admitted.put(ticket.id, ticket);
+            admissions.increment();
+        }
+    }
+
+    // holding the lock
+    private Ticket find(String ticketID, String email) {
+        Ticket ticket = waiting.get(ticketID);
+        if (ticket == null) ticket = admitted.get(ticketID);
+        if (ticket == null || !ticket.email.equals(email)) {
+            throw new AppException(ErrorCode.WAITING_ROOM_TICKET_INVALID);
+        }
+        return ticket;
+    }
+
+    // holding the lock; the position counts the abandoned tickets ahead until they are dropped
+    private WaitingRoomTicket view(Ticket ticket, long now) {
+        boolean isAdmitted = ticket.admittedUntil > 0;
+        return WaitingRoomTicket.builder()
+                .ticket(ticket.id)
+                .status(isAdmitted ? WaitingRoomStatus.ADMITTED : WaitingRoomStatus.WAITING)
+                .position(isAdmitted ? 0 : ticket.sequence - passed)
+                .pollAfterSeconds(pollInterval.getSeconds())
+                .admittedForSeconds(isAdmitted ? TimeUnit.MILLISECONDS.toSeconds(ticket.admittedUntil - now) : 0)
+                .build();
+    }
+
+    private WaitingRoomTicket open() {
+        return WaitingRoomTicket.builder()
+                .status(WaitingRoomStatus.ADMITTED)
+                .pollAfterSeconds(pollInterval.getSeconds())
+                .build();
+    }
+
+    private static boolean send(SseEmitter emitter, WaitingRoomTicket position) {
+        try {
+            emitter.send(SseEmitter.event().name("position").data(position));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // the client went away, it polls or subscribes again if it still waits
+            log.debug("Could not push the waiting room position", e);
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static final class Ticket {
+        final String id;
+        final String email;
+        final long sequence;
+        // guarded by the waiting room
+        long lastSeen;
+        long admittedUntil;
+
+        Ticket(String id, String email, long sequence, long lastSeen) {
+            this.id = id;
+            this.email = email;
+            this.sequence = sequence;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
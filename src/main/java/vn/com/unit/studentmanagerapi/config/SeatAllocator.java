@@ -0,0 +1,531 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.com.unit.studentmanagerapi.entity.RegistrationSubjectID;
+import vn.com.unit.studentmanagerapi.entity.Subject;
+import vn.com.unit.studentmanagerapi.entity.enums.CourseID;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.exception.ServiceBusyException;
+import vn.com.unit.studentmanagerapi.repository.RegistrationSubjectRepository;
+import vn.com.unit.studentmanagerapi.repository.SubjectRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Optional in-memory seat allocation for registration rush hours. Subjects
+ * are sharded over single-threaded lanes that own their seat counts, so
+ * registrations for a popular subject queue in memory instead of on its
+ * {@code bus_subject} row. Per-student course counters, shared by the lanes,
+ * enforce {@code subject-limit-for-course}.
+ * <p>
+ * Decisions are written to the database in batches by one background writer,
+ * in the order they were made; one the database refuses is undone in memory.
+ * A batch that fails because the database cannot be reached goes back to the
+ * head of the queue and is tried again. Shutdown writes what is still queued
+ * once the web server stopped taking requests, before the data source closes.
+ * The database checks the seats and the course limit again for every grant.
+ * The state is rebuilt from the registrations on startup. Until then
+ * registration is refused, since a registration written to the database
+ * meanwhile could be missed by the load. Subjects it does not track go to
+ * the database directly.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SeatAllocator implements MeterBinder, SmartLifecycle {
+    // stops after the web server, whose graceful shutdown lets granting requests finish
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    static final Duration PERSIST_RETRY_DELAY = Duration.ofSeconds(1);
+    static final int SHUTDOWN_PERSIST_ATTEMPTS = 3;
+
+    SubjectRepository subjectRepository;
+    RegistrationSubjectRepository registrationSubjectRepository;
+    TransactionTemplate transactionTemplate;
+    int subjectLimitForCourse;
+    int persistBatchSize;
+    Duration retryAfter;
+    // null when the allocator is disabled
+    ThreadPoolExecutor[] lanes;
+    Thread writer;
+
+    // each entry is only touched by the lane of its subject
+    Map<Long, Seats> subjects = new ConcurrentHashMap<>();
+    // registrations per student and course, updated from every lane
+    Map<String, AtomicInteger> courseCounts = new ConcurrentHashMap<>();
+    // a batch that could not be written goes back to the head
+    BlockingDeque<Allocation> unpersisted = new LinkedBlockingDeque<>();
+    Map<Decision, LongAdder> decisions = new EnumMap<>(Decision.class);
+    LongAdder rejected = new LongAdder();
+    LongAdder persistFailed = new LongAdder();
+
+    @NonFinal
+    volatile boolean ready;
+    @NonFinal
+    volatile boolean running;
+    @NonFinal
+    volatile boolean stopped;
+
+    public enum Decision {
+        GRANTED, RELEASED, FULL, LIMIT_EXCEEDED, ALREADY_REGISTERED, NOT_REGISTERED,
+        // the subject is not tracked, the caller falls back to the database
+        UNTRACKED
+    }
+
+    // lazy, the meter registry binds this before the data source is ready
+    public SeatAllocator(GlobalValue config,
+                         @Lazy SubjectRepository subjectRepository,
+                         @Lazy RegistrationSubjectRepository registrationSubjectRepository,
+                         @Lazy PlatformTransactionManager transactionManager) {
+        this.subjectRepository = subjectRepository;
+        this.registrationSubjectRepository = registrationSubjectRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.subjectLimitForCourse = config.getSubjectLimitForCourse();
+        this.persistBatchSize = Math.max(1, config.getRegistrationAllocatorPersistBatchSize());
+        this.retryAfter = config.getRegistrationAllocatorRetryAfter();
+        for (Decision decision : Decision.values()) {
+            decisions.put(decision, new LongAdder());
+        }
+
+        if (!config.isRegistrationAllocatorEnabled()) {
+            this.lanes = null;
+            this.writer = null;
+            return;
+        }
+        this.lanes = new ThreadPoolExecutor[Math.max(1, config.getRegistrationAllocatorLanes())];
+        for (int i = 0; i < lanes.length; i++) {
+            String name = "seat-lane-" + (i + 1);
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(config.getRegistrationAllocatorQueueCapacity()),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        this.writer = new Thread(this::writeLoop, "seat-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public boolean isEnabled() {
+        return lanes != null;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Refuses a registration while the allocator is enabled but not loaded yet.
+     */
+    public void checkLoaded() {
+        if (isEnabled() && !ready) {
+            rejected.increment();
+            throw new ServiceBusyException(ErrorCode.REGISTRATION_BUSY, retryAfter);
+        }
+    }
+
+    /**
+     * Rebuilds the seat counts from every subject and registration. Seats are
+     * counted from the registrations rather than read from
+     * {@code number_of_availability}.
+     */
+    public void load(Iterable<Subject> allSubjects, Collection<RegistrationSubjectID> registrations) {
+        if (!isEnabled()) return;
+
+        Map<Long, Seats> loaded = new HashMap<>();
+        for (Subject subject : allSubjects) {
+            loaded.put(subject.getSubjectID(), new Seats(subject.getCourseID(), subject.getNumberOfStudent()));
+        }
+        Map<String, AtomicInteger> counts = new HashMap<>();
+        for (RegistrationSubjectID registration : registrations) {
+            Seats seats = loaded.get(registration.getSubjectID());
+            if (seats == null || !seats.students.add(registration.getStudentID())) continue;
+            counts.computeIfAbsent(courseKey(registration.getStudentID(), seats.courseID), key -> new AtomicInteger())
+                    .incrementAndGet();
+        }
+
+        subjects.putAll(loaded);
+        courseCounts.putAll(counts);
+        ready = true;
+        log.info("Seat allocator loaded {} subjects and {} registrations", loaded.size(), registrations.size());
+    }
+
+    /**
+     * Starts tracking a subject created after the allocator was loaded.
+     */
+    public void track(Subject subject) {
+        if (!ready) return;
+        onLane(subject.getSubjectID(), () -> subjects.putIfAbsent(subject.getSubjectID(),
+                new Seats(subject.getCourseID(), subject.getNumberOfStudent())));
+    }
+
+    /**
+     * Moves the registrations of a subject to the course counters of
+     * {@code courseID}.
+     */
+    public void changeCourse(long subjectID, CourseID courseID) {
+        if (!ready) return;
+        onLane(subjectID, () -> {
+            Seats seats = subjects.get(subjectID);
+            if (seats == null || seats.courseID == courseID) return null;
+            for (Long studentID : seats.students) {
+                courseCount(studentID, seats.courseID).decrementAndGet();
+                courseCount(studentID, courseID).incrementAndGet();
+            }
+            seats.courseID = courseID;
+            return null;
+        });
+    }
+
+    public Decision allocate(long subjectID, long studentID, String updateBy) {
+        return count(onLane(subjectID, () -> grant(subjectID, studentID, updateBy)));
+    }
+
+    public Decision release(long subjectID, long studentID, String updateBy) {
+        return count(onLane(subjectID, () -> cancel(subjectID, studentID, updateBy)));
+    }
+
+    // for tests, -1 for a subject that is not tracked
+    int availableSeats(long subjectID) {
+        return onLane(subjectID, () -> {
+            Seats seats = subjects.get(subjectID);
+            return seats == null ? -1 : seats.available();
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!isEnabled()) return;
+        decisions.forEach((decision, counter) ->
+                FunctionCounter.builder("registration.allocator.decisions", counter, LongAdder::sum)
+                        .tag("result", decision.name().toLowerCase())
+                        .register(registry));
+        Gauge.builder("registration.allocator.queued", lanes,
+                        pools -> Arrays.stream(pools).mapToInt(pool -> pool.getQueue().size()).sum())
+                .register(registry);
+        Gauge.builder("registration.allocator.unpersisted", unpersisted, BlockingQueue::size).register(registry);
+        FunctionCounter.builder("registration.allocator.rejected", rejected, LongAdder::sum).register(registry);
+        FunctionCounter.builder("registration.allocator.persist.failed", persistFailed, LongAdder::sum).register(registry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Stops taking decisions and writes the ones not yet persisted. Runs
+     * before the singletons, the data source among them, are destroyed.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (!isEnabled() || stopped) return;
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ThreadPoolExecutor lane : lanes) {
+                lane.awaitTermination(5, TimeUnit.SECONDS);
+            }
+            // not interrupted, that could fail the batch it is writing
+            stopped = true;
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            stopped = true;
+            Thread.currentThread().interrupt();
+        }
+
+        List<Allocation> batch = new ArrayList<>(persistBatchSize);
+        int failures = 0;
+        while (failures < SHUTDOWN_PERSIST_ATTEMPTS && unpersisted.drainTo(batch, persistBatchSize) > 0) {
+            if (!persist(batch) && ++failures < SHUTDOWN_PERSIST_ATTEMPTS) pause();
+            batch.clear();
+        }
+        if (!unpersisted.isEmpty()) {
+            log.error("Could not persist {} seat allocations before shutting down", unpersisted.size());
+        }
+    }
+
+    // runs on the lane of the subject
+    private Decision grant(long subjectID, long studentID, String updateBy) {
+        Seats seats = subjects.get(subjectID);
+        if (seats == null) return Decision.UNTRACKED;
+        if (seats.students.contains(studentID)) return Decision.ALREADY_REGISTERED;
+        if (seats.available() == 0) return Decision.FULL;
+
+        AtomicInteger count = courseCount(studentID, seats.courseID);
+        int current;
+        do {
+            current = count.get();
+            if (current >= subjectLimitForCourse) return Decision.LIMIT_EXCEEDED;
+        } while (!count.compareAndSet(current, current + 1));
+
+        seats.students.add(studentID);
+        unpersisted.add(new Allocation(subjectID, studentID, updateBy, true));
+        return Decision.GRANTED;
+    }
+
+    // runs on the lane of the subject
+    private Decision cancel(long subjectID, long studentID, String updateBy) {
+        Seats seats = subjects.get(subjectID);
+        if (seats == null) return Decision.UNTRACKED;
+        if (!seats.students.remove(studentID)) return Decision.NOT_REGISTERED;
+
+        courseCount(studentID, seats.courseID).decrementAndGet();
+        unpersisted.add(new Allocation(subjectID, studentID, updateBy, false));
+        return Decision.RELEASED;
+    }
+
+    // runs on the lane of the subject
+    private void undo(Allocation allocation) {
+        Seats seats = subjects.get(allocation.subjectID);
+        if (seats == null) return;
+        if (allocation.grant && seats.students.remove(allocation.studentID)) {
+            courseCount(allocation.studentID, seats.courseID).decrementAndGet();
+        } else if (!allocation.grant && seats.students.add(allocation.studentID)) {
+            courseCount(allocation.studentID, seats.courseID).incrementAndGet();
+        }
+    }
+
+    private <T> T onLane(long subjectID, Supplier<T> task) {
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(task, laneOf(subjectID));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException(ErrorCode.REGISTRATION_BUSY, retryAfter);
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    private Decision count(Decision decision) {
+        decisions.get(decision).increment();
+        return decision;
+    }
+
+    private void writeLoop() {
+        List<Allocation> batch = new ArrayList<>(persistBatchSize);
+        while (!stopped) {
+            try {
+                // wakes up now and then to notice stop()
+                Allocation first = unpersisted.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // stop() writes what is left
+                Thread.currentThread().interrupt();
+                return;
+            }
+            unpersisted.drainTo(batch, persistBatchSize - 1);
+            boolean persisted = persist(batch);
+            batch.clear();
+            if (!persisted && !pause()) return;
+        }
+    }
+
+    // false if the batch, or what is left of it, went back to the queue
+    private boolean persist(List<Allocation> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeAll(batch));
+            return true;
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                log.warn("Could not persist {} seat allocations, the database is unavailable", batch.size(), e);
+                requeue(batch);
+                return false;
+            }
+            log.warn("Could not persist {} seat allocations together, retrying one by one", batch.size(), e);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Allocation allocation = batch.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(allocation));
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) {
+                    log.warn("Could not persist {} seat allocations, the database is unavailable", batch.size() - i, e);
+                    requeue(batch.subList(i, batch.size()));
+                    return false;
+                }
+                persistFailed.increment();
+                log.error("Could not persist {} of subject {} for student {}, undoing it",
+                        allocation.grant ? "grant" : "release", allocation.subjectID, allocation.studentID, e);
+                submitUndo(allocation);
+            }
+        }
+        return true;
+    }
+
+    // back to the head, ahead of the decisions made after them
+    private void requeue(List<Allocation> allocations) {
+        for (int i = allocations.size() - 1; i >= 0; i--) {
+            unpersisted.addFirst(allocations.get(i));
+        }
+    }
+
+    // false if interrupted
+    private boolean pause() {
+        try {
+            Thread.sleep(PERSIST_RETRY_DELAY.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // failures worth retrying: no connection, or a lock or deadlock that may clear
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof CannotCreateTransactionException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransientDataAccessException;
+    }
+
+    // rows in the order of the decisions, the course limit depends on it; seat rows in subject
+    // order like the other writers lock them, the stable sort keeps the order on each subject
+    private void writeAll(List<Allocation> allocations) {
+        List<Allocation> seatChanges = new ArrayList<>(allocations.size());
+        for (Allocation allocation : allocations) {
+            if (writeRow(allocation)) seatChanges.add(allocation);
+        }
+        seatChanges.sort(Comparator.comparingLong(allocation -> allocation.subjectID));
+        seatChanges.forEach(this::writeSeat);
+    }
+
+    private void write(Allocation allocation) {
+        if (writeRow(allocation)) writeSeat(allocation);
+    }
+
+    // returns whether the seats of the subject change with it
+    private boolean writeRow(Allocation allocation) {
+        if (!allocation.grant) {
+            return registrationSubjectRepository.deleteById(allocation.subjectID, allocation.studentID);
+        }
+        // checked by the database too, only fails if the in-memory state missed a registration
+        if (!registrationSubjectRepository.insert(allocation.subjectID, allocation.studentID,
+                allocation.updateBy, subjectLimitForCourse)) {
+            throw new IllegalStateException("Course limit reached for student " + allocation.studentID);
+        }
+        return true;
+    }
+
+    private void writeSeat(Allocation allocation) {
+        if (!allocation.grant) {
+            subjectRepository.releaseSeat(allocation.subjectID);
+        } else if (!subjectRepository.claimSeat(allocation.subjectID)) {
+            // only fails if a registration went to the database directly meanwhile
+            throw new IllegalStateException("No seat left in subject " + allocation.subjectID);
+        }
+    }
+
+    private void submitUndo(Allocation allocation) {
+        ThreadPoolExecutor lane = laneOf(allocation.subjectID);
+        while (!lane.isShutdown()) {
+            try {
+                lane.execute(() -> undo(allocation));
+                return;
+            } catch (RejectedExecutionException e) {
+                // a full lane drains within milliseconds
+                Thread.yield();
+            }
+        }
+    }
+
+    private ThreadPoolExecutor laneOf(long subjectID) {
+        return lanes[(int) Math.floorMod(subjectID, (long) lanes.length)];
+    }
+
+    private AtomicInteger courseCount(long studentID, CourseID courseID) {
+        return courseCounts.computeIfAbsent(courseKey(studentID, courseID), key -> new AtomicInteger());
+    }
+
+    private static String courseKey(long studentID, CourseID courseID) {
+        return studentID + ":" + courseID;
+    }
+
+    private static final class Seats {
+        final Set<Long> students = new HashSet<>();
+        CourseID courseID;
+        int capacity;
+
+        Seats(CourseID courseID, int capacity) {
+            this.courseID = courseID;
+            this.capacity = capacity;
+        }
+
+        int available() {
+            return Math.max(0, capacity - students.size());
+        }
+    }
+
+    private static final class Allocation {
+        final long subjectID;
+        final long studentID;
+        final String updateBy;
+        // false for a released seat
+        final boolean grant;
+
+        Allocation(long subjectID, long studentID, String updateBy, boolean grant) {
+            this.subjectID = subjectID;
+            this.studentID = studentID;
+            this.updateBy = updateBy;
+            this.grant = grant;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import vn.com.unit.studentmanagerapi.entity.Student;
+import vn.com.unit.studentmanagerapi.util.BkTree;
+import vn.com.unit.studentmanagerapi.util.PrefixTrie;
+import vn.com.unit.studentmanagerapi.util.TrigramIndex;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory indexes over the names of the students that are not soft-deleted:
+ * a trigram index so {@code /students/search} resolves matches without a
+ * table scan, a BK-tree for its fuzzy mode, and a prefix trie for
+ * {@code /students/suggest}.
+ * Until the indexes are loaded callers fall back to the {@code LIKE} query.
+ * Students created, renamed or deleted on other nodes are applied by
+ * {@link #refresh}.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class StudentNameIndex implements MeterBinder {
+    GlobalValue config;
+
+    @NonFinal
+    volatile Indexes indexes;
+    // changes made while a load is running, a null student marks a removal; guarded by this
+    @NonFinal
+    Map<Long, Student> pending;
+    // start of the last load or refresh, null until loaded
+    @NonFinal
+    volatile LocalDateTime loadedAt;
+
+    public StudentNameIndex(GlobalValue config) {
+        this.config = config;
+    }
+
+    public boolean isLoaded() {
+        return indexes != null;
+    }
+
+    /**
+     * Indexes the id, name and email of {@code student}, replacing what was
+     * indexed for the same id.
+     */
+    public synchronized void put(Student student) {
+        Student entry = Student.builder()
+                .studentID(student.getStudentID())
+                .fullName(student.getFullName())
+                .email(student.getEmail())
+                .build();
+        if (indexes != null) indexes.put(entry);
+        if (pending != null) pending.put(entry.getStudentID(), entry);
+    }
+
+    public synchronized void remove(Long studentId) {
+        if (indexes != null) indexes.remove(studentId);
+        if (pending != null) pending.put(studentId, null);
+    }
+
+    /**
+     * Returns one page of the ids whose name contains {@code name}, in the
+     * order of their folded names.
+     */
+    public List<Long> search(String name, int offset, int limit) {
+        List<Long> matches = indexes.names.search(name);
+        if (offset >= matches.size()) return Collections.emptyList();
+        return matches.subList(offset, (int) Math.min(matches.size(), (long) offset + limit));
+    }
+
+    /**
+     * Keyset variant of {@link #search}: up to {@code limit} ids following the
+     * student named {@code afterName}, folded here, with id {@code afterId}.
+     */
+    public List<Long> searchAfter(String name, String afterName, long afterId, int limit) {
+        return indexes.names.searchAfter(name, afterName, afterId, limit);
+    }
+
+    /**
+     * Returns one page of the ids whose folded name is within
+     * {@code maxDistance} edits of the folded {@code name}, closest first.
+     */
+    public List<Long> fuzzySearch(String name, int maxDistance, int offset, int limit) {
+        List<BkTree.Match> matches = indexes.fuzzy.search(TrigramIndex.fold(name), maxDistance);
+        if (offset >= matches.size()) return Collections.emptyList();
+        return matches.subList(offset, (int) Math.min(matches.size(), (long) offset + limit)).stream()
+                .map(BkTree.Match::getId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns up to {@code limit} students with a name word starting with
+     * {@code prefix}, as entries holding only the id, name and email.
+     */
+    public List<Student> suggest(String prefix, int limit) {
+        Indexes current = indexes;
+        return current.prefixes.collect(TrigramIndex.fold(prefix), limit).stream()
+                .map(current.students::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Replaces the indexes with ones built from {@code students}. Changes made
+     * while the supplier runs are replayed on top of them.
+     */
+    public void load(Supplier<Collection<Student>> students) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        synchronized (this) {
+            pending = new LinkedHashMap<>();
+        }
+
+        Collection<Student> loaded = students.get();
+        Indexes next = new Indexes();
+        loaded.forEach(next::put);
+
+        synchronized (this) {
+            pending.forEach((studentId, student) -> {
+                if (student != null) next.put(student);
+                else next.remove(studentId);
+            });
+            pending = null;
+            indexes = next;
+        }
+        loadedAt = startedAt;
+        log.info("Student name index loaded with {} students, {} trigrams, {} prefix keys and {} distinct names",
+                next.students.size(), next.names.gramCount(), next.prefixes.size(), next.fuzzy.nodeCount());
+    }
+
+    /**
+     * Applies the students created, updated or soft-deleted since the previous
+     * load or refresh, less {@code refresh-overlap}: a row only becomes visible
+     * when its transaction commits, and its {@code update_at} comes from the
+     * clock of the node that wrote it. Does nothing until the indexes are loaded.
+     */
+    public void refresh(Function<LocalDateTime, Collection<Student>> studentsChangedSince) {
+        LocalDateTime since = loadedAt;
+        if (since == null) return;
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        Collection<Student> changed = studentsChangedSince.apply(since.minus(config.getStudentNameIndexRefreshOverlap()));
+        synchronized (this) {
+            changed.forEach(student -> {
+                if (student.isDeleted()) remove(student.getStudentID());
+                else put(student);
+            });
+        }
+        loadedAt = startedAt;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("student.name-index.size", this, nameIndex -> nameIndex.isLoaded() ? nameIndex.indexes.students.size() : 0)
+                .description("Students in the in-memory name index")
+                .register(registry);
+    }
+
+    /**
+     * Keys of the prefix trie: the folded name from the start of every word,
+     * so "nguyen van an" is found by "ng", "va" and "an".
+     */
+    static List<String> prefixKeys(String fullName) {
+        String folded = TrigramIndex.fold(fullName);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < folded.length(); i++) {
+            if (i == 0 || folded.charAt(i - 1) == ' ') keys.add(folded.substring(i));
+        }
+        return keys;
+    }
+
+    // writes are serialized by the enclosing component
+    private static final class Indexes {
+        final Map<Long, Student> students = new ConcurrentHashMap<>();
+        final TrigramIndex names = new TrigramIndex();
+        final PrefixTrie prefixes = new PrefixTrie();
+        final BkTree fuzzy = new BkTree();
+
+        void put(Student student) {
+            Long studentId = student.getStudentID();
+            Student previous = students.put(studentId, student);
+            if (previous != null) {
+                prefixKeys(previous.getFullName()).forEach(key -> prefixes.remove(key, studentId));
+                fuzzy.remove(TrigramIndex.fold(previous.getFullName()), studentId);
+            }
+            names.put(studentId, student.getFullName());
+            prefixKeys(student.getFullName()).forEach(key -> prefixes.put(key, studentId));
+            fuzzy.put(TrigramIndex.fold(student.getFullName()), studentId);
+        }
+
+        void remove(Long studentId) {
+            Student previous = students.remove(studentId);
+            if (previous == null) return;
+            names.remove(studentId);
+            prefixKeys(previous.getFullName()).forEach(key -> prefixes.remove(key, studentId));
+            fuzzy.remove(TrigramIndex.fold(previous.getFullName()), studentId);
+        }
+    }
+}
@@ -8,8 +8,11 @@ import io.swagger.v3.oas.annotations.servers.Server;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.Page;
 import vn.com.unit.studentmanagerapi.dto.response.ApiResponse;
+import vn.com.unit.studentmanagerapi.dto.response.SubjectRegistrationResult;
+import vn.com.unit.studentmanagerapi.dto.response.WaitingRoomTicket;
 import vn.com.unit.studentmanagerapi.entity.Subject;
 
+import java.util.List;
 import java.util.Optional;
 
 @Configuration
@@ -30,5 +33,7 @@ public class SwaggerConfig {
         public static class ApiResponseBoolean extends ApiResponse<Boolean> {}
         public static class ApiResponseOptionalSubject extends ApiResponse<Optional<Subject>> {}
         public static class ApiResponsePageSubject extends ApiResponse<Page<Subject>> {}
+        public static class ApiResponseRegistrationResults extends ApiResponse<List<SubjectRegistrationResult>> {}
+        public static class ApiResponseWaitingRoomTicket extends ApiResponse<WaitingRoomTicket> {}
         public static class ApiResponseString extends ApiResponse<String> {}
 }
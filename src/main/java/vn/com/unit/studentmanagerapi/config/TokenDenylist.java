@@ -0,0 +1,103 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+import vn.com.unit.studentmanagerapi.util.BloomFilter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the revoked tokens stored in {@code common_revoked_token}.
+ * Single tokens are checked through a Bloom filter first, so a token that was
+ * never revoked is cleared without touching the exact set.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TokenDenylist implements MeterBinder {
+    final GlobalValue config;
+    // token digest -> exp of the token in millis
+    final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // email -> revocation time in millis, tokens issued up to then are rejected
+    final Map<String, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    volatile BloomFilter filter;
+
+    public TokenDenylist(GlobalValue config) {
+        this.config = config;
+        this.filter = newFilter(0);
+    }
+
+    public boolean isRevoked(String tokenDigest) {
+        return filter.mightContain(tokenDigest) && revokedTokens.containsKey(tokenDigest);
+    }
+
+    /**
+     * Whether a token of {@code email} issued at {@code issuedAt}, in millis,
+     * was revoked with all tokens of the user. For tokens without
+     * {@code iat_ms} the caller passes the start of their {@code iat} second.
+     */
+    public boolean isRevoked(String email, long issuedAt) {
+        Long revokedAt = revokedUsers.get(email);
+        return revokedAt != null && issuedAt <= revokedAt;
+    }
+
+    public synchronized void addToken(String tokenDigest, long expiresAt) {
+        if (revokedTokens.put(tokenDigest, expiresAt) != null) return;
+        filter.put(tokenDigest);
+        if (filter.insertionCount() > filter.expectedInsertions()) rebuild();
+    }
+
+    public void addUser(String email, long revokedAt) {
+        revokedUsers.merge(email, revokedAt, Math::max);
+    }
+
+    /**
+     * Drops tokens past their {@code exp} and user revocations older than the
+     * token lifetime, then rebuilds the filter if anything was removed.
+     */
+    public synchronized void removeExpired(long now) {
+        boolean removed = revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        long issuedAfter = now - config.getExpiration().toMillis();
+        revokedUsers.values().removeIf(revokedAt -> revokedAt < issuedAfter);
+        if (removed) rebuild();
+    }
+
+    /**
+     * Recreates the Bloom filter from the exact set, dropping the bits of
+     * removed tokens and resizing it for the current number of revocations.
+     */
+    public synchronized void rebuild() {
+        BloomFilter rebuilt = newFilter(revokedTokens.size());
+        revokedTokens.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    public synchronized void clear() {
+        revokedTokens.clear();
+        revokedUsers.clear();
+        filter = newFilter(0);
+    }
+
+    public int size() {
+        return revokedTokens.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("jwt.denylist.tokens", revokedTokens, Map::size).register(registry);
+        Gauge.builder("jwt.denylist.users", revokedUsers, Map::size).register(registry);
+        Gauge.builder("jwt.denylist.filter.fpp", this, denylist -> denylist.filter.expectedFalsePositiveProbability())
+                .register(registry);
+    }
+
+    private BloomFilter newFilter(int size) {
+        // leave room to grow before the next rebuild
+        long capacity = Math.max(config.getJwtDenylistCapacity(), size * 2L);
+        return new BloomFilter(capacity, config.getJwtDenylistFalsePositiveRate());
+    }
+}
@@ -0,0 +1,49 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+import vn.com.unit.studentmanagerapi.entity.Account;
+import vn.com.unit.studentmanagerapi.util.ConcurrentLruCache;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Accounts loaded for authentication, keyed by email.
+ * {@code Optional.empty()} is kept as a negative entry for unknown or
+ * soft-deleted accounts.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserDetailsCache implements MeterBinder {
+    ConcurrentLruCache<String, Optional<Account>> cache;
+
+    public UserDetailsCache(GlobalValue config) {
+        this.cache = config.isAccountCacheEnabled()
+                ? new ConcurrentLruCache<>(config.getAccountCacheMaxSize(), config.getAccountCacheTtl())
+                : null;
+    }
+
+    public Optional<Account> get(String email, Function<String, Optional<Account>> loader) {
+        if (cache == null) return loader.apply(email);
+
+        Optional<Account> account = cache.get(email);
+        if (account == null) {
+            account = loader.apply(email);
+            cache.put(email, account);
+        }
+        return account;
+    }
+
+    public void evict(String email) {
+        if (cache != null) cache.invalidate(email);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) cache.bindTo(registry, "account.user-details");
+    }
+}
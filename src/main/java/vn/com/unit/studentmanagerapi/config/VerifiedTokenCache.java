@@ -0,0 +1,54 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import vn.com.unit.studentmanagerapi.util.ConcurrentLruCache;
+
+import java.util.Date;
+
+/**
+ * Remembers the authentication built for tokens that were already verified,
+ * keyed by the SHA-256 digest of the token (see {@link JwtTokenProvider#digest})
+ * so raw tokens are never retained.
+ * An entry never outlives the {@code exp} of its token.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class VerifiedTokenCache implements MeterBinder {
+    ConcurrentLruCache<String, Authentication> cache;
+
+    public VerifiedTokenCache(GlobalValue config) {
+        this.cache = config.isJwtCacheEnabled()
+                ? new ConcurrentLruCache<>(config.getJwtCacheMaxSize(), config.getJwtCacheTtl())
+                : null;
+    }
+
+    public Authentication get(String tokenDigest) {
+        return cache != null ? cache.get(tokenDigest) : null;
+    }
+
+    public void put(String tokenDigest, Authentication authentication, Date expiration) {
+        if (cache != null) cache.put(tokenDigest, authentication, expiration.getTime());
+    }
+
+    public void invalidateToken(String tokenDigest) {
+        if (cache != null) cache.invalidate(tokenDigest);
+    }
+
+    public void invalidate(String email) {
+        if (cache != null) cache.invalidateIf((digest, authentication) -> email.equals(authentication.getName()));
+    }
+
+    public void invalidateAll() {
+        if (cache != null) cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) cache.bindTo(registry, "jwt.verified-token");
+    }
+}
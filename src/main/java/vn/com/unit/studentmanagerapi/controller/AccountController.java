@@ -6,7 +6,6 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -14,6 +13,9 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import vn.com.unit.studentmanagerapi.annotation.security.Authorize;
+import vn.com.unit.studentmanagerapi.config.JwtTokenProvider;
+import vn.com.unit.studentmanagerapi.config.LoginRateLimiter;
 import vn.com.unit.studentmanagerapi.dto.request.AccountCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.AccountUpdateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.LoginRequest;
@@ -21,6 +23,7 @@ import vn.com.unit.studentmanagerapi.dto.response.AccountResponse;
 import vn.com.unit.studentmanagerapi.dto.response.ApiResponse;
 import vn.com.unit.studentmanagerapi.service.AccountService;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 @RestController
@@ -31,10 +34,13 @@ import javax.validation.Valid;
 @SecurityRequirement(name = "bearerAuth")
 public class AccountController {
     AccountService accountService;
+    JwtTokenProvider jwtTokenProvider;
+    LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/login")
     @Operation(summary = "Đăng nhập")
-    ApiResponse<String> login(@RequestBody @Valid LoginRequest request) {
+    ApiResponse<String> login(@RequestBody @Valid LoginRequest request, HttpServletRequest httpRequest) {
+        loginRateLimiter.check(request.getEmail(), httpRequest.getRemoteAddr());
         return ApiResponse.<String>builder()
                 .data(accountService.login(request))
                 .build();
@@ -42,7 +48,7 @@ public class AccountController {
 
     @PostMapping
     @Operation(summary = "Tạo tài khoản", description = "Chỉ admin mới có thể thực hiện")
-    @PreAuthorize("hasAuthority('ADMIN')")
+    @Authorize("hasAuthority('ADMIN')")
     ApiResponse<AccountResponse> createAccount(@RequestBody @Valid AccountCreateRequest request) {
         return ApiResponse.<AccountResponse>builder()
                 .data(accountService.createAccount(request))
@@ -51,7 +57,7 @@ public class AccountController {
 
     @PutMapping("/{email}")
     @Operation(summary = "Đổi mật khẩu")
-    @PreAuthorize("hasAuthority('ADMIN') or principal.username == #email")
+    @Authorize("hasAuthority('ADMIN') or principal.username == #email")
     ApiResponse<AccountResponse> changePassword(
             @PathVariable("email") String email,
             @RequestBody @Valid AccountUpdateRequest request
@@ -62,9 +68,26 @@ public class AccountController {
                 .build();
     }
 
+    @PostMapping("/logout")
+    @Operation(summary = "Đăng xuất", description = "Thu hồi token đang sử dụng")
+    ApiResponse<String> logout(HttpServletRequest request) {
+        return ApiResponse.<String>builder()
+                .message(accountService.logout(jwtTokenProvider.resolveToken(request)))
+                .build();
+    }
+
+    @PostMapping("/{email}/revoke-tokens")
+    @Operation(summary = "Thu hồi toàn bộ token của tài khoản", description = "Chỉ admin mới có thể thực hiện")
+    @Authorize("hasAuthority('ADMIN')")
+    ApiResponse<String> revokeTokens(@PathVariable("email") String email) {
+        return ApiResponse.<String>builder()
+                .message(accountService.revokeTokens(email))
+                .build();
+    }
+
     @DeleteMapping("/{email}")
     @Operation(summary = "Xóa tài khoản", description = "Chỉ admin mới có thể thực hiện")
-    @PreAuthorize("hasAuthority('ADMIN')")
+    @Authorize("hasAuthority('ADMIN')")
     ApiResponse<String> deleteAccount(@PathVariable("email") String email) {
         return ApiResponse.<String>builder()
                 .message(accountService.deleteAccount(email))
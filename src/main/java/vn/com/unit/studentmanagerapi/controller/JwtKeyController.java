@@ -0,0 +1,71 @@
+package vn.com.unit.studentmanagerapi.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import vn.com.unit.studentmanagerapi.annotation.security.Authorize;
+import vn.com.unit.studentmanagerapi.config.JwtKeyRing;
+import vn.com.unit.studentmanagerapi.dto.request.JwtKeyCreateRequest;
+import vn.com.unit.studentmanagerapi.dto.response.ApiResponse;
+
+import javax.validation.Valid;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/jwt-keys")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Tag(name = "Quản lý khóa ký token")
+@SecurityRequirement(name = "bearerAuth")
+public class JwtKeyController {
+    JwtKeyRing jwtKeyRing;
+
+    @GetMapping
+    @Operation(summary = "Danh sách khóa", description = "Chỉ admin mới có thể thực hiện")
+    @Authorize("hasAuthority('ADMIN')")
+    ApiResponse<Set<String>> getKeyIds() {
+        return ApiResponse.<Set<String>>builder()
+                .message(jwtKeyRing.getActiveKeyId())
+                .data(jwtKeyRing.getKeyIds())
+                .build();
+    }
+
+    @PostMapping
+    @Operation(summary = "Thêm khóa", description = "Chỉ admin mới có thể thực hiện")
+    @Authorize("hasAuthority('ADMIN')")
+    ApiResponse<Set<String>> addKey(@RequestBody @Valid JwtKeyCreateRequest request) {
+        jwtKeyRing.addKey(request.getKeyId(), request.getSecret());
+        if (request.isActivate()) jwtKeyRing.activate(request.getKeyId());
+
+        return getKeyIds();
+    }
+
+    @PutMapping("/{keyId}/active")
+    @Operation(summary = "Dùng khóa để ký token", description = "Chỉ admin mới có thể thực hiện")
+    @Authorize("hasAuthority('ADMIN')")
+    ApiResponse<Set<String>> activateKey(@PathVariable("keyId") String keyId) {
+        jwtKeyRing.activate(keyId);
+
+        return getKeyIds();
+    }
+
+    @DeleteMapping("/{keyId}")
+    @Operation(summary = "Thu hồi khóa", description = "Chỉ admin mới có thể thực hiện")
+    @Authorize("hasAuthority('ADMIN')")
+    ApiResponse<Set<String>> retireKey(@PathVariable("keyId") String keyId) {
+        jwtKeyRing.retire(keyId);
+
+        return getKeyIds();
+    }
+}
@@ -7,8 +7,13 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -18,11 +23,18 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import vn.com.unit.studentmanagerapi.annotation.security.Authorize;
+import vn.com.unit.studentmanagerapi.config.GlobalValue;
+import vn.com.unit.studentmanagerapi.dto.enums.StudentSearchMode;
 import vn.com.unit.studentmanagerapi.dto.request.StudentCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.StudentUpdateRequest;
 import vn.com.unit.studentmanagerapi.dto.response.ApiResponse;
+import vn.com.unit.studentmanagerapi.dto.response.CursorSlice;
+import vn.com.unit.studentmanagerapi.dto.response.StudentAvatar;
 import vn.com.unit.studentmanagerapi.dto.response.StudentResponse;
+import vn.com.unit.studentmanagerapi.dto.response.StudentSuggestion;
 import vn.com.unit.studentmanagerapi.service.StudentService;
 
 import javax.validation.Valid;
@@ -39,9 +51,10 @@ import java.util.List;
 public class StudentController {
 
     StudentService studentService;
+    GlobalValue globalValue;
 
     @PostMapping
-    @PreAuthorize("hasAuthority('ADMIN')")
+    @Authorize("hasAuthority('ADMIN')")
     @Operation(summary = "Tạo thông tin sinh viên", description = "Chỉ admin mới có thể thực hiện")
     ApiResponse<StudentResponse> createStudent(@RequestBody @Valid StudentCreateRequest request) {
         return ApiResponse.<StudentResponse>builder()
@@ -50,7 +63,7 @@ public class StudentController {
     }
 
     @PostMapping("upload/{email}")
-    @PreAuthorize("hasAuthority('ADMIN') or principal.username == #email")
+    @Authorize("hasAuthority('ADMIN') or principal.username == #email")
     @Operation(summary = "Upload ảnh")
     ApiResponse<StudentResponse> uploadPhoto(
             @PathVariable("email") String email,
@@ -62,9 +75,45 @@ public class StudentController {
                 .build();
     }
 
+    @GetMapping("/{id}/avatar")
+    @Operation(summary = "Lấy ảnh đại diện của sinh viên",
+            description = "Trả về ảnh kèm ETag, size chọn ảnh thu nhỏ (trả ảnh gốc khi chưa tạo xong). " +
+                    "URL có tham số v trùng với avatarHash được cache vĩnh viễn")
+    @Authorize("hasAuthority('ADMIN') or hasAuthority('STUDENT')")
+    ResponseEntity<Resource> getAvatar(
+            @PathVariable("id") Long studentId,
+            @RequestParam(value = "v", required = false) String version,
+            @RequestParam(value = "size", required = false) Integer size,
+            WebRequest request
+    ) {
+        // the tag alone answers revalidations without reading the image
+        String tag = studentService.getAvatarTag(studentId, size);
+        // the original stands in for a thumbnail not rendered yet and must be revalidated
+        String versionedTag = size == null ? version : version + "-" + size;
+        String cacheControl = tag.equals(versionedTag)
+                ? CacheControl.maxAge(globalValue.getAvatarMaxAge()).cachePrivate().getHeaderValue() + ", immutable"
+                : CacheControl.noCache().cachePrivate().getHeaderValue();
+        if (request.checkNotModified('"' + tag + '"')) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .build();
+        }
+
+        StudentAvatar avatar = studentService.getAvatar(studentId, size);
+        // Range requests on a Resource body are answered with 206 by Spring MVC
+        return ResponseEntity.ok()
+                .eTag(avatar.getTag())
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .header("X-Content-Type-Options", "nosniff")
+                // svg avatars must not run scripts when opened directly
+                .header("Content-Security-Policy", "default-src 'none'; style-src 'unsafe-inline'; sandbox")
+                .contentType(MediaType.parseMediaType(avatar.getContentType()))
+                .body(avatar.getContent());
+    }
+
     @PutMapping("/{email}")
     @Operation(summary = "Cập nhật thông tin sinh viên")
-    @PreAuthorize("hasAuthority('ADMIN') or principal.username == #email")
+    @Authorize("hasAuthority('ADMIN') or principal.username == #email")
     ApiResponse<StudentResponse> updateStudent(
             @PathVariable("email") String email,
             @RequestBody @Valid StudentUpdateRequest request
@@ -77,7 +126,7 @@ public class StudentController {
 
     @GetMapping("/{email}")
     @Operation(summary = "Tìm kiếm một sinh viên bằng Email")
-    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('STUDENT')")
+    @Authorize("hasAuthority('ADMIN') or hasAuthority('STUDENT')")
     ApiResponse<StudentResponse> getStudentByEmail(@PathVariable("email") String email) {
         return ApiResponse.<StudentResponse>builder()
                 .data(studentService.findStudentByEmail(email))
@@ -86,7 +135,7 @@ public class StudentController {
 
     @DeleteMapping("/{id}")
     @Operation(summary = "Xóa sinh viên bằng ID", description = "Chỉ admin mới có thể thực hiện")
-    @PreAuthorize("hasAuthority('ADMIN')")
+    @Authorize("hasAuthority('ADMIN')")
     ApiResponse<String> deleteStudentById(@PathVariable("id") Long studentId) {
         return ApiResponse.<String>builder()
                 .message(studentService.deleteStudentById(studentId))
@@ -94,29 +143,69 @@ public class StudentController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Tìm kiếm nhiều sinh viên theo tên")
-    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('STUDENT')")
+    @Operation(summary = "Tìm kiếm nhiều sinh viên theo tên",
+            description = "mode=fuzzy tìm gần đúng, cho phép sai tối đa maxDistance ký tự, trả 503 khi chỉ mục tên đang nạp. " +
+                    "Truyền cursor (rỗng cho trang đầu) để phân trang theo nextCursor thay cho page")
+    @Authorize("hasAuthority('ADMIN') or hasAuthority('STUDENT')")
     ApiResponse<List<StudentResponse>> searchStudentByName(
             @RequestParam String term,
+            @RequestParam(defaultValue = "contains") StudentSearchMode mode,
+            @RequestParam(defaultValue = "${student-manager.student.fuzzy.distance}") int maxDistance,
             @RequestParam(defaultValue = "${student-manager.paging.page}") int page,
-            @RequestParam(defaultValue = "${student-manager.paging.size}") int size
+            @RequestParam(defaultValue = "${student-manager.paging.size}") int size,
+            @RequestParam(required = false) String cursor
     ) {
+        if (mode == StudentSearchMode.fuzzy) {
+            return ApiResponse.<List<StudentResponse>>builder()
+                    .data(studentService.fuzzySearchByName(term, maxDistance, page, size))
+                    .build();
+        }
+        if (cursor != null) {
+            CursorSlice<StudentResponse> slice = studentService.searchByNameAfter(term, cursor, size);
+            return ApiResponse.<List<StudentResponse>>builder()
+                    .data(slice.getContent())
+                    .nextCursor(slice.getNextCursor())
+                    .build();
+        }
         return ApiResponse.<List<StudentResponse>>builder()
                 .data(studentService.searchByName(term, page, size))
                 .build();
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "Gợi ý sinh viên theo tiền tố của tên",
+            description = "Chỉ admin mới có thể thực hiện")
+    @Authorize("hasAuthority('ADMIN')")
+    ApiResponse<List<StudentSuggestion>> suggestStudentByName(
+            @RequestParam String term,
+            @RequestParam(defaultValue = "${student-manager.student.suggest.size}") int size
+    ) {
+        return ApiResponse.<List<StudentSuggestion>>builder()
+                .data(studentService.suggestByName(term, size))
+                .build();
+    }
+
     @GetMapping("/search-by-date")
     @Operation(summary = "Tìm kiếm sinh viên theo ngày nhập học",
-            description = "Chỉ admin mới có thể thực hiện")
-    @PreAuthorize("hasAuthority('ADMIN')")
+            description = "Chỉ admin mới có thể thực hiện. " +
+                    "Truyền cursor (rỗng cho trang đầu) để phân trang theo nextCursor thay cho page")
+    @Authorize("hasAuthority('ADMIN')")
     ApiResponse<List<StudentResponse>> searchStudentByAdmissionDate(
             // TODO: global config
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate,
             @RequestParam(defaultValue = "${student-manager.paging.page}") int page,
-            @RequestParam(defaultValue = "${student-manager.paging.size}") int size
+            @RequestParam(defaultValue = "${student-manager.paging.size}") int size,
+            @RequestParam(required = false) String cursor
     ) {
+        if (cursor != null) {
+            CursorSlice<StudentResponse> slice =
+                    studentService.searchByAdmissionDateRangeAfter(startDate, endDate, cursor, size);
+            return ApiResponse.<List<StudentResponse>>builder()
+                    .data(slice.getContent())
+                    .nextCursor(slice.getNextCursor())
+                    .build();
+        }
         return ApiResponse.<List<StudentResponse>>builder()
                 .data(studentService.searchByAdmissionDateRange(startDate, endDate, page, size))
                 .build();
@@ -8,9 +8,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -20,6 +19,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import vn.com.unit.studentmanagerapi.annotation.security.Authorize;
 import vn.com.unit.studentmanagerapi.config.GlobalValue;
 import vn.com.unit.studentmanagerapi.config.SwaggerConfig;
 import vn.com.unit.studentmanagerapi.dto.enums.SubjectFieldSearch;
@@ -28,6 +28,7 @@ import vn.com.unit.studentmanagerapi.dto.request.SubjectCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.SubjectSearchRequest;
 import vn.com.unit.studentmanagerapi.dto.request.SubjectUpdateRequest;
 import vn.com.unit.studentmanagerapi.dto.response.ApiResponse;
+import vn.com.unit.studentmanagerapi.dto.response.CursorSlice;
 import vn.com.unit.studentmanagerapi.entity.Subject;
 import vn.com.unit.studentmanagerapi.service.SubjectService;
 
@@ -45,7 +46,7 @@ public class SubjectController {
     SubjectService subjectService;
 
     @PostMapping
-    @PreAuthorize("hasAuthority('ADMIN')")
+    @Authorize("hasAuthority('ADMIN')")
     @Operation(
             summary = "Tạo mới môn học",
             description = "API này cho phép tạo mới một môn học.",
@@ -68,7 +69,7 @@ public class SubjectController {
     }
 
     @PutMapping("/{subjectID}")
-    @PreAuthorize("hasAuthority('ADMIN')")
+    @Authorize("hasAuthority('ADMIN')")
     @Operation(
             summary = "Cập nhật môn học",
             description = "API này cho phép cập nhật một môn học.",
@@ -91,7 +92,7 @@ public class SubjectController {
     }
 
     @DeleteMapping("/{subjectID}")
-    @PreAuthorize("hasAuthority('ADMIN')")
+    @Authorize("hasAuthority('ADMIN')")
     @Operation(
             summary = "Xóa tạm thời môn học",
             description = "API này cho phép xóa tạm thời một môn học.",
@@ -135,7 +136,7 @@ public class SubjectController {
     @GetMapping(value = "/search", produces = "application/json; charset=UTF-8")
     @Operation(
             summary = "Tìm kiếm các môn học",
-            description = "API này cho phép tìm kiếm các môn học . <br> Role: <br> &emsp;&emsp; **Student** chỉ có thể lấy các môn học chưa bị xóa mềm. <br> &emsp;&emsp; **Admin** có thể lấy các môn học kể cả đã xóa mềm.",
+            description = "API này cho phép tìm kiếm các môn học . <br> Role: <br> &emsp;&emsp; **Student** chỉ có thể lấy các môn học chưa bị xóa mềm. <br> &emsp;&emsp; **Admin** có thể lấy các môn học kể cả đã xóa mềm. <br> Truyền **cursor** (rỗng cho trang đầu) để phân trang theo nextCursor, không đếm tổng số bản ghi.",
             responses = {
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Không tìm thấy token ở header!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Tìm kiếm thành công!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponsePageSubject.class))),
@@ -143,13 +144,14 @@ public class SubjectController {
 
             }
     )
-    public ApiResponse<Page<Subject>> search(
+    public ApiResponse<Slice<Subject>> search(
             @RequestParam(value = "field", required = false) Optional<SubjectFieldSearch> subjectFieldSearch,
             @RequestParam(value = "value", required = false) Optional<String> valueSearch,
             @RequestParam(value = "page", required = false) Optional<Integer> page,
             @RequestParam(value = "size", required = false) Optional<Integer> size,
             @RequestParam(value = "sort-by", required = false) Optional<SubjectSortField> subjectSortField,
-            @RequestParam(value = "sort-direction",required = false) Optional<Sort.Direction> sortDirection
+            @RequestParam(value = "sort-direction",required = false) Optional<Sort.Direction> sortDirection,
+            @RequestParam(value = "cursor", required = false) Optional<String> cursor
     ){
         SubjectSearchRequest subjectSearchRequest = SubjectSearchRequest.builder()
                 .fieldSearch(subjectFieldSearch.orElse(SubjectFieldSearch.DEFAULT))
@@ -158,9 +160,19 @@ public class SubjectController {
                 .size(size.orElse(globalValue.getSizeDefault()))
                 .sortField(subjectSortField.orElse(SubjectSortField.subjectID))
                 .sortDirection(sortDirection.orElse(Sort.Direction.ASC))
+                .cursor(cursor.orElse(null))
                 .build();
 
-        return ApiResponse.<Page<Subject>>builder()
+        if (cursor.isPresent()) {
+            CursorSlice<Subject> slice = subjectService.searchAfter(subjectSearchRequest);
+            return ApiResponse.<Slice<Subject>>builder()
+                    .message("Success")
+                    .data(slice)
+                    .nextCursor(slice.getNextCursor())
+                    .build();
+        }
+
+        return ApiResponse.<Slice<Subject>>builder()
                 .message("Success")
                 .data(subjectService.search(subjectSearchRequest))
                 .build();
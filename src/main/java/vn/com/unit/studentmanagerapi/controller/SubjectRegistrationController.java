@@ -12,15 +12,20 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import vn.com.unit.studentmanagerapi.config.RegistrationWaitingRoom;
 import vn.com.unit.studentmanagerapi.config.SwaggerConfig;
+import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectBatchCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectDeleteRequest;
 import vn.com.unit.studentmanagerapi.dto.response.ApiResponse;
+import vn.com.unit.studentmanagerapi.dto.response.SubjectRegistrationResult;
 import vn.com.unit.studentmanagerapi.service.SubjectRegistrationService;
 
 import javax.validation.Valid;
+import java.util.List;
 
 @RestController
 @RequestMapping("/subjects/register")
@@ -30,6 +35,7 @@ import javax.validation.Valid;
 @Tag(name = "Đăng ký môn học")
 public class SubjectRegistrationController {
     SubjectRegistrationService subjectRegistrationService;
+    RegistrationWaitingRoom registrationWaitingRoom;
 
     @PostMapping
     @Operation(
@@ -40,12 +46,15 @@ public class SubjectRegistrationController {
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Tạo thành công!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseBoolean.class))),
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Input không đúng theo quy định!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "406", description = "Tạo thất bại (Môn học đã kết thúc hoặc vượt quá số lượng môn học có thể đăng ký)!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Chưa đến lượt, vui lòng vào phòng chờ!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Server đăng gặp lỗi, vui lòng thử lại!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
             }
     )
     public ApiResponse<Boolean> createRegistrationCourse(
-           @RequestBody @Valid RegistrationSubjectCreateRequest registrationSubjectCreateRequest
+            @RequestBody @Valid RegistrationSubjectCreateRequest registrationSubjectCreateRequest,
+            @RequestHeader(value = RegistrationWaitingRoom.TICKET_HEADER, required = false) String waitingRoomTicket
     ){
+        registrationWaitingRoom.checkAdmitted(waitingRoomTicket);
         return ApiResponse.<Boolean>builder()
                 .code("APP_SUCCESS")
                 .message("Success")
@@ -53,6 +62,30 @@ public class SubjectRegistrationController {
                 .build();
     }
 
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Đăng ký nhiều môn học",
+            description = "API này cho phép đăng ký nhiều môn học trong một lần gọi và trả về kết quả của từng môn. <br> Mode: <br> &emsp;&emsp; **ALL_OR_NOTHING** chỉ đăng ký khi tất cả các môn đều hợp lệ. <br> &emsp;&emsp; **BEST_EFFORT** (mặc định) đăng ký các môn hợp lệ.",
+            responses = {
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Không tìm thấy token ở header!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Kết quả của từng môn học!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseRegistrationResults.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Input không đúng theo quy định!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Chưa đến lượt, vui lòng vào phòng chờ!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Server đăng gặp lỗi, vui lòng thử lại!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+            }
+    )
+    public ApiResponse<List<SubjectRegistrationResult>> createRegistrationSubjects(
+            @RequestBody @Valid RegistrationSubjectBatchCreateRequest registrationSubjectBatchCreateRequest,
+            @RequestHeader(value = RegistrationWaitingRoom.TICKET_HEADER, required = false) String waitingRoomTicket
+    ){
+        registrationWaitingRoom.checkAdmitted(waitingRoomTicket);
+        return ApiResponse.<List<SubjectRegistrationResult>>builder()
+                .code("APP_SUCCESS")
+                .message("Success")
+                .data(subjectRegistrationService.createRegistrationSubjects(registrationSubjectBatchCreateRequest))
+                .build();
+    }
+
     @DeleteMapping
     @Operation(
             summary = "Xóa đơn đăng ký môn học",
@@ -61,12 +94,15 @@ public class SubjectRegistrationController {
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Không tìm thấy token ở header!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Xóa thành công!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseBoolean.class))),
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Input không đúng theo quy định!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Chưa đến lượt, vui lòng vào phòng chờ!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Server đăng gặp lỗi, vui lòng thử lại!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
             }
     )
     public ApiResponse<Boolean> deleteRegistrationSubject(
-            @RequestBody @Valid RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest
+            @RequestBody @Valid RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest,
+            @RequestHeader(value = RegistrationWaitingRoom.TICKET_HEADER, required = false) String waitingRoomTicket
     ){
+        registrationWaitingRoom.checkAdmitted(waitingRoomTicket);
         return ApiResponse.<Boolean>builder()
                 .code("APP_SUCCESS")
                 .message("Success")
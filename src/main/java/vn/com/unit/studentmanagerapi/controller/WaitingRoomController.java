@@ -0,0 +1,101 @@
+package vn.com.unit.studentmanagerapi.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import vn.com.unit.studentmanagerapi.config.AuthPrincipal;
+import vn.com.unit.studentmanagerapi.config.RegistrationWaitingRoom;
+import vn.com.unit.studentmanagerapi.config.SwaggerConfig;
+import vn.com.unit.studentmanagerapi.dto.response.ApiResponse;
+import vn.com.unit.studentmanagerapi.dto.response.WaitingRoomTicket;
+
+@RestController
+@RequestMapping("/subjects/register/waiting-room")
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Phòng chờ đăng ký môn học")
+public class WaitingRoomController {
+    RegistrationWaitingRoom registrationWaitingRoom;
+
+    @PostMapping
+    @Operation(
+            summary = "Vào phòng chờ đăng ký",
+            description = "API này cấp vé phòng chờ và trả về vị trí trong hàng. <br> Khi trạng thái là **ADMITTED**, gửi vé ở header **" + RegistrationWaitingRoom.TICKET_HEADER + "** khi đăng ký môn học.",
+            responses = {
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Không tìm thấy token ở header!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Vị trí trong hàng!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseWaitingRoomTicket.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "503", description = "Phòng chờ đã đầy, vui lòng thử lại sau!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+            }
+    )
+    public ApiResponse<WaitingRoomTicket> joinWaitingRoom() {
+        return ApiResponse.<WaitingRoomTicket>builder()
+                .code("APP_SUCCESS")
+                .message("Success")
+                .data(registrationWaitingRoom.join(AuthPrincipal.current().getEmail()))
+                .build();
+    }
+
+    @GetMapping("/{ticket}")
+    @Operation(
+            summary = "Xem vị trí trong phòng chờ",
+            description = "API này trả về vị trí của vé trong hàng. Vé không được hỏi lại trong một thời gian sẽ bị hủy.",
+            responses = {
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Không tìm thấy token ở header!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Vị trí trong hàng!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseWaitingRoomTicket.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Vé không tồn tại hoặc đã hết hạn!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+            }
+    )
+    public ApiResponse<WaitingRoomTicket> pollWaitingRoom(@PathVariable String ticket) {
+        return ApiResponse.<WaitingRoomTicket>builder()
+                .code("APP_SUCCESS")
+                .message("Success")
+                .data(registrationWaitingRoom.poll(ticket, AuthPrincipal.current().getEmail()))
+                .build();
+    }
+
+    @GetMapping(value = "/{ticket}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Theo dõi vị trí trong phòng chờ",
+            description = "API này gửi vị trí của vé (sự kiện **position**) cho đến khi được vào đăng ký.",
+            responses = {
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Không tìm thấy token ở header!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Vé không tồn tại hoặc đã hết hạn!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+            }
+    )
+    public SseEmitter followWaitingRoom(@PathVariable String ticket) {
+        return registrationWaitingRoom.subscribe(ticket, AuthPrincipal.current().getEmail());
+    }
+
+    @DeleteMapping("/{ticket}")
+    @Operation(
+            summary = "Rời phòng chờ",
+            description = "API này hủy vé, lượt đăng ký được chuyển cho người kế tiếp.",
+            responses = {
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Không tìm thấy token ở header!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Hủy thành công!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseBoolean.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Vé không tồn tại hoặc đã hết hạn!", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SwaggerConfig.ApiResponseString.class))),
+            }
+    )
+    public ApiResponse<Boolean> leaveWaitingRoom(@PathVariable String ticket) {
+        registrationWaitingRoom.leave(ticket, AuthPrincipal.current().getEmail());
+        return ApiResponse.<Boolean>builder()
+                .code("APP_SUCCESS")
+                .message("Success")
+                .data(true)
+                .build();
+    }
+}
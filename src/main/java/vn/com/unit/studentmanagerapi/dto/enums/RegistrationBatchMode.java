@@ -0,0 +1,8 @@
+package vn.com.unit.studentmanagerapi.dto.enums;
+
+public enum RegistrationBatchMode {
+    // registers every subject or none of them
+    ALL_OR_NOTHING,
+    // registers the subjects that can be, reports the others
+    BEST_EFFORT
+}
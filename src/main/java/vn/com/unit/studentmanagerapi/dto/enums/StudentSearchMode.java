@@ -0,0 +1,9 @@
+package vn.com.unit.studentmanagerapi.dto.enums;
+
+public enum StudentSearchMode {
+    // names containing the term
+    contains,
+    // names within maxDistance edits of the term
+    fuzzy,
+    ;
+}
@@ -0,0 +1,8 @@
+package vn.com.unit.studentmanagerapi.dto.enums;
+
+public enum WaitingRoomStatus {
+    // still in line, poll again later
+    WAITING,
+    // may register until the admission runs out
+    ADMITTED
+}
@@ -0,0 +1,25 @@
+package vn.com.unit.studentmanagerapi.dto.request;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import javax.validation.constraints.NotEmpty;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Builder
+public class JwtKeyCreateRequest {
+    @NotEmpty(message = "JWT_KEY_ID_NULL_EMPTY")
+    String keyId;
+
+    @NotEmpty(message = "JWT_KEY_INVALID")
+    String secret;
+
+    boolean activate;
+}
@@ -0,0 +1,34 @@
+package vn.com.unit.studentmanagerapi.dto.request;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import vn.com.unit.studentmanagerapi.annotation.constant.StudentIDFieldError;
+import vn.com.unit.studentmanagerapi.annotation.constant.SubjectIDFieldError;
+import vn.com.unit.studentmanagerapi.annotation.constant.SubjectIDsFieldError;
+import vn.com.unit.studentmanagerapi.dto.enums.RegistrationBatchMode;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RegistrationSubjectBatchCreateRequest {
+
+    @NotNull(message = SubjectIDsFieldError.NULL)
+    @Size(min = 1, max = 20, message = SubjectIDsFieldError.SIZE)
+    List<@NotNull(message = SubjectIDFieldError.NULL)
+         @Min(value = 1, message = SubjectIDFieldError.NOT_POSITIVE) Long> subjectIDs;
+
+    @NotNull(message = StudentIDFieldError.NULL)
+    @Min(value = 1, message = StudentIDFieldError.NOT_POSITIVE)
+    Long studentID;
+
+    // best effort when not given
+    RegistrationBatchMode mode;
+
+}
@@ -18,4 +18,6 @@ public class SubjectSearchRequest {
     int size;
     SubjectSortField sortField;
     Sort.Direction sortDirection;
+    // keyset cursor, empty for the first page; null keeps page based paging
+    String cursor;
 }
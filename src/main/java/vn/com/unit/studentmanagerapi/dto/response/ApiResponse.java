@@ -20,4 +20,6 @@ public class ApiResponse<T> {
 	String message;
 	String detailMessage;
 	T data;
+	// set by keyset-paginated endpoints while more rows follow
+	String nextCursor;
 }
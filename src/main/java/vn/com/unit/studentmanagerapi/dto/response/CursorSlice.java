@@ -0,0 +1,38 @@
+package vn.com.unit.studentmanagerapi.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One keyset page: the rows, whether more follow, and the cursor to fetch
+ * them. Nothing is counted. The cursor is sent in {@link ApiResponse#getNextCursor()}.
+ */
+public class CursorSlice<T> extends SliceImpl<T> {
+    private final String nextCursor;
+
+    public CursorSlice(List<T> content, int size, String nextCursor) {
+        super(content, PageRequest.of(0, size), nextCursor != null);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Builds a slice from {@code rows} fetched with a limit of {@code size + 1}:
+     * the extra row only signals that another page exists.
+     */
+    public static <E, T> CursorSlice<T> of(List<E> rows, int size, Function<E, String> cursorOf, Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)) : null;
+        return new CursorSlice<>(page.stream().map(mapper).collect(Collectors.toList()), size, nextCursor);
+    }
+
+    @JsonIgnore
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,23 @@
+package vn.com.unit.studentmanagerapi.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.core.io.Resource;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Builder
+public class StudentAvatar {
+    // SHA-256 of the content in hex
+    String hash;
+    // ETag: the hash, suffixed with the size for a thumbnail
+    String tag;
+    String contentType;
+    Resource content;
+}
@@ -18,7 +18,9 @@ import java.time.LocalDateTime;
 public class StudentResponse {
     Long studentID;
     String fullName;
-    String avatar;
+    String avatarHash;
+    // versioned by the hash, so it can be cached for good
+    String avatarUrl;
     String email;
     LocalDate dateOfBirth;
     String gender;
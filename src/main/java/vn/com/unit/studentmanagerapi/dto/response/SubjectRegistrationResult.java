@@ -0,0 +1,24 @@
+package vn.com.unit.studentmanagerapi.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Outcome of one subject of a batch registration; {@code code} and
+ * {@code message} are those of the error when it was not registered.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Builder
+public class SubjectRegistrationResult {
+    Long subjectID;
+    boolean registered;
+    String code;
+    String message;
+}
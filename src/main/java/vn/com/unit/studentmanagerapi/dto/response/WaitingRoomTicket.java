@@ -0,0 +1,29 @@
+package vn.com.unit.studentmanagerapi.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import vn.com.unit.studentmanagerapi.dto.enums.WaitingRoomStatus;
+
+/**
+ * Place of a session in the registration waiting room. {@code position} is
+ * the number of sessions still ahead of it, at most, and {@code 0} once
+ * admitted; {@code ticket} goes in the {@code X-Waiting-Room-Ticket} header
+ * of the registration calls.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Builder
+public class WaitingRoomTicket {
+    String ticket;
+    WaitingRoomStatus status;
+    long position;
+    long pollAfterSeconds;
+    // left of the admission, 0 while waiting
+    long admittedForSeconds;
+}
@@ -0,0 +1,41 @@
+package vn.com.unit.studentmanagerapi.entity;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table("common_revoked_token")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RevokedToken {
+    @Id
+    @Column("id")
+    Long id;
+
+    @Column("token_digest")
+    String tokenDigest; // null when every token of the account issued before revoked_at is revoked
+
+    // the tokens of the account issued before revoked_at are re-checked against the account table, not rejected
+    @Column("recheck_only")
+    boolean recheckOnly;
+
+    @Column("email")
+    String email;
+
+    @Column("revoked_at")
+    LocalDateTime revokedAt;
+
+    @Column("expires_at")
+    LocalDateTime expiresAt;
+}
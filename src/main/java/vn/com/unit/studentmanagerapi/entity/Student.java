@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -27,9 +28,17 @@ public class Student {
     @Column("full_name")
     String fullName;
 
+    // only avatars uploaded before the AvatarStore are kept here; read by the
+    // legacy avatar lookup alone
+    @ReadOnlyProperty
     @Column("avatar")
     byte[] avatar;
 
+    // SHA-256 of the avatar in hex, null while no avatar is uploaded
+    @ReadOnlyProperty
+    @Column("avatar_hash")
+    String avatarHash;
+
     @Column("email")
     String email;
 
@@ -18,7 +18,29 @@ public enum ErrorCode {
 	STU_NOT_EXIST("STU_NOT_EXIST", "Student does not exist"),
 	EMAIL_PASSWORD_INCORRECT("EMAIL_PASSWORD_INCORRECT",
 			"Email or password is incorrect", HttpStatus.UNAUTHORIZED),
+	LOGIN_BUSY("LOGIN_BUSY", "Too many login attempts are in progress. Please try again later",
+			HttpStatus.SERVICE_UNAVAILABLE),
+	WAITING_ROOM_NOT_ADMITTED("REG_NOT_ADMITTED",
+			"Registration is open to admitted sessions only, please join the waiting room", HttpStatus.TOO_MANY_REQUESTS),
+	WAITING_ROOM_FULL("REG_WAITING_ROOM_FULL",
+			"The waiting room is full. Please try again later", HttpStatus.SERVICE_UNAVAILABLE),
+	WAITING_ROOM_TICKET_INVALID("REG_TICKET_INVALID",
+			"The waiting room ticket is unknown or has expired", HttpStatus.NOT_FOUND),
+	REGISTRATION_BUSY("REG_BUSY", "Too many registrations are in progress. Please try again later",
+			HttpStatus.SERVICE_UNAVAILABLE),
+	LOGIN_RATE_LIMITED("LOGIN_RATE_LIMITED", "Too many login attempts. Please try again later",
+			HttpStatus.TOO_MANY_REQUESTS),
 	PAGE_SIZE_INVALID("STU_SEARCH_PAGE_SIZE_INVALID", "Page and size must be positive"),
+	CURSOR_INVALID("CURSOR_INVALID", "Cursor is malformed or belongs to another search"),
+	MAX_DISTANCE_INVALID("STU_SEARCH_MAX_DISTANCE_INVALID", "Max distance is out of the allowed range"),
+	NAME_INDEX_LOADING("STU_SEARCH_NAME_INDEX_LOADING",
+			"Fuzzy search is unavailable while the name index loads. Please try again later",
+			HttpStatus.SERVICE_UNAVAILABLE),
+	JWT_KEY_NOT_FOUND("JWT_KEY_NOT_FOUND", "Signing key does not exist", HttpStatus.NOT_FOUND),
+	JWT_KEY_ACTIVE("JWT_KEY_ACTIVE", "The active signing key cannot be retired"),
+	JWT_KEY_EXISTS("JWT_KEY_EXISTS", "Signing key id is already in use, retire it first", HttpStatus.CONFLICT),
+	JWT_KEY_ID_NULL_EMPTY("JWT_KEY_ID_NULL_EMPTY", "Signing key id cannot be null or empty"),
+	JWT_KEY_INVALID("JWT_KEY_INVALID", "Signing key must be a Base64 secret of at least 256 bits"),
 
 	/* STUDENT ERRORS */
 	// Full Name Errors
@@ -33,6 +55,8 @@ public enum ErrorCode {
 			"Avatar must be in .jpg, .png, .jpeg, .webp, .svg, .psd format",
 			HttpStatus.UNSUPPORTED_MEDIA_TYPE
 	),
+	AVATAR_NOT_FOUND("STU_AVATAR_NOT_FOUND", "Student has no avatar", HttpStatus.NOT_FOUND),
+	AVATAR_SIZE_INVALID("STU_AVATAR_SIZE_INVALID", "Avatar size is not one of the thumbnail sizes", HttpStatus.BAD_REQUEST),
 
 	// Email Errors
 	EMAIL_NULL_EMPTY("EMAIL_NULL_EMPTY", "Email cannot be null or empty"),
@@ -159,6 +183,10 @@ public enum ErrorCode {
 			"Subject ID must be a positive number", HttpStatus.BAD_REQUEST),
 	SUBJECT_ID_INVALID("REG_SUB_ID_INVALID",
 			"Subject ID is invalid or does not identify any object", HttpStatus.NOT_FOUND),
+	SUBJECT_IDS_NULL("REG_SUB_IDS_NULL",
+			"Subject IDs cannot be null", HttpStatus.BAD_REQUEST),
+	SUBJECT_IDS_SIZE("REG_SUB_IDS_SIZE",
+			"Between {min} and {max} subjects can be registered at once", HttpStatus.BAD_REQUEST),
 
 	// Student ID Errors
 	STU_ID_NULL("REG_STU_ID_NULL",
@@ -172,7 +200,11 @@ public enum ErrorCode {
 	COURSE_CLOSED_FOR_REGISTRATION("REG_COURSE_CLOSED",
 			"The course is closed for student registration", HttpStatus.NOT_ACCEPTABLE),
 	EXCEEDS_MAXIMUM_SUBJECTS("REG_EXCEEDS_MAX_SUBJECTS",
-			"Exceeds the maximum of 5 subjects allowed per course or the maximum number of students already registered for the subject.", HttpStatus.NOT_ACCEPTABLE),
+			"Exceeds the maximum of 5 subjects allowed per course.", HttpStatus.NOT_ACCEPTABLE),
+	SUBJECT_FULL("REG_SUBJECT_FULL",
+			"The maximum number of students already registered for the subject.", HttpStatus.NOT_ACCEPTABLE),
+	REGISTRATION_BATCH_ABORTED("REG_BATCH_ABORTED",
+			"Not registered since another subject of the request could not be.", HttpStatus.NOT_ACCEPTABLE),
 
 	STU_ALREADY_REGISTERED("STUDENT_ALREADY_REGISTERED", "Student has already registered for this course.", HttpStatus.NOT_ACCEPTABLE)
 	;
@@ -0,0 +1,17 @@
+package vn.com.unit.studentmanagerapi.exception;
+
+import java.time.Duration;
+
+public class ServiceBusyException extends AppException {
+	private final Duration retryAfter;
+
+	public ServiceBusyException(ErrorCode errorCode, Duration retryAfter) {
+		super(errorCode);
+		this.retryAfter = retryAfter;
+	}
+
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+
+}
@@ -7,6 +7,7 @@ import org.mapstruct.MappingTarget;
 import vn.com.unit.studentmanagerapi.dto.request.StudentCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.StudentUpdateRequest;
 import vn.com.unit.studentmanagerapi.dto.response.StudentResponse;
+import vn.com.unit.studentmanagerapi.dto.response.StudentSuggestion;
 import vn.com.unit.studentmanagerapi.entity.Student;
 
 @Mapper(componentModel = "spring")
@@ -14,8 +15,10 @@ import vn.com.unit.studentmanagerapi.entity.Student;
 public interface StudentMapper {
     Student toStudent(StudentCreateRequest request);
 
-    @Mapping(target = "avatar", ignore = true)
+    @Mapping(target = "avatarUrl", ignore = true)
     StudentResponse toStudentResponse(Student student);
 
+    StudentSuggestion toStudentSuggestion(Student student);
+
     Student updateStudent(@MappingTarget Student student, StudentUpdateRequest request);
 }
@@ -1,13 +1,16 @@
 package vn.com.unit.studentmanagerapi.mapper;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import vn.com.unit.studentmanagerapi.dto.request.StudentCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.StudentUpdateRequest;
 import vn.com.unit.studentmanagerapi.dto.response.StudentResponse;
 import vn.com.unit.studentmanagerapi.entity.Student;
 import vn.com.unit.studentmanagerapi.entity.enums.Gender;
-import vn.com.unit.studentmanagerapi.util.MyImageUtil;
 
 import java.time.LocalDateTime;
 
@@ -17,6 +20,9 @@ public abstract class StudentMapperDecorator implements StudentMapper {
     @Autowired
     private StudentMapper delegate;
 
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
+
     @Override
     public Student toStudent(StudentCreateRequest request) {
         // replace 1 space if there are many spaces between words
@@ -39,7 +45,9 @@ public abstract class StudentMapperDecorator implements StudentMapper {
         // map student entity to response
         StudentResponse response = delegate.toStudentResponse(student);
 
-        if (student.getAvatar() != null) response.setAvatar(MyImageUtil.convertToBase64(student.getAvatar()));
+        if (student.getAvatarHash() != null) {
+            response.setAvatarUrl(avatarUrl(student));
+        }
 
         if (student.getGender() != null) {
             response.setGender(Gender.fromCode(student.getGender()).toString());
@@ -48,6 +56,18 @@ public abstract class StudentMapperDecorator implements StudentMapper {
         return response;
     }
 
+    private String avatarUrl(Student student) {
+        // resolve against the context path, outside a request fall back to the configured one
+        UriComponentsBuilder builder = RequestContextHolder.getRequestAttributes() != null
+                ? ServletUriComponentsBuilder.fromCurrentContextPath()
+                : UriComponentsBuilder.fromPath(contextPath);
+
+        return builder.path("/students/{id}/avatar")
+                .queryParam("v", student.getAvatarHash())
+                .buildAndExpand(student.getStudentID())
+                .toUriString();
+    }
+
     @Override
     public Student updateStudent(Student student, StudentUpdateRequest request) {
         Student updatedStudent = delegate.updateStudent(student, request);
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Repository;
 import vn.com.unit.studentmanagerapi.entity.Account;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface AccountRepository extends PagingAndSortingRepository<Account, String> {
@@ -20,6 +21,16 @@ public interface AccountRepository extends PagingAndSortingRepository<Account, S
     @Query("UPDATE common_account SET is_deleted = TRUE WHERE email = :email")
     boolean deleteAccountByEmail(String email);
 
+    @Modifying
+    @Query("UPDATE common_account SET password = :newPassword WHERE email = :email AND password = :oldPassword")
+    boolean updatePasswordIfUnchanged(String email, String oldPassword, String newPassword);
+
     boolean existsByEmail(String email);
 
+    @Query("SELECT email FROM common_account")
+    List<String> findAllEmails();
+
+    @Query("SELECT email FROM common_account WHERE created_at >= :since")
+    List<String> findEmailsCreatedSince(LocalDateTime since);
+
 }
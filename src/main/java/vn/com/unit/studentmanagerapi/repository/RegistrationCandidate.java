@@ -0,0 +1,24 @@
+package vn.com.unit.studentmanagerapi.repository;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import vn.com.unit.studentmanagerapi.entity.enums.CourseID;
+
+/**
+ * What a batch registration needs to know about one subject for one student:
+ * whether it takes registrations and how many the student already holds in
+ * its course.
+ */
+@Getter
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RegistrationCandidate {
+    long subjectID;
+    boolean status;
+    CourseID courseID;
+    int numberOfAvailability;
+    boolean registered;
+    int registeredInCourse;
+}
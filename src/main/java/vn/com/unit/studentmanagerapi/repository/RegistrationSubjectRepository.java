@@ -8,9 +8,10 @@ import vn.com.unit.studentmanagerapi.entity.RegistrationSubject;
 import vn.com.unit.studentmanagerapi.entity.RegistrationSubjectID;
 
 @Repository
-public interface RegistrationSubjectRepository extends PagingAndSortingRepository<RegistrationSubject, RegistrationSubjectID> {
-    @Modifying
-    @Query(
+public interface RegistrationSubjectRepository extends PagingAndSortingRepository<RegistrationSubject, RegistrationSubjectID>,
+        RegistrationSubjectRepositoryCustom {
+    // shared with the batched variant in RegistrationSubjectRepositoryCustomImpl
+    String INSERT_WITHIN_COURSE_LIMIT =
             "insert into bus_registration_subject (subject_id, student_id, update_by) " +
                     " select :subjectID, :studentID, :updateBy" +
                     " where (select count(rs.subject_id) from bus_registration_subject rs " +
@@ -19,13 +20,11 @@ public interface RegistrationSubjectRepository extends PagingAndSortingRepositor
                     "        where s.course_id = (select course_id from bus_subject " +
                     "                                where subject_id = :subjectID " +
                     "                                limit 1) and rs.student_id = :studentID" +
-                    " ) < :subjectLimitForCourse " +  // không quá 5 môn 1 học kỳ
-                    " and " +
-                    " ( select count(subject_id) as number_of_student_register " +
-                    " from bus_registration_subject " +
-                    " where subject_id = :subjectID ) < (select number_of_student " +
-                    " from bus_subject where subject_id = :subjectID )" // còn slot không
-    )
+                    " ) < :subjectLimitForCourse ";  // không quá 5 môn 1 học kỳ
+
+    // seats are claimed separately, see SubjectRepository#claimSeat
+    @Modifying
+    @Query(INSERT_WITHIN_COURSE_LIMIT)
     boolean insert(Long subjectID, Long studentID, String updateBy, int subjectLimitForCourse);
 
     @Modifying
@@ -0,0 +1,23 @@
+package vn.com.unit.studentmanagerapi.repository;
+
+import vn.com.unit.studentmanagerapi.entity.RegistrationSubject;
+import vn.com.unit.studentmanagerapi.entity.RegistrationSubjectID;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RegistrationSubjectRepositoryCustom {
+    List<RegistrationSubjectID> findAllIDs();
+
+    /**
+     * Runs {@link RegistrationSubjectRepository#insert} for each registration,
+     * in order, as one JDBC batch; returns the rows inserted by each.
+     */
+    int[] insertAll(List<RegistrationSubject> registrations, int subjectLimitForCourse);
+
+    /**
+     * Looks up the subjects of a batch registration that are not deleted, with
+     * the registrations the student already holds, in one query.
+     */
+    List<RegistrationCandidate> findCandidates(Long studentID, Collection<Long> subjectIDs);
+}
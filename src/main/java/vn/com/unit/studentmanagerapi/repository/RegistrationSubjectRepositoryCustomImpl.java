@@ -0,0 +1,70 @@
+package vn.com.unit.studentmanagerapi.repository;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import vn.com.unit.studentmanagerapi.entity.RegistrationSubject;
+import vn.com.unit.studentmanagerapi.entity.RegistrationSubjectID;
+import vn.com.unit.studentmanagerapi.entity.enums.CourseID;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Queries over {@code bus_registration_subject} that the derived queries cannot
+ * express for its composite key.
+ */
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RegistrationSubjectRepositoryCustomImpl implements RegistrationSubjectRepositoryCustom {
+    NamedParameterJdbcOperations jdbcOperations;
+
+    @Override
+    public List<RegistrationSubjectID> findAllIDs() {
+        return jdbcOperations.getJdbcOperations().query(
+                "SELECT subject_id, student_id FROM bus_registration_subject",
+                (rs, rowNum) -> RegistrationSubjectID.builder()
+                        .subjectID(rs.getLong("subject_id"))
+                        .studentID(rs.getLong("student_id"))
+                        .build());
+    }
+
+    @Override
+    public int[] insertAll(List<RegistrationSubject> registrations, int subjectLimitForCourse) {
+        return jdbcOperations.batchUpdate(RegistrationSubjectRepository.INSERT_WITHIN_COURSE_LIMIT,
+                registrations.stream()
+                        .map(registration -> new MapSqlParameterSource()
+                                .addValue("subjectID", registration.getRegistrationSubjectID().getSubjectID())
+                                .addValue("studentID", registration.getRegistrationSubjectID().getStudentID())
+                                .addValue("updateBy", registration.getUpdateBy())
+                                .addValue("subjectLimitForCourse", subjectLimitForCourse))
+                        .toArray(SqlParameterSource[]::new));
+    }
+
+    @Override
+    public List<RegistrationCandidate> findCandidates(Long studentID, Collection<Long> subjectIDs) {
+        return jdbcOperations.query(
+                "SELECT s.subject_id, s.status, s.course_id, s.number_of_availability," +
+                        " EXISTS (SELECT 1 FROM bus_registration_subject rs" +
+                        "         WHERE rs.subject_id = s.subject_id AND rs.student_id = :studentID) AS registered," +
+                        " (SELECT count(rs.subject_id) FROM bus_registration_subject rs" +
+                        "  INNER JOIN bus_subject c ON rs.subject_id = c.subject_id" +
+                        "  WHERE c.course_id = s.course_id AND rs.student_id = :studentID) AS registered_in_course" +
+                        " FROM bus_subject s" +
+                        " WHERE s.subject_id IN (:subjectIDs) AND s.is_deleted = FALSE",
+                new MapSqlParameterSource()
+                        .addValue("studentID", studentID)
+                        .addValue("subjectIDs", subjectIDs),
+                (rs, rowNum) -> RegistrationCandidate.builder()
+                        .subjectID(rs.getLong("subject_id"))
+                        .status(rs.getBoolean("status"))
+                        .courseID(rs.getString("course_id") == null ? null : CourseID.valueOf(rs.getString("course_id")))
+                        .numberOfAvailability(rs.getInt("number_of_availability"))
+                        .registered(rs.getBoolean("registered"))
+                        .registeredInCourse(rs.getInt("registered_in_course"))
+                        .build());
+    }
+}
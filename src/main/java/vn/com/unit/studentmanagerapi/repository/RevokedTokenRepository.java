@@ -0,0 +1,24 @@
+package vn.com.unit.studentmanagerapi.repository;
+
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import vn.com.unit.studentmanagerapi.entity.RevokedToken;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends CrudRepository<RevokedToken, Long> {
+    @Query("SELECT * FROM common_revoked_token WHERE expires_at > :now")
+    List<RevokedToken> findActive(LocalDateTime now);
+
+    // rows become visible when committed, in no particular order of id or revoked_at
+    @Query("SELECT * FROM common_revoked_token WHERE revoked_at >= :since AND expires_at > :now")
+    List<RevokedToken> findActiveRevokedSince(LocalDateTime since, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM common_revoked_token WHERE expires_at <= :now")
+    int deleteExpired(LocalDateTime now);
+}
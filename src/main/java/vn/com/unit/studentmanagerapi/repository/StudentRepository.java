@@ -7,26 +7,68 @@ import org.springframework.stereotype.Repository;
 import vn.com.unit.studentmanagerapi.entity.Student;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface StudentRepository extends PagingAndSortingRepository<Student, Long> {
+    // every column but the avatar image, which only the avatar endpoints read
+    String COLUMNS = "student_id, full_name, avatar_hash, email, date_of_birth, gender, date_of_admission, " +
+            "created_at, update_at, update_by, is_deleted";
 
-    @Query("SELECT * FROM bus_student WHERE student_id = :id AND is_deleted = FALSE")
+    @Query("SELECT " + COLUMNS + " FROM bus_student WHERE student_id = :id AND is_deleted = FALSE")
     Optional<Student> findByStudentID(Long id);
 
+    @Query("SELECT " + COLUMNS + " FROM bus_student WHERE email = :email")
     Optional<Student> findByEmail(String email);
 
+    @Query("SELECT student_id, full_name, email FROM bus_student WHERE student_id = :id")
+    Optional<Student> findSummaryByStudentID(Long id);
+
+    @Query("SELECT student_id, avatar_hash FROM bus_student WHERE student_id = :id AND is_deleted = FALSE")
+    Optional<Student> findAvatarHashByStudentID(Long id);
+
+    @Query("SELECT student_id, avatar, avatar_hash FROM bus_student WHERE student_id = :id AND is_deleted = FALSE")
+    Optional<Student> findAvatarByStudentID(Long id);
+
+    @Modifying
+    @Query("UPDATE bus_student SET avatar = NULL, avatar_hash = :avatarHash, update_by = :updateBy, " +
+            "update_at = :updateAt WHERE student_id = :studentId")
+    boolean updateAvatarHash(Long studentId, String avatarHash, String updateBy, LocalDateTime updateAt);
+
     @Modifying
-    @Query("UPDATE bus_student SET is_deleted = TRUE WHERE student_id = :studentId")
-    boolean softDeleteByStudentID(Long studentId);
+    @Query("UPDATE bus_student SET is_deleted = TRUE, update_by = :updateBy, update_at = :updateAt " +
+            "WHERE student_id = :studentId")
+    boolean softDeleteByStudentID(Long studentId, String updateBy, LocalDateTime updateAt);
 
-    @Query("SELECT * FROM bus_student WHERE LOWER(full_name) LIKE LOWER(CONCAT('%', :fullName, '%')) " +
+    @Query("SELECT " + COLUMNS + " FROM bus_student WHERE LOWER(full_name) LIKE LOWER(CONCAT('%', :fullName, '%')) " +
             "AND is_deleted = FALSE ORDER BY full_name LIMIT :limit OFFSET :offset")
     List<Student> findAllByFullName(String fullName, int limit, int offset);
 
-    @Query("SELECT * FROM bus_student WHERE date_of_admission BETWEEN :startDate AND :endDate " +
+    @Query("SELECT " + COLUMNS + " FROM bus_student WHERE LOWER(full_name) LIKE LOWER(CONCAT('%', :fullName, '%')) " +
+            "AND is_deleted = FALSE AND (full_name, student_id) > (:lastName, :lastId) " +
+            "ORDER BY full_name, student_id LIMIT :limit")
+    List<Student> findAllByFullNameAfter(String fullName, String lastName, long lastId, int limit);
+
+    @Query("SELECT student_id, full_name, email FROM bus_student WHERE is_deleted = FALSE")
+    List<Student> findAllSummaries();
+
+    // soft-deleted rows included, the name index drops them
+    @Query("SELECT student_id, full_name, email, is_deleted FROM bus_student " +
+            "WHERE update_at >= :since OR created_at >= :since")
+    List<Student> findSummariesChangedSince(LocalDateTime since);
+
+    @Query("SELECT " + COLUMNS + " FROM bus_student WHERE student_id IN (:ids) AND is_deleted = FALSE")
+    List<Student> findAllByStudentIDs(Collection<Long> ids);
+
+    @Query("SELECT " + COLUMNS + " FROM bus_student WHERE date_of_admission BETWEEN :startDate AND :endDate " +
             "AND is_deleted = FALSE ORDER BY full_name LIMIT :limit OFFSET :offset")
     List<Student> findAllByAdmissionDate(LocalDate startDate, LocalDate endDate, int limit, int offset);
+
+    @Query("SELECT " + COLUMNS + " FROM bus_student WHERE date_of_admission BETWEEN :startDate AND :endDate " +
+            "AND is_deleted = FALSE AND (full_name, student_id) > (:lastName, :lastId) " +
+            "ORDER BY full_name, student_id LIMIT :limit")
+    List<Student> findAllByAdmissionDateAfter(LocalDate startDate, LocalDate endDate, String lastName, long lastId, int limit);
 }
@@ -0,0 +1,28 @@
+package vn.com.unit.studentmanagerapi.repository;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Sort;
+import vn.com.unit.studentmanagerapi.dto.enums.SubjectSortField;
+import vn.com.unit.studentmanagerapi.entity.enums.CourseID;
+
+/**
+ * Filters, ordering and position of one keyset page of {@code bus_subject}.
+ * Null filters are not applied; a null {@code afterID} starts at the first row.
+ */
+@Getter
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SubjectKeysetQuery {
+    boolean excludeDeleted;
+    CourseID courseID;
+    Long studentID;
+    SubjectSortField sortField;
+    Sort.Direction direction;
+    // value of the sort column in the last row, unused when sorting by id
+    String afterKey;
+    Long afterID;
+    int limit;
+}
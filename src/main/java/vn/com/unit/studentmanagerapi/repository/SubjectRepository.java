@@ -9,18 +9,51 @@ import org.springframework.stereotype.Repository;
 import vn.com.unit.studentmanagerapi.entity.Subject;
 import vn.com.unit.studentmanagerapi.entity.enums.CourseID;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface SubjectRepository extends PagingAndSortingRepository<Subject, Long> {
+public interface SubjectRepository extends PagingAndSortingRepository<Subject, Long>, SubjectRepositoryCustom {
+    // shared with the batched variants in SubjectRepositoryCustomImpl
+    String CLAIM_SEAT = "update bus_subject " +
+            " set number_of_availability = number_of_availability - 1" +
+            " where subject_id = :subjectID and number_of_availability > 0";
+    String RELEASE_SEAT = "update bus_subject " +
+            " set number_of_availability = number_of_availability + 1" +
+            " where subject_id = :subjectID and number_of_availability < number_of_student";
+
     @Modifying
     @Query("update bus_subject " +
             " set is_deleted = :newValue, update_at = :updateAt, update_by = :updateBy" +
             " where subject_id = :subjectID")
     boolean updateIsDeletedBySubjectID(Long subjectID, LocalDateTime updateAt, String updateBy, boolean newValue);
 
+    /**
+     * Takes one seat of the subject. The conditional update locks the row, so
+     * concurrent registrations queue on it and cannot overbook; returns
+     * {@code false} when no seat is left.
+     */
+    @Modifying
+    @Query(CLAIM_SEAT)
+    boolean claimSeat(Long subjectID);
+
+    @Modifying
+    @Query(RELEASE_SEAT)
+    boolean releaseSeat(Long subjectID);
+
+    // leaves the seat counters alone, a full save would overwrite them with what was read
+    @Modifying
+    @Query("update bus_subject " +
+            " set subject_name = :subjectName, start_date = :startDate, end_date = :endDate," +
+            "     number_of_credit = :numberOfCredit, status = :status, course_id = :courseID," +
+            "     tuition = :tuition, description = :description, update_at = :updateAt, update_by = :updateBy" +
+            " where subject_id = :subjectID")
+    boolean updateDetails(Long subjectID, String subjectName, LocalDate startDate, LocalDate endDate,
+                          int numberOfCredit, boolean status, String courseID, long tuition, String description,
+                          LocalDateTime updateAt, String updateBy);
+
     Optional<Subject> searchBySubjectIDAndIsDeleted(Long subjectID, boolean isDelete);
 
     Page<Subject> searchByCourseIDAndIsDeleted(CourseID courseID, boolean isDelete, Pageable pageRequest);
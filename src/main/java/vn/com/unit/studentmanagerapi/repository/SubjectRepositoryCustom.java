@@ -0,0 +1,17 @@
+package vn.com.unit.studentmanagerapi.repository;
+
+import vn.com.unit.studentmanagerapi.entity.Subject;
+
+import java.util.List;
+
+public interface SubjectRepositoryCustom {
+    List<Subject> searchAfter(SubjectKeysetQuery query);
+
+    /**
+     * Runs {@link SubjectRepository#claimSeat} for each subject, in order, as
+     * one JDBC batch; returns the rows updated by each.
+     */
+    int[] claimSeats(List<Long> subjectIDs);
+
+    int[] releaseSeats(List<Long> subjectIDs);
+}
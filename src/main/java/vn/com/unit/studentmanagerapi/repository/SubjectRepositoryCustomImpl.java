@@ -0,0 +1,106 @@
+package vn.com.unit.studentmanagerapi.repository;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jdbc.core.convert.EntityRowMapper;
+import org.springframework.data.jdbc.core.convert.JdbcConverter;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import vn.com.unit.studentmanagerapi.entity.Subject;
+
+import java.util.List;
+
+/**
+ * Keyset queries over {@code bus_subject}. The sort column and direction are
+ * chosen per request, so the SQL is assembled here instead of in {@code @Query}.
+ * Also the batched seat updates, which {@code @Query} methods cannot run.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SubjectRepositoryCustomImpl implements SubjectRepositoryCustom {
+    NamedParameterJdbcOperations jdbcOperations;
+    RowMapper<Subject> rowMapper;
+
+    @SuppressWarnings("unchecked")
+    public SubjectRepositoryCustomImpl(NamedParameterJdbcOperations jdbcOperations,
+                                       RelationalMappingContext mappingContext,
+                                       JdbcConverter converter) {
+        this.jdbcOperations = jdbcOperations;
+        this.rowMapper = new EntityRowMapper<>(
+                (RelationalPersistentEntity<Subject>) mappingContext.getRequiredPersistentEntity(Subject.class),
+                converter);
+    }
+
+    @Override
+    public List<Subject> searchAfter(SubjectKeysetQuery query) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return jdbcOperations.query(toSql(query, params), params, rowMapper);
+    }
+
+    @Override
+    public int[] claimSeats(List<Long> subjectIDs) {
+        return jdbcOperations.batchUpdate(SubjectRepository.CLAIM_SEAT, bySubjectID(subjectIDs));
+    }
+
+    @Override
+    public int[] releaseSeats(List<Long> subjectIDs) {
+        return jdbcOperations.batchUpdate(SubjectRepository.RELEASE_SEAT, bySubjectID(subjectIDs));
+    }
+
+    private static SqlParameterSource[] bySubjectID(List<Long> subjectIDs) {
+        return subjectIDs.stream()
+                .map(subjectID -> new MapSqlParameterSource("subjectID", subjectID))
+                .toArray(SqlParameterSource[]::new);
+    }
+
+    static String toSql(SubjectKeysetQuery query, MapSqlParameterSource params) {
+        String column = sortColumn(query);
+        boolean ascending = query.getDirection() != Sort.Direction.DESC;
+        String direction = ascending ? "ASC" : "DESC";
+        String comparison = ascending ? ">" : "<";
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM bus_subject WHERE 1 = 1");
+        if (query.isExcludeDeleted()) {
+            sql.append(" AND is_deleted = FALSE");
+        }
+        if (query.getCourseID() != null) {
+            sql.append(" AND course_id = :courseID");
+            params.addValue("courseID", query.getCourseID().name());
+        }
+        if (query.getStudentID() != null) {
+            sql.append(" AND subject_id IN (SELECT subject_id FROM bus_registration_subject WHERE student_id = :studentID)");
+            params.addValue("studentID", query.getStudentID());
+        }
+        if (query.getAfterID() != null) {
+            if (column.equals("subject_id")) {
+                sql.append(" AND subject_id ").append(comparison).append(" :afterID");
+            } else {
+                sql.append(" AND (").append(column).append(", subject_id) ").append(comparison)
+                        .append(" (:afterKey, :afterID)");
+                params.addValue("afterKey", query.getAfterKey());
+            }
+            params.addValue("afterID", query.getAfterID());
+        }
+
+        sql.append(" ORDER BY ");
+        if (!column.equals("subject_id")) sql.append(column).append(' ').append(direction).append(", ");
+        sql.append("subject_id ").append(direction).append(" LIMIT :limit");
+        params.addValue("limit", query.getLimit());
+        return sql.toString();
+    }
+
+    private static String sortColumn(SubjectKeysetQuery query) {
+        switch (query.getSortField()) {
+            case courseID:
+                return "course_id";
+            case subjectName:
+                return "subject_name";
+            default:
+                return "subject_id";
+        }
+    }
+}
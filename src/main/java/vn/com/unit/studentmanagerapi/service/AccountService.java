@@ -10,4 +10,8 @@ public interface AccountService {
     AccountResponse createAccount(AccountCreateRequest request);
     AccountResponse updateAccount(String email, AccountUpdateRequest request);
     String deleteAccount(String email);
+    String logout(String token);
+    String revokeTokens(String email);
+    void reloadEmailFilter();
+    void refreshEmailFilter();
 }
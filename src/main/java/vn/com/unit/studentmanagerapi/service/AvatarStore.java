@@ -0,0 +1,30 @@
+package vn.com.unit.studentmanagerapi.service;
+
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for avatar images. Content is keyed by the hex
+ * SHA-256 of its bytes, so identical images are stored once and
+ * {@code bus_student} only keeps the hash.
+ */
+public interface AvatarStore {
+    /**
+     * Stores the content of {@code source} and returns its hash. Fails with
+     * {@code AVATAR_TOO_LARGE} once more than {@code maxSize} bytes are read,
+     * without storing anything.
+     */
+    String put(InputStreamSource source, long maxSize);
+
+    Optional<Resource> load(String hash);
+
+    /**
+     * Stores {@code content} as the named variant of the content with
+     * {@code hash}, e.g. a thumbnail size, replacing a previous one.
+     */
+    void putVariant(String hash, String variant, byte[] content);
+
+    Optional<Resource> loadVariant(String hash, String variant);
+}
@@ -3,7 +3,10 @@ package vn.com.unit.studentmanagerapi.service;
 import org.springframework.web.multipart.MultipartFile;
 import vn.com.unit.studentmanagerapi.dto.request.StudentCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.StudentUpdateRequest;
+import vn.com.unit.studentmanagerapi.dto.response.CursorSlice;
+import vn.com.unit.studentmanagerapi.dto.response.StudentAvatar;
 import vn.com.unit.studentmanagerapi.dto.response.StudentResponse;
+import vn.com.unit.studentmanagerapi.dto.response.StudentSuggestion;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -12,10 +15,17 @@ public interface StudentService {
     StudentResponse createStudent(StudentCreateRequest request);
     StudentResponse updateStudent(String email, StudentUpdateRequest request);
     StudentResponse uploadPhoto(String email, MultipartFile photo);
+    String getAvatarTag(Long studentId, Integer size);
+    StudentAvatar getAvatar(Long studentId, Integer size);
     StudentResponse findStudentByEmail(String email);
     String deleteStudentById(Long studentId);
     List<StudentResponse> searchByName(String condition, int page, int size);
+    CursorSlice<StudentResponse> searchByNameAfter(String condition, String cursor, int size);
+    List<StudentResponse> fuzzySearchByName(String condition, int maxDistance, int page, int size);
+    List<StudentSuggestion> suggestByName(String prefix, int size);
     List<StudentResponse> searchByAdmissionDateRange(LocalDate start, LocalDate end, int page, int size);
+    CursorSlice<StudentResponse> searchByAdmissionDateRangeAfter(LocalDate start, LocalDate end, String cursor, int size);
+    void refreshNameIndex();
     StudentResponse getMyInfo();
     String getAuthEmail();
 }
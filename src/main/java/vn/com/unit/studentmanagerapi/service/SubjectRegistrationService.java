@@ -1,9 +1,14 @@
 package vn.com.unit.studentmanagerapi.service;
 
+import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectBatchCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectDeleteRequest;
+import vn.com.unit.studentmanagerapi.dto.response.SubjectRegistrationResult;
+
+import java.util.List;
 
 public interface SubjectRegistrationService {
     Boolean createRegistrationSubject(RegistrationSubjectCreateRequest registrationSubjectCreateRequest);
+    List<SubjectRegistrationResult> createRegistrationSubjects(RegistrationSubjectBatchCreateRequest registrationSubjectBatchCreateRequest);
     Boolean deleteRegistrationSubject(RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest);
 }
@@ -4,6 +4,7 @@ import org.springframework.data.domain.Page;
 import vn.com.unit.studentmanagerapi.dto.request.SubjectCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.SubjectSearchRequest;
 import vn.com.unit.studentmanagerapi.dto.request.SubjectUpdateRequest;
+import vn.com.unit.studentmanagerapi.dto.response.CursorSlice;
 import vn.com.unit.studentmanagerapi.entity.Subject;
 
 import java.util.Optional;
@@ -14,4 +15,5 @@ public interface SubjectService {
     Boolean deleteSubject(Long subjectID);
     Subject getBySubjectID(Long subjectID);
     Page<Subject> search(SubjectSearchRequest subjectSearchRequest);
+    CursorSlice<Subject> searchAfter(SubjectSearchRequest subjectSearchRequest);
 }
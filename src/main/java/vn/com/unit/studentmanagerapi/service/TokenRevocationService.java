@@ -0,0 +1,9 @@
+package vn.com.unit.studentmanagerapi.service;
+
+public interface TokenRevocationService {
+    void revokeToken(String email, String token);
+    void revokeAllTokens(String email);
+    void recordAccountChange(String email);
+    void reload();
+    void refresh();
+}
@@ -4,12 +4,21 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.unit.studentmanagerapi.config.AccountChangeTracker;
+import vn.com.unit.studentmanagerapi.config.AccountEmailFilter;
 import vn.com.unit.studentmanagerapi.config.JwtTokenProvider;
+import vn.com.unit.studentmanagerapi.config.LoginExecutor;
+import vn.com.unit.studentmanagerapi.config.PasswordHashPolicy;
+import vn.com.unit.studentmanagerapi.config.UserDetailsCache;
+import vn.com.unit.studentmanagerapi.config.VerifiedTokenCache;
 import vn.com.unit.studentmanagerapi.dto.request.AccountCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.AccountUpdateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.LoginRequest;
@@ -21,6 +30,7 @@ import vn.com.unit.studentmanagerapi.exception.ErrorCode;
 import vn.com.unit.studentmanagerapi.mapper.AccountMapper;
 import vn.com.unit.studentmanagerapi.repository.AccountRepository;
 import vn.com.unit.studentmanagerapi.service.AccountService;
+import vn.com.unit.studentmanagerapi.service.TokenRevocationService;
 
 import java.time.LocalDateTime;
 
@@ -34,17 +44,36 @@ public class AccountServiceImpl implements AccountService {
     AccountMapper accountMapper;
     PasswordEncoder passwordEncoder;
     JwtTokenProvider jwtTokenProvider;
+    AccountChangeTracker accountChangeTracker;
+    VerifiedTokenCache verifiedTokenCache;
+    UserDetailsCache userDetailsCache;
+    TokenRevocationService tokenRevocationService;
+    LoginExecutor loginExecutor;
+    PasswordHashPolicy passwordHashPolicy;
+    AccountEmailFilter accountEmailFilter;
 
     @Override
-    @Transactional(readOnly = true)
     public String login(LoginRequest request) {
+        if (!accountEmailFilter.mightContain(request.getEmail())) {
+            throw new AppException(ErrorCode.ACCOUNT_NOT_EXISTS);
+        }
         Account account = accountRepository.findById(request.getEmail())
-                .orElseThrow(() -> new AppException(ErrorCode.ACCOUNT_NOT_EXISTS));
-
-        boolean isAuthenticated = passwordEncoder.matches(request.getPassword(), account.getPassword());
-
-        if(!isAuthenticated){
-            throw new AppException(ErrorCode.EMAIL_PASSWORD_INCORRECT);
+                .orElseThrow(() -> {
+                    accountEmailFilter.recordFalsePositive();
+                    return new AppException(ErrorCode.ACCOUNT_NOT_EXISTS);
+                });
+
+        String rehashedPassword = loginExecutor.execute(() -> {
+            if (!passwordEncoder.matches(request.getPassword(), account.getPassword())) {
+                throw new AppException(ErrorCode.EMAIL_PASSWORD_INCORRECT);
+            }
+            return passwordHashPolicy.needsRehash(account.getPassword())
+                    ? passwordEncoder.encode(request.getPassword())
+                    : null;
+        });
+
+        if (rehashedPassword != null) {
+            rehashPassword(account, rehashedPassword);
         }
 
         return jwtTokenProvider.createToken(account);
@@ -76,6 +105,9 @@ public class AccountServiceImpl implements AccountService {
         if (!isCreated) {
             throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
         }
+        // drop a cached negative entry for this email
+        userDetailsCache.evict(account.getEmail());
+        accountEmailFilter.put(account.getEmail());
 
         return accountMapper.toAccountResponse(account);
     }
@@ -95,6 +127,7 @@ public class AccountServiceImpl implements AccountService {
         account.setUpdateBy(authEmail);
 
         account = accountRepository.save(account);
+        onAccountChanged(email);
 
         return accountMapper.toAccountResponse(account);
     }
@@ -107,7 +140,69 @@ public class AccountServiceImpl implements AccountService {
         if (!isDeleted) {
             throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
         }
+        onAccountChanged(email);
+        tokenRevocationService.revokeAllTokens(email);
 
         return "Student and Account has been deleted";
     }
+
+    @Override
+    public String logout(String token) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        tokenRevocationService.revokeToken(email, token);
+
+        return "Logged out";
+    }
+
+    @Override
+    public String revokeTokens(String email) {
+        if (!accountRepository.existsById(email)) {
+            throw new AppException(ErrorCode.ACCOUNT_NOT_EXISTS);
+        }
+        tokenRevocationService.revokeAllTokens(email);
+
+        return "All tokens of the account have been revoked";
+    }
+
+    @Override
+    public void reloadEmailFilter() {
+        accountEmailFilter.load(accountRepository::findAllEmails);
+    }
+
+    // adds the accounts created on other nodes, until then they would be reported as absent here
+    @Override
+    @Scheduled(fixedDelayString = "#{@globalValue.accountEmailFilterRefreshInterval.toMillis()}")
+    public void refreshEmailFilter() {
+        accountEmailFilter.refresh(accountRepository::findEmailsCreatedSince);
+    }
+
+    private void rehashPassword(Account account, String rehashedPassword) {
+        // only replace the hash that was verified, a concurrent password change wins
+        if (accountRepository.updatePasswordIfUnchanged(account.getEmail(), account.getPassword(), rehashedPassword)) {
+            userDetailsCache.evict(account.getEmail());
+            log.info("Password hash of {} upgraded to cost {}", account.getEmail(), passwordHashPolicy.getStrength());
+        }
+    }
+
+    private void onAccountChanged(String email) {
+        evictAccount(email);
+        // the other nodes, and this one after a restart, learn the change from there
+        tokenRevocationService.recordAccountChange(email);
+
+        // evict again once committed so a concurrent read cannot re-cache the old row
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAccount(email);
+                }
+            });
+        }
+    }
+
+    private void evictAccount(String email) {
+        accountChangeTracker.markChanged(email);
+        verifiedTokenCache.invalidate(email);
+        userDetailsCache.evict(email);
+    }
 }
@@ -0,0 +1,148 @@
+package vn.com.unit.studentmanagerapi.service.impl;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import vn.com.unit.studentmanagerapi.config.GlobalValue;
+import vn.com.unit.studentmanagerapi.exception.AppException;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.service.AvatarStore;
+import vn.com.unit.studentmanagerapi.util.DigestUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * {@link AvatarStore} on the local filesystem. A file lives at
+ * {@code <root>/ab/cd/abcd...} after the first two byte pairs of its hash, which
+ * keeps directories small. Uploads are written to {@code <root>/tmp} first and
+ * renamed into place once complete, so readers never see a partial image.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class FileSystemAvatarStore implements AvatarStore {
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern VARIANT = Pattern.compile("[a-z0-9]{1,16}");
+    private static final int BUFFER_SIZE = 8192;
+
+    Path root;
+
+    @Autowired
+    public FileSystemAvatarStore(GlobalValue globalValue) {
+        this(Paths.get(globalValue.getAvatarStoreRoot()));
+    }
+
+    FileSystemAvatarStore(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public String put(InputStreamSource source, long maxSize) {
+        Path temp = null;
+        try {
+            Path tempDirectory = Files.createDirectories(root.resolve("tmp"));
+            temp = Files.createTempFile(tempDirectory, "upload-", ".part");
+
+            MessageDigest digest = DigestUtil.newSha256();
+            try (InputStream in = source.getInputStream();
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long size = 0;
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxSize) {
+                        throw new AppException(ErrorCode.AVATAR_TOO_LARGE);
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(ByteBuffer.wrap(buffer, 0, read));
+                }
+                out.force(true);
+            }
+
+            String hash = DigestUtil.toHex(digest.digest());
+            Path target = resolve(hash);
+            // identical images share one file
+            if (Files.notExists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return hash;
+        } catch (IOException e) {
+            log.error("Could not store avatar under {}", root, e);
+            throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public Optional<Resource> load(String hash) {
+        Path path = resolve(hash);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public void putVariant(String hash, String variant, byte[] content) {
+        Path target = resolve(hash, variant);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(Files.createDirectories(root.resolve("tmp")), "variant-", ".part");
+            Files.write(temp, content);
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Could not store variant {} of avatar {}", variant, hash, e);
+            throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public Optional<Resource> loadVariant(String hash, String variant) {
+        Path path = resolve(hash, variant);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    // variants sit next to the original as <hash>.<variant>
+    Path resolve(String hash, String variant) {
+        if (!VARIANT.matcher(variant).matches()) {
+            throw new IllegalArgumentException("Not a variant name: " + variant);
+        }
+        Path original = resolve(hash);
+        return original.resolveSibling(hash + "." + variant);
+    }
+
+    Path resolve(String hash) {
+        if (!HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256 hex digest: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", path, e);
+        }
+    }
+}
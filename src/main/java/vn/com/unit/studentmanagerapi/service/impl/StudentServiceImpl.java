@@ -4,15 +4,28 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.security.core.Authentication;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
+import vn.com.unit.studentmanagerapi.config.AccountEmailFilter;
+import vn.com.unit.studentmanagerapi.config.AvatarCache;
+import vn.com.unit.studentmanagerapi.config.AvatarThumbnailer;
+import vn.com.unit.studentmanagerapi.config.GlobalValue;
+import vn.com.unit.studentmanagerapi.config.StudentNameIndex;
 import vn.com.unit.studentmanagerapi.dto.request.AccountCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.StudentCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.StudentUpdateRequest;
+import vn.com.unit.studentmanagerapi.dto.response.CursorSlice;
+import vn.com.unit.studentmanagerapi.dto.response.StudentAvatar;
 import vn.com.unit.studentmanagerapi.dto.response.StudentResponse;
+import vn.com.unit.studentmanagerapi.dto.response.StudentSuggestion;
 import vn.com.unit.studentmanagerapi.entity.Student;
 import vn.com.unit.studentmanagerapi.exception.AppException;
 import vn.com.unit.studentmanagerapi.exception.ErrorCode;
@@ -20,12 +33,19 @@ import vn.com.unit.studentmanagerapi.mapper.StudentMapper;
 import vn.com.unit.studentmanagerapi.repository.AccountRepository;
 import vn.com.unit.studentmanagerapi.repository.StudentRepository;
 import vn.com.unit.studentmanagerapi.service.AccountService;
+import vn.com.unit.studentmanagerapi.service.AvatarStore;
 import vn.com.unit.studentmanagerapi.service.StudentService;
+import vn.com.unit.studentmanagerapi.util.KeysetCursor;
 import vn.com.unit.studentmanagerapi.util.MyImageUtil;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,11 +53,16 @@ import java.util.stream.Collectors;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @Slf4j
 public class StudentServiceImpl implements StudentService {
-
     StudentRepository studentRepository;
     AccountRepository accountRepository;
     AccountService accountService;
     StudentMapper studentMapper;
+    AccountEmailFilter accountEmailFilter;
+    StudentNameIndex studentNameIndex;
+    AvatarStore avatarStore;
+    AvatarThumbnailer avatarThumbnailer;
+    AvatarCache avatarCache;
+    GlobalValue globalValue;
 
     @Override
     @Transactional
@@ -46,8 +71,11 @@ public class StudentServiceImpl implements StudentService {
 
         // Check if account already exists in account table
         // If no, create a new account
-        if (accountRepository.existsByEmail(student.getEmail())) {
-            throw new AppException(ErrorCode.ACCOUNT_EXISTS);
+        if (accountEmailFilter.mightContain(student.getEmail())) {
+            if (accountRepository.existsByEmail(student.getEmail())) {
+                throw new AppException(ErrorCode.ACCOUNT_EXISTS);
+            }
+            accountEmailFilter.recordFalsePositive();
         }
 
         if (request.getDateOfBirth().isAfter(LocalDate.now())) {
@@ -74,6 +102,7 @@ public class StudentServiceImpl implements StudentService {
         student.setUpdateBy(emailAuth);
 
         student = studentRepository.save(student);
+        indexName(student);
 
         return studentMapper.toStudentResponse(student);
     }
@@ -90,6 +119,7 @@ public class StudentServiceImpl implements StudentService {
         student.setUpdateBy(getAuthEmail());
 
         student = studentRepository.save(student);
+        indexName(student);
 
         return studentMapper.toStudentResponse(student);
     }
@@ -102,17 +132,89 @@ public class StudentServiceImpl implements StudentService {
         Student student = studentRepository.findByEmail(email)
                 .orElseThrow(() -> new AppException(ErrorCode.STU_NOT_EXIST));
 
-        // convert multipart file to bytes and save to db
-        byte[] photoBytes = MyImageUtil.convertFileToBytes(photo);
-        student.setAvatar(photoBytes);
+        String previousHash = student.getAvatarHash();
+        // stream the upload into the store, the db only keeps its hash
+        student.setAvatarHash(avatarStore.put(photo, MyImageUtil.MAX_FILE_SIZE));
         student.setUpdateBy(getAuthEmail());
-        studentRepository.save(student);
+        student.setUpdateAt(LocalDateTime.now());
+
+        boolean isUpdated = studentRepository.updateAvatarHash(student.getStudentID(),
+                student.getAvatarHash(), student.getUpdateBy(), student.getUpdateAt());
+        if (!isUpdated) {
+            throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
+        }
+        String avatarHash = student.getAvatarHash();
+        afterCommit(() -> {
+            avatarThumbnailer.submit(avatarHash);
+            if (previousHash != null && !previousHash.equals(avatarHash)) avatarCache.evict(previousHash);
+        });
+
+        return studentMapper.toStudentResponse(student);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getAvatarTag(Long studentId, Integer size) {
+        String hash = getAvatarHash(studentId);
+        if (size == null) return hash;
 
-        StudentResponse studentResponse = studentMapper.toStudentResponse(student);
-        // convert bytes to base64
-        studentResponse.setAvatar(MyImageUtil.convertToBase64(student.getAvatar()));
+        String variant = toVariant(size);
+        boolean rendered = avatarCache.contains(AvatarCache.key(hash, variant))
+                || avatarStore.loadVariant(hash, variant).isPresent();
+        if (!rendered) return hash;
 
-        return studentResponse;
+        return hash + "-" + size;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StudentAvatar getAvatar(Long studentId, Integer size) {
+        String hash = getAvatarHash(studentId);
+        Optional<Resource> thumbnail = Optional.empty();
+        if (size != null) {
+            String variant = toVariant(size);
+            thumbnail = avatarCache.get(AvatarCache.key(hash, variant), () -> avatarStore.loadVariant(hash, variant));
+        }
+        // until its thumbnails are rendered an avatar is served in full
+        Resource content = thumbnail.orElseGet(() -> getOriginalAvatar(studentId, hash));
+
+        return StudentAvatar.builder()
+                .hash(hash)
+                .tag(thumbnail.isPresent() ? hash + "-" + size : hash)
+                .contentType(MyImageUtil.detectContentType(content))
+                .content(content)
+                .build();
+    }
+
+    private String toVariant(int size) {
+        if (!avatarThumbnailer.isSupportedSize(size)) {
+            throw new AppException(ErrorCode.AVATAR_SIZE_INVALID);
+        }
+        return String.valueOf(size);
+    }
+
+    private String getAvatarHash(Long studentId) {
+        Student student = studentRepository.findAvatarHashByStudentID(studentId)
+                .orElseThrow(() -> new AppException(ErrorCode.STU_NOT_EXIST));
+        if (student.getAvatarHash() == null) {
+            throw new AppException(ErrorCode.AVATAR_NOT_FOUND);
+        }
+
+        return student.getAvatarHash();
+    }
+
+    private Resource getOriginalAvatar(Long studentId, String hash) {
+        return avatarCache.get(AvatarCache.key(hash, null),
+                        () -> Optional.of(avatarStore.load(hash).orElseGet(() -> getLegacyAvatar(studentId))))
+                .orElseThrow(() -> new AppException(ErrorCode.AVATAR_NOT_FOUND));
+    }
+
+    // avatars uploaded before the store existed are still in bus_student.avatar
+    private Resource getLegacyAvatar(Long studentId) {
+        byte[] avatar = studentRepository.findAvatarByStudentID(studentId)
+                .map(Student::getAvatar)
+                .orElseThrow(() -> new AppException(ErrorCode.AVATAR_NOT_FOUND));
+        return new ByteArrayResource(avatar);
     }
 
     @Override
@@ -131,11 +233,13 @@ public class StudentServiceImpl implements StudentService {
             throw new AppException(ErrorCode.STU_NOT_EXIST);
         }
 
-        boolean isDeleted = studentRepository.softDeleteByStudentID(studentId);
+        // update_at lets the other nodes' name index refresh see the deletion
+        boolean isDeleted = studentRepository.softDeleteByStudentID(studentId, getAuthEmail(), LocalDateTime.now());
 
         if (!isDeleted) {
             throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
         }
+        afterCommit(() -> studentNameIndex.remove(studentId));
 
         return "Student has been deleted!";
     }
@@ -148,13 +252,84 @@ public class StudentServiceImpl implements StudentService {
         }
 
         int offset = page * size;
-        List<Student> students = studentRepository.findAllByFullName(condition, size, offset);
+        List<Student> students;
+        if (studentNameIndex.isLoaded()) {
+            students = findAllByStudentIDs(studentNameIndex.search(condition, offset, size));
+        } else {
+            students = studentRepository.findAllByFullName(condition, size, offset);
+        }
+
+        return students.stream()
+                .map(studentMapper::toStudentResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<StudentResponse> searchByNameAfter(String condition, String cursor, int size) {
+        if (size <= 0) {
+            throw new AppException(ErrorCode.PAGE_SIZE_INVALID);
+        }
+
+        String scope = getNameCursorScope(condition);
+        KeysetCursor after = KeysetCursor.decode(cursor, scope);
+        String lastName = after != null ? after.getKey() : "";
+        long lastId = after != null ? after.getId() : 0;
+
+        // one extra row tells whether another page follows
+        List<Student> students = studentNameIndex.isLoaded()
+                ? findAllByStudentIDs(studentNameIndex.searchAfter(condition, lastName, lastId, size + 1))
+                : studentRepository.findAllByFullNameAfter(condition, lastName, lastId, size + 1);
+        // the stored name either way, the name index folds it itself
+        return CursorSlice.of(students, size,
+                student -> KeysetCursor.of(student.getFullName(), student.getStudentID()).encode(scope),
+                studentMapper::toStudentResponse);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StudentResponse> fuzzySearchByName(String condition, int maxDistance, int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new AppException(ErrorCode.PAGE_SIZE_INVALID);
+        }
+
+        if (maxDistance < 0 || maxDistance > globalValue.getFuzzyMaxDistance()) {
+            throw new AppException(ErrorCode.MAX_DISTANCE_INVALID);
+        }
+
+        // the LIKE query has no typo tolerance, answering with it would look like "no match"
+        if (!studentNameIndex.isLoaded()) {
+            throw new AppException(ErrorCode.NAME_INDEX_LOADING);
+        }
+
+        List<Student> students = findAllByStudentIDs(
+                studentNameIndex.fuzzySearch(condition, maxDistance, page * size, size));
 
         return students.stream()
                 .map(studentMapper::toStudentResponse)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<StudentSuggestion> suggestByName(String prefix, int size) {
+        if (size <= 0) {
+            throw new AppException(ErrorCode.PAGE_SIZE_INVALID);
+        }
+
+        int limit = Math.min(size, globalValue.getSuggestMaxSize());
+        List<Student> students;
+        if (studentNameIndex.isLoaded()) {
+            students = studentNameIndex.suggest(prefix, limit);
+        } else {
+            students = studentRepository.findAllByFullName(prefix, limit, 0);
+        }
+
+        return students.stream()
+                .map(studentMapper::toStudentSuggestion)
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<StudentResponse> searchByAdmissionDateRange(LocalDate start, LocalDate end, int page, int size) {
@@ -175,6 +350,34 @@ public class StudentServiceImpl implements StudentService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<StudentResponse> searchByAdmissionDateRangeAfter(LocalDate start, LocalDate end, String cursor, int size) {
+        if (size <= 0) {
+            throw new AppException(ErrorCode.PAGE_SIZE_INVALID);
+        }
+
+        if (end.isBefore(start)) {
+            throw new AppException(ErrorCode.END_DATE_BEFORE_START_DATE);
+        }
+
+        String scope = getAdmissionCursorScope(start, end);
+        KeysetCursor after = KeysetCursor.decode(cursor, scope);
+        List<Student> students = studentRepository.findAllByAdmissionDateAfter(start, end,
+                after != null ? after.getKey() : "", after != null ? after.getId() : 0, size + 1);
+
+        return CursorSlice.of(students, size,
+                student -> KeysetCursor.of(student.getFullName(), student.getStudentID()).encode(scope),
+                studentMapper::toStudentResponse);
+    }
+
+    // applies the students created, renamed or deleted on other nodes, until then searches here miss them
+    @Override
+    @Scheduled(fixedDelayString = "#{@globalValue.studentNameIndexRefreshInterval.toMillis()}")
+    public void refreshNameIndex() {
+        studentNameIndex.refresh(studentRepository::findSummariesChangedSince);
+    }
+
     @Transactional(readOnly = true)
     public StudentResponse getMyInfo() {
         String auth = getAuthEmail();
@@ -184,6 +387,50 @@ public class StudentServiceImpl implements StudentService {
         return studentMapper.toStudentResponse(student);
     }
 
+    /**
+     * Loads the given students keeping the order of {@code studentIds}.
+     */
+    private List<Student> findAllByStudentIDs(List<Long> studentIds) {
+        if (studentIds.isEmpty()) return Collections.emptyList();
+
+        Map<Long, Student> byId = new HashMap<>();
+        studentRepository.findAllByStudentIDs(studentIds)
+                .forEach(student -> byId.put(student.getStudentID(), student));
+        return studentIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private String getNameCursorScope(String condition) {
+        return "students:name:" + condition;
+    }
+
+    private String getAdmissionCursorScope(LocalDate start, LocalDate end) {
+        return "students:admission:" + start + ":" + end;
+    }
+
+    private void indexName(Student student) {
+        Long studentId = student.getStudentID();
+        if (studentId == null) return;
+        if (student.isDeleted()) afterCommit(() -> studentNameIndex.remove(studentId));
+        else afterCommit(() -> studentNameIndex.put(student));
+    }
+
+    // keep the name index in step with what other transactions can see
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     public String getAuthEmail() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         return authentication.getName();
@@ -3,26 +3,42 @@ package vn.com.unit.studentmanagerapi.service.impl;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import vn.com.unit.studentmanagerapi.config.AuthPrincipal;
 import vn.com.unit.studentmanagerapi.config.GlobalValue;
+import vn.com.unit.studentmanagerapi.config.RegistrationGroupCommit;
+import vn.com.unit.studentmanagerapi.config.SeatAllocator;
+import vn.com.unit.studentmanagerapi.dto.enums.RegistrationBatchMode;
+import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectBatchCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectDeleteRequest;
+import vn.com.unit.studentmanagerapi.dto.response.SubjectRegistrationResult;
 import vn.com.unit.studentmanagerapi.entity.RegistrationSubject;
 import vn.com.unit.studentmanagerapi.entity.RegistrationSubjectID;
 import vn.com.unit.studentmanagerapi.entity.Student;
 import vn.com.unit.studentmanagerapi.entity.Subject;
-import vn.com.unit.studentmanagerapi.entity.enums.Role;
+import vn.com.unit.studentmanagerapi.entity.enums.CourseID;
 import vn.com.unit.studentmanagerapi.exception.AppException;
 import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.repository.RegistrationCandidate;
 import vn.com.unit.studentmanagerapi.repository.RegistrationSubjectRepository;
 import vn.com.unit.studentmanagerapi.repository.StudentRepository;
 import vn.com.unit.studentmanagerapi.repository.SubjectRepository;
 import vn.com.unit.studentmanagerapi.service.SubjectRegistrationService;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
@@ -32,15 +48,58 @@ public class SubjectRegistrationServiceImpl implements SubjectRegistrationServic
     RegistrationSubjectRepository registrationSubjectRepository;
     StudentRepository studentRepository;
     SubjectRepository subjectRepository;
+    SeatAllocator seatAllocator;
+    RegistrationGroupCommit registrationGroupCommit;
+    TransactionOperations transactionOperations;
 
     static boolean IS_DELETED = true;
 
     @Override
-    @Transactional
+    // the writes get their own transaction below, a caller waiting on the group commit must not hold a connection
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Boolean createRegistrationSubject(RegistrationSubjectCreateRequest registrationSubjectCreateRequest) {
         checkRegistrationSubjectID(registrationSubjectCreateRequest);
+        seatAllocator.checkLoaded();
         RegistrationSubject registrationSubject = getRegistrationSubject(registrationSubjectCreateRequest);
 
+        if (seatAllocator.isReady()) {
+            SeatAllocator.Decision decision = seatAllocator.allocate(
+                    registrationSubject.getRegistrationSubjectID().getSubjectID(),
+                    registrationSubject.getRegistrationSubjectID().getStudentID(),
+                    registrationSubject.getUpdateBy());
+            switch (decision) {
+                case GRANTED:
+                    return true;
+                case FULL:
+                    throw new AppException(ErrorCode.SUBJECT_FULL);
+                case LIMIT_EXCEEDED:
+                    throw new AppException(ErrorCode.EXCEEDS_MAXIMUM_SUBJECTS);
+                case ALREADY_REGISTERED:
+                    throw new AppException(ErrorCode.STU_ALREADY_REGISTERED);
+                default:
+                    break; // not tracked, registered in the db below
+            }
+        }
+
+        if (registrationGroupCommit.isEnabled()) {
+            switch (registrationGroupCommit.register(registrationSubject)) {
+                case FULL:
+                    throw new AppException(ErrorCode.SUBJECT_FULL);
+                case LIMIT_EXCEEDED:
+                    throw new AppException(ErrorCode.EXCEEDS_MAXIMUM_SUBJECTS);
+                default:
+                    return true;
+            }
+        }
+
+        return transactionOperations.execute(status -> insertRegistrationSubject(registrationSubject));
+    }
+
+    private Boolean insertRegistrationSubject(RegistrationSubject registrationSubject) {
+        // the seat is returned by the rollback if the insert below fails
+        if (!subjectRepository.claimSeat(registrationSubject.getRegistrationSubjectID().getSubjectID()))
+            throw new AppException(ErrorCode.SUBJECT_FULL);
+
         boolean isInserted = registrationSubjectRepository.insert(
                 registrationSubject.getRegistrationSubjectID().getSubjectID(),
                 registrationSubject.getRegistrationSubjectID().getStudentID(),
@@ -53,18 +112,179 @@ public class SubjectRegistrationServiceImpl implements SubjectRegistrationServic
         return true;
     }
 
+    @Override
+    // like createRegistrationSubject, the writes get their own transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SubjectRegistrationResult> createRegistrationSubjects(RegistrationSubjectBatchCreateRequest registrationSubjectBatchCreateRequest) {
+        Long studentID = registrationSubjectBatchCreateRequest.getStudentID();
+        Student student = studentRepository
+                .findSummaryByStudentID(studentID)
+                .orElseThrow(() -> new AppException(ErrorCode.STU_ID_INVALID));
+        checkAuthorization(student);
+        seatAllocator.checkLoaded();
+        boolean allOrNothing = registrationSubjectBatchCreateRequest.getMode() == RegistrationBatchMode.ALL_OR_NOTHING;
+        List<Long> subjectIDs = new ArrayList<>(new LinkedHashSet<>(registrationSubjectBatchCreateRequest.getSubjectIDs()));
+
+        // every subject is checked with one query, seats are claimed again when written
+        Map<Long, RegistrationCandidate> candidates = new HashMap<>();
+        for (RegistrationCandidate candidate : registrationSubjectRepository.findCandidates(studentID, subjectIDs)) {
+            candidates.put(candidate.getSubjectID(), candidate);
+        }
+        Map<Long, ErrorCode> refused = new HashMap<>();
+        Map<CourseID, Integer> registeredInCourse = new EnumMap<>(CourseID.class);
+        List<Long> allowed = new ArrayList<>();
+        for (Long subjectID : subjectIDs) {
+            ErrorCode error = checkCandidate(candidates.get(subjectID), registeredInCourse);
+            if (error == null) allowed.add(subjectID);
+            else refused.put(subjectID, error);
+        }
+
+        Set<Long> registered = new HashSet<>();
+        if (!allowed.isEmpty() && (!allOrNothing || refused.isEmpty())) {
+            registered.addAll(insertRegistrationSubjects(studentID, allowed, allOrNothing, refused));
+        }
+
+        List<SubjectRegistrationResult> results = new ArrayList<>(subjectIDs.size());
+        for (Long subjectID : subjectIDs) {
+            ErrorCode error = registered.contains(subjectID) ? null
+                    : refused.getOrDefault(subjectID, ErrorCode.REGISTRATION_BATCH_ABORTED);
+            results.add(SubjectRegistrationResult.builder()
+                    .subjectID(subjectID)
+                    .registered(error == null)
+                    .code(error == null ? "APP_SUCCESS" : error.getCode())
+                    .message(error == null ? "Success" : error.getMessage())
+                    .build());
+        }
+        return results;
+    }
+
     @Override
     @Transactional
     public Boolean deleteRegistrationSubject(RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest) {
         checkRegistrationSubjectID(registrationSubjectDeleteRequest);
+        seatAllocator.checkLoaded();
         RegistrationSubjectID registrationSubjectID = getRegistrationSubjectID(registrationSubjectDeleteRequest);
-        registrationSubjectRepository.deleteById(registrationSubjectID.getSubjectID(), registrationSubjectID.getStudentID());
+        if (seatAllocator.isReady() && seatAllocator.release(registrationSubjectID.getSubjectID(),
+                registrationSubjectID.getStudentID(), getEmail()) != SeatAllocator.Decision.UNTRACKED)
+            return true;
+
+        boolean isDeleted = registrationSubjectRepository.deleteById(registrationSubjectID.getSubjectID(), registrationSubjectID.getStudentID());
+        if (isDeleted)
+            subjectRepository.releaseSeat(registrationSubjectID.getSubjectID());
         return true;
     }
 
+    private ErrorCode checkCandidate(RegistrationCandidate candidate, Map<CourseID, Integer> registeredInCourse) {
+        if (candidate == null)
+            return ErrorCode.SUBJECT_ID_INVALID;
+        if (!candidate.isStatus())
+            return ErrorCode.COURSE_CLOSED_FOR_REGISTRATION;
+        if (candidate.isRegistered())
+            return ErrorCode.STU_ALREADY_REGISTERED;
+        if (candidate.getNumberOfAvailability() == 0)
+            return ErrorCode.SUBJECT_FULL;
+        // counts the subjects of this request already accepted in the course
+        int registered = registeredInCourse.getOrDefault(candidate.getCourseID(), candidate.getRegisteredInCourse());
+        if (registered >= globalValue.getSubjectLimitForCourse())
+            return ErrorCode.EXCEEDS_MAXIMUM_SUBJECTS;
+        registeredInCourse.put(candidate.getCourseID(), registered + 1);
+        return null;
+    }
+
+    /**
+     * Claims a seat in each subject and registers the student for those that
+     * had one; adds the others to {@code refused}. In all-or-nothing mode a
+     * single missing seat registers none. Subjects tracked by the seat
+     * allocator take their seats there.
+     */
+    private List<Long> insertRegistrationSubjects(Long studentID, List<Long> subjectIDs, boolean allOrNothing,
+                                                  Map<Long, ErrorCode> refused) {
+        String updateBy = getEmail();
+        List<Long> granted = new ArrayList<>();
+        List<Long> untracked = new ArrayList<>(subjectIDs);
+        if (seatAllocator.isReady()) {
+            untracked.clear();
+            for (Long subjectID : subjectIDs) {
+                SeatAllocator.Decision decision = seatAllocator.allocate(subjectID, studentID, updateBy);
+                if (decision == SeatAllocator.Decision.GRANTED) granted.add(subjectID);
+                else if (decision == SeatAllocator.Decision.UNTRACKED) untracked.add(subjectID);
+                else refused.put(subjectID, toErrorCode(decision));
+            }
+        }
+
+        List<Long> seated;
+        try {
+            seated = untracked.isEmpty() || allOrNothing && !refused.isEmpty()
+                    ? Collections.emptyList()
+                    : transactionOperations.execute(status -> {
+                        List<Long> inserted = claimAndInsert(studentID, untracked, updateBy, refused);
+                        if (allOrNothing && inserted.size() < untracked.size()) status.setRollbackOnly();
+                        return inserted;
+                    });
+        } catch (RuntimeException e) {
+            if (allOrNothing) releaseAllocated(studentID, granted, updateBy);
+            throw e;
+        }
+
+        if (allOrNothing && !refused.isEmpty()) {
+            releaseAllocated(studentID, granted, updateBy);
+            return Collections.emptyList();
+        }
+        granted.addAll(seated);
+        return granted;
+    }
+
+    // runs in the transaction of the batch, one round trip for the seats and one for the rows
+    private List<Long> claimAndInsert(Long studentID, List<Long> subjectIDs, String updateBy,
+                                      Map<Long, ErrorCode> refused) {
+        // seats are locked in subject order, as every writer does, so two requests cannot deadlock
+        List<Long> sorted = new ArrayList<>(subjectIDs);
+        Collections.sort(sorted);
+        int[] claimed = subjectRepository.claimSeats(sorted);
+        List<RegistrationSubject> seated = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            if (claimed[i] > 0) seated.add(getRegistrationSubject(sorted.get(i), studentID, updateBy));
+            else refused.put(sorted.get(i), ErrorCode.SUBJECT_FULL);
+        }
+        if (seated.isEmpty())
+            return Collections.emptyList();
+
+        // the candidates were read outside this transaction, each row checks the course limit again
+        int[] inserted = registrationSubjectRepository.insertAll(seated, globalValue.getSubjectLimitForCourse());
+        List<Long> registered = new ArrayList<>();
+        List<Long> overLimit = new ArrayList<>();
+        for (int i = 0; i < seated.size(); i++) {
+            Long subjectID = seated.get(i).getRegistrationSubjectID().getSubjectID();
+            if (inserted[i] > 0) {
+                registered.add(subjectID);
+            } else {
+                overLimit.add(subjectID);
+                refused.put(subjectID, ErrorCode.EXCEEDS_MAXIMUM_SUBJECTS);
+            }
+        }
+        if (!overLimit.isEmpty())
+            subjectRepository.releaseSeats(overLimit);
+        return registered;
+    }
+
+    private void releaseAllocated(Long studentID, List<Long> subjectIDs, String updateBy) {
+        subjectIDs.forEach(subjectID -> seatAllocator.release(subjectID, studentID, updateBy));
+    }
+
+    private ErrorCode toErrorCode(SeatAllocator.Decision decision) {
+        switch (decision) {
+            case FULL:
+                return ErrorCode.SUBJECT_FULL;
+            case LIMIT_EXCEEDED:
+                return ErrorCode.EXCEEDS_MAXIMUM_SUBJECTS;
+            default:
+                return ErrorCode.STU_ALREADY_REGISTERED;
+        }
+    }
+
     private void checkRegistrationSubjectID(RegistrationSubjectCreateRequest registrationSubjectCreateRequest) {
         Student student = studentRepository
-                .findById(registrationSubjectCreateRequest.getStudentID())
+                .findSummaryByStudentID(registrationSubjectCreateRequest.getStudentID())
                 .orElseThrow(() -> new AppException(ErrorCode.STU_ID_INVALID));
         checkAuthorization(student); // check quyền
         Subject subject = subjectRepository
@@ -76,7 +296,7 @@ public class SubjectRegistrationServiceImpl implements SubjectRegistrationServic
 
     private void checkRegistrationSubjectID(RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest) {
         Student student = studentRepository
-                .findById(registrationSubjectDeleteRequest.getStudentID())
+                .findSummaryByStudentID(registrationSubjectDeleteRequest.getStudentID())
                 .orElseThrow(() -> new AppException(ErrorCode.STU_ID_INVALID));
         checkAuthorization(student);
         Subject subject = subjectRepository
@@ -85,8 +305,8 @@ public class SubjectRegistrationServiceImpl implements SubjectRegistrationServic
     }
 
     private void checkAuthorization(Student student) {
-        UserDetails userDetails = getUserDetails();
-        if(Role.ADMIN.equals(getRole(userDetails)) || student.getEmail().equals(getEmail(userDetails))) {}
+        AuthPrincipal principal = AuthPrincipal.current();
+        if(principal.isAdmin() || student.getEmail().equals(principal.getEmail())) {}
         else throw new AppException(ErrorCode.UNAUTHORIZED);
     }
 
@@ -98,6 +318,13 @@ public class SubjectRegistrationServiceImpl implements SubjectRegistrationServic
                 .build();
     }
 
+    private RegistrationSubject getRegistrationSubject(Long subjectID, Long studentID, String updateBy) {
+        return RegistrationSubject.builder()
+                .registrationSubjectID(RegistrationSubjectID.builder().subjectID(subjectID).studentID(studentID).build())
+                .updateBy(updateBy)
+                .build();
+    }
+
     private RegistrationSubjectID getRegistrationSubjectID(RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest) {
         return RegistrationSubjectID.builder()
                 .subjectID(registrationSubjectDeleteRequest.getSubjectID())
@@ -112,27 +339,7 @@ public class SubjectRegistrationServiceImpl implements SubjectRegistrationServic
                 .build();
     }
 
-    private UserDetails getUserDetails(){
-        return (UserDetails) SecurityContextHolder
-                .getContext()
-                .getAuthentication()
-                .getPrincipal();
-    }
-
     private String getEmail(){
-        return getUserDetails().getUsername();
-    }
-
-    private String getEmail(UserDetails userDetails){
-        return userDetails.getUsername();
-    }
-
-    private Role getRole(UserDetails userDetails){
-        GrantedAuthority grantedAuthority = userDetails
-                .getAuthorities()
-                .stream()
-                .findFirst()
-                .get();
-        return Role.valueOf(grantedAuthority.getAuthority());
+        return AuthPrincipal.current().getEmail();
     }
 }
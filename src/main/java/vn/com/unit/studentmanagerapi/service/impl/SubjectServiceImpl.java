@@ -7,23 +7,25 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vn.com.unit.studentmanagerapi.config.AuthPrincipal;
+import vn.com.unit.studentmanagerapi.config.SeatAllocator;
 import vn.com.unit.studentmanagerapi.dto.enums.SubjectFieldSearch;
+import vn.com.unit.studentmanagerapi.dto.enums.SubjectSortField;
 import vn.com.unit.studentmanagerapi.dto.request.SubjectCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.SubjectSearchRequest;
 import vn.com.unit.studentmanagerapi.dto.request.SubjectUpdateRequest;
-import vn.com.unit.studentmanagerapi.entity.Account;
+import vn.com.unit.studentmanagerapi.dto.response.CursorSlice;
 import vn.com.unit.studentmanagerapi.entity.Subject;
 import vn.com.unit.studentmanagerapi.entity.enums.CourseID;
 import vn.com.unit.studentmanagerapi.entity.enums.Role;
 import vn.com.unit.studentmanagerapi.exception.AppException;
 import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.repository.SubjectKeysetQuery;
 import vn.com.unit.studentmanagerapi.repository.SubjectRepository;
 import vn.com.unit.studentmanagerapi.service.SubjectService;
+import vn.com.unit.studentmanagerapi.util.KeysetCursor;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
@@ -41,6 +43,7 @@ import java.util.stream.Stream;
 @Transactional(readOnly = true)
 public class SubjectServiceImpl implements SubjectService {
     SubjectRepository subjectRepository;
+    SeatAllocator seatAllocator;
 
     static final boolean IS_DELETED = true;
 
@@ -50,29 +53,28 @@ public class SubjectServiceImpl implements SubjectService {
         Subject subject = fromRequest(subjectCreateRequest)
                 .updateBy(getEmail())
                 .build();
-        subjectRepository.save(subject); // lỗi DuplicateKeyException
+        seatAllocator.track(subjectRepository.save(subject)); // lỗi DuplicateKeyException
         return true;
     }
 
     @Override
     @Transactional
     public Boolean updateSubject(Long subjectID, SubjectUpdateRequest subjectUpdateRequest) {
-        Subject subject = subjectRepository
-                .findById(subjectID)
-                .orElseThrow(() -> new AppException(ErrorCode.SUBJECT_NOT_FOUND));
-
-        subject.setSubjectName(subjectUpdateRequest.getSubjectName());
-        subject.setStartDate(subjectUpdateRequest.getStartDate());
-        subject.setEndDate(subjectUpdateRequest.getEndDate());
-        subject.setNumberOfCredit(subjectUpdateRequest.getNumberOfCredit());
-        subject.setStatus(subjectUpdateRequest.isStatus());
-        subject.setCourseID(subjectUpdateRequest.getCourseID());
-        subject.setTuition(subjectUpdateRequest.getTuition());
-        subject.setDescription(subjectUpdateRequest.getDescription());
-        subject.setUpdatedAt(LocalDateTime.now());
-        subject.setUpdateBy(getEmail());
-
-        subjectRepository.save(subject);
+        if (!subjectRepository.existsById(subjectID))
+            throw new AppException(ErrorCode.SUBJECT_NOT_FOUND);
+
+        subjectRepository.updateDetails(subjectID,
+                subjectUpdateRequest.getSubjectName(),
+                subjectUpdateRequest.getStartDate(),
+                subjectUpdateRequest.getEndDate(),
+                subjectUpdateRequest.getNumberOfCredit(),
+                subjectUpdateRequest.isStatus(),
+                subjectUpdateRequest.getCourseID().name(),
+                subjectUpdateRequest.getTuition(),
+                subjectUpdateRequest.getDescription(),
+                LocalDateTime.now(),
+                getEmail());
+        seatAllocator.changeCourse(subjectID, subjectUpdateRequest.getCourseID());
         return true;
     }
 
@@ -117,6 +119,58 @@ public class SubjectServiceImpl implements SubjectService {
         return subjects;
     }
 
+    @Override
+    public CursorSlice<Subject> searchAfter(SubjectSearchRequest subjectSearchRequest) {
+        if (subjectSearchRequest.getSize() <= 0) {
+            throw new AppException(ErrorCode.PAGE_SIZE_INVALID);
+        }
+
+        String scope = getCursorScope(subjectSearchRequest);
+        KeysetCursor after = KeysetCursor.decode(subjectSearchRequest.getCursor(), scope);
+        SubjectKeysetQuery.SubjectKeysetQueryBuilder query = SubjectKeysetQuery.builder()
+                .sortField(subjectSearchRequest.getSortField())
+                .direction(subjectSearchRequest.getSortDirection())
+                .afterKey(after != null ? after.getKey() : null)
+                .afterID(after != null ? after.getId() : null)
+                // one extra row tells whether another page follows
+                .limit(subjectSearchRequest.getSize() + 1);
+
+        switch (subjectSearchRequest.getFieldSearch()) {
+            case STUDENT_ID:
+                query.studentID(Long.valueOf(subjectSearchRequest.getValueSearch()));
+                break;
+            case COURSE_ID:
+                query.courseID(toCourseID(subjectSearchRequest.getValueSearch()))
+                        .excludeDeleted(getRole() != Role.ADMIN);
+                break;
+            default:
+                query.excludeDeleted(getRole() != Role.ADMIN);
+        }
+
+        List<Subject> subjects = subjectRepository.searchAfter(query.build());
+        return CursorSlice.of(subjects, subjectSearchRequest.getSize(),
+                subject -> KeysetCursor.of(getSortKey(subject, subjectSearchRequest.getSortField()), subject.getSubjectID())
+                        .encode(scope),
+                Function.identity());
+    }
+
+    // a cursor only continues the search, filter and ordering that issued it
+    private String getCursorScope(SubjectSearchRequest subjectSearchRequest) {
+        return "subjects:" + subjectSearchRequest.getFieldSearch() + ":" + subjectSearchRequest.getValueSearch()
+                + ":" + subjectSearchRequest.getSortField() + ":" + subjectSearchRequest.getSortDirection();
+    }
+
+    private String getSortKey(Subject subject, SubjectSortField sortField) {
+        switch (sortField) {
+            case courseID:
+                return subject.getCourseID().name();
+            case subjectName:
+                return subject.getSubjectName();
+            default:
+                return "";
+        }
+    }
+
     private Function<Long, Optional<Subject>> getOptionsFind(Role role){
         Map<Role, Function<Long, Optional<Subject>>> optionsFind = new HashMap<>();
 
@@ -156,10 +210,7 @@ public class SubjectServiceImpl implements SubjectService {
     private Page<Subject> searchByCourseID(String valueSearch, PageRequest pageRequest) {
         Page<Subject> subjects;
 
-        CourseID courseID = Stream.of(CourseID.values())
-                .filter(c -> c.name().equals(valueSearch))
-                .findFirst()
-                .orElse(CourseID.OTHER);
+        CourseID courseID = toCourseID(valueSearch);
         Role role = getRole();
 
         switch (role){
@@ -172,24 +223,19 @@ public class SubjectServiceImpl implements SubjectService {
         return subjects;
     }
 
-    private UserDetails getUserDetails(){
-        return (Account) SecurityContextHolder
-                .getContext()
-                .getAuthentication()
-                .getPrincipal();
+    private CourseID toCourseID(String valueSearch) {
+        return Stream.of(CourseID.values())
+                .filter(c -> c.name().equals(valueSearch))
+                .findFirst()
+                .orElse(CourseID.OTHER);
     }
 
     private String getEmail(){
-        return getUserDetails().getUsername();
+        return AuthPrincipal.current().getEmail();
     }
 
     private Role getRole(){
-        GrantedAuthority grantedAuthority = getUserDetails()
-                .getAuthorities()
-                .stream()
-                .findFirst()
-                .get();
-        return Role.valueOf(grantedAuthority.getAuthority());
+        return AuthPrincipal.current().getRole();
     }
 
     public Subject.SubjectBuilder fromRequest(SubjectCreateRequest subjectCreateRequest) {
@@ -0,0 +1,162 @@
+package vn.com.unit.studentmanagerapi.service.impl;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.unit.studentmanagerapi.config.AccountChangeTracker;
+import vn.com.unit.studentmanagerapi.config.GlobalValue;
+import vn.com.unit.studentmanagerapi.config.JwtTokenProvider;
+import vn.com.unit.studentmanagerapi.config.TokenDenylist;
+import vn.com.unit.studentmanagerapi.config.UserDetailsCache;
+import vn.com.unit.studentmanagerapi.config.VerifiedTokenCache;
+import vn.com.unit.studentmanagerapi.entity.RevokedToken;
+import vn.com.unit.studentmanagerapi.repository.RevokedTokenRepository;
+import vn.com.unit.studentmanagerapi.service.TokenRevocationService;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Persists revocations to {@code common_revoked_token} and mirrors them into
+ * the {@link TokenDenylist} once committed. Revocations made on other nodes
+ * are picked up by {@link #refresh()}, which reads the rows revoked since the
+ * previous refresh less {@code refresh-overlap}: a row only becomes visible
+ * when its transaction commits, possibly after later rows, and its
+ * {@code revoked_at} comes from the clock of the node that wrote it. Rows read
+ * twice are applied twice, which changes nothing.
+ * <p>
+ * Account changes are stored the same way so that every node re-checks the
+ * older tokens of the account, see {@link AccountChangeTracker}.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    RevokedTokenRepository revokedTokenRepository;
+    JwtTokenProvider jwtTokenProvider;
+    TokenDenylist tokenDenylist;
+    VerifiedTokenCache verifiedTokenCache;
+    AccountChangeTracker accountChangeTracker;
+    UserDetailsCache userDetailsCache;
+    GlobalValue config;
+
+    @NonFinal
+    volatile boolean loaded;
+    @NonFinal
+    volatile LocalDateTime lastLoadedAt;
+
+    @Override
+    @Transactional
+    public void revokeToken(String email, String token) {
+        String digest = JwtTokenProvider.digest(token);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(
+                jwtTokenProvider.getExpiration(token).toInstant(), ZoneId.systemDefault());
+
+        applyAfterCommit(revokedTokenRepository.save(RevokedToken.builder()
+                .tokenDigest(digest)
+                .email(email)
+                .revokedAt(now)
+                .expiresAt(expiresAt)
+                .build()));
+    }
+
+    @Override
+    @Transactional
+    public void revokeAllTokens(String email) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // every token issued up to now has expired by then
+        applyAfterCommit(revokedTokenRepository.save(RevokedToken.builder()
+                .email(email)
+                .revokedAt(now)
+                .expiresAt(now.plus(config.getExpiration()))
+                .build()));
+    }
+
+    @Override
+    @Transactional
+    public void recordAccountChange(String email) {
+        LocalDateTime now = LocalDateTime.now();
+
+        applyAfterCommit(revokedTokenRepository.save(RevokedToken.builder()
+                .email(email)
+                .recheckOnly(true)
+                .revokedAt(now)
+                .expiresAt(now.plus(config.getExpiration()))
+                .build()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void reload() {
+        tokenDenylist.clear();
+        LocalDateTime startedAt = LocalDateTime.now();
+        load(revokedTokenRepository.findActive(startedAt));
+        lastLoadedAt = startedAt;
+        loaded = true;
+        log.info("Token denylist loaded with {} revoked tokens", tokenDenylist.size());
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "#{@globalValue.jwtDenylistRefreshInterval.toMillis()}")
+    public void refresh() {
+        if (!loaded) return;
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        revokedTokenRepository.deleteExpired(startedAt);
+        tokenDenylist.removeExpired(System.currentTimeMillis());
+        accountChangeTracker.removeChangedBefore(System.currentTimeMillis() - config.getExpiration().toMillis());
+        load(revokedTokenRepository.findActiveRevokedSince(
+                lastLoadedAt.minus(config.getJwtDenylistRefreshOverlap()), startedAt));
+        lastLoadedAt = startedAt;
+    }
+
+    private void load(List<RevokedToken> revokedTokens) {
+        revokedTokens.forEach(this::apply);
+    }
+
+    // a rolled back revocation must not linger in the denylist of this node
+    private void applyAfterCommit(RevokedToken revokedToken) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(revokedToken);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(revokedToken);
+            }
+        });
+    }
+
+    private void apply(RevokedToken revokedToken) {
+        String email = revokedToken.getEmail();
+        if (revokedToken.getTokenDigest() != null) {
+            tokenDenylist.addToken(revokedToken.getTokenDigest(), toMillis(revokedToken.getExpiresAt()));
+            verifiedTokenCache.invalidateToken(revokedToken.getTokenDigest());
+        } else if (revokedToken.isRecheckOnly()) {
+            accountChangeTracker.markChanged(email, toMillis(revokedToken.getRevokedAt()));
+            verifiedTokenCache.invalidate(email);
+            userDetailsCache.evict(email);
+        } else {
+            tokenDenylist.addUser(email, toMillis(revokedToken.getRevokedAt()));
+            verifiedTokenCache.invalidate(email);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
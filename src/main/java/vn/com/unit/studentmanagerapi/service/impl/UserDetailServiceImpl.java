@@ -7,16 +7,26 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import vn.com.unit.studentmanagerapi.config.UserDetailsCache;
+import vn.com.unit.studentmanagerapi.entity.Account;
 import vn.com.unit.studentmanagerapi.repository.AccountRepository;
 
+import java.util.Optional;
+
 @Service
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class UserDetailServiceImpl implements UserDetailsService {
     AccountRepository accountRepository;
+    UserDetailsCache userDetailsCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return accountRepository.findById(username).orElse(null);
+        return userDetailsCache.get(username, this::findActiveAccount).orElse(null);
+    }
+
+    private Optional<Account> findActiveAccount(String username) {
+        return accountRepository.findById(username)
+                .filter(account -> !account.isDeleted());
     }
 }
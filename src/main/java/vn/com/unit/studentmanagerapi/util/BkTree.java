@@ -0,0 +1,236 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Burkhard-Keller tree over string keys under the Levenshtein distance. A
+ * query with radius {@code r} at a node of distance {@code d} only descends
+ * into the children whose edge distance lies in {@code [d - r, d + r]}, so
+ * small radii touch a fraction of the keys.
+ * Keys are never unlinked: removing the last id of a key leaves the node in
+ * place to route later lookups.
+ */
+public class BkTree {
+    private static final int[] NO_DISTANCES = new int[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final long[] NO_IDS = new long[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+    private int size;
+    private int nodeCount;
+
+    public void put(String key, long id) {
+        lock.writeLock().lock();
+        try {
+            if (root == null) {
+                root = new Node(key);
+                nodeCount++;
+            }
+            int[] previous = new int[key.length() + 1];
+            int[] current = new int[key.length() + 1];
+            Node node = root;
+            while (true) {
+                int distance = distance(node.key, key, previous, current);
+                if (distance == 0) break;
+
+                Node child = node.child(distance);
+                if (child == null) {
+                    child = new Node(key);
+                    node.addChild(distance, child);
+                    nodeCount++;
+                }
+                node = child;
+            }
+            if (node.addId(id)) size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String key, long id) {
+        lock.writeLock().lock();
+        try {
+            int[] previous = new int[key.length() + 1];
+            int[] current = new int[key.length() + 1];
+            Node node = root;
+            while (node != null) {
+                int distance = distance(node.key, key, previous, current);
+                if (distance == 0) {
+                    if (node.removeId(id)) size--;
+                    return;
+                }
+                node = node.child(distance);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every id whose key is within {@code maxDistance} edits of
+     * {@code query}, closest first, then by key and id.
+     */
+    public List<Match> search(String query, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        int[] previous = new int[query.length() + 1];
+        int[] current = new int[query.length() + 1];
+
+        lock.readLock().lock();
+        try {
+            if (root == null) return matches;
+
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                int distance = distance(node.key, query, previous, current);
+                if (distance <= maxDistance) {
+                    for (long id : node.ids) matches.add(new Match(id, node.key, distance));
+                }
+
+                int low = distance - maxDistance;
+                int high = distance + maxDistance;
+                for (int i = 0; i < node.distances.length; i++) {
+                    if (node.distances[i] >= low && node.distances[i] <= high) pending.push(node.children[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparingInt(Match::getDistance)
+                .thenComparing(Match::getKey)
+                .thenComparingLong(Match::getId));
+        return matches;
+    }
+
+    /**
+     * Number of (key, id) entries.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of keys in the tree, including keys left behind by removals.
+     */
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Levenshtein distance between {@code a} and {@code b}, using the two
+     * rows of {@code b.length() + 1} ints passed in as scratch space.
+     */
+    static int distance(String a, String b, int[] previous, int[] current) {
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    public static final class Match {
+        private final long id;
+        private final String key;
+        private final int distance;
+
+        Match(long id, String key, int distance) {
+            this.id = id;
+            this.key = key;
+            this.distance = distance;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    private static final class Node {
+        final String key;
+        // edge distances, sorted ascending, parallel to children
+        int[] distances = NO_DISTANCES;
+        Node[] children = NO_CHILDREN;
+        // sorted ascending
+        long[] ids = NO_IDS;
+
+        Node(String key) {
+            this.key = key;
+        }
+
+        Node child(int distance) {
+            int index = Arrays.binarySearch(distances, distance);
+            return index >= 0 ? children[index] : null;
+        }
+
+        void addChild(int distance, Node child) {
+            int index = -Arrays.binarySearch(distances, distance) - 1;
+            int[] nextDistances = new int[distances.length + 1];
+            Node[] nextChildren = new Node[children.length + 1];
+            System.arraycopy(distances, 0, nextDistances, 0, index);
+            System.arraycopy(children, 0, nextChildren, 0, index);
+            nextDistances[index] = distance;
+            nextChildren[index] = child;
+            System.arraycopy(distances, index, nextDistances, index + 1, distances.length - index);
+            System.arraycopy(children, index, nextChildren, index + 1, children.length - index);
+            distances = nextDistances;
+            children = nextChildren;
+        }
+
+        boolean addId(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index >= 0) return false;
+            index = -index - 1;
+            long[] next = new long[ids.length + 1];
+            System.arraycopy(ids, 0, next, 0, index);
+            next[index] = id;
+            System.arraycopy(ids, index, next, index + 1, ids.length - index);
+            ids = next;
+            return true;
+        }
+
+        boolean removeId(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index < 0) return false;
+            long[] next = new long[ids.length - 1];
+            System.arraycopy(ids, 0, next, 0, index);
+            System.arraycopy(ids, index + 1, next, index, ids.length - index - 1);
+            ids = next;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import vn.com.unit.studentmanagerapi.exception.AppException;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated listing: the sort key and id of the last row
+ * returned. Tokens are bound to a scope naming the listing and its ordering,
+ * so a cursor from one sort cannot be replayed against another.
+ * An empty token starts at the beginning.
+ */
+public class KeysetCursor {
+    private static final char SEPARATOR = '\u0000';
+
+    private final String key;
+    private final long id;
+
+    private KeysetCursor(String key, long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static KeysetCursor of(String key, long id) {
+        return new KeysetCursor(key, id);
+    }
+
+    /**
+     * Decodes {@code token} issued for {@code scope}; returns {@code null} for
+     * an empty token.
+     */
+    public static KeysetCursor decode(String token, String scope) {
+        if (token == null || token.isEmpty()) return null;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = decoded.indexOf(SEPARATOR);
+            int last = decoded.lastIndexOf(SEPARATOR);
+            if (first < 0 || first == last || !decoded.substring(0, first).equals(scope)) {
+                throw new AppException(ErrorCode.CURSOR_INVALID);
+            }
+            return new KeysetCursor(decoded.substring(first + 1, last), Long.parseLong(decoded.substring(last + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new AppException(ErrorCode.CURSOR_INVALID);
+        }
+    }
+
+    public String encode(String scope) {
+        String raw = scope + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -1,17 +1,18 @@
 package vn.com.unit.studentmanagerapi.util;
 
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 import vn.com.unit.studentmanagerapi.exception.AppException;
 import vn.com.unit.studentmanagerapi.exception.ErrorCode;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
-import java.util.Base64;
 import java.util.List;
 
 public class MyImageUtil {
 
-    private static final long MAX_FILE_SIZE = (500 * 1024); // 500KB
+    public static final long MAX_FILE_SIZE = (500 * 1024); // 500KB
     private static final List<String> ACCEPTED_FILE_TYPES = Arrays.asList(
             "image/jpeg",
             "image/png",
@@ -38,15 +39,39 @@ public class MyImageUtil {
         }
     }
 
-    public static String convertToBase64(byte[] photo) {
-        return Base64.getEncoder().encodeToString(photo);
+    /**
+     * Content type of {@code photo} read from its leading bytes, so a stored
+     * avatar is served as what it is rather than what the uploader claimed.
+     */
+    public static String detectContentType(byte[] photo) {
+        if (startsWith(photo, 0, 0xFF, 0xD8, 0xFF)) return "image/jpeg";
+        if (startsWith(photo, 0, 0x89, 'P', 'N', 'G')) return "image/png";
+        if (startsWith(photo, 0, 'R', 'I', 'F', 'F') && startsWith(photo, 8, 'W', 'E', 'B', 'P')) return "image/webp";
+        if (startsWith(photo, 0, '8', 'B', 'P', 'S')) return "image/vnd.adobe.photoshop";
+        if (startsWith(photo, 0, '<')) return "image/svg+xml";
+        return "application/octet-stream";
     }
 
-    public static byte[] convertFileToBytes(MultipartFile photo) {
-        try {
-            return photo.getBytes();
+    // reads only the bytes the signatures above need
+    public static String detectContentType(Resource photo) {
+        try (InputStream in = photo.getInputStream()) {
+            byte[] head = new byte[12];
+            int length = 0;
+            int read;
+            while (length < head.length && (read = in.read(head, length, head.length - length)) != -1) {
+                length += read;
+            }
+            return detectContentType(Arrays.copyOf(head, length));
         } catch (IOException e) {
             throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
         }
     }
+
+    private static boolean startsWith(byte[] bytes, int offset, int... expected) {
+        if (bytes.length < offset + expected.length) return false;
+        for (int i = 0; i < expected.length; i++) {
+            if ((bytes[offset + i] & 0xFF) != expected[i]) return false;
+        }
+        return true;
+    }
 }
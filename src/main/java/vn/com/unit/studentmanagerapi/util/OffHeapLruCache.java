@@ -0,0 +1,283 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * LRU cache of byte contents held outside the heap, in one direct buffer
+ * carved into fixed-size pages. An entry takes whole pages, so the slab never
+ * fragments, and the least recently read entries are evicted to make room.
+ * Readers pin an entry while they stream it: an entry evicted meanwhile keeps
+ * its pages until the last reader closes.
+ */
+public class OffHeapLruCache<K> {
+    private final int pageSize;
+    private final int pageCount;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // guarded by this
+    private final LinkedHashMap<K, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int[] freePages;
+    private int freeCount;
+    // allocated on the first put
+    private ByteBuffer slab;
+
+    public OffHeapLruCache(long capacity, int pageSize) {
+        if (pageSize <= 0 || capacity < pageSize || capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity must be between the page size and 2GB: " + capacity);
+        }
+        this.pageSize = pageSize;
+        this.pageCount = (int) (capacity / pageSize);
+        this.freePages = new int[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+            freePages[i] = pageCount - 1 - i;
+        }
+        this.freeCount = pageCount;
+    }
+
+    /**
+     * Returns the length of the content cached under {@code key}, or -1 on a
+     * miss. Counts towards the hit ratio and marks the entry as recently used.
+     */
+    public synchronized int length(K key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return -1;
+        }
+        hits.increment();
+        return entry.length;
+    }
+
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Opens a stream over the content cached under {@code key}, or returns
+     * {@code null} if it is not cached. The entry stays readable until the
+     * stream is closed.
+     */
+    public synchronized InputStream open(K key) {
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        entry.readers++;
+        return new EntryStream(entry);
+    }
+
+    /**
+     * Copies {@code content} into the slab, evicting least recently used
+     * entries as needed. Returns {@code false} if it cannot fit, either
+     * because it is larger than the cache or because the pages it would need
+     * are still being read.
+     */
+    public boolean put(K key, byte[] content) {
+        int needed = Math.max(1, (content.length + pageSize - 1) / pageSize);
+        if (needed > pageCount) return false;
+
+        Entry entry;
+        synchronized (this) {
+            if (slab == null) slab = ByteBuffer.allocateDirect(pageCount * pageSize);
+            release(entries.remove(key));
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (freeCount < needed && eldest.hasNext()) {
+                Entry evicted = eldest.next();
+                eldest.remove();
+                evictions.increment();
+                release(evicted);
+            }
+            if (freeCount < needed) return false;
+
+            int[] pages = new int[needed];
+            for (int i = 0; i < needed; i++) {
+                pages[i] = freePages[--freeCount];
+            }
+            entry = new Entry(pages, content.length);
+        }
+
+        // the pages are not reachable until published, copy without the lock
+        ByteBuffer view = slab.duplicate();
+        for (int i = 0, offset = 0; offset < content.length; i++, offset += pageSize) {
+            view.position(entry.pages[i] * pageSize);
+            view.put(content, offset, Math.min(pageSize, content.length - offset));
+        }
+
+        synchronized (this) {
+            release(entries.put(key, entry));
+        }
+        return true;
+    }
+
+    public synchronized void invalidate(K key) {
+        release(entries.remove(key));
+    }
+
+    public synchronized void invalidateIf(Predicate<K> predicate) {
+        Iterator<Map.Entry<K, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry> entry = iterator.next();
+            if (predicate.test(entry.getKey())) {
+                iterator.remove();
+                release(entry.getValue());
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Bytes of the slab taken by entries, including evicted ones still being
+     * read. Rounded up to whole pages.
+     */
+    public synchronized long residentBytes() {
+        return (long) (pageCount - freeCount) * pageSize;
+    }
+
+    public long capacity() {
+        return (long) pageCount * pageSize;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Registers the standard {@code cache.*} meters tagged with the cache name,
+     * plus its hit ratio and the bytes it holds off the heap.
+     */
+    public void bindTo(MeterRegistry registry, String name) {
+        FunctionCounter.builder("cache.gets", this, OffHeapLruCache::hitCount)
+                .tag("cache", name).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, OffHeapLruCache::missCount)
+                .tag("cache", name).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, OffHeapLruCache::evictionCount)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", this, OffHeapLruCache::size)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.hit.ratio", this, OffHeapLruCache::hitRatio)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.resident.bytes", this, OffHeapLruCache::residentBytes)
+                .tag("cache", name)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("cache.capacity.bytes", this, OffHeapLruCache::capacity)
+                .tag("cache", name)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    // must hold the lock
+    private void release(Entry entry) {
+        if (entry == null) return;
+        entry.evicted = true;
+        if (entry.readers == 0) free(entry);
+    }
+
+    private void free(Entry entry) {
+        for (int page : entry.pages) {
+            freePages[freeCount++] = page;
+        }
+    }
+
+    private static final class Entry {
+        final int[] pages;
+        final int length;
+        // guarded by the cache
+        int readers;
+        boolean evicted;
+
+        Entry(int[] pages, int length) {
+            this.pages = pages;
+            this.length = length;
+        }
+    }
+
+    private final class EntryStream extends InputStream {
+        private final Entry entry;
+        private final ByteBuffer view = slab.duplicate();
+        private int position;
+        private boolean closed;
+
+        EntryStream(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public int read() {
+            if (closed || position >= entry.length) return -1;
+            int value = view.get(offset(position)) & 0xff;
+            position++;
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) {
+            if (len == 0) return 0;
+            if (closed || position >= entry.length) return -1;
+            // one page at a time, pages need not be adjacent
+            int count = Math.min(len, Math.min(pageSize - position % pageSize, entry.length - position));
+            view.position(offset(position));
+            view.get(buffer, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, entry.length - position));
+            position += (int) skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return closed ? 0 : entry.length - position;
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            synchronized (OffHeapLruCache.this) {
+                entry.readers--;
+                if (entry.evicted && entry.readers == 0) free(entry);
+            }
+        }
+
+        private int offset(int at) {
+            return entry.pages[at / pageSize] * pageSize + at % pageSize;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Radix tree from string keys to ids. Chains of single-child nodes are
+ * collapsed into one edge label and children are kept in sorted arrays,
+ * so the tree stays close to one node per key.
+ * A prefix lookup walks to the subtree of the prefix and returns ids in key
+ * order, stopping as soon as enough distinct ids are found.
+ */
+public class PrefixTrie {
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final long[] NO_IDS = new long[0];
+
+    private final Node root = new Node("");
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+
+    public void put(String key, long id) {
+        lock.writeLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                int index = node.indexOf(key.charAt(i));
+                if (index < 0) {
+                    node.addChild(-index - 1, new Node(key.substring(i)));
+                    node = node.children[-index - 1];
+                    i = key.length();
+                    break;
+                }
+
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length()) {
+                    // split the edge at the point where the keys diverge
+                    Node middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.children = new Node[]{child};
+                    node.children[index] = middle;
+                    child = middle;
+                }
+                node = child;
+                i += common;
+            }
+            if (node.addId(id)) size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String key, long id) {
+        lock.writeLock().lock();
+        try {
+            if (remove(root, key, 0, id)) size--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} distinct ids stored under keys starting with
+     * {@code prefix}, in key order.
+     */
+    public List<Long> collect(String prefix, int limit) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (limit <= 0) return new ArrayList<>(ids);
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < prefix.length()) {
+                int index = node.indexOf(prefix.charAt(i));
+                if (index < 0) return new ArrayList<>(ids);
+
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, prefix, i);
+                if (i + common < prefix.length() && common < child.label.length()) return new ArrayList<>(ids);
+                node = child;
+                i += common;
+            }
+            collect(node, ids, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Number of (key, id) entries.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean collect(Node node, Set<Long> ids, int limit) {
+        for (long id : node.ids) {
+            ids.add(id);
+            if (ids.size() >= limit) return true;
+        }
+        for (Node child : node.children) {
+            if (collect(child, ids, limit)) return true;
+        }
+        return false;
+    }
+
+    private static boolean remove(Node node, String key, int i, long id) {
+        if (i == key.length()) return node.removeId(id);
+
+        int index = node.indexOf(key.charAt(i));
+        if (index < 0) return false;
+        Node child = node.children[index];
+        if (!key.startsWith(child.label, i)) return false;
+
+        boolean removed = remove(child, key, i + child.label.length(), id);
+        if (removed && child.ids.length == 0) {
+            if (child.children.length == 0) {
+                node.removeChild(index);
+            } else if (child.children.length == 1) {
+                // fold the only grandchild back into a single edge
+                Node grandchild = child.children[0];
+                grandchild.label = child.label + grandchild.label;
+                node.children[index] = grandchild;
+            }
+        }
+        return removed;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) i++;
+        return i;
+    }
+
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;
+        // sorted ascending
+        long[] ids = NO_IDS;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        // binary search on the first character of the child labels
+        int indexOf(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char label = children[mid].label.charAt(0);
+                if (label < c) low = mid + 1;
+                else if (label > c) high = mid - 1;
+                else return mid;
+            }
+            return -(low + 1);
+        }
+
+        void addChild(int index, Node child) {
+            Node[] next = new Node[children.length + 1];
+            System.arraycopy(children, 0, next, 0, index);
+            next[index] = child;
+            System.arraycopy(children, index, next, index + 1, children.length - index);
+            children = next;
+        }
+
+        void removeChild(int index) {
+            Node[] next = new Node[children.length - 1];
+            System.arraycopy(children, 0, next, 0, index);
+            System.arraycopy(children, index + 1, next, index, children.length - index - 1);
+            children = next;
+        }
+
+        boolean addId(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index >= 0) return false;
+            index = -index - 1;
+            long[] next = new long[ids.length + 1];
+            System.arraycopy(ids, 0, next, 0, index);
+            next[index] = id;
+            System.arraycopy(ids, index, next, index + 1, ids.length - index);
+            ids = next;
+            return true;
+        }
+
+        boolean removeId(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index < 0) return false;
+            long[] next = new long[ids.length - 1];
+            System.arraycopy(ids, 0, next, 0, index);
+            System.arraycopy(ids, index + 1, next, index, ids.length - index - 1);
+            ids = next;
+            return true;
+        }
+    }
+}
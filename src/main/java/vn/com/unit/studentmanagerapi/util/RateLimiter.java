@@ -0,0 +1,69 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free token bucket per key, allowing {@code capacity} acquisitions per
+ * {@code period} with bursts up to {@code capacity}.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it is
+ * next completely refilled (the generic cell rate algorithm), so acquiring is
+ * one CAS and a full bucket carries no state worth keeping.
+ */
+public class RateLimiter {
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimiter(int capacity, Duration period) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.intervalNanos = Math.max(1, period.toNanos() / capacity);
+        this.burstNanos = intervalNanos * capacity;
+    }
+
+    /**
+     * Takes one token for the key.
+     *
+     * @return {@code 0} when a token was taken, otherwise the nanoseconds
+     * until the next token is available
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+
+        while (true) {
+            long refilledAt = bucket.get();
+            long start = refilledAt - now > 0 ? refilledAt : now;
+            long next = start + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(refilledAt, next)) return 0;
+        }
+    }
+
+    /**
+     * Drops buckets that are completely refilled. A caller racing with the
+     * removal may get one extra token, which is harmless for a limiter.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+}
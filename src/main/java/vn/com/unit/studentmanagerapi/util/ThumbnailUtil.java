@@ -0,0 +1,89 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Decodes avatars and renders square thumbnails of them with the JDK's
+ * {@code ImageIO}, so only the formats it reads (JPEG, PNG, GIF, BMP) get
+ * thumbnails.
+ */
+public class ThumbnailUtil {
+
+    /**
+     * Decodes {@code in} once for thumbnails no larger than {@code largestSize}.
+     * The dimensions are read from the header first and images above
+     * {@code maxPixels} are refused before any pixel is decoded; larger images
+     * are subsampled while decoding rather than scaled afterwards.
+     *
+     * @return the decoded image, or {@code null} if the format is not readable
+     * @throws IllegalArgumentException if the image has more than {@code maxPixels} pixels
+     */
+    public static BufferedImage decode(InputStream in, long maxPixels, int largestSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            if (input == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IllegalArgumentException("Image of " + width + "x" + height + " exceeds " + maxPixels + " pixels");
+                }
+
+                // keep at least twice the largest size so downscaling stays smooth
+                int subsampling = Math.max(1, Math.min(width, height) / (largestSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Crops the centre square of {@code image} and scales it to
+     * {@code size} x {@code size}.
+     */
+    public static BufferedImage thumbnail(BufferedImage image, int size) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        int x = (image.getWidth() - side) / 2;
+        int y = (image.getHeight() - side) / 2;
+        boolean alpha = image.getColorModel().hasAlpha();
+
+        BufferedImage thumbnail = new BufferedImage(size, size,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, size, size, x, y, x + side, y + side, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
+
+    /**
+     * Encodes {@code thumbnail} as PNG when it has transparency and as JPEG
+     * otherwise.
+     */
+    public static byte[] encode(BufferedImage thumbnail) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(thumbnail, thumbnail.getColorModel().hasAlpha() ? "png" : "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,166 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index from character trigrams to ids, answering substring queries
+ * by intersecting posting lists. Text is folded with {@link #fold} on both
+ * sides, so matching ignores case and Vietnamese diacritics.
+ * Writers are serialized; readers never block.
+ */
+public class TrigramIndex {
+    static final int GRAM = 3;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    // id -> folded text
+    private final Map<Long, String> texts = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * Lower-cases {@code text}, strips combining marks and maps đ to d, so
+     * "Nguyễn Đức" and "nguyen duc" fold to the same string.
+     */
+    public static String fold(String text) {
+        if (text == null) return "";
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'd');
+        return SPACES.matcher(stripped).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+
+    public synchronized void put(long id, String text) {
+        String folded = fold(text);
+        String previous = texts.put(id, folded);
+        if (folded.equals(previous)) return;
+        if (previous != null) unlink(id, previous);
+        for (String gram : grams(folded)) {
+            postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    public synchronized void remove(long id) {
+        String previous = texts.remove(id);
+        if (previous != null) unlink(id, previous);
+    }
+
+    /**
+     * Returns the ids whose folded text contains the folded {@code query},
+     * ordered by folded text and then id. Queries shorter than a trigram
+     * fall back to scanning every entry.
+     */
+    public List<Long> search(String query) {
+        List<Entry> matches = matches(query);
+        List<Long> ids = new ArrayList<>(matches.size());
+        for (Entry match : matches) {
+            ids.add(match.id);
+        }
+        return ids;
+    }
+
+    /**
+     * Continues {@link #search} after the entry with text {@code afterText},
+     * folded here, and id {@code afterId}, returning at most {@code limit} ids.
+     */
+    public List<Long> searchAfter(String query, String afterText, long afterId, int limit) {
+        List<Entry> matches = matches(query);
+        String after = fold(afterText);
+        int low = 0;
+        int high = matches.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Entry match = matches.get(mid);
+            int compare = match.text.compareTo(after);
+            if (compare < 0 || compare == 0 && match.id <= afterId) low = mid + 1;
+            else high = mid;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int i = low; i < Math.min(matches.size(), low + limit); i++) {
+            ids.add(matches.get(i).id);
+        }
+        return ids;
+    }
+
+    // the texts are read once, put and remove may change them while the matches are sorted
+    private List<Entry> matches(String query) {
+        String folded = fold(query);
+        List<Entry> matches = new ArrayList<>();
+
+        if (folded.length() < GRAM) {
+            texts.forEach((id, text) -> {
+                if (text.contains(folded)) matches.add(new Entry(id, text));
+            });
+        } else {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams(folded)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null || ids.isEmpty()) return matches;
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+
+            Set<Long> smallest = lists.get(0);
+            candidates:
+            for (Long id : smallest) {
+                for (int i = 1; i < lists.size(); i++) {
+                    if (!lists.get(i).contains(id)) continue candidates;
+                }
+                // trigrams can match out of order, confirm the substring
+                String text = texts.get(id);
+                if (text != null && text.contains(folded)) matches.add(new Entry(id, text));
+            }
+        }
+
+        matches.sort(Comparator.comparing((Entry match) -> match.text).thenComparingLong(match -> match.id));
+        return matches;
+    }
+
+    public boolean contains(long id) {
+        return texts.containsKey(id);
+    }
+
+    public int size() {
+        return texts.size();
+    }
+
+    public int gramCount() {
+        return postings.size();
+    }
+
+    private void unlink(long id, String folded) {
+        for (String gram : grams(folded)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) continue;
+            ids.remove(id);
+            if (ids.isEmpty()) postings.remove(gram);
+        }
+    }
+
+    private static final class Entry {
+        final long id;
+        final String text;
+
+        Entry(long id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    private static Set<String> grams(String folded) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= folded.length(); i++) {
+            grams.add(folded.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
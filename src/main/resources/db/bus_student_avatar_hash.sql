@@ -0,0 +1,7 @@
+ALTER TABLE bus_student ADD COLUMN IF NOT EXISTS avatar_hash CHAR(64);
+
+-- avatars uploaded before the column existed
+UPDATE bus_student
+SET avatar_hash = encode(sha256(avatar), 'hex')
+WHERE avatar IS NOT NULL
+  AND avatar_hash IS NULL;
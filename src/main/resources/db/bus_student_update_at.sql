@@ -0,0 +1,3 @@
+-- Backs the periodic read of the students changed since the last refresh of the name index.
+CREATE INDEX IF NOT EXISTS idx_bus_student_update_at ON bus_student (update_at);
+CREATE INDEX IF NOT EXISTS idx_bus_student_created_at ON bus_student (created_at);
@@ -0,0 +1,9 @@
+-- number_of_availability is now kept by registration, recount it once from
+-- the registrations made while it was not
+UPDATE bus_subject s
+SET number_of_availability = GREATEST(0, s.number_of_student - (SELECT count(*)
+                                                                  FROM bus_registration_subject rs
+                                                                  WHERE rs.subject_id = s.subject_id));
+
+ALTER TABLE bus_subject
+    ADD CONSTRAINT ck_bus_subject_availability CHECK (number_of_availability BETWEEN 0 AND number_of_student);
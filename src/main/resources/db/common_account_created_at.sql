@@ -0,0 +1,2 @@
+-- Backs the periodic read of the accounts created since the last refresh of the email filter.
+CREATE INDEX IF NOT EXISTS idx_common_account_created_at ON common_account (created_at);
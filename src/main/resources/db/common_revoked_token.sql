@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS common_revoked_token
+(
+    id           BIGSERIAL PRIMARY KEY,
+    token_digest CHAR(64),
+    email        VARCHAR(255) NOT NULL,
+    revoked_at   TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at   TIMESTAMP    NOT NULL,
+    recheck_only BOOLEAN      NOT NULL DEFAULT FALSE
+);
+
+ALTER TABLE common_revoked_token ADD COLUMN IF NOT EXISTS recheck_only BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_common_revoked_token_expires_at ON common_revoked_token (expires_at);
+CREATE INDEX IF NOT EXISTS idx_common_revoked_token_revoked_at ON common_revoked_token (revoked_at);
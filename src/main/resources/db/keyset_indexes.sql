@@ -0,0 +1,7 @@
+-- Composite indexes backing the keyset (cursor) queries: each one matches the
+-- ORDER BY of a listing so the seek predicate resumes with an index range scan.
+CREATE INDEX IF NOT EXISTS idx_bus_student_full_name_student_id
+    ON bus_student (full_name, student_id) WHERE is_deleted = FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_bus_subject_subject_name_subject_id ON bus_subject (subject_name, subject_id);
+CREATE INDEX IF NOT EXISTS idx_bus_subject_course_id_subject_id ON bus_subject (course_id, subject_id);
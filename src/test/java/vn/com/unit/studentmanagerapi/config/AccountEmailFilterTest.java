@@ -0,0 +1,90 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class AccountEmailFilterTest {
+    @Mock
+    GlobalValue globalValue;
+
+    AccountEmailFilter accountEmailFilter;
+
+    @BeforeEach
+    void setUp() {
+        accountEmailFilter = new AccountEmailFilter(globalValue);
+    }
+
+    @Test
+    void testMightContain_notLoaded_true() {
+        Assertions.assertFalse(accountEmailFilter.isLoaded());
+        Assertions.assertTrue(accountEmailFilter.mightContain("unknown@mail.com"));
+    }
+
+    @Test
+    void testMightContain_loaded_absentEmailRejected() {
+        stubSizing();
+        accountEmailFilter.load(() -> Arrays.asList("a@mail.com", "b@mail.com"));
+
+        Assertions.assertTrue(accountEmailFilter.mightContain("a@mail.com"));
+        Assertions.assertTrue(accountEmailFilter.mightContain("b@mail.com"));
+        Assertions.assertFalse(accountEmailFilter.mightContain("unknown@mail.com"));
+    }
+
+    @Test
+    void testLoad_emailInsertedDuringLoad_kept() {
+        stubSizing();
+        accountEmailFilter.load(() -> {
+            accountEmailFilter.put("new@mail.com");
+            return Arrays.asList("a@mail.com");
+        });
+
+        Assertions.assertTrue(accountEmailFilter.mightContain("new@mail.com"));
+    }
+
+    @Test
+    void testRefresh_accountCreatedOnOtherNode_added() {
+        stubSizing();
+        Mockito.when(globalValue.getAccountEmailFilterRefreshOverlap()).thenReturn(Duration.ofMinutes(1));
+        accountEmailFilter.load(() -> Arrays.asList("a@mail.com"));
+        LocalDateTime loadedBefore = LocalDateTime.now();
+        AtomicReference<LocalDateTime> since = new AtomicReference<>();
+
+        accountEmailFilter.refresh(createdSince -> {
+            since.set(createdSince);
+            return Collections.singletonList("other-node@mail.com");
+        });
+
+        Assertions.assertTrue(accountEmailFilter.mightContain("other-node@mail.com"));
+        // reads back an overlap before the load, for rows committed late
+        Assertions.assertFalse(since.get().isAfter(loadedBefore.minusMinutes(1)));
+    }
+
+    @Test
+    void testRefresh_notLoaded_nothingRead() {
+        accountEmailFilter.refresh(createdSince -> {
+            throw new AssertionError("read before the filter was loaded");
+        });
+
+        Assertions.assertFalse(accountEmailFilter.isLoaded());
+    }
+
+    private void stubSizing() {
+        Mockito.when(globalValue.getAccountEmailFilterExpectedInsertions()).thenReturn(1000L);
+        Mockito.when(globalValue.getAccountEmailFilterFalsePositiveRate()).thenReturn(0.001);
+    }
+}
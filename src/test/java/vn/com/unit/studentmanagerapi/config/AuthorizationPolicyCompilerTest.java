@@ -0,0 +1,117 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+import vn.com.unit.studentmanagerapi.annotation.security.Authorize;
+import vn.com.unit.studentmanagerapi.controller.AccountController;
+import vn.com.unit.studentmanagerapi.controller.JwtKeyController;
+import vn.com.unit.studentmanagerapi.controller.StudentController;
+import vn.com.unit.studentmanagerapi.controller.SubjectController;
+import vn.com.unit.studentmanagerapi.controller.SubjectRegistrationController;
+import vn.com.unit.studentmanagerapi.entity.Account;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class AuthorizationPolicyCompilerTest {
+    static final String EMAIL = "student@mail.com";
+    static final List<Class<?>> CONTROLLERS = Arrays.asList(AccountController.class, JwtKeyController.class,
+            StudentController.class, SubjectController.class, SubjectRegistrationController.class);
+
+    final DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+
+    @Test
+    void testCompile_everyControllerRule_matchesSpel() {
+        List<Authentication> callers = Arrays.asList(
+                authentication("admin@gmail.com", 'A'),
+                authentication(EMAIL, 'T'),
+                authentication("other@mail.com", 'T'),
+                authentication(EMAIL, 'N'),
+                jwtAuthentication(EMAIL, "STUDENT"),
+                jwtAuthentication("admin@gmail.com", "ADMIN"));
+        int checked = 0;
+
+        for (Class<?> controller : CONTROLLERS) {
+            for (Method method : controller.getDeclaredMethods()) {
+                Authorize authorize = method.getAnnotation(Authorize.class);
+                if (authorize == null) continue;
+
+                AuthorizationPolicy policy = AuthorizationPolicyCompiler.compile(authorize.value(), method);
+                Object[] arguments = arguments(method);
+                for (Authentication caller : callers) {
+                    Assertions.assertEquals(evaluateSpel(authorize.value(), caller, controller, method, arguments),
+                            policy.isGranted(AuthPrincipal.of(caller), arguments),
+                            authorize.value() + " on " + method.getName() + " for " + caller.getName());
+                    checked++;
+                }
+            }
+        }
+        Assertions.assertTrue(checked > 0);
+    }
+
+    @Test
+    void testCompile_andAndAnyAuthority_matchesSpel() throws NoSuchMethodException {
+        Method method = StudentController.class.getDeclaredMethod("updateStudent", String.class,
+                vn.com.unit.studentmanagerapi.dto.request.StudentUpdateRequest.class);
+        String expression = "hasAnyAuthority('ADMIN', 'STUDENT') and principal.username == #email";
+        AuthorizationPolicy policy = AuthorizationPolicyCompiler.compile(expression, method);
+        Object[] arguments = {EMAIL, null};
+
+        for (Authentication caller : Arrays.asList(authentication(EMAIL, 'T'), authentication("x@mail.com", 'A'),
+                authentication(EMAIL, 'N'))) {
+            Assertions.assertEquals(evaluateSpel(expression, caller, StudentController.class, method, arguments),
+                    policy.isGranted(AuthPrincipal.of(caller), arguments));
+        }
+    }
+
+    @Test
+    void testCompile_unsupportedExpression_fail() throws NoSuchMethodException {
+        Method method = Object.class.getMethod("toString");
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> AuthorizationPolicyCompiler.compile("hasRole('ADMIN')", method));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> AuthorizationPolicyCompiler.compile("hasAuthority('TEACHER')", method));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> AuthorizationPolicyCompiler.compile("principal.username == #email", method));
+    }
+
+    private boolean evaluateSpel(String expression, Authentication caller, Class<?> controller,
+                                 Method method, Object[] arguments) {
+        Expression parsed = expressionHandler.getExpressionParser().parseExpression(expression);
+        EvaluationContext context = expressionHandler.createEvaluationContext(caller,
+                new SimpleMethodInvocation(Mockito.mock(controller), method, arguments));
+        return ExpressionUtils.evaluateAsBoolean(parsed, context);
+    }
+
+    private static Object[] arguments(Method method) {
+        Object[] arguments = new Object[method.getParameterCount()];
+        Class<?>[] types = method.getParameterTypes();
+        for (int i = 0; i < arguments.length; i++) {
+            if (types[i] == String.class) arguments[i] = EMAIL;
+        }
+        return arguments;
+    }
+
+    private static Authentication authentication(String email, char role) {
+        Account account = Account.builder().email(email).role(role).build();
+        return new UsernamePasswordAuthenticationToken(account, "", account.getAuthorities());
+    }
+
+    private static Authentication jwtAuthentication(String email, String role) {
+        JwtPrincipal principal = JwtPrincipal.of(email, Collections.singletonList(role));
+        return new UsernamePasswordAuthenticationToken(principal, "",
+                Collections.singletonList(new SimpleGrantedAuthority(role)));
+    }
+}
@@ -0,0 +1,109 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+import vn.com.unit.studentmanagerapi.service.AvatarStore;
+import vn.com.unit.studentmanagerapi.util.DigestUtil;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+class AvatarThumbnailerTest {
+
+    @Test
+    void testRender_storesEverySize() throws IOException {
+        InMemoryAvatarStore store = new InMemoryAvatarStore();
+        String hash = store.put(new ByteArrayResource(jpeg(400, 300)), Long.MAX_VALUE);
+        AvatarThumbnailer thumbnailer = new AvatarThumbnailer(store, config(1_000_000));
+
+        thumbnailer.render(hash);
+
+        for (int size : new int[]{64, 256}) {
+            Resource variant = store.loadVariant(hash, String.valueOf(size)).orElseThrow(AssertionError::new);
+            try (InputStream in = variant.getInputStream()) {
+                BufferedImage thumbnail = ImageIO.read(in);
+                Assertions.assertEquals(size, thumbnail.getWidth());
+                Assertions.assertEquals(size, thumbnail.getHeight());
+            }
+        }
+        thumbnailer.destroy();
+    }
+
+    @Test
+    void testRender_tooManyPixels_storesNothing() throws IOException {
+        InMemoryAvatarStore store = new InMemoryAvatarStore();
+        String hash = store.put(new ByteArrayResource(jpeg(400, 300)), Long.MAX_VALUE);
+        AvatarThumbnailer thumbnailer = new AvatarThumbnailer(store, config(100_000));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> thumbnailer.render(hash));
+        Assertions.assertFalse(store.loadVariant(hash, "64").isPresent());
+        thumbnailer.destroy();
+    }
+
+    @Test
+    void testIsSupportedSize() {
+        AvatarThumbnailer thumbnailer = new AvatarThumbnailer(new InMemoryAvatarStore(), config(1_000_000));
+
+        Assertions.assertTrue(thumbnailer.isSupportedSize(64));
+        Assertions.assertFalse(thumbnailer.isSupportedSize(100));
+        thumbnailer.destroy();
+    }
+
+    private static GlobalValue config(long maxPixels) {
+        GlobalValue config = Mockito.mock(GlobalValue.class);
+        Mockito.when(config.getAvatarThumbnailSizes()).thenReturn(new int[]{64, 256});
+        Mockito.when(config.getAvatarThumbnailMaxPixels()).thenReturn(maxPixels);
+        Mockito.when(config.getAvatarThumbnailThreads()).thenReturn(1);
+        Mockito.when(config.getAvatarThumbnailQueueCapacity()).thenReturn(4);
+        return config;
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private static class InMemoryAvatarStore implements AvatarStore {
+        final Map<String, byte[]> contents = new HashMap<>();
+
+        @Override
+        public String put(InputStreamSource source, long maxSize) {
+            try (InputStream in = source.getInputStream()) {
+                byte[] content = StreamUtils.copyToByteArray(in);
+                String hash = DigestUtil.toHex(DigestUtil.sha256(content));
+                contents.put(hash, content);
+                return hash;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public Optional<Resource> load(String hash) {
+            return Optional.ofNullable(contents.get(hash)).map(ByteArrayResource::new);
+        }
+
+        @Override
+        public void putVariant(String hash, String variant, byte[] content) {
+            contents.put(hash + "." + variant, content);
+        }
+
+        @Override
+        public Optional<Resource> loadVariant(String hash, String variant) {
+            return load(hash + "." + variant);
+        }
+    }
+}
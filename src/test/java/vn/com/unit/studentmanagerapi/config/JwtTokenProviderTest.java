@@ -0,0 +1,297 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import vn.com.unit.studentmanagerapi.entity.Account;
+import vn.com.unit.studentmanagerapi.exception.AppException;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class JwtTokenProviderTest {
+    @Mock
+    GlobalValue globalValue;
+    @Mock
+    UserDetailsService userDetailsService;
+
+    AccountChangeTracker accountChangeTracker;
+    JwtKeyRing jwtKeyRing;
+    VerifiedTokenCache verifiedTokenCache;
+    TokenDenylist tokenDenylist;
+    JwtTokenProvider jwtTokenProvider;
+
+    static final String SIGNER_KEY = "c2VjcmV0LWtleS1mb3ItdGVzdGluZy1vbmx5LW11c3QtYmUtbG9uZy1lbm91Z2gtMTIz";
+    static final String NEW_SIGNER_KEY = "bmV3LXNlY3JldC1rZXktZm9yLXRlc3Rpbmctb25seS1tdXN0LWJlLWxvbmctZW5vdWdo";
+    static final String KEY_ID = "default";
+    static final String NEW_KEY_ID = "2026-10";
+    static final String EMAIL = "student@mail.com";
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(globalValue.getSignerKey()).thenReturn(SIGNER_KEY);
+        Mockito.when(globalValue.getSignerKeyId()).thenReturn(KEY_ID);
+        Mockito.lenient().when(globalValue.getExpiration()).thenReturn(Duration.ofHours(24));
+        Mockito.when(globalValue.getJwtDenylistCapacity()).thenReturn(1000L);
+        Mockito.when(globalValue.getJwtDenylistFalsePositiveRate()).thenReturn(0.001);
+        accountChangeTracker = new AccountChangeTracker();
+        verifiedTokenCache = new VerifiedTokenCache(globalValue);
+        jwtKeyRing = new JwtKeyRing(globalValue, verifiedTokenCache);
+        tokenDenylist = new TokenDenylist(globalValue);
+        jwtTokenProvider = new JwtTokenProvider(globalValue, userDetailsService, accountChangeTracker,
+                jwtKeyRing, verifiedTokenCache, tokenDenylist);
+    }
+
+    @Test
+    void testAuthenticate_stateful_loadsAccount() {
+        Account account = getAccount();
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(false);
+        Mockito.when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(account);
+
+        Authentication authentication = jwtTokenProvider.authenticate(jwtTokenProvider.createToken(account));
+
+        Assertions.assertSame(account, authentication.getPrincipal());
+        Mockito.verify(userDetailsService, Mockito.times(1)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void testAuthenticate_stateful_accountMissing() {
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(false);
+        Mockito.when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(null);
+
+        Assertions.assertNull(jwtTokenProvider.authenticate(jwtTokenProvider.createToken(getAccount())));
+    }
+
+    @Test
+    void testAuthenticate_stateless_skipsAccountTable() {
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(true);
+
+        Authentication authentication = jwtTokenProvider.authenticate(jwtTokenProvider.createToken(getAccount()));
+
+        Assertions.assertTrue(authentication.getPrincipal() instanceof JwtPrincipal);
+        Assertions.assertEquals(EMAIL, authentication.getName());
+        Assertions.assertEquals("STUDENT", authentication.getAuthorities().iterator().next().getAuthority());
+        Mockito.verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void testAuthenticate_stateless_changedAccountFallsBackToDatabase() {
+        Account account = getAccount();
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(true);
+        Mockito.when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(account);
+        String token = jwtTokenProvider.createToken(account);
+
+        accountChangeTracker.markChanged(EMAIL);
+
+        Assertions.assertSame(account, jwtTokenProvider.authenticate(token).getPrincipal());
+        Mockito.verify(userDetailsService).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void testAuthenticate_stateless_tokenIssuedAfterChangeInSameSecondTrusted() {
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(true);
+        long changedAt = System.currentTimeMillis() - 1;
+        accountChangeTracker.markChanged(EMAIL, changedAt);
+
+        Authentication authentication = jwtTokenProvider.authenticate(jwtTokenProvider.createToken(getAccount()));
+
+        Assertions.assertTrue(authentication.getPrincipal() instanceof JwtPrincipal);
+        Mockito.verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void testAuthenticate_rotatedKey_oldTokensValidUntilRetired() {
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(true);
+        String oldToken = jwtTokenProvider.createToken(getAccount());
+
+        jwtKeyRing.addKey(NEW_KEY_ID, NEW_SIGNER_KEY);
+        jwtKeyRing.activate(NEW_KEY_ID);
+        String newToken = jwtTokenProvider.createToken(getAccount());
+
+        Assertions.assertNotNull(jwtTokenProvider.authenticate(oldToken));
+        Assertions.assertNotNull(jwtTokenProvider.authenticate(newToken));
+
+        jwtKeyRing.retire(KEY_ID);
+
+        Assertions.assertThrows(JwtException.class, () -> jwtTokenProvider.authenticate(oldToken));
+        Assertions.assertNotNull(jwtTokenProvider.authenticate(newToken));
+    }
+
+    @Test
+    void testAuthenticate_cachedTokenOfRetiredKey_rejected() {
+        enableCache();
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(true);
+        String oldToken = jwtTokenProvider.createToken(getAccount());
+        Assertions.assertNotNull(jwtTokenProvider.authenticate(oldToken));
+        Assertions.assertNotNull(verifiedTokenCache.get(JwtTokenProvider.digest(oldToken)));
+
+        jwtKeyRing.addKey(NEW_KEY_ID, NEW_SIGNER_KEY);
+        jwtKeyRing.activate(NEW_KEY_ID);
+        jwtKeyRing.retire(KEY_ID);
+
+        Assertions.assertThrows(JwtException.class, () -> jwtTokenProvider.authenticate(oldToken));
+    }
+
+    @Test
+    void testAuthenticate_tokenWithoutKeyId_usesDefaultKey() {
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(true);
+        String legacyToken = Jwts.builder()
+                .setSubject(EMAIL)
+                .claim("role", Collections.singletonList("STUDENT"))
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SIGNER_KEY)), SignatureAlgorithm.HS256)
+                .compact();
+
+        Assertions.assertEquals(EMAIL, jwtTokenProvider.authenticate(legacyToken).getName());
+    }
+
+    @Test
+    void testAddKey_existingKeyId_fail() {
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(true);
+        String token = jwtTokenProvider.createToken(getAccount());
+
+        AppException exception = Assertions.assertThrows(AppException.class,
+                () -> jwtKeyRing.addKey(KEY_ID, NEW_SIGNER_KEY));
+
+        Assertions.assertEquals(ErrorCode.JWT_KEY_EXISTS, exception.getErrorCode());
+        Assertions.assertNotNull(jwtTokenProvider.authenticate(token));
+    }
+
+    @Test
+    void testRetire_activeKey_fail() {
+        AppException exception = Assertions.assertThrows(AppException.class, () -> jwtKeyRing.retire(KEY_ID));
+        Assertions.assertEquals(ErrorCode.JWT_KEY_ACTIVE, exception.getErrorCode());
+    }
+
+    @Test
+    void testAuthenticate_cachedToken_skipsParsingAndLoading() {
+        Account account = getAccount();
+        enableCache();
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(false);
+        Mockito.when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(account);
+        String token = jwtTokenProvider.createToken(account);
+
+        Authentication first = jwtTokenProvider.authenticate(token);
+        Authentication second = jwtTokenProvider.authenticate(token);
+
+        Assertions.assertSame(first, second);
+        Mockito.verify(userDetailsService, Mockito.times(1)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void testAuthenticate_cachedToken_invalidatedByAccountChange() {
+        Account account = getAccount();
+        enableCache();
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(false);
+        Mockito.when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(account);
+        String token = jwtTokenProvider.createToken(account);
+
+        jwtTokenProvider.authenticate(token);
+        verifiedTokenCache.invalidate(EMAIL);
+        jwtTokenProvider.authenticate(token);
+
+        Mockito.verify(userDetailsService, Mockito.times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void testAuthenticate_revokedToken_rejectedEvenWhenCached() {
+        Account account = getAccount();
+        enableCache();
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(false);
+        Mockito.when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(account);
+        String token = jwtTokenProvider.createToken(account);
+        String otherToken = Jwts.builder()
+                .setSubject(EMAIL)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(jwtKeyRing.getActiveKey(), SignatureAlgorithm.HS256)
+                .compact();
+
+        Assertions.assertNotNull(jwtTokenProvider.authenticate(token));
+        tokenDenylist.addToken(JwtTokenProvider.digest(token), System.currentTimeMillis() + 60_000);
+
+        Assertions.assertNull(jwtTokenProvider.authenticate(token));
+        Assertions.assertNotNull(jwtTokenProvider.authenticate(otherToken));
+    }
+
+    @Test
+    void testAuthenticate_revokedUser_rejectsTokensIssuedBeforeRevocation() {
+        Account account = getAccount();
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(true);
+        String token = jwtTokenProvider.createToken(account);
+
+        tokenDenylist.addUser(EMAIL, System.currentTimeMillis());
+        Assertions.assertNull(jwtTokenProvider.authenticate(token));
+
+        String newToken = Jwts.builder()
+                .setSubject(EMAIL)
+                .claim("role", Collections.singletonList("STUDENT"))
+                .setIssuedAt(new Date(System.currentTimeMillis() + 2000))
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(jwtKeyRing.getActiveKey(), SignatureAlgorithm.HS256)
+                .compact();
+        Assertions.assertNotNull(jwtTokenProvider.authenticate(newToken));
+    }
+
+    @Test
+    void testAuthenticate_revokedUser_tokenIssuedLaterInSameSecondAccepted() {
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(true);
+        tokenDenylist.addUser(EMAIL, System.currentTimeMillis() - 1);
+
+        Assertions.assertNotNull(jwtTokenProvider.authenticate(jwtTokenProvider.createToken(getAccount())));
+    }
+
+    @Test
+    void testAuthenticate_userRevokedWhileAuthenticating_notCached() {
+        Account account = getAccount();
+        enableCache();
+        Mockito.when(globalValue.isJwtStateless()).thenReturn(false);
+        String token = jwtTokenProvider.createToken(account);
+        // the revocation is applied between the denylist check and the put into the cache
+        Mockito.when(userDetailsService.loadUserByUsername(EMAIL)).thenAnswer(invocation -> {
+            tokenDenylist.addUser(EMAIL, System.currentTimeMillis());
+            verifiedTokenCache.invalidate(EMAIL);
+            return account;
+        });
+
+        Assertions.assertNull(jwtTokenProvider.authenticate(token));
+        Assertions.assertNull(verifiedTokenCache.get(JwtTokenProvider.digest(token)));
+        Assertions.assertNull(jwtTokenProvider.authenticate(token));
+    }
+
+    private void enableCache() {
+        Mockito.when(globalValue.isJwtCacheEnabled()).thenReturn(true);
+        Mockito.when(globalValue.getJwtCacheMaxSize()).thenReturn(100);
+        Mockito.when(globalValue.getJwtCacheTtl()).thenReturn(Duration.ofMinutes(15));
+        verifiedTokenCache = new VerifiedTokenCache(globalValue);
+        jwtKeyRing = new JwtKeyRing(globalValue, verifiedTokenCache);
+        jwtTokenProvider = new JwtTokenProvider(globalValue, userDetailsService, accountChangeTracker,
+                jwtKeyRing, verifiedTokenCache, tokenDenylist);
+    }
+
+    private Account getAccount() {
+        return Account.builder()
+                .email(EMAIL)
+                .password("encodedPassword")
+                .role('T')
+                .build();
+    }
+}
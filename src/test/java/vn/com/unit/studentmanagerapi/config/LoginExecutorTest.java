@@ -0,0 +1,101 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import vn.com.unit.studentmanagerapi.exception.AppException;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.exception.ServiceBusyException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class LoginExecutorTest {
+    @Mock
+    GlobalValue globalValue;
+
+    LoginExecutor loginExecutor;
+    final CountDownLatch release = new CountDownLatch(1);
+    final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        if (loginExecutor != null) loginExecutor.destroy();
+    }
+
+    @Test
+    void testExecute_returnsResultAndPropagatesAppException() {
+        createExecutor(2, 4, Duration.ofSeconds(5));
+
+        Assertions.assertTrue(loginExecutor.execute(() -> true));
+        AppException exception = Assertions.assertThrows(AppException.class, () -> loginExecutor.execute(() -> {
+            throw new AppException(ErrorCode.EMAIL_PASSWORD_INCORRECT);
+        }));
+        Assertions.assertEquals(ErrorCode.EMAIL_PASSWORD_INCORRECT, exception.getErrorCode());
+    }
+
+    @Test
+    void testExecute_queueFull_rejectedFast() throws Exception {
+        createExecutor(1, 1, Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        callers.submit(() -> loginExecutor.execute(() -> {
+            started.countDown();
+            return awaitRelease();
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        callers.submit(() -> loginExecutor.execute(() -> true));
+        while (loginExecutor.getQueueSize() < 1) Thread.sleep(5);
+
+        long start = System.nanoTime();
+        ServiceBusyException exception = Assertions.assertThrows(ServiceBusyException.class,
+                () -> loginExecutor.execute(() -> true));
+
+        Assertions.assertEquals(ErrorCode.LOGIN_BUSY, exception.getErrorCode());
+        Assertions.assertEquals(Duration.ofSeconds(5), exception.getRetryAfter());
+        Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void testExecute_waitTimesOut_rejected() throws Exception {
+        createExecutor(1, 4, Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        callers.submit(() -> loginExecutor.execute(() -> {
+            started.countDown();
+            return awaitRelease();
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        Assertions.assertThrows(ServiceBusyException.class, () -> loginExecutor.execute(() -> true));
+    }
+
+    // keeps the worker busy even after its caller timed out and cancelled it
+    private boolean awaitRelease() {
+        while (true) {
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+                // keep waiting
+            }
+        }
+    }
+
+    private void createExecutor(int threads, int queueCapacity, Duration queueTimeout) {
+        Mockito.when(globalValue.getLoginThreads()).thenReturn(threads);
+        Mockito.when(globalValue.getLoginQueueCapacity()).thenReturn(queueCapacity);
+        Mockito.when(globalValue.getLoginQueueTimeout()).thenReturn(queueTimeout);
+        loginExecutor = new LoginExecutor(globalValue);
+    }
+}
@@ -0,0 +1,47 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class PasswordHashPolicyTest {
+    @Mock
+    GlobalValue globalValue;
+
+    PasswordHashPolicy passwordHashPolicy;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(globalValue.getBcryptStrength()).thenReturn(6);
+        passwordHashPolicy = new PasswordHashPolicy(globalValue);
+    }
+
+    @Test
+    void testNeedsRehash_sameCost_false() {
+        String hash = new BCryptPasswordEncoder(6).encode("password");
+
+        Assertions.assertEquals(6, PasswordHashPolicy.costOf(hash));
+        Assertions.assertFalse(passwordHashPolicy.needsRehash(hash));
+    }
+
+    @Test
+    void testNeedsRehash_lowerOrHigherCost_true() {
+        Assertions.assertTrue(passwordHashPolicy.needsRehash(new BCryptPasswordEncoder(4).encode("password")));
+        Assertions.assertTrue(passwordHashPolicy.needsRehash(new BCryptPasswordEncoder(7).encode("password")));
+    }
+
+    @Test
+    void testNeedsRehash_notBCrypt_false() {
+        Assertions.assertFalse(passwordHashPolicy.needsRehash("encodedPassword"));
+        Assertions.assertFalse(passwordHashPolicy.needsRehash(null));
+    }
+}
@@ -0,0 +1,225 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.unit.studentmanagerapi.entity.RegistrationSubject;
+import vn.com.unit.studentmanagerapi.entity.RegistrationSubjectID;
+import vn.com.unit.studentmanagerapi.repository.RegistrationSubjectRepository;
+import vn.com.unit.studentmanagerapi.repository.SubjectRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes registrations through the group commit against an embedded H2, from
+ * many threads at once, and checks each caller's outcome against the rows.
+ */
+@DataJdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:group_commit;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=30000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@Sql("/db/subject_registration.sql")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RegistrationGroupCommitTest {
+    static final int SEATS = 50;
+    static final int STUDENTS = 400;
+    static final int SUBJECT_LIMIT_FOR_COURSE = 2;
+
+    @Autowired
+    SubjectRepository subjectRepository;
+
+    @Autowired
+    RegistrationSubjectRepository registrationSubjectRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    RegistrationGroupCommit groupCommit;
+    final ExecutorService callers = Executors.newFixedThreadPool(64);
+
+    @BeforeEach
+    void setUp() {
+        groupCommit = createGroupCommit(Duration.ofMillis(5));
+    }
+
+    private RegistrationGroupCommit createGroupCommit(Duration maxLinger) {
+        GlobalValue globalValue = Mockito.mock(GlobalValue.class);
+        Mockito.when(globalValue.isRegistrationGroupCommitEnabled()).thenReturn(true);
+        Mockito.when(globalValue.getRegistrationGroupCommitMaxBatchSize()).thenReturn(20);
+        Mockito.when(globalValue.getRegistrationGroupCommitMaxLinger()).thenReturn(maxLinger);
+        Mockito.when(globalValue.getRegistrationGroupCommitQueueCapacity()).thenReturn(1000);
+        Mockito.when(globalValue.getRegistrationGroupCommitRetryAfter()).thenReturn(Duration.ofSeconds(1));
+        Mockito.when(globalValue.getSubjectLimitForCourse()).thenReturn(SUBJECT_LIMIT_FOR_COURSE);
+        return new RegistrationGroupCommit(globalValue, subjectRepository, registrationSubjectRepository,
+                transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        groupCommit.stop();
+    }
+
+    @Test
+    void testRegister_parallel_neverOverbooks() throws Exception {
+        long subjectID = createSubject("K01", SEATS);
+        List<Future<RegistrationGroupCommit.Outcome>> futures = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (long studentID = 1; studentID <= STUDENTS; studentID++) {
+            RegistrationSubject registration = registration(subjectID, studentID);
+            futures.add(callers.submit(() -> {
+                start.await();
+                return groupCommit.register(registration);
+            }));
+        }
+        start.countDown();
+
+        int registered = 0;
+        for (Future<RegistrationGroupCommit.Outcome> future : futures) {
+            RegistrationGroupCommit.Outcome outcome = future.get(30, TimeUnit.SECONDS);
+            if (outcome == RegistrationGroupCommit.Outcome.REGISTERED) registered++;
+            else Assertions.assertEquals(RegistrationGroupCommit.Outcome.FULL, outcome);
+        }
+        Assertions.assertEquals(SEATS, registered);
+        Assertions.assertEquals(SEATS, countRegistrations(subjectID));
+        Assertions.assertEquals(0, availability(subjectID));
+    }
+
+    @Test
+    void testRegister_overCourseLimit_seatGivenBack() {
+        long first = createSubject("K01", 10);
+        long second = createSubject("K01", 10);
+        long third = createSubject("K01", 10);
+
+        Assertions.assertEquals(RegistrationGroupCommit.Outcome.REGISTERED, groupCommit.register(registration(first, 7L)));
+        Assertions.assertEquals(RegistrationGroupCommit.Outcome.REGISTERED, groupCommit.register(registration(second, 7L)));
+        Assertions.assertEquals(RegistrationGroupCommit.Outcome.LIMIT_EXCEEDED, groupCommit.register(registration(third, 7L)));
+
+        Assertions.assertEquals(0, countRegistrations(third));
+        Assertions.assertEquals(10, availability(third));
+    }
+
+    @Test
+    void testRegister_subjectsOutOfOrder_eachCallerGetsItsOutcome() throws Exception {
+        long open = createSubject("K01", 10);
+        long full = createSubject("K01", 0);
+        List<Future<RegistrationGroupCommit.Outcome>> futures = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        // the full subject first, the batch claims the seats of the other one before it
+        for (long studentID = 1; studentID <= 10; studentID++) {
+            RegistrationSubject registration = registration(studentID % 2 == 1 ? full : open, studentID);
+            futures.add(callers.submit(() -> {
+                start.await();
+                return groupCommit.register(registration);
+            }));
+        }
+        start.countDown();
+
+        for (int i = 0; i < futures.size(); i++) {
+            Assertions.assertEquals(i % 2 == 0 ? RegistrationGroupCommit.Outcome.FULL : RegistrationGroupCommit.Outcome.REGISTERED,
+                    futures.get(i).get(30, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(5, countRegistrations(open));
+        Assertions.assertEquals(0, countRegistrations(full));
+    }
+
+    @Test
+    void testRegister_lastSeatTakenByRefusedRegistration_laterOneInBatchRegistered() throws Exception {
+        groupCommit.stop();
+        // long enough for both registrations to land in one batch, in order
+        groupCommit = createGroupCommit(Duration.ofMillis(500));
+        long subjectID = createSubject("K01", 1);
+        // student 7 already has the most subjects allowed in K01
+        for (int i = 0; i < SUBJECT_LIMIT_FOR_COURSE; i++) {
+            jdbcTemplate.update("insert into bus_registration_subject (subject_id, student_id) values (?, 7)",
+                    createSubject("K01", 10));
+        }
+
+        Future<RegistrationGroupCommit.Outcome> overLimit = callers.submit(() -> groupCommit.register(registration(subjectID, 7L)));
+        Thread.sleep(50);
+        Future<RegistrationGroupCommit.Outcome> other = callers.submit(() -> groupCommit.register(registration(subjectID, 8L)));
+
+        Assertions.assertEquals(RegistrationGroupCommit.Outcome.LIMIT_EXCEEDED, overLimit.get(30, TimeUnit.SECONDS));
+        Assertions.assertEquals(RegistrationGroupCommit.Outcome.REGISTERED, other.get(30, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, countRegistrations(subjectID));
+        Assertions.assertEquals(0, availability(subjectID));
+    }
+
+    @Test
+    void testRegister_duplicateInBatch_onlyDuplicateFails() throws Exception {
+        long subjectID = createSubject("K01", 10);
+        jdbcTemplate.update("insert into bus_registration_subject (subject_id, student_id) values (?, 1)", subjectID);
+        jdbcTemplate.update("update bus_subject set number_of_availability = 9 where subject_id = ?", subjectID);
+
+        List<Future<RegistrationGroupCommit.Outcome>> futures = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (long studentID = 1; studentID <= 5; studentID++) {
+            RegistrationSubject registration = registration(subjectID, studentID);
+            futures.add(callers.submit(() -> {
+                start.await();
+                return groupCommit.register(registration);
+            }));
+        }
+        start.countDown();
+
+        ExecutionException duplicate = Assertions.assertThrows(ExecutionException.class,
+                () -> futures.get(0).get(30, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(DuplicateKeyException.class, duplicate.getCause());
+        for (Future<RegistrationGroupCommit.Outcome> future : futures.subList(1, futures.size())) {
+            Assertions.assertEquals(RegistrationGroupCommit.Outcome.REGISTERED, future.get(30, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(5, countRegistrations(subjectID));
+        Assertions.assertEquals(5, availability(subjectID));
+    }
+
+    private long createSubject(String courseID, int seats) {
+        jdbcTemplate.update("insert into bus_subject (subject_name, number_of_student, number_of_availability,"
+                + " number_of_credit, course_id, tuition) values ('Cấu trúc dữ liệu', ?, ?, 3, ?, 1500000)",
+                seats, seats, courseID);
+        return jdbcTemplate.queryForObject("select max(subject_id) from bus_subject", Long.class);
+    }
+
+    private static RegistrationSubject registration(long subjectID, long studentID) {
+        return RegistrationSubject.builder()
+                .registrationSubjectID(RegistrationSubjectID.builder().subjectID(subjectID).studentID(studentID).build())
+                .updateBy("admin@mail.com")
+                .build();
+    }
+
+    private int countRegistrations(long subjectID) {
+        return jdbcTemplate.queryForObject("select count(*) from bus_registration_subject where subject_id = ?",
+                Integer.class, subjectID);
+    }
+
+    private int availability(long subjectID) {
+        return jdbcTemplate.queryForObject("select number_of_availability from bus_subject where subject_id = ?",
+                Integer.class, subjectID);
+    }
+}
@@ -0,0 +1,167 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import vn.com.unit.studentmanagerapi.dto.enums.WaitingRoomStatus;
+import vn.com.unit.studentmanagerapi.dto.response.WaitingRoomTicket;
+import vn.com.unit.studentmanagerapi.exception.AppException;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.exception.ServiceBusyException;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class RegistrationWaitingRoomTest {
+    @Mock
+    GlobalValue globalValue;
+    @Mock
+    Clock clock;
+
+    RegistrationWaitingRoom waitingRoom;
+    long now = 1_000_000L;
+
+    static final int ADMITTED = 2;
+    static final Duration ADMISSION_TTL = Duration.ofMinutes(5);
+    static final Duration TICKET_TTL = Duration.ofSeconds(30);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.lenient().when(clock.millis()).thenAnswer(invocation -> now);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (waitingRoom != null) waitingRoom.destroy();
+    }
+
+    @Test
+    void testJoin_firstComeFirstServed_onlyLimitAdmitted() {
+        createWaitingRoom(true, 10);
+
+        WaitingRoomTicket first = waitingRoom.join("a@mail.com");
+        WaitingRoomTicket second = waitingRoom.join("b@mail.com");
+        WaitingRoomTicket third = waitingRoom.join("c@mail.com");
+        WaitingRoomTicket fourth = waitingRoom.join("d@mail.com");
+
+        Assertions.assertEquals(WaitingRoomStatus.ADMITTED, first.getStatus());
+        Assertions.assertEquals(WaitingRoomStatus.ADMITTED, second.getStatus());
+        Assertions.assertEquals(WaitingRoomStatus.WAITING, third.getStatus());
+        Assertions.assertEquals(1, third.getPosition());
+        Assertions.assertEquals(2, fourth.getPosition());
+        Assertions.assertTrue(waitingRoom.isAdmitted(first.getTicket(), "a@mail.com"));
+        Assertions.assertFalse(waitingRoom.isAdmitted(third.getTicket(), "c@mail.com"));
+        Assertions.assertEquals(ADMITTED, waitingRoom.admittedCount());
+    }
+
+    @Test
+    void testJoin_again_sameTicket() {
+        createWaitingRoom(true, 10);
+        waitingRoom.join("a@mail.com");
+        waitingRoom.join("b@mail.com");
+
+        WaitingRoomTicket ticket = waitingRoom.join("c@mail.com");
+
+        Assertions.assertEquals(ticket.getTicket(), waitingRoom.join("c@mail.com").getTicket());
+        Assertions.assertEquals(1, waitingRoom.waitingCount());
+    }
+
+    @Test
+    void testLeave_admitted_nextInLineAdmitted() {
+        createWaitingRoom(true, 10);
+        WaitingRoomTicket first = waitingRoom.join("a@mail.com");
+        waitingRoom.join("b@mail.com");
+        WaitingRoomTicket third = waitingRoom.join("c@mail.com");
+
+        waitingRoom.leave(first.getTicket(), "a@mail.com");
+
+        Assertions.assertFalse(waitingRoom.isAdmitted(first.getTicket(), "a@mail.com"));
+        Assertions.assertEquals(WaitingRoomStatus.ADMITTED, waitingRoom.poll(third.getTicket(), "c@mail.com").getStatus());
+    }
+
+    @Test
+    void testPoll_admissionExpired_slotGoesToNext() {
+        createWaitingRoom(true, 10);
+        WaitingRoomTicket first = waitingRoom.join("a@mail.com");
+        waitingRoom.join("b@mail.com");
+        now += ADMISSION_TTL.minus(TICKET_TTL).toMillis();
+        WaitingRoomTicket third = waitingRoom.join("c@mail.com");
+        Assertions.assertEquals(WaitingRoomStatus.WAITING, third.getStatus());
+
+        now += TICKET_TTL.toMillis();
+        WaitingRoomTicket polled = waitingRoom.poll(third.getTicket(), "c@mail.com");
+
+        Assertions.assertEquals(WaitingRoomStatus.ADMITTED, polled.getStatus());
+        Assertions.assertFalse(waitingRoom.isAdmitted(first.getTicket(), "a@mail.com"));
+        Assertions.assertThrows(AppException.class, () -> waitingRoom.poll(first.getTicket(), "a@mail.com"));
+    }
+
+    @Test
+    void testPoll_abandonedTicketAhead_skipped() {
+        createWaitingRoom(true, 10);
+        WaitingRoomTicket first = waitingRoom.join("a@mail.com");
+        waitingRoom.join("b@mail.com");
+        waitingRoom.join("c@mail.com");
+        WaitingRoomTicket fourth = waitingRoom.join("d@mail.com");
+
+        now += TICKET_TTL.toMillis() + 1;
+        waitingRoom.poll(fourth.getTicket(), "d@mail.com");
+        waitingRoom.leave(first.getTicket(), "a@mail.com");
+
+        Assertions.assertTrue(waitingRoom.isAdmitted(fourth.getTicket(), "d@mail.com"));
+        Assertions.assertEquals(0, waitingRoom.waitingCount());
+    }
+
+    @Test
+    void testPoll_otherAccount_ticketInvalid() {
+        createWaitingRoom(true, 10);
+        WaitingRoomTicket first = waitingRoom.join("a@mail.com");
+
+        AppException exception = Assertions.assertThrows(AppException.class,
+                () -> waitingRoom.poll(first.getTicket(), "b@mail.com"));
+        Assertions.assertEquals(ErrorCode.WAITING_ROOM_TICKET_INVALID, exception.getErrorCode());
+        Assertions.assertFalse(waitingRoom.isAdmitted(first.getTicket(), "b@mail.com"));
+    }
+
+    @Test
+    void testJoin_lineFull_busy() {
+        createWaitingRoom(true, 1);
+        waitingRoom.join("a@mail.com");
+        waitingRoom.join("b@mail.com");
+        waitingRoom.join("c@mail.com");
+
+        ServiceBusyException exception = Assertions.assertThrows(ServiceBusyException.class,
+                () -> waitingRoom.join("d@mail.com"));
+        Assertions.assertEquals(ErrorCode.WAITING_ROOM_FULL, exception.getErrorCode());
+    }
+
+    @Test
+    void testJoin_disabled_admittedWithoutTicket() {
+        createWaitingRoom(false, 10);
+
+        WaitingRoomTicket ticket = waitingRoom.join("a@mail.com");
+
+        Assertions.assertEquals(WaitingRoomStatus.ADMITTED, ticket.getStatus());
+        Assertions.assertTrue(waitingRoom.isAdmitted(null, "a@mail.com"));
+    }
+
+    private void createWaitingRoom(boolean enabled, int capacity) {
+        Mockito.when(globalValue.isWaitingRoomEnabled()).thenReturn(enabled);
+        Mockito.when(globalValue.getWaitingRoomAdmitted()).thenReturn(ADMITTED);
+        Mockito.when(globalValue.getWaitingRoomAdmissionTtl()).thenReturn(ADMISSION_TTL);
+        Mockito.when(globalValue.getWaitingRoomTicketTtl()).thenReturn(TICKET_TTL);
+        Mockito.when(globalValue.getWaitingRoomCapacity()).thenReturn(capacity);
+        // long enough for the publisher not to run during a test
+        Mockito.when(globalValue.getWaitingRoomPollInterval()).thenReturn(Duration.ofMinutes(10));
+        waitingRoom = new RegistrationWaitingRoom(globalValue, clock);
+    }
+}
@@ -0,0 +1,260 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import vn.com.unit.studentmanagerapi.entity.RegistrationSubjectID;
+import vn.com.unit.studentmanagerapi.entity.Subject;
+import vn.com.unit.studentmanagerapi.entity.enums.CourseID;
+import vn.com.unit.studentmanagerapi.exception.ServiceBusyException;
+import vn.com.unit.studentmanagerapi.repository.RegistrationSubjectRepository;
+import vn.com.unit.studentmanagerapi.repository.SubjectRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class SeatAllocatorTest {
+    @Mock
+    GlobalValue globalValue;
+    @Mock
+    SubjectRepository subjectRepository;
+    @Mock
+    RegistrationSubjectRepository registrationSubjectRepository;
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    SeatAllocator seatAllocator;
+
+    static final int SUBJECT_LIMIT_FOR_COURSE = 2;
+    static final String UPDATE_BY = "admin@mail.com";
+
+    @AfterEach
+    void tearDown() {
+        if (seatAllocator != null) seatAllocator.stop();
+    }
+
+    @Test
+    void testAllocate_parallel_grantsExactlyTheSeats() throws Exception {
+        Mockito.when(subjectRepository.claimSeat(1L)).thenReturn(true);
+        createAllocator(subject(1L, CourseID.K01, 50));
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        List<Future<SeatAllocator.Decision>> futures = new ArrayList<>();
+        try {
+            for (long studentID = 1; studentID <= 400; studentID++) {
+                long id = studentID;
+                futures.add(callers.submit(() -> seatAllocator.allocate(1L, id, UPDATE_BY)));
+            }
+            int granted = 0;
+            for (Future<SeatAllocator.Decision> future : futures) {
+                SeatAllocator.Decision decision = future.get(10, TimeUnit.SECONDS);
+                if (decision == SeatAllocator.Decision.GRANTED) granted++;
+                else Assertions.assertEquals(SeatAllocator.Decision.FULL, decision);
+            }
+            Assertions.assertEquals(50, granted);
+            Assertions.assertEquals(0, seatAllocator.availableSeats(1L));
+        } finally {
+            callers.shutdownNow();
+        }
+
+        seatAllocator.stop();
+        Mockito.verify(registrationSubjectRepository, Mockito.times(50))
+                .insert(Mockito.eq(1L), Mockito.anyLong(), Mockito.eq(UPDATE_BY), Mockito.eq(SUBJECT_LIMIT_FOR_COURSE));
+        Mockito.verify(subjectRepository, Mockito.times(50)).claimSeat(1L);
+    }
+
+    @Test
+    void testAllocate_subjectsInOtherLanes_courseLimitShared() {
+        Mockito.when(subjectRepository.claimSeat(Mockito.anyLong())).thenReturn(true);
+        createAllocator(subject(1L, CourseID.K01, 10), subject(2L, CourseID.K01, 10),
+                subject(3L, CourseID.K01, 10), subject(4L, CourseID.K02, 10));
+
+        Assertions.assertEquals(SeatAllocator.Decision.GRANTED, seatAllocator.allocate(1L, 7L, UPDATE_BY));
+        Assertions.assertEquals(SeatAllocator.Decision.GRANTED, seatAllocator.allocate(2L, 7L, UPDATE_BY));
+        Assertions.assertEquals(SeatAllocator.Decision.LIMIT_EXCEEDED, seatAllocator.allocate(3L, 7L, UPDATE_BY));
+        Assertions.assertEquals(SeatAllocator.Decision.GRANTED, seatAllocator.allocate(4L, 7L, UPDATE_BY));
+        Assertions.assertEquals(10, seatAllocator.availableSeats(3L));
+    }
+
+    @Test
+    void testAllocate_registeredOnLoad_alreadyRegistered() {
+        createAllocator(Collections.singletonList(RegistrationSubjectID.builder().subjectID(1L).studentID(7L).build()),
+                subject(1L, CourseID.K01, 10));
+
+        Assertions.assertEquals(SeatAllocator.Decision.ALREADY_REGISTERED, seatAllocator.allocate(1L, 7L, UPDATE_BY));
+        Assertions.assertEquals(9, seatAllocator.availableSeats(1L));
+        Assertions.assertEquals(SeatAllocator.Decision.RELEASED, seatAllocator.release(1L, 7L, UPDATE_BY));
+        Assertions.assertEquals(SeatAllocator.Decision.NOT_REGISTERED, seatAllocator.release(1L, 7L, UPDATE_BY));
+        Assertions.assertEquals(10, seatAllocator.availableSeats(1L));
+    }
+
+    @Test
+    void testAllocate_untrackedSubject_untracked() {
+        createAllocator(subject(1L, CourseID.K01, 10));
+
+        Assertions.assertEquals(SeatAllocator.Decision.UNTRACKED, seatAllocator.allocate(2L, 7L, UPDATE_BY));
+        Assertions.assertEquals(SeatAllocator.Decision.UNTRACKED, seatAllocator.release(2L, 7L, UPDATE_BY));
+    }
+
+    @Test
+    void testAllocate_refusedByDatabase_seatRestored() throws Exception {
+        Mockito.when(subjectRepository.claimSeat(1L)).thenReturn(false);
+        createAllocator(subject(1L, CourseID.K01, 1));
+
+        Assertions.assertEquals(SeatAllocator.Decision.GRANTED, seatAllocator.allocate(1L, 7L, UPDATE_BY));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (seatAllocator.availableSeats(1L) == 0 && System.nanoTime() < deadline) Thread.sleep(5);
+        Assertions.assertEquals(1, seatAllocator.availableSeats(1L));
+        Mockito.verify(transactionManager, Mockito.atLeastOnce()).rollback(Mockito.any());
+    }
+
+    @Test
+    void testAllocate_databaseUnavailable_grantKeptAndRetried() throws Exception {
+        Mockito.when(subjectRepository.claimSeat(1L)).thenReturn(true);
+        Mockito.when(transactionManager.getTransaction(Mockito.any()))
+                .thenThrow(new CannotCreateTransactionException("Could not open JDBC Connection"))
+                .thenReturn(new SimpleTransactionStatus());
+        createAllocator(subject(1L, CourseID.K01, 1));
+
+        Assertions.assertEquals(SeatAllocator.Decision.GRANTED, seatAllocator.allocate(1L, 7L, UPDATE_BY));
+
+        Mockito.verify(registrationSubjectRepository, Mockito.timeout(5000)).insert(1L, 7L, UPDATE_BY, SUBJECT_LIMIT_FOR_COURSE);
+        Mockito.verify(transactionManager, Mockito.timeout(5000)).commit(Mockito.any());
+        Assertions.assertEquals(0, seatAllocator.availableSeats(1L));
+    }
+
+    @Test
+    void testContextClose_queuedGrants_persistedBeforeDataSourceCloses() throws Exception {
+        stubConfig(true);
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:seat_allocator;DB_CLOSE_DELAY=-1");
+        CountDownLatch closing = new CountDownLatch(1);
+        AtomicBoolean writtenAfterClose = new AtomicBoolean();
+        Mockito.when(registrationSubjectRepository.insert(Mockito.eq(1L), Mockito.anyLong(), Mockito.eq(UPDATE_BY), Mockito.eq(SUBJECT_LIMIT_FOR_COURSE)))
+                .thenAnswer(invocation -> {
+                    // holds the writer so the other grants are still queued on close
+                    closing.await(5, TimeUnit.SECONDS);
+                    if (dataSource.isClosed()) writtenAfterClose.set(true);
+                    return true;
+                });
+        Mockito.when(subjectRepository.claimSeat(1L)).thenReturn(true);
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean("dataSource", HikariDataSource.class, () -> dataSource);
+        context.registerBean(SeatAllocator.class, () -> new SeatAllocator(globalValue, subjectRepository,
+                registrationSubjectRepository, new DataSourceTransactionManager(dataSource)));
+        context.addApplicationListener(event -> {
+            if (event instanceof ContextClosedEvent) closing.countDown();
+        });
+        context.refresh();
+        SeatAllocator allocator = context.getBean(SeatAllocator.class);
+        allocator.load(Collections.singletonList(subject(1L, CourseID.K01, 10)), Collections.emptyList());
+        for (long studentID = 1; studentID <= 10; studentID++) {
+            Assertions.assertEquals(SeatAllocator.Decision.GRANTED, allocator.allocate(1L, studentID, UPDATE_BY));
+        }
+
+        context.close();
+
+        Assertions.assertTrue(dataSource.isClosed());
+        Assertions.assertFalse(writtenAfterClose.get());
+        Mockito.verify(registrationSubjectRepository, Mockito.times(10))
+                .insert(Mockito.eq(1L), Mockito.anyLong(), Mockito.eq(UPDATE_BY), Mockito.eq(SUBJECT_LIMIT_FOR_COURSE));
+        Mockito.verify(subjectRepository, Mockito.times(10)).claimSeat(1L);
+    }
+
+    @Test
+    void testAllocate_courseLimitReachedInDatabase_grantUndone() throws Exception {
+        createAllocator(subject(1L, CourseID.K01, 1));
+        Mockito.when(registrationSubjectRepository.insert(1L, 7L, UPDATE_BY, SUBJECT_LIMIT_FOR_COURSE)).thenReturn(false);
+
+        Assertions.assertEquals(SeatAllocator.Decision.GRANTED, seatAllocator.allocate(1L, 7L, UPDATE_BY));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (seatAllocator.availableSeats(1L) == 0 && System.nanoTime() < deadline) Thread.sleep(5);
+        Assertions.assertEquals(1, seatAllocator.availableSeats(1L));
+        Mockito.verify(subjectRepository, Mockito.never()).claimSeat(1L);
+    }
+
+    @Test
+    void testCheckLoaded_beforeLoad_busy() {
+        stubConfig(true);
+        seatAllocator = new SeatAllocator(globalValue, subjectRepository, registrationSubjectRepository, transactionManager);
+
+        Assertions.assertThrows(ServiceBusyException.class, () -> seatAllocator.checkLoaded());
+
+        seatAllocator.load(Collections.singletonList(subject(1L, CourseID.K01, 10)), Collections.emptyList());
+        Assertions.assertDoesNotThrow(() -> seatAllocator.checkLoaded());
+    }
+
+    @Test
+    void testChangeCourse_registrationsCountedForNewCourse() {
+        Mockito.when(subjectRepository.claimSeat(Mockito.anyLong())).thenReturn(true);
+        createAllocator(subject(1L, CourseID.K01, 10), subject(2L, CourseID.K02, 10), subject(3L, CourseID.K02, 10));
+        seatAllocator.allocate(1L, 7L, UPDATE_BY);
+        seatAllocator.allocate(2L, 7L, UPDATE_BY);
+
+        seatAllocator.changeCourse(1L, CourseID.K02);
+
+        Assertions.assertEquals(SeatAllocator.Decision.LIMIT_EXCEEDED, seatAllocator.allocate(3L, 7L, UPDATE_BY));
+    }
+
+    @Test
+    void testIsReady_disabled_neverReady() {
+        stubConfig(false);
+        seatAllocator = new SeatAllocator(globalValue, subjectRepository, registrationSubjectRepository, transactionManager);
+
+        seatAllocator.load(Collections.singletonList(subject(1L, CourseID.K01, 10)), Collections.emptyList());
+
+        Assertions.assertFalse(seatAllocator.isEnabled());
+        Assertions.assertFalse(seatAllocator.isReady());
+    }
+
+    private void createAllocator(Subject... subjects) {
+        createAllocator(Collections.emptyList(), subjects);
+    }
+
+    private void createAllocator(List<RegistrationSubjectID> registrations, Subject... subjects) {
+        stubConfig(true);
+        Mockito.lenient().when(registrationSubjectRepository.insert(Mockito.anyLong(), Mockito.anyLong(),
+                Mockito.any(), Mockito.anyInt())).thenReturn(true);
+        seatAllocator = new SeatAllocator(globalValue, subjectRepository, registrationSubjectRepository, transactionManager);
+        seatAllocator.load(Arrays.asList(subjects), registrations);
+    }
+
+    private void stubConfig(boolean enabled) {
+        Mockito.lenient().when(globalValue.isRegistrationAllocatorEnabled()).thenReturn(enabled);
+        Mockito.lenient().when(globalValue.getRegistrationAllocatorLanes()).thenReturn(4);
+        Mockito.lenient().when(globalValue.getRegistrationAllocatorQueueCapacity()).thenReturn(1000);
+        Mockito.lenient().when(globalValue.getRegistrationAllocatorPersistBatchSize()).thenReturn(20);
+        Mockito.lenient().when(globalValue.getRegistrationAllocatorRetryAfter()).thenReturn(Duration.ofSeconds(1));
+        Mockito.lenient().when(globalValue.getSubjectLimitForCourse()).thenReturn(SUBJECT_LIMIT_FOR_COURSE);
+    }
+
+    private static Subject subject(long subjectID, CourseID courseID, int numberOfStudent) {
+        return Subject.builder().subjectID(subjectID).courseID(courseID).numberOfStudent(numberOfStudent).build();
+    }
+}
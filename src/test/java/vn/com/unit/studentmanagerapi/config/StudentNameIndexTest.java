@@ -0,0 +1,118 @@
+package vn.com.unit.studentmanagerapi.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import vn.com.unit.studentmanagerapi.entity.Student;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+class StudentNameIndexTest {
+    StudentNameIndex studentNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        GlobalValue globalValue = Mockito.mock(GlobalValue.class);
+        Mockito.when(globalValue.getStudentNameIndexRefreshOverlap()).thenReturn(Duration.ofMinutes(1));
+        studentNameIndex = new StudentNameIndex(globalValue);
+        studentNameIndex.load(() -> Arrays.asList(
+                student(1L, "Nguyễn Văn An"),
+                student(2L, "Trần Thị Bình"),
+                student(3L, "Lê Văn Anh")));
+    }
+
+    @Test
+    void testSuggest_matchesWordPrefixesIgnoringDiacritics() {
+        Assertions.assertEquals(Arrays.asList(1L, 3L), ids(studentNameIndex.suggest("an", 10)));
+        Assertions.assertEquals(Arrays.asList(1L, 3L), ids(studentNameIndex.suggest("VĂN", 10)));
+        Assertions.assertEquals(Collections.singletonList(2L), ids(studentNameIndex.suggest("tran thi b", 10)));
+        Assertions.assertEquals(Collections.singletonList(1L), ids(studentNameIndex.suggest("an", 1)));
+        Assertions.assertEquals("an@mail.com", studentNameIndex.suggest("nguyen", 10).get(0).getEmail());
+    }
+
+    @Test
+    void testFuzzySearch_toleratesTyposAndDiacritics() {
+        Assertions.assertEquals(Collections.singletonList(3L), studentNameIndex.fuzzySearch("le van an", 2, 0, 10));
+        Assertions.assertEquals(Collections.emptyList(), studentNameIndex.fuzzySearch("le van an", 2, 1, 10));
+        Assertions.assertEquals(Collections.singletonList(1L), studentNameIndex.fuzzySearch("Nguyen Vn Anh", 2, 0, 10));
+        Assertions.assertEquals(Collections.singletonList(2L), studentNameIndex.fuzzySearch("Tran Thi Binh", 0, 0, 10));
+    }
+
+    @Test
+    void testPut_replacesPreviousName() {
+        studentNameIndex.put(student(1L, "Phạm Minh"));
+
+        Assertions.assertEquals(Collections.singletonList(3L), ids(studentNameIndex.suggest("an", 10)));
+        Assertions.assertEquals(Collections.singletonList(1L), ids(studentNameIndex.suggest("minh", 10)));
+        Assertions.assertEquals(Collections.singletonList(1L), studentNameIndex.search("pham", 0, 10));
+        Assertions.assertEquals(Collections.emptyList(), studentNameIndex.fuzzySearch("nguyen van an", 1, 0, 10));
+    }
+
+    @Test
+    void testRemove_dropsFromBothIndexes() {
+        studentNameIndex.remove(3L);
+
+        Assertions.assertEquals(Collections.singletonList(1L), ids(studentNameIndex.suggest("an", 10)));
+        Assertions.assertEquals(Collections.emptyList(), studentNameIndex.search("le van", 0, 10));
+        Assertions.assertEquals(Collections.emptyList(), studentNameIndex.fuzzySearch("le van anh", 0, 0, 10));
+    }
+
+    @Test
+    void testLoad_replaysChangesMadeDuringLoad() {
+        studentNameIndex.load(() -> {
+            studentNameIndex.put(student(4L, "Đỗ Hùng"));
+            studentNameIndex.remove(1L);
+            return Arrays.asList(student(1L, "Nguyễn Văn An"), student(2L, "Trần Thị Bình"));
+        });
+
+        Assertions.assertEquals(Collections.singletonList(4L), ids(studentNameIndex.suggest("do", 10)));
+        Assertions.assertEquals(Collections.emptyList(), ids(studentNameIndex.suggest("nguyen", 10)));
+    }
+
+    @Test
+    void testRefresh_changesOnOtherNode_applied() {
+        LocalDateTime loadedBefore = LocalDateTime.now();
+        AtomicReference<LocalDateTime> since = new AtomicReference<>();
+        Student deleted = student(2L, "Trần Thị Bình");
+        deleted.setDeleted(true);
+
+        studentNameIndex.refresh(changedSince -> {
+            since.set(changedSince);
+            return Arrays.asList(student(1L, "Phạm Minh"), deleted, student(4L, "Đỗ Hùng"));
+        });
+
+        Assertions.assertEquals(Collections.singletonList(1L), ids(studentNameIndex.suggest("minh", 10)));
+        Assertions.assertEquals(Collections.singletonList(3L), ids(studentNameIndex.suggest("an", 10)));
+        Assertions.assertEquals(Collections.emptyList(), studentNameIndex.search("binh", 0, 10));
+        Assertions.assertEquals(Collections.singletonList(4L), studentNameIndex.search("hung", 0, 10));
+        // reads back an overlap before the load, for rows committed late
+        Assertions.assertFalse(since.get().isAfter(loadedBefore.minusMinutes(1)));
+    }
+
+    @Test
+    void testRefresh_notLoaded_nothingRead() {
+        StudentNameIndex notLoaded = new StudentNameIndex(Mockito.mock(GlobalValue.class));
+
+        notLoaded.refresh(changedSince -> {
+            throw new AssertionError("read before the index was loaded");
+        });
+
+        Assertions.assertFalse(notLoaded.isLoaded());
+    }
+
+    private static Student student(Long id, String fullName) {
+        String email = fullName.substring(fullName.lastIndexOf(' ') + 1).toLowerCase() + "@mail.com";
+        return Student.builder().studentID(id).fullName(fullName).email(email).build();
+    }
+
+    private static List<Long> ids(List<Student> students) {
+        return students.stream().map(Student::getStudentID).collect(Collectors.toList());
+    }
+}
@@ -9,6 +9,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -19,18 +21,24 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.web.multipart.MultipartFile;
 import vn.com.unit.studentmanagerapi.dto.request.StudentCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.StudentUpdateRequest;
+import vn.com.unit.studentmanagerapi.dto.response.StudentAvatar;
 import vn.com.unit.studentmanagerapi.dto.response.StudentResponse;
+import vn.com.unit.studentmanagerapi.dto.response.StudentSuggestion;
 import vn.com.unit.studentmanagerapi.repository.StudentRepository;
 import vn.com.unit.studentmanagerapi.service.StudentService;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -495,6 +503,43 @@ class StudentControllerTest {
         ;
     }
 
+    @Test
+    @WithMockUser(username = "admin@gmail.com", authorities = "ADMIN")
+    void testSearchStudentByName_fuzzyMode_success() throws Exception {
+        when(studentService.fuzzySearchByName("nguyen van am", 1, 0, 10))
+                .thenReturn(Collections.singletonList(response));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/students/search")
+                        .param("term", "nguyen van am")
+                        .param("mode", "fuzzy")
+                        .param("maxDistance", "1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("code")
+                        .value("APP_SUCCESS"))
+        ;
+        verify(studentService, never()).searchByName(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", authorities = "ADMIN")
+    void testSuggestStudentByName_validRequest_success() throws Exception {
+        StudentSuggestion suggestion = new StudentSuggestion(1L, "Nguyễn Văn An", "an@mail.com");
+
+        when(studentService.suggestByName("ngu", 10))
+                .thenReturn(Collections.singletonList(suggestion));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/students/suggest")
+                        .param("term", "ngu"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("code")
+                        .value("APP_SUCCESS"))
+                .andExpect(MockMvcResultMatchers.jsonPath("data[0].email")
+                        .value("an@mail.com"))
+        ;
+    }
+
     @Test
     @WithMockUser(username = "admin@gmail.com", authorities = "ADMIN")
     void testSearchStudentByAdmissionDate_validRequest_success() throws Exception {
@@ -522,6 +567,102 @@ class StudentControllerTest {
         ;
     }
 
+    @Test
+    @WithMockUser(username = "admin@gmail.com", authorities = "ADMIN")
+    void testGetAvatar_versionedUrl_cachedImmutable() throws Exception {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+        when(studentService.getAvatarTag(1L, null)).thenReturn("abc");
+        when(studentService.getAvatar(1L, null)).thenReturn(StudentAvatar.builder()
+                .hash("abc")
+                .tag("abc")
+                .contentType("image/png")
+                .content(new ByteArrayResource(png))
+                .build());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/students/1/avatar")
+                        .param("v", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(MockMvcResultMatchers.content().bytes(png))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CACHE_CONTROL,
+                        "max-age=31536000, private, immutable"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", authorities = "ADMIN")
+    void testGetAvatar_matchingETag_notModified() throws Exception {
+        when(studentService.getAvatarTag(1L, null)).thenReturn("abc");
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/students/1/avatar")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+        verify(studentService, never()).getAvatar(any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", authorities = "ADMIN")
+    void testGetAvatar_thumbnailNotRendered_originalNotCachedForGood() throws Exception {
+        when(studentService.getAvatarTag(1L, 64)).thenReturn("abc");
+        when(studentService.getAvatar(1L, 64)).thenReturn(StudentAvatar.builder()
+                .hash("abc")
+                .tag("abc")
+                .contentType("image/jpeg")
+                .content(new ByteArrayResource(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}))
+                .build());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/students/1/avatar")
+                        .param("v", "abc")
+                        .param("size", "64"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", authorities = "ADMIN")
+    void testGetAvatar_thumbnail_cachedImmutable() throws Exception {
+        when(studentService.getAvatarTag(1L, 64)).thenReturn("abc-64");
+        when(studentService.getAvatar(1L, 64)).thenReturn(StudentAvatar.builder()
+                .hash("abc")
+                .tag("abc-64")
+                .contentType("image/jpeg")
+                .content(new ByteArrayResource(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}))
+                .build());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/students/1/avatar")
+                        .param("v", "abc")
+                        .param("size", "64"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"abc-64\""))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CACHE_CONTROL,
+                        "max-age=31536000, private, immutable"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", authorities = "ADMIN")
+    void testGetAvatar_range_partialContent() throws Exception {
+        when(studentService.getAvatarTag(1L, null)).thenReturn("abc");
+        when(studentService.getAvatar(1L, null)).thenReturn(StudentAvatar.builder()
+                .hash("abc")
+                .tag("abc")
+                .contentType("image/jpeg")
+                .content(new ByteArrayResource(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 1, 2, 3}))
+                .build());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/students/1/avatar")
+                        .header(HttpHeaders.RANGE, "bytes=3-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_RANGE, "bytes 3-4/6"))
+                .andExpect(MockMvcResultMatchers.content().bytes(new byte[]{1, 2}));
+    }
+
     @Test
     @WithMockUser(username = "admin@gmail.com", authorities = "ADMIN")
     void testGetMyInfo_validRequest_success() throws Exception {
@@ -12,6 +12,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -27,6 +28,7 @@ import vn.com.unit.studentmanagerapi.dto.request.SubjectCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.SubjectSearchRequest;
 import vn.com.unit.studentmanagerapi.dto.request.SubjectUpdateRequest;
 import vn.com.unit.studentmanagerapi.dto.response.ApiResponse;
+import vn.com.unit.studentmanagerapi.dto.response.CursorSlice;
 import vn.com.unit.studentmanagerapi.entity.Subject;
 import vn.com.unit.studentmanagerapi.entity.enums.CourseID;
 import vn.com.unit.studentmanagerapi.exception.AppException;
@@ -726,6 +728,29 @@ class SubjectControllerTest {
     }
 
 
+    @Test
+    void testSearch_withCursor() throws Exception {
+        SubjectSearchRequest subjectSearchRequest = getSubjectSearchRequest();
+        subjectSearchRequest.setCursor("");
+        ArrayList<Subject> subjects = new ArrayList<>();
+        subjects.add(getSubject());
+        CursorSlice<Subject> subject = new CursorSlice<>(subjects, subjects.size(), "next-page");
+        String responseExpect = objectMapper.writeValueAsString(ApiResponse.<Slice<Subject>>builder()
+                .code("APP_SUCCESS")
+                .message("Success")
+                .data(subject)
+                .nextCursor("next-page")
+                .build());
+        Mockito.when(subjectService.searchAfter(subjectSearchRequest)).thenReturn(subject);
+
+        performGetRequest(SEARCH_URL + "?cursor=")
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(responseExpect));
+        Mockito.verify(subjectService).searchAfter(subjectSearchRequest);
+        Mockito.verify(subjectService, Mockito.never()).search(Mockito.any());
+    }
+
+
     private ResultActions performGetRequest(String url) throws Exception {
         return mockMvc.perform(
                 MockMvcRequestBuilders.get(url)
@@ -19,13 +19,23 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import vn.com.unit.studentmanagerapi.config.GlobalValue;
 import vn.com.unit.studentmanagerapi.config.JwtTokenProvider;
+import vn.com.unit.studentmanagerapi.config.RegistrationWaitingRoom;
+import vn.com.unit.studentmanagerapi.dto.enums.RegistrationBatchMode;
+import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectBatchCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectDeleteRequest;
 import vn.com.unit.studentmanagerapi.dto.response.ApiResponse;
+import vn.com.unit.studentmanagerapi.dto.response.SubjectRegistrationResult;
 import vn.com.unit.studentmanagerapi.exception.AppException;
 import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.exception.ServiceBusyException;
 import vn.com.unit.studentmanagerapi.service.SubjectRegistrationService;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 @WebMvcTest(SubjectRegistrationController.class)
 @AutoConfigureMockMvc(addFilters = false)
 @FieldDefaults(level = AccessLevel.PRIVATE)
@@ -40,6 +50,8 @@ class SubjectRegistrationControllerTest {
     SubjectRegistrationService subjectRegistrationService;
     @MockBean
     JwtTokenProvider jwtTokenProvider;
+    @MockBean
+    RegistrationWaitingRoom registrationWaitingRoom;
 
     static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
 
@@ -242,6 +254,72 @@ class SubjectRegistrationControllerTest {
         Mockito.verify(subjectRegistrationService).deleteRegistrationSubject(registrationSubjectDeleteRequest);
     }
 
+    @Test
+    void createRegistrationSubjects_validRequest_success() throws Exception {
+        RegistrationSubjectBatchCreateRequest request = getRegistrationSubjectBatchCreateRequest().build();
+        List<SubjectRegistrationResult> results = Arrays.asList(
+                SubjectRegistrationResult.builder().subjectID(1L).registered(true).code("APP_SUCCESS").message("Success").build(),
+                SubjectRegistrationResult.builder().subjectID(2L).registered(false)
+                        .code(ErrorCode.SUBJECT_FULL.getCode()).message(ErrorCode.SUBJECT_FULL.getMessage()).build());
+        String responseExpect = objectMapper.writeValueAsString(getApiResponse(results));
+        Mockito.when(subjectRegistrationService.createRegistrationSubjects(request)).thenReturn(results);
+
+        performPostRequest(BASE_URL + "/batch", request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(responseExpect));
+    }
+
+    @Test
+    void createRegistrationSubjects_emptySubjectIDs_fail() throws Exception {
+        RegistrationSubjectBatchCreateRequest request = getRegistrationSubjectBatchCreateRequest()
+                .subjectIDs(Collections.emptyList()).build();
+
+        performPostRequest(BASE_URL + "/batch", request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.code").value(ErrorCode.SUBJECT_IDS_SIZE.getCode()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Between 1 and 20 subjects can be registered at once"));
+        Mockito.verify(subjectRegistrationService, Mockito.never()).createRegistrationSubjects(Mockito.any());
+    }
+
+    @Test
+    void createRegistrationSubjects_subjectIDNotPositive_fail() throws Exception {
+        RegistrationSubjectBatchCreateRequest request = getRegistrationSubjectBatchCreateRequest()
+                .subjectIDs(Arrays.asList(1L, 0L)).build();
+        String responseExpect = objectMapper.writeValueAsString(getApiResponse(ErrorCode.SUBJECT_ID_NOT_POSITIVE));
+
+        performPostRequest(BASE_URL + "/batch", request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(responseExpect));
+        Mockito.verify(subjectRegistrationService, Mockito.never()).createRegistrationSubjects(Mockito.any());
+    }
+
+    @Test
+    void createRegistrationCourse_notAdmitted_tooManyRequests() throws Exception {
+        RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
+        String responseExpect = objectMapper.writeValueAsString(getApiResponse(ErrorCode.WAITING_ROOM_NOT_ADMITTED));
+        Mockito.doThrow(new ServiceBusyException(ErrorCode.WAITING_ROOM_NOT_ADMITTED, Duration.ofSeconds(2)))
+                .when(registrationWaitingRoom).checkAdmitted("ticket");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post(BASE_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registrationSubjectCreateRequest))
+                        .header(HttpHeaders.AUTHORIZATION, BEARER_TOKEN)
+                        .header(RegistrationWaitingRoom.TICKET_HEADER, "ticket"))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(MockMvcResultMatchers.content().string(responseExpect));
+        Mockito.verify(subjectRegistrationService, Mockito.never()).createRegistrationSubject(Mockito.any());
+    }
+
+    private ResultActions performPostRequest(String url, Object content) throws Exception {
+        return mockMvc.perform(
+                MockMvcRequestBuilders.post(url)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(content))
+                        .header(HttpHeaders.AUTHORIZATION, BEARER_TOKEN));
+    }
+
     private ResultActions performPostRequest(Object content) throws Exception {
         return mockMvc.perform(
                 MockMvcRequestBuilders.post(BASE_URL)
@@ -265,6 +343,13 @@ class SubjectRegistrationControllerTest {
     }
 
 
+    private RegistrationSubjectBatchCreateRequest.RegistrationSubjectBatchCreateRequestBuilder getRegistrationSubjectBatchCreateRequest() {
+        return RegistrationSubjectBatchCreateRequest.builder()
+                .studentID(STUDENT_ID)
+                .subjectIDs(Arrays.asList(1L, 2L))
+                .mode(RegistrationBatchMode.BEST_EFFORT);
+    }
+
     private RegistrationSubjectCreateRequest.RegistrationSubjectCreateRequestBuilder getRegistrationSubjectCreateRequest() {
         return RegistrationSubjectCreateRequest.builder()
                 .studentID(STUDENT_ID)
@@ -0,0 +1,60 @@
+package vn.com.unit.studentmanagerapi.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import vn.com.unit.studentmanagerapi.dto.enums.SubjectSortField;
+import vn.com.unit.studentmanagerapi.entity.enums.CourseID;
+
+class SubjectRepositoryCustomImplTest {
+
+    @Test
+    void testToSql_firstPageById() {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = SubjectRepositoryCustomImpl.toSql(SubjectKeysetQuery.builder()
+                .sortField(SubjectSortField.subjectID)
+                .direction(Sort.Direction.ASC)
+                .limit(11)
+                .build(), params);
+
+        Assertions.assertEquals("SELECT * FROM bus_subject WHERE 1 = 1 ORDER BY subject_id ASC LIMIT :limit", sql);
+        Assertions.assertEquals(11, params.getValue("limit"));
+    }
+
+    @Test
+    void testToSql_seeksPastRowValueDescending() {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = SubjectRepositoryCustomImpl.toSql(SubjectKeysetQuery.builder()
+                .excludeDeleted(true)
+                .courseID(CourseID.K01)
+                .sortField(SubjectSortField.subjectName)
+                .direction(Sort.Direction.DESC)
+                .afterKey("Công nghệ mới")
+                .afterID(5L)
+                .limit(11)
+                .build(), params);
+
+        Assertions.assertEquals("SELECT * FROM bus_subject WHERE 1 = 1 AND is_deleted = FALSE AND course_id = :courseID"
+                + " AND (subject_name, subject_id) < (:afterKey, :afterID)"
+                + " ORDER BY subject_name DESC, subject_id DESC LIMIT :limit", sql);
+        Assertions.assertEquals("K01", params.getValue("courseID"));
+        Assertions.assertEquals("Công nghệ mới", params.getValue("afterKey"));
+        Assertions.assertEquals(5L, params.getValue("afterID"));
+    }
+
+    @Test
+    void testToSql_subjectsOfStudent() {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = SubjectRepositoryCustomImpl.toSql(SubjectKeysetQuery.builder()
+                .studentID(3L)
+                .sortField(SubjectSortField.subjectID)
+                .afterID(8L)
+                .limit(6)
+                .build(), params);
+
+        Assertions.assertEquals("SELECT * FROM bus_subject WHERE 1 = 1"
+                + " AND subject_id IN (SELECT subject_id FROM bus_registration_subject WHERE student_id = :studentID)"
+                + " AND subject_id > :afterID ORDER BY subject_id ASC LIMIT :limit", sql);
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.TestPropertySource;
@@ -23,6 +24,7 @@ import vn.com.unit.studentmanagerapi.entity.Account;
 import vn.com.unit.studentmanagerapi.exception.AppException;
 import vn.com.unit.studentmanagerapi.mapper.AccountMapper;
 import vn.com.unit.studentmanagerapi.repository.AccountRepository;
+import vn.com.unit.studentmanagerapi.service.TokenRevocationService;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -59,6 +61,9 @@ class AccountServiceImplTest {
     @MockBean
     JwtAuthenticationProvider jwtAuthenticationProvider;
 
+    @MockBean
+    TokenRevocationService tokenRevocationService;
+
     AccountCreateRequest accountCreateRequest;
     AccountUpdateRequest accountUpdateRequest;
     AccountResponse response;
@@ -134,6 +139,23 @@ class AccountServiceImplTest {
 
     }
 
+    @Test
+    void testLogin_outdatedHashCost_rehashed() {
+        String password = "12345678";
+        String outdatedHash = new BCryptPasswordEncoder(4).encode(password);
+        account.setPassword(outdatedHash);
+
+        when(accountRepository.findById(loginRequest.getEmail())).thenReturn(Optional.of(account));
+        when(passwordEncoder.matches(password, outdatedHash)).thenReturn(true);
+        when(passwordEncoder.encode(password)).thenReturn("rehashedPassword");
+        when(accountRepository.updatePasswordIfUnchanged(account.getEmail(), outdatedHash, "rehashedPassword"))
+                .thenReturn(true);
+
+        accountService.login(loginRequest);
+
+        verify(accountRepository).updatePasswordIfUnchanged(account.getEmail(), outdatedHash, "rehashedPassword");
+    }
+
     @Test
     void testLogin_emailNotExist_fail() {
         // Given
@@ -0,0 +1,82 @@
+package vn.com.unit.studentmanagerapi.service.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+import vn.com.unit.studentmanagerapi.exception.AppException;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.util.DigestUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+class FileSystemAvatarStoreTest {
+    static final byte[] IMAGE = "image content".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path root;
+
+    @Test
+    void testPut_storesUnderShardedHashPath() throws IOException {
+        FileSystemAvatarStore store = new FileSystemAvatarStore(root);
+
+        String hash = store.put(new ByteArrayResource(IMAGE), IMAGE.length);
+
+        Assertions.assertEquals(DigestUtil.toHex(DigestUtil.sha256(IMAGE)), hash);
+        Path stored = root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+        Assertions.assertArrayEquals(IMAGE, Files.readAllBytes(stored));
+        Assertions.assertEquals(0, countFiles(root.resolve("tmp")));
+    }
+
+    @Test
+    void testPut_identicalContentStoredOnce() throws IOException {
+        FileSystemAvatarStore store = new FileSystemAvatarStore(root);
+
+        String first = store.put(new ByteArrayResource(IMAGE), IMAGE.length);
+        String second = store.put(new ByteArrayResource(IMAGE.clone()), IMAGE.length);
+
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(1, countFiles(root.resolve(first.substring(0, 2))));
+    }
+
+    @Test
+    void testPut_overSizeCap_storesNothing() throws IOException {
+        FileSystemAvatarStore store = new FileSystemAvatarStore(root);
+
+        AppException exception = Assertions.assertThrows(AppException.class,
+                () -> store.put(new ByteArrayResource(IMAGE), IMAGE.length - 1));
+
+        Assertions.assertEquals(ErrorCode.AVATAR_TOO_LARGE, exception.getErrorCode());
+        Assertions.assertEquals(0, countFiles(root));
+    }
+
+    @Test
+    void testLoad_readsStoredContent() throws IOException {
+        FileSystemAvatarStore store = new FileSystemAvatarStore(root);
+        String hash = store.put(new ByteArrayResource(IMAGE), IMAGE.length);
+
+        Resource resource = store.load(hash).orElseThrow(AssertionError::new);
+
+        Assertions.assertArrayEquals(IMAGE, StreamUtils.copyToByteArray(resource.getInputStream()));
+        Assertions.assertFalse(store.load(DigestUtil.sha256Hex("missing")).isPresent());
+    }
+
+    @Test
+    void testLoad_rejectsPathsOutsideTheStore() {
+        FileSystemAvatarStore store = new FileSystemAvatarStore(root);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> store.load("../../etc/passwd"));
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
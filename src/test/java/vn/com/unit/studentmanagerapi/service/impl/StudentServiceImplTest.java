@@ -8,37 +8,56 @@ import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.TestPropertySource;
+import vn.com.unit.studentmanagerapi.config.AvatarCache;
+import vn.com.unit.studentmanagerapi.config.AvatarThumbnailer;
+import vn.com.unit.studentmanagerapi.config.StudentNameIndex;
 import vn.com.unit.studentmanagerapi.dto.request.AccountCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.StudentCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.StudentUpdateRequest;
 import vn.com.unit.studentmanagerapi.dto.response.AccountResponse;
+import vn.com.unit.studentmanagerapi.dto.response.CursorSlice;
+import vn.com.unit.studentmanagerapi.dto.response.StudentAvatar;
 import vn.com.unit.studentmanagerapi.dto.response.StudentResponse;
+import vn.com.unit.studentmanagerapi.dto.response.StudentSuggestion;
 import vn.com.unit.studentmanagerapi.entity.Account;
 import vn.com.unit.studentmanagerapi.entity.Student;
 import vn.com.unit.studentmanagerapi.entity.enums.Gender;
 import vn.com.unit.studentmanagerapi.entity.enums.Role;
 import vn.com.unit.studentmanagerapi.exception.AppException;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
 import vn.com.unit.studentmanagerapi.mapper.StudentMapper;
 import vn.com.unit.studentmanagerapi.repository.AccountRepository;
 import vn.com.unit.studentmanagerapi.repository.StudentRepository;
+import vn.com.unit.studentmanagerapi.service.AvatarStore;
+import vn.com.unit.studentmanagerapi.util.MyImageUtil;
+import vn.com.unit.studentmanagerapi.util.KeysetCursor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -63,6 +82,18 @@ class StudentServiceImplTest {
     @MockBean
     PasswordEncoder passwordEncoder;
 
+    @MockBean
+    private StudentNameIndex studentNameIndex;
+
+    @MockBean
+    private AvatarStore avatarStore;
+
+    @MockBean
+    private AvatarThumbnailer avatarThumbnailer;
+
+    @MockBean
+    private AvatarCache avatarCache;
+
     private MockMultipartFile photo;
 
     private Student student;
@@ -73,6 +104,9 @@ class StudentServiceImplTest {
 
     @BeforeEach
     void initData() {
+        // a cache that always misses
+        when(avatarCache.get(anyString(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<Optional<Resource>>>getArgument(1).get());
 
         LocalDate dob = LocalDate.of(1999, 1, 1);
         LocalDate doa = LocalDate.of(2019, 8, 15);
@@ -231,7 +265,7 @@ class StudentServiceImplTest {
     @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
     void testDeleteStudent_validRequest_success() {
         when(studentRepository.existsById(anyLong())).thenReturn(true);
-        when(studentRepository.softDeleteByStudentID(anyLong())).thenReturn(true);
+        when(studentRepository.softDeleteByStudentID(anyLong(), any(), any())).thenReturn(true);
 
         String message = studentService.deleteStudentById(1L);
 
@@ -239,9 +273,10 @@ class StudentServiceImplTest {
     }
 
     @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
     void testDeleteStudent_uncategorizedError_fail() {
         when(studentRepository.existsById(anyLong())).thenReturn(true);
-        when(studentRepository.softDeleteByStudentID(any())).thenReturn(false);
+        when(studentRepository.softDeleteByStudentID(any(), any(), any())).thenReturn(false);
 
         var exception = assertThrows(AppException.class,
                 () -> studentService.deleteStudentById(1L));
@@ -270,10 +305,40 @@ class StudentServiceImplTest {
     void testUploadPhoto_invalidRequest_success() {
         // Mock repository behavior
         when(studentRepository.findByEmail("email@gmail.com")).thenReturn(Optional.of(student));
+        when(avatarStore.put(photo, MyImageUtil.MAX_FILE_SIZE)).thenReturn("abc");
+        when(studentRepository.updateAvatarHash(any(), eq("abc"), any(), any())).thenReturn(true);
 
         response = studentService.uploadPhoto("email@gmail.com", photo);
 
         assertThat(response.getFullName()).isEqualTo("John Smith");
+        assertThat(response.getAvatarHash()).isEqualTo("abc");
+        verify(studentRepository, never()).save(any());
+        verify(avatarThumbnailer).submit("abc");
+    }
+
+    @Test
+    @WithMockUser(username = "test@student.com")
+    void testUploadPhoto_replacesAvatar_evictsPreviousFromCache() {
+        student.setAvatarHash("old");
+        when(studentRepository.findByEmail("email@gmail.com")).thenReturn(Optional.of(student));
+        when(avatarStore.put(photo, MyImageUtil.MAX_FILE_SIZE)).thenReturn("abc");
+        when(studentRepository.updateAvatarHash(any(), eq("abc"), any(), any())).thenReturn(true);
+
+        studentService.uploadPhoto("email@gmail.com", photo);
+
+        verify(avatarCache).evict("old");
+        verify(avatarCache, never()).evict("abc");
+    }
+
+    @Test
+    @WithMockUser(username = "test@student.com")
+    void testUploadPhoto_updateFailed_fail() {
+        when(studentRepository.findByEmail("email@gmail.com")).thenReturn(Optional.of(student));
+
+        var exception = assertThrows(AppException.class,
+                () -> studentService.uploadPhoto("email@gmail.com", photo));
+
+        assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.UNCATEGORIZED_EXCEPTION);
     }
 
     @Test
@@ -303,6 +368,86 @@ class StudentServiceImplTest {
                 .isEqualTo("Student does not exist");
     }
 
+    @Test
+    void testGetAvatar_servedFromStore() {
+        Resource png = new ByteArrayResource(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n'});
+        when(studentRepository.findAvatarHashByStudentID(1L))
+                .thenReturn(Optional.of(Student.builder().studentID(1L).avatarHash("abc").build()));
+        when(avatarStore.load("abc")).thenReturn(Optional.of(png));
+
+        StudentAvatar avatar = studentService.getAvatar(1L, null);
+
+        assertThat(avatar.getContentType()).isEqualTo("image/png");
+        assertThat(avatar.getHash()).isEqualTo("abc");
+        assertThat(avatar.getContent()).isSameAs(png);
+        verify(studentRepository, never()).findAvatarByStudentID(any());
+    }
+
+    @Test
+    void testGetAvatar_notInStore_fallsBackToLegacyColumn() throws Exception {
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+        when(studentRepository.findAvatarHashByStudentID(1L))
+                .thenReturn(Optional.of(Student.builder().studentID(1L).avatarHash("abc").build()));
+        when(avatarStore.load("abc")).thenReturn(Optional.empty());
+        when(studentRepository.findAvatarByStudentID(1L))
+                .thenReturn(Optional.of(Student.builder().studentID(1L).avatar(jpeg).avatarHash("abc").build()));
+
+        StudentAvatar avatar = studentService.getAvatar(1L, null);
+
+        assertThat(avatar.getContentType()).isEqualTo("image/jpeg");
+        assertThat(avatar.getContent().contentLength()).isEqualTo(jpeg.length);
+    }
+
+    @Test
+    void testGetAvatar_thumbnailRendered_servesThumbnail() {
+        Resource thumbnail = new ByteArrayResource(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0});
+        when(studentRepository.findAvatarHashByStudentID(1L))
+                .thenReturn(Optional.of(Student.builder().studentID(1L).avatarHash("abc").build()));
+        when(avatarThumbnailer.isSupportedSize(64)).thenReturn(true);
+        when(avatarStore.loadVariant("abc", "64")).thenReturn(Optional.of(thumbnail));
+
+        StudentAvatar avatar = studentService.getAvatar(1L, 64);
+
+        assertThat(avatar.getTag()).isEqualTo("abc-64");
+        assertThat(avatar.getContent()).isSameAs(thumbnail);
+        assertThat(studentService.getAvatarTag(1L, 64)).isEqualTo("abc-64");
+        verify(avatarStore, never()).load(any());
+    }
+
+    @Test
+    void testGetAvatar_cached_notLoadedFromStore() {
+        Resource cached = new ByteArrayResource(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n'});
+        when(studentRepository.findAvatarHashByStudentID(1L))
+                .thenReturn(Optional.of(Student.builder().studentID(1L).avatarHash("abc").build()));
+        when(avatarCache.get(eq("abc"), any())).thenReturn(Optional.of(cached));
+
+        StudentAvatar avatar = studentService.getAvatar(1L, null);
+
+        assertThat(avatar.getContent()).isSameAs(cached);
+        assertThat(avatar.getContentType()).isEqualTo("image/png");
+        verify(avatarStore, never()).load(any());
+    }
+
+    @Test
+    void testGetAvatar_unsupportedSize_fail() {
+        when(studentRepository.findAvatarHashByStudentID(1L))
+                .thenReturn(Optional.of(Student.builder().studentID(1L).avatarHash("abc").build()));
+
+        var exception = assertThrows(AppException.class, () -> studentService.getAvatar(1L, 100));
+
+        assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.AVATAR_SIZE_INVALID);
+    }
+
+    @Test
+    void testGetAvatarTag_noAvatar_fail() {
+        when(studentRepository.findAvatarHashByStudentID(1L))
+                .thenReturn(Optional.of(Student.builder().studentID(1L).build()));
+
+        var exception = assertThrows(AppException.class, () -> studentService.getAvatarTag(1L, null));
+
+        assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.AVATAR_NOT_FOUND);
+    }
+
     @Test
     void testFindStudentByEmail_invalidRequest_success() {
         when(studentRepository.findByEmail("student@gmail.com")).thenReturn(Optional.of(student));
@@ -328,9 +473,10 @@ class StudentServiceImplTest {
     }
 
     @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
     void testDeleteStudentById_validRequest_success() {
         when(studentRepository.existsById(1L)).thenReturn(true);
-        when(studentRepository.softDeleteByStudentID(1L)).thenReturn(true);
+        when(studentRepository.softDeleteByStudentID(eq(1L), any(), any())).thenReturn(true);
 
         String message = studentService.deleteStudentById(1L);
 
@@ -351,9 +497,10 @@ class StudentServiceImplTest {
     }
 
     @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
     void testDeleteStudentById_uncategorizedException_fail() {
         when(studentRepository.existsById(1L)).thenReturn(true);
-        when(studentRepository.softDeleteByStudentID(1L)).thenReturn(false);
+        when(studentRepository.softDeleteByStudentID(eq(1L), any(), any())).thenReturn(false);
 
         var exception = assertThrows(AppException.class,
                 () -> studentService.deleteStudentById(1L));
@@ -390,6 +537,170 @@ class StudentServiceImplTest {
         assertEquals(expectedResponses, actualResponses);
     }
 
+    @Test
+    void testSearchByName_indexLoaded_hydratesPageInIndexOrder() {
+        Student first = Student.builder().studentID(7L).fullName("Nguyễn An").build();
+        Student second = Student.builder().studentID(3L).fullName("Nguyen Binh").build();
+
+        when(studentNameIndex.isLoaded()).thenReturn(true);
+        when(studentNameIndex.search("nguyen", 2, 2)).thenReturn(Arrays.asList(7L, 3L));
+        when(studentRepository.findAllByStudentIDs(Arrays.asList(7L, 3L)))
+                .thenReturn(Arrays.asList(second, first));
+
+        List<StudentResponse> responses = studentService.searchByName("nguyen", 1, 2);
+
+        assertThat(responses).extracting(StudentResponse::getFullName)
+                .containsExactly("Nguyễn An", "Nguyen Binh");
+        verify(studentRepository, never()).findAllByFullName(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSearchByNameAfter_indexLoaded_returnsCursorOfLastRow() {
+        Student first = Student.builder().studentID(7L).fullName("Nguyễn An").build();
+        Student second = Student.builder().studentID(3L).fullName("Nguyen Binh").build();
+        Student extra = Student.builder().studentID(5L).fullName("Nguyen Chi").build();
+
+        when(studentNameIndex.isLoaded()).thenReturn(true);
+        when(studentNameIndex.searchAfter("nguyen", "", 0, 3)).thenReturn(Arrays.asList(7L, 3L, 5L));
+        when(studentRepository.findAllByStudentIDs(Arrays.asList(7L, 3L, 5L)))
+                .thenReturn(Arrays.asList(extra, second, first));
+
+        CursorSlice<StudentResponse> slice = studentService.searchByNameAfter("nguyen", "", 2);
+
+        assertThat(slice.getContent()).extracting(StudentResponse::getStudentID).containsExactly(7L, 3L);
+        assertThat(slice.hasNext()).isTrue();
+        KeysetCursor next = KeysetCursor.decode(slice.getNextCursor(), "students:name:nguyen");
+        assertThat(next.getKey()).isEqualTo("Nguyen Binh");
+        assertThat(next.getId()).isEqualTo(3L);
+    }
+
+    @Test
+    void testSearchByNameAfter_cursorFromDatabase_continuedByIndex() {
+        String cursor = KeysetCursor.of("Nguyễn An", 7L).encode("students:name:nguyen");
+        Student next = Student.builder().studentID(3L).fullName("Nguyen Binh").build();
+
+        when(studentNameIndex.isLoaded()).thenReturn(true);
+        when(studentNameIndex.searchAfter("nguyen", "Nguyễn An", 7L, 3)).thenReturn(Collections.singletonList(3L));
+        when(studentRepository.findAllByStudentIDs(Collections.singletonList(3L)))
+                .thenReturn(Collections.singletonList(next));
+
+        CursorSlice<StudentResponse> slice = studentService.searchByNameAfter("nguyen", cursor, 2);
+
+        assertThat(slice.getContent()).extracting(StudentResponse::getStudentID).containsExactly(3L);
+    }
+
+    @Test
+    void testSearchByNameAfter_indexNotLoaded_seeksInDatabase() {
+        String cursor = KeysetCursor.of("Nguyen Binh", 3L).encode("students:name:nguyen");
+        Student last = Student.builder().studentID(5L).fullName("Nguyen Chi").build();
+
+        when(studentRepository.findAllByFullNameAfter("nguyen", "Nguyen Binh", 3L, 3))
+                .thenReturn(Collections.singletonList(last));
+
+        CursorSlice<StudentResponse> slice = studentService.searchByNameAfter("nguyen", cursor, 2);
+
+        assertThat(slice.getContent()).extracting(StudentResponse::getStudentID).containsExactly(5L);
+        assertThat(slice.hasNext()).isFalse();
+        assertThat(slice.getNextCursor()).isNull();
+    }
+
+    @Test
+    void testSearchByNameAfter_cursorFromOtherSearch_fail() {
+        String cursor = KeysetCursor.of("Nguyen Binh", 3L).encode("students:admission:2024-09-01:2024-09-30");
+
+        var exception = assertThrows(AppException.class,
+                () -> studentService.searchByNameAfter("nguyen", cursor, 2));
+
+        assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.CURSOR_INVALID);
+    }
+
+    @Test
+    void testSearchByNameAfter_cursorFromOtherTerm_fail() {
+        String cursor = KeysetCursor.of("Nguyen Binh", 3L).encode("students:name:nguyen");
+
+        var exception = assertThrows(AppException.class,
+                () -> studentService.searchByNameAfter("tran", cursor, 2));
+
+        assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.CURSOR_INVALID);
+    }
+
+    @Test
+    void testSearchByAdmissionDateRangeAfter_cursorFromOtherRange_fail() {
+        LocalDate start = LocalDate.of(2024, 9, 1);
+        String cursor = KeysetCursor.of("Nguyen Binh", 3L).encode("students:admission:2024-09-01:2024-09-30");
+
+        var exception = assertThrows(AppException.class,
+                () -> studentService.searchByAdmissionDateRangeAfter(start, LocalDate.of(2024, 10, 31), cursor, 2));
+
+        assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.CURSOR_INVALID);
+    }
+
+    @Test
+    void testFuzzySearchByName_indexLoaded_hydratesRankedPage() {
+        Student closest = Student.builder().studentID(4L).fullName("Lê Văn Anh").build();
+        Student further = Student.builder().studentID(9L).fullName("Nguyễn Văn An").build();
+
+        when(studentNameIndex.isLoaded()).thenReturn(true);
+        when(studentNameIndex.fuzzySearch("le van an", 2, 0, 10)).thenReturn(Arrays.asList(4L, 9L));
+        when(studentRepository.findAllByStudentIDs(Arrays.asList(4L, 9L)))
+                .thenReturn(Arrays.asList(further, closest));
+
+        List<StudentResponse> responses = studentService.fuzzySearchByName("le van an", 2, 0, 10);
+
+        assertThat(responses).extracting(StudentResponse::getStudentID).containsExactly(4L, 9L);
+    }
+
+    @Test
+    void testFuzzySearchByName_indexNotLoaded_fail() {
+        when(studentNameIndex.isLoaded()).thenReturn(false);
+
+        var exception = assertThrows(AppException.class,
+                () -> studentService.fuzzySearchByName("le van an", 2, 0, 10));
+
+        assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.NAME_INDEX_LOADING);
+        assertThat(exception.getErrorCode().getHttpStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        verify(studentRepository, never()).findAllByFullName(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testFuzzySearchByName_maxDistanceTooLarge_fail() {
+        var exception = assertThrows(AppException.class,
+                () -> studentService.fuzzySearchByName("le van an", 4, 0, 10));
+
+        assertThat(exception.getErrorCode().getCode())
+                .isEqualTo("STU_SEARCH_MAX_DISTANCE_INVALID");
+    }
+
+    @Test
+    void testSuggestByName_indexLoaded_returnsIdNameAndEmail() {
+        Student suggested = Student.builder().studentID(7L).fullName("Nguyễn An").email("an@mail.com").build();
+
+        when(studentNameIndex.isLoaded()).thenReturn(true);
+        when(studentNameIndex.suggest("ngu", 5)).thenReturn(Collections.singletonList(suggested));
+
+        List<StudentSuggestion> suggestions = studentService.suggestByName("ngu", 5);
+
+        assertThat(suggestions).containsExactly(new StudentSuggestion(7L, "Nguyễn An", "an@mail.com"));
+    }
+
+    @Test
+    void testSuggestByName_sizeAboveMax_capped() {
+        when(studentNameIndex.isLoaded()).thenReturn(true);
+
+        studentService.suggestByName("ngu", 1000);
+
+        verify(studentNameIndex).suggest("ngu", 50);
+    }
+
+    @Test
+    void testSuggestByName_sizeInvalid_fail() {
+        var exception = assertThrows(AppException.class,
+                () -> studentService.suggestByName("ngu", 0));
+
+        assertThat(exception.getErrorCode().getCode())
+                .isEqualTo("STU_SEARCH_PAGE_SIZE_INVALID");
+    }
+
     @Test
     void testSearchByName_pageAndSizeInvalid_fail() {
         // Given
@@ -0,0 +1,197 @@
+package vn.com.unit.studentmanagerapi.service.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.unit.studentmanagerapi.config.GlobalValue;
+import vn.com.unit.studentmanagerapi.config.RegistrationGroupCommit;
+import vn.com.unit.studentmanagerapi.config.SeatAllocator;
+import vn.com.unit.studentmanagerapi.dto.enums.RegistrationBatchMode;
+import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectBatchCreateRequest;
+import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectCreateRequest;
+import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectDeleteRequest;
+import vn.com.unit.studentmanagerapi.entity.Student;
+import vn.com.unit.studentmanagerapi.exception.AppException;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Registers students for one subject from many threads at once, each in its
+ * own transaction, and checks the seat counter against the rows written.
+ */
+@DataJdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:registration;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=30000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=32"
+})
+@Sql("/db/subject_registration.sql")
+@Import(SubjectRegistrationServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SubjectRegistrationConcurrencyTest {
+    static final int SEATS = 50;
+    static final int STUDENTS = 400;
+    static final int THREADS = 64;
+
+    @Autowired
+    SubjectRegistrationServiceImpl registrationService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    StudentRepository studentRepository;
+
+    @MockBean
+    GlobalValue globalValue;
+
+    // not ready, registrations go to the database
+    @MockBean
+    SeatAllocator seatAllocator;
+
+    @MockBean
+    RegistrationGroupCommit registrationGroupCommit;
+
+    long subjectID;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("insert into bus_subject (subject_name, number_of_student, number_of_availability,"
+                + " number_of_credit, course_id, tuition) values ('Cấu trúc dữ liệu', ?, ?, 3, 'K01', 1500000)", SEATS, SEATS);
+        subjectID = jdbcTemplate.queryForObject("select max(subject_id) from bus_subject", Long.class);
+        when(studentRepository.findSummaryByStudentID(anyLong()))
+                .thenAnswer(invocation -> Optional.of(Student.builder().studentID(invocation.getArgument(0)).build()));
+        when(globalValue.getSubjectLimitForCourse()).thenReturn(5);
+    }
+
+    @Test
+    void testCreateRegistrationSubject_parallel_neverOverbooks() throws Exception {
+        List<ErrorCode> results = runInParallel(STUDENTS, studentID -> registrationService.createRegistrationSubject(
+                RegistrationSubjectCreateRequest.builder().subjectID(subjectID).studentID(studentID).build()));
+
+        Assertions.assertEquals(SEATS, results.stream().filter(result -> result == null).count());
+        Assertions.assertEquals(STUDENTS - SEATS, results.stream().filter(result -> result == ErrorCode.SUBJECT_FULL).count());
+        Assertions.assertEquals(SEATS, countRegistrations());
+        Assertions.assertEquals(0, availability());
+    }
+
+    @Test
+    void testDeleteRegistrationSubject_parallelWithRegistrations_counterMatchesRows() throws Exception {
+        // the first half registers up front, then cancels while the second half registers
+        runInParallel(SEATS, studentID -> registrationService.createRegistrationSubject(
+                RegistrationSubjectCreateRequest.builder().subjectID(subjectID).studentID(studentID).build()));
+
+        runInParallel(STUDENTS, studentID -> studentID <= SEATS
+                ? registrationService.deleteRegistrationSubject(
+                        RegistrationSubjectDeleteRequest.builder().subjectID(subjectID).studentID(studentID).build())
+                : registrationService.createRegistrationSubject(
+                        RegistrationSubjectCreateRequest.builder().subjectID(subjectID).studentID(studentID).build()));
+
+        Assertions.assertEquals(SEATS - countRegistrations(), availability());
+        Assertions.assertTrue(countRegistrations() <= SEATS);
+    }
+
+    @Test
+    void testCreateRegistrationSubjects_parallelBatches_neverOverbooks() throws Exception {
+        jdbcTemplate.update("insert into bus_subject (subject_name, number_of_student, number_of_availability,"
+                + " number_of_credit, course_id, tuition) values ('Giải tích', ?, ?, 3, 'K01', 1500000)", SEATS * 2, SEATS * 2);
+        long otherSubjectID = jdbcTemplate.queryForObject("select max(subject_id) from bus_subject", Long.class);
+
+        runInParallel(STUDENTS, studentID -> registrationService.createRegistrationSubjects(
+                RegistrationSubjectBatchCreateRequest.builder()
+                        .studentID(studentID)
+                        .subjectIDs(Arrays.asList(subjectID, otherSubjectID))
+                        .mode(studentID % 2 == 0 ? RegistrationBatchMode.ALL_OR_NOTHING : RegistrationBatchMode.BEST_EFFORT)
+                        .build()));
+
+        Assertions.assertEquals(SEATS, countRegistrations());
+        Assertions.assertEquals(0, availability());
+        Assertions.assertEquals(SEATS * 2, jdbcTemplate.queryForObject(
+                "select count(*) from bus_registration_subject where subject_id = ?", Integer.class, otherSubjectID));
+        // every all-or-nothing student holds both subjects or neither
+        Assertions.assertEquals(0, jdbcTemplate.queryForObject("select count(*) from bus_registration_subject r"
+                + " where mod(r.student_id, 2) = 0 and (select count(*) from bus_registration_subject o"
+                + "     where o.student_id = r.student_id) = 1", Integer.class));
+    }
+
+    /**
+     * Runs {@code action} for students 1 to {@code count} from {@link #THREADS}
+     * threads released together; returns the error code of each attempt, or
+     * {@code null} for those that succeeded.
+     */
+    private List<ErrorCode> runInParallel(int count, StudentAction action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<ErrorCode>> futures = new ArrayList<>();
+            for (long studentID = 1; studentID <= count; studentID++) {
+                long id = studentID;
+                Callable<ErrorCode> task = () -> {
+                    SecurityContextHolder.getContext().setAuthentication(
+                            new TestingAuthenticationToken("admin@mail.com", null, "ADMIN"));
+                    start.await();
+                    try {
+                        action.apply(id);
+                        return null;
+                    } catch (AppException e) {
+                        return e.getErrorCode();
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+
+            List<ErrorCode> results = new ArrayList<>();
+            for (Future<ErrorCode> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int countRegistrations() {
+        return jdbcTemplate.queryForObject("select count(*) from bus_registration_subject where subject_id = ?",
+                Integer.class, subjectID);
+    }
+
+    private int availability() {
+        return jdbcTemplate.queryForObject("select number_of_availability from bus_subject where subject_id = ?",
+                Integer.class, subjectID);
+    }
+
+    private interface StudentAction {
+        Object apply(long studentID);
+    }
+}
@@ -5,9 +5,11 @@ import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -15,9 +17,17 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
 import vn.com.unit.studentmanagerapi.config.GlobalValue;
+import vn.com.unit.studentmanagerapi.config.RegistrationGroupCommit;
+import vn.com.unit.studentmanagerapi.config.SeatAllocator;
+import vn.com.unit.studentmanagerapi.dto.enums.RegistrationBatchMode;
+import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectBatchCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.RegistrationSubjectDeleteRequest;
+import vn.com.unit.studentmanagerapi.dto.response.SubjectRegistrationResult;
 import vn.com.unit.studentmanagerapi.entity.Account;
 import vn.com.unit.studentmanagerapi.entity.RegistrationSubject;
 import vn.com.unit.studentmanagerapi.entity.RegistrationSubjectID;
@@ -26,12 +36,17 @@ import vn.com.unit.studentmanagerapi.entity.Subject;
 import vn.com.unit.studentmanagerapi.entity.enums.CourseID;
 import vn.com.unit.studentmanagerapi.exception.AppException;
 import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.repository.RegistrationCandidate;
 import vn.com.unit.studentmanagerapi.repository.RegistrationSubjectRepository;
 import vn.com.unit.studentmanagerapi.repository.StudentRepository;
 import vn.com.unit.studentmanagerapi.repository.SubjectRepository;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @ExtendWith(MockitoExtension.class)
 @FieldDefaults(level = AccessLevel.PRIVATE)
@@ -46,6 +61,12 @@ class SubjectRegistrationServiceImplTest {
     StudentRepository studentRepository;
     @Mock
     SubjectRepository subjectRepository;
+    @Mock
+    SeatAllocator seatAllocator;
+    @Mock
+    RegistrationGroupCommit registrationGroupCommit;
+    @Spy
+    TransactionOperations transactionOperations = new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class));
 
     @Mock
     GlobalValue globalValue;
@@ -86,14 +107,15 @@ class SubjectRegistrationServiceImplTest {
         RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
         RegistrationSubject registrationSubject = getRegistrationSubject(registrationSubjectCreateRequest);
         Optional<Subject> subject = getSubject(IS_STATUS);
-        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
         Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(subject);
+        Mockito.when(subjectRepository.claimSeat(SUBJECT_ID)).thenReturn(true);
         Mockito.when(registrationSubjectRepository.insert(registrationSubject.getRegistrationSubjectID().getSubjectID(), registrationSubject.getRegistrationSubjectID().getStudentID(), registrationSubject.getUpdateBy(), SUBJECT_LIMIT_FOR_COURSE)).thenReturn(true);
         Mockito.when(globalValue.getSubjectLimitForCourse()).thenReturn(SUBJECT_LIMIT_FOR_COURSE);
 
         Boolean resultActual = registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest);
         Assertions.assertTrue(resultActual);
-        Mockito.verify(studentRepository).findById(STUDENT_ID);
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
         Mockito.verify(subjectRepository).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
         Mockito.verify(registrationSubjectRepository).insert(registrationSubject.getRegistrationSubjectID().getSubjectID(), registrationSubject.getRegistrationSubjectID().getStudentID(),registrationSubject.getUpdateBy(), SUBJECT_LIMIT_FOR_COURSE);
         checkSecurityContextUse();
@@ -105,14 +127,15 @@ class SubjectRegistrationServiceImplTest {
         RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
         RegistrationSubject registrationSubject = getRegistrationSubject(registrationSubjectCreateRequest);
         Optional<Subject> subject = getSubject(IS_STATUS);
-        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(getStudent(GMAIL_OWNER));
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(getStudent(GMAIL_OWNER));
         Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(subject);
+        Mockito.when(subjectRepository.claimSeat(SUBJECT_ID)).thenReturn(true);
         Mockito.when(registrationSubjectRepository.insert(registrationSubject.getRegistrationSubjectID().getSubjectID(), registrationSubject.getRegistrationSubjectID().getStudentID(), registrationSubject.getUpdateBy(), SUBJECT_LIMIT_FOR_COURSE)).thenReturn(true);
         Mockito.when(globalValue.getSubjectLimitForCourse()).thenReturn(SUBJECT_LIMIT_FOR_COURSE);
 
         Boolean resultActual = registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest);
         Assertions.assertTrue(resultActual);
-        Mockito.verify(studentRepository).findById(STUDENT_ID);
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
         Mockito.verify(subjectRepository).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
         Mockito.verify(registrationSubjectRepository).insert(registrationSubject.getRegistrationSubjectID().getSubjectID(), registrationSubject.getRegistrationSubjectID().getStudentID(),registrationSubject.getUpdateBy(), SUBJECT_LIMIT_FOR_COURSE);
         checkSecurityContextUse();
@@ -123,12 +146,12 @@ class SubjectRegistrationServiceImplTest {
         setUp(IS_ADMIN, null);
         RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
         RegistrationSubject registrationSubject = getRegistrationSubject(registrationSubjectCreateRequest);
-        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
         Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(Optional.empty());
 
         AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest));
         Assertions.assertEquals(ErrorCode.SUBJECT_ID_INVALID, resultActual.getErrorCode());
-        Mockito.verify(studentRepository).findById(STUDENT_ID);
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
         Mockito.verify(subjectRepository).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
         Mockito.verify(registrationSubjectRepository, Mockito.never()).insert( registrationSubject.getRegistrationSubjectID().getSubjectID(), registrationSubject.getRegistrationSubjectID().getStudentID(), registrationSubject.getUpdateBy(), SUBJECT_LIMIT_FOR_COURSE);
         checkSecurityContextUse();
@@ -139,11 +162,11 @@ class SubjectRegistrationServiceImplTest {
         setUp(IS_ADMIN, null);
         RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
         RegistrationSubject registrationSubject = getRegistrationSubject(registrationSubjectCreateRequest);
-        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(Optional.empty());
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.empty());
 
         AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest));
         Assertions.assertEquals(ErrorCode.STU_ID_INVALID, resultActual.getErrorCode());
-        Mockito.verify(studentRepository).findById(STUDENT_ID);
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
         Mockito.verify(subjectRepository, Mockito.never()).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
         Mockito.verify(registrationSubjectRepository, Mockito.never()).insert(registrationSubject.getRegistrationSubjectID().getSubjectID(), registrationSubject.getRegistrationSubjectID().getStudentID(), registrationSubject.getUpdateBy(), SUBJECT_LIMIT_FOR_COURSE);
         checkSecurityContextUse();
@@ -155,14 +178,14 @@ class SubjectRegistrationServiceImplTest {
         RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
         RegistrationSubject registrationSubject = getRegistrationSubject(registrationSubjectCreateRequest);
         Optional<Subject> subject = getSubject(!IS_STATUS);
-        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
         Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(subject);
 
         AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest));
 
         Assertions.assertEquals(ErrorCode.COURSE_CLOSED_FOR_REGISTRATION, resultActual.getErrorCode());
         Mockito.verify(subjectRepository).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
-        Mockito.verify(studentRepository).findById(STUDENT_ID);
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
         Mockito.verify(registrationSubjectRepository, Mockito.never()).insert(registrationSubject.getRegistrationSubjectID().getSubjectID(), registrationSubject.getRegistrationSubjectID().getStudentID(), registrationSubject.getUpdateBy(), SUBJECT_LIMIT_FOR_COURSE);
         checkSecurityContextUse();
     }
@@ -174,30 +197,144 @@ class SubjectRegistrationServiceImplTest {
         RegistrationSubject registrationSubject = getRegistrationSubject(registrationSubjectCreateRequest);
         Optional<Subject> subject = getSubject(IS_STATUS);
         Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(subject);
-        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(subjectRepository.claimSeat(SUBJECT_ID)).thenReturn(true);
         Mockito.when(registrationSubjectRepository.insert(registrationSubject.getRegistrationSubjectID().getSubjectID(),registrationSubject.getRegistrationSubjectID().getStudentID(),registrationSubject.getUpdateBy(),SUBJECT_LIMIT_FOR_COURSE)).thenReturn(false);
         Mockito.when(globalValue.getSubjectLimitForCourse()).thenReturn(SUBJECT_LIMIT_FOR_COURSE);
 
         AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest));
         Assertions.assertEquals(ErrorCode.EXCEEDS_MAXIMUM_SUBJECTS, resultActual.getErrorCode());
         Mockito.verify(subjectRepository).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
-        Mockito.verify(studentRepository).findById(STUDENT_ID);
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
         Mockito.verify(registrationSubjectRepository).insert(registrationSubject.getRegistrationSubjectID().getSubjectID(), registrationSubject.getRegistrationSubjectID().getStudentID(), registrationSubject.getUpdateBy(), SUBJECT_LIMIT_FOR_COURSE);
         checkSecurityContextUse();
     }
 
+    @Test
+    void testCreateRegistrationSubject_subjectFull() {
+        setUp(IS_ADMIN, null);
+        RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(getSubject(IS_STATUS));
+        Mockito.when(subjectRepository.claimSeat(SUBJECT_ID)).thenReturn(false);
+
+        AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest));
+        Assertions.assertEquals(ErrorCode.SUBJECT_FULL, resultActual.getErrorCode());
+        Mockito.verify(registrationSubjectRepository, Mockito.never()).insert(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(), Mockito.anyInt());
+        checkSecurityContextUse();
+    }
+
+    @Test
+    void testCreateRegistrationSubject_allocatorGranted_notWrittenDirectly() {
+        setUp(IS_ADMIN, null);
+        RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(getSubject(IS_STATUS));
+        Mockito.when(seatAllocator.isReady()).thenReturn(true);
+        Mockito.when(seatAllocator.allocate(SUBJECT_ID, STUDENT_ID, GMAIL_ADMIN)).thenReturn(SeatAllocator.Decision.GRANTED);
+
+        Assertions.assertTrue(registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest));
+        Mockito.verify(subjectRepository, Mockito.never()).claimSeat(Mockito.anyLong());
+        Mockito.verify(registrationSubjectRepository, Mockito.never()).insert(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(), Mockito.anyInt());
+    }
+
+    @Test
+    void testCreateRegistrationSubject_allocatorFull_fail() {
+        setUp(IS_ADMIN, null);
+        RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(getSubject(IS_STATUS));
+        Mockito.when(seatAllocator.isReady()).thenReturn(true);
+        Mockito.when(seatAllocator.allocate(SUBJECT_ID, STUDENT_ID, GMAIL_ADMIN)).thenReturn(SeatAllocator.Decision.FULL);
+
+        AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest));
+        Assertions.assertEquals(ErrorCode.SUBJECT_FULL, resultActual.getErrorCode());
+        Mockito.verify(subjectRepository, Mockito.never()).claimSeat(Mockito.anyLong());
+    }
+
+    @Test
+    void testCreateRegistrationSubject_allocatorUntracked_writtenDirectly() {
+        setUp(IS_ADMIN, null);
+        RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(getSubject(IS_STATUS));
+        Mockito.when(seatAllocator.isReady()).thenReturn(true);
+        Mockito.when(seatAllocator.allocate(SUBJECT_ID, STUDENT_ID, GMAIL_ADMIN)).thenReturn(SeatAllocator.Decision.UNTRACKED);
+        Mockito.when(subjectRepository.claimSeat(SUBJECT_ID)).thenReturn(true);
+        Mockito.when(registrationSubjectRepository.insert(SUBJECT_ID, STUDENT_ID, GMAIL_ADMIN, SUBJECT_LIMIT_FOR_COURSE)).thenReturn(true);
+        Mockito.when(globalValue.getSubjectLimitForCourse()).thenReturn(SUBJECT_LIMIT_FOR_COURSE);
+
+        Assertions.assertTrue(registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest));
+        Mockito.verify(registrationSubjectRepository).insert(SUBJECT_ID, STUDENT_ID, GMAIL_ADMIN, SUBJECT_LIMIT_FOR_COURSE);
+    }
+
+    @Test
+    void testCreateRegistrationSubject_groupCommit_notWrittenDirectly() {
+        setUp(IS_ADMIN, null);
+        RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
+        RegistrationSubject registrationSubject = getRegistrationSubject(registrationSubjectCreateRequest);
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(getSubject(IS_STATUS));
+        Mockito.when(registrationGroupCommit.isEnabled()).thenReturn(true);
+        Mockito.when(registrationGroupCommit.register(registrationSubject)).thenReturn(RegistrationGroupCommit.Outcome.REGISTERED);
+
+        Assertions.assertTrue(registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest));
+        Mockito.verify(subjectRepository, Mockito.never()).claimSeat(Mockito.anyLong());
+        Mockito.verify(transactionOperations, Mockito.never()).execute(Mockito.any());
+    }
+
+    @Test
+    void testCreateRegistrationSubject_groupCommitLimitExceeded_fail() {
+        setUp(IS_ADMIN, null);
+        RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
+        RegistrationSubject registrationSubject = getRegistrationSubject(registrationSubjectCreateRequest);
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(getSubject(IS_STATUS));
+        Mockito.when(registrationGroupCommit.isEnabled()).thenReturn(true);
+        Mockito.when(registrationGroupCommit.register(registrationSubject)).thenReturn(RegistrationGroupCommit.Outcome.LIMIT_EXCEEDED);
+
+        AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest));
+        Assertions.assertEquals(ErrorCode.EXCEEDS_MAXIMUM_SUBJECTS, resultActual.getErrorCode());
+    }
+
+    @Test
+    void testDeleteRegistrationSubject_allocatorReleased_notWrittenDirectly() {
+        setUp(IS_ADMIN, null);
+        RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest = getRegistrationSubjectDeleteRequest().build();
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(getStudent(GMAIL_ADMIN));
+        Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(getSubject(IS_STATUS));
+        Mockito.when(seatAllocator.isReady()).thenReturn(true);
+        Mockito.when(seatAllocator.release(SUBJECT_ID, STUDENT_ID, GMAIL_ADMIN)).thenReturn(SeatAllocator.Decision.RELEASED);
+
+        Assertions.assertTrue(registrationCourseService.deleteRegistrationSubject(registrationSubjectDeleteRequest));
+        Mockito.verify(registrationSubjectRepository, Mockito.never()).deleteById(Mockito.anyLong(), Mockito.anyLong());
+    }
+
+    @Test
+    void testDeleteRegistrationSubject_notRegistered_seatNotReleased() {
+        setUp(IS_ADMIN, null);
+        RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest = getRegistrationSubjectDeleteRequest().build();
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(getStudent(GMAIL_ADMIN));
+        Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(getSubject(IS_STATUS));
+        Mockito.when(registrationSubjectRepository.deleteById(SUBJECT_ID, STUDENT_ID)).thenReturn(false);
+
+        Assertions.assertTrue(registrationCourseService.deleteRegistrationSubject(registrationSubjectDeleteRequest));
+        Mockito.verify(subjectRepository, Mockito.never()).releaseSeat(Mockito.anyLong());
+        checkSecurityContextUse();
+    }
+
 //    @Test
 //    void testCreateRegistrationSubject_STT10() {
 //        setUp(IS_ADMIN, null);
 //        RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
 //        RegistrationSubject registrationSubject = getRegistrationSubject(registrationSubjectCreateRequest);
 //        Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(Optional.empty());
-//        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(getStudent(GMAIL_OWNER));
+//        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(getStudent(GMAIL_OWNER));
 //
 //        AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest));
 //        Assertions.assertEquals(ErrorCode.SUBJECT_ID_INVALID, resultActual.getErrorCode());
 //        Mockito.verify(subjectRepository).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
-//        Mockito.verify(studentRepository).findById(STUDENT_ID);
+//        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
 //        Mockito.verify(registrationSubjectRepository, Mockito.never()).insert(registrationSubject.getRegistrationSubjectID().getSubjectID(), registrationSubject.getRegistrationSubjectID().getStudentID(), registrationSubject.getUpdateBy(), SUBJECT_LIMIT_FOR_COURSE);
 //        checkSecurityContextUse();
 //    }
@@ -207,11 +344,11 @@ class SubjectRegistrationServiceImplTest {
         setUp(!IS_ADMIN, GMAIL_OWNER);
         RegistrationSubjectCreateRequest registrationSubjectCreateRequest = getRegistrationSubjectCreateRequest().build();
         RegistrationSubject registrationSubject = getRegistrationSubject(registrationSubjectCreateRequest);
-        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(getStudent(GMAIL_NOT_OWNER));
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(getStudent(GMAIL_NOT_OWNER));
 
         AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.createRegistrationSubject(registrationSubjectCreateRequest));
         Assertions.assertEquals(ErrorCode.UNAUTHORIZED, resultActual.getErrorCode());
-        Mockito.verify(studentRepository).findById(STUDENT_ID);
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
         Mockito.verify(subjectRepository, Mockito.never()).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
         Mockito.verify(registrationSubjectRepository, Mockito.never()).insert(registrationSubject.getRegistrationSubjectID().getSubjectID(), registrationSubject.getRegistrationSubjectID().getStudentID(),registrationSubject.getUpdateBy(), SUBJECT_LIMIT_FOR_COURSE);
         checkSecurityContextUse();
@@ -222,15 +359,16 @@ class SubjectRegistrationServiceImplTest {
         setUp(IS_ADMIN, null);
         RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest = getRegistrationSubjectDeleteRequest().build();
         RegistrationSubjectID registrationSubjectID = getRegistrationSubjectID(registrationSubjectDeleteRequest);
-        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(getStudent(GMAIL_ADMIN));
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(getStudent(GMAIL_ADMIN));
         Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(getSubject(IS_STATUS));
         Mockito.when(registrationSubjectRepository.deleteById(registrationSubjectID.getSubjectID(), registrationSubjectID.getStudentID())).thenReturn(true);
 
         Boolean resultActual =  registrationCourseService.deleteRegistrationSubject(registrationSubjectDeleteRequest);
         Assertions.assertTrue(resultActual);
-        Mockito.verify(studentRepository).findById(STUDENT_ID);
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
         Mockito.verify(subjectRepository).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
         Mockito.verify(registrationSubjectRepository).deleteById(registrationSubjectID.getSubjectID(), registrationSubjectID.getStudentID());
+        Mockito.verify(subjectRepository).releaseSeat(SUBJECT_ID);
         checkSecurityContextUse();
     }
 
@@ -239,15 +377,16 @@ class SubjectRegistrationServiceImplTest {
         setUp(!IS_ADMIN, GMAIL_OWNER);
         RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest = getRegistrationSubjectDeleteRequest().build();
         RegistrationSubjectID registrationSubjectID = getRegistrationSubjectID(registrationSubjectDeleteRequest);
-        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(getStudent(GMAIL_OWNER));
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(getStudent(GMAIL_OWNER));
         Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(getSubject(IS_STATUS));
         Mockito.when(registrationSubjectRepository.deleteById(registrationSubjectID.getSubjectID(), registrationSubjectID.getStudentID())).thenReturn(true);
 
         Boolean resultActual =  registrationCourseService.deleteRegistrationSubject(registrationSubjectDeleteRequest);
         Assertions.assertTrue(resultActual);
-        Mockito.verify(studentRepository).findById(STUDENT_ID);
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
         Mockito.verify(subjectRepository).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
         Mockito.verify(registrationSubjectRepository).deleteById(registrationSubjectID.getSubjectID(), registrationSubjectID.getStudentID());
+        Mockito.verify(subjectRepository).releaseSeat(SUBJECT_ID);
         checkSecurityContextUse();
     }
 
@@ -255,11 +394,11 @@ class SubjectRegistrationServiceImplTest {
     void testDeleteRegistrationSubject_STT02() {
         RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest = getRegistrationSubjectDeleteRequest().build();
         RegistrationSubjectID registrationSubjectID = getRegistrationSubjectID(registrationSubjectDeleteRequest);
-        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(Optional.empty());
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.empty());
 
         AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.deleteRegistrationSubject(registrationSubjectDeleteRequest));
         Assertions.assertEquals(ErrorCode.STU_ID_INVALID, resultActual.getErrorCode());
-        Mockito.verify(studentRepository).findById(STUDENT_ID);
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
         Mockito.verify(subjectRepository, Mockito.never()).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
         Mockito.verify(registrationSubjectRepository, Mockito.never()).deleteById(registrationSubjectID.getSubjectID(), registrationSubjectID.getStudentID());
     }
@@ -268,13 +407,13 @@ class SubjectRegistrationServiceImplTest {
     void testDeleteRegistrationSubject_STT03_ADMIN() {
         setUp(IS_ADMIN, null);
         RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest = getRegistrationSubjectDeleteRequest().build();
-        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(getStudent(GMAIL_ADMIN));
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(getStudent(GMAIL_ADMIN));
         RegistrationSubjectID registrationSubjectID = getRegistrationSubjectID(registrationSubjectDeleteRequest);
         Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(Optional.empty());
 
         AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.deleteRegistrationSubject(registrationSubjectDeleteRequest));
         Assertions.assertEquals(ErrorCode.SUBJECT_ID_INVALID, resultActual.getErrorCode());
-        Mockito.verify(studentRepository).findById(STUDENT_ID);
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
         Mockito.verify(subjectRepository).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
         Mockito.verify(registrationSubjectRepository, Mockito.never()).deleteById(registrationSubjectID.getSubjectID(), registrationSubjectID.getStudentID());
         checkSecurityContextUse();
@@ -284,13 +423,13 @@ class SubjectRegistrationServiceImplTest {
     void testDeleteRegistrationSubject_STT03_STUDENT() {
         setUp(!IS_ADMIN, GMAIL_OWNER);
         RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest = getRegistrationSubjectDeleteRequest().build();
-        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(getStudent(GMAIL_OWNER));
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(getStudent(GMAIL_OWNER));
         RegistrationSubjectID registrationSubjectID = getRegistrationSubjectID(registrationSubjectDeleteRequest);
         Mockito.when(subjectRepository.searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED)).thenReturn(Optional.empty());
 
         AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.deleteRegistrationSubject(registrationSubjectDeleteRequest));
         Assertions.assertEquals(ErrorCode.SUBJECT_ID_INVALID, resultActual.getErrorCode());
-        Mockito.verify(studentRepository).findById(STUDENT_ID);
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
         Mockito.verify(subjectRepository).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
         Mockito.verify(registrationSubjectRepository, Mockito.never()).deleteById(registrationSubjectID.getSubjectID(), registrationSubjectID.getStudentID());
         checkSecurityContextUse();
@@ -301,15 +440,172 @@ class SubjectRegistrationServiceImplTest {
         setUp(!IS_ADMIN, GMAIL_OWNER);
         RegistrationSubjectDeleteRequest registrationSubjectDeleteRequest = getRegistrationSubjectDeleteRequest().build();
         RegistrationSubjectID registrationSubjectID = getRegistrationSubjectID(registrationSubjectDeleteRequest);
-        Mockito.when(studentRepository.findById(STUDENT_ID)).thenReturn(getStudent(GMAIL_NOT_OWNER));
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(getStudent(GMAIL_NOT_OWNER));
 
         AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.deleteRegistrationSubject(registrationSubjectDeleteRequest));
         Assertions.assertEquals(ErrorCode.UNAUTHORIZED, resultActual.getErrorCode());
-        Mockito.verify(studentRepository).findById(STUDENT_ID);
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
         Mockito.verify(subjectRepository, Mockito.never()).searchBySubjectIDAndIsDeleted(SUBJECT_ID, !IS_DELETED);
         Mockito.verify(registrationSubjectRepository, Mockito.never()).deleteById(registrationSubjectID.getSubjectID(), registrationSubjectID.getStudentID());
     }
 
+    @Test
+    void testCreateRegistrationSubjects_bestEffort_registersAllowed() {
+        setUp(IS_ADMIN, null);
+        RegistrationSubjectBatchCreateRequest request = getRegistrationSubjectBatchCreateRequest(RegistrationBatchMode.BEST_EFFORT);
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(globalValue.getSubjectLimitForCourse()).thenReturn(SUBJECT_LIMIT_FOR_COURSE);
+        Mockito.when(registrationSubjectRepository.findCandidates(STUDENT_ID, Arrays.asList(1L, 2L, 3L, 4L))).thenReturn(Arrays.asList(
+                getCandidate(1L).build(),
+                getCandidate(2L).status(false).build(),
+                getCandidate(3L).build()));
+        Mockito.when(subjectRepository.claimSeats(Arrays.asList(1L, 3L))).thenReturn(new int[]{1, 0});
+        Mockito.when(registrationSubjectRepository.insertAll(Mockito.anyList(), Mockito.eq(SUBJECT_LIMIT_FOR_COURSE)))
+                .thenReturn(new int[]{1});
+
+        List<SubjectRegistrationResult> results = registrationCourseService.createRegistrationSubjects(request);
+
+        Assertions.assertEquals(Arrays.asList(1L, 2L, 3L, 4L),
+                results.stream().map(SubjectRegistrationResult::getSubjectID).collect(Collectors.toList()));
+        Assertions.assertTrue(results.get(0).isRegistered());
+        Assertions.assertEquals(ErrorCode.COURSE_CLOSED_FOR_REGISTRATION.getCode(), results.get(1).getCode());
+        Assertions.assertEquals(ErrorCode.SUBJECT_FULL.getCode(), results.get(2).getCode());
+        Assertions.assertEquals(ErrorCode.SUBJECT_ID_INVALID.getCode(), results.get(3).getCode());
+        Assertions.assertEquals(Collections.singletonList(1L), insertedSubjectIDs());
+        Mockito.verify(studentRepository).findSummaryByStudentID(STUDENT_ID);
+        Mockito.verify(subjectRepository, Mockito.never()).searchBySubjectIDAndIsDeleted(Mockito.anyLong(), Mockito.anyBoolean());
+    }
+
+    @Test
+    void testCreateRegistrationSubjects_allOrNothingOneRefused_noneRegistered() {
+        setUp(IS_ADMIN, null);
+        RegistrationSubjectBatchCreateRequest request = getRegistrationSubjectBatchCreateRequest(RegistrationBatchMode.ALL_OR_NOTHING);
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(globalValue.getSubjectLimitForCourse()).thenReturn(SUBJECT_LIMIT_FOR_COURSE);
+        Mockito.when(registrationSubjectRepository.findCandidates(STUDENT_ID, Arrays.asList(1L, 2L, 3L, 4L))).thenReturn(Arrays.asList(
+                getCandidate(1L).build(),
+                getCandidate(2L).registered(true).build(),
+                getCandidate(3L).build(),
+                getCandidate(4L).build()));
+
+        List<SubjectRegistrationResult> results = registrationCourseService.createRegistrationSubjects(request);
+
+        Assertions.assertTrue(results.stream().noneMatch(SubjectRegistrationResult::isRegistered));
+        Assertions.assertEquals(ErrorCode.STU_ALREADY_REGISTERED.getCode(), results.get(1).getCode());
+        Assertions.assertEquals(ErrorCode.REGISTRATION_BATCH_ABORTED.getCode(), results.get(0).getCode());
+        Mockito.verify(subjectRepository, Mockito.never()).claimSeats(Mockito.any());
+        Mockito.verify(registrationSubjectRepository, Mockito.never()).insertAll(Mockito.anyList(), Mockito.anyInt());
+    }
+
+    @Test
+    void testCreateRegistrationSubjects_overCourseLimit_countsSubjectsOfRequest() {
+        setUp(IS_ADMIN, null);
+        RegistrationSubjectBatchCreateRequest request = getRegistrationSubjectBatchCreateRequest(RegistrationBatchMode.BEST_EFFORT);
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(globalValue.getSubjectLimitForCourse()).thenReturn(SUBJECT_LIMIT_FOR_COURSE);
+        Mockito.when(registrationSubjectRepository.findCandidates(STUDENT_ID, Arrays.asList(1L, 2L, 3L, 4L))).thenReturn(Arrays.asList(
+                getCandidate(1L).registeredInCourse(SUBJECT_LIMIT_FOR_COURSE - 2).build(),
+                getCandidate(2L).registeredInCourse(SUBJECT_LIMIT_FOR_COURSE - 2).build(),
+                getCandidate(3L).registeredInCourse(SUBJECT_LIMIT_FOR_COURSE - 2).build(),
+                getCandidate(4L).courseID(CourseID.K02).build()));
+        Mockito.when(subjectRepository.claimSeats(Arrays.asList(1L, 2L, 4L))).thenReturn(new int[]{1, 1, 1});
+        Mockito.when(registrationSubjectRepository.insertAll(Mockito.anyList(), Mockito.eq(SUBJECT_LIMIT_FOR_COURSE)))
+                .thenReturn(new int[]{1, 1, 1});
+
+        List<SubjectRegistrationResult> results = registrationCourseService.createRegistrationSubjects(request);
+
+        Assertions.assertEquals(ErrorCode.EXCEEDS_MAXIMUM_SUBJECTS.getCode(), results.get(2).getCode());
+        Assertions.assertEquals(Arrays.asList(1L, 2L, 4L), insertedSubjectIDs());
+    }
+
+    @Test
+    void testCreateRegistrationSubjects_limitReachedMeanwhile_seatGivenBack() {
+        setUp(IS_ADMIN, null);
+        RegistrationSubjectBatchCreateRequest request = getRegistrationSubjectBatchCreateRequest(RegistrationBatchMode.BEST_EFFORT);
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(globalValue.getSubjectLimitForCourse()).thenReturn(SUBJECT_LIMIT_FOR_COURSE);
+        Mockito.when(registrationSubjectRepository.findCandidates(STUDENT_ID, Arrays.asList(1L, 2L, 3L, 4L))).thenReturn(Arrays.asList(
+                getCandidate(1L).build(),
+                getCandidate(2L).build(),
+                getCandidate(3L).build()));
+        Mockito.when(subjectRepository.claimSeats(Arrays.asList(1L, 2L, 3L))).thenReturn(new int[]{1, 1, 1});
+        // another request registered the student meanwhile
+        Mockito.when(registrationSubjectRepository.insertAll(Mockito.anyList(), Mockito.eq(SUBJECT_LIMIT_FOR_COURSE)))
+                .thenReturn(new int[]{1, 0, 1});
+
+        List<SubjectRegistrationResult> results = registrationCourseService.createRegistrationSubjects(request);
+
+        Assertions.assertTrue(results.get(0).isRegistered());
+        Assertions.assertEquals(ErrorCode.EXCEEDS_MAXIMUM_SUBJECTS.getCode(), results.get(1).getCode());
+        Assertions.assertTrue(results.get(2).isRegistered());
+        Mockito.verify(subjectRepository).releaseSeats(Collections.singletonList(2L));
+    }
+
+    @Test
+    void testCreateRegistrationSubjects_unsortedSubjects_seatsClaimedInSubjectOrder() {
+        setUp(IS_ADMIN, null);
+        RegistrationSubjectBatchCreateRequest request = RegistrationSubjectBatchCreateRequest.builder()
+                .studentID(STUDENT_ID)
+                .subjectIDs(Arrays.asList(3L, 1L))
+                .mode(RegistrationBatchMode.BEST_EFFORT)
+                .build();
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(Optional.of(new Student()));
+        Mockito.when(globalValue.getSubjectLimitForCourse()).thenReturn(SUBJECT_LIMIT_FOR_COURSE);
+        Mockito.when(registrationSubjectRepository.findCandidates(STUDENT_ID, Arrays.asList(3L, 1L))).thenReturn(Arrays.asList(
+                getCandidate(1L).build(),
+                getCandidate(3L).build()));
+        Mockito.when(subjectRepository.claimSeats(Arrays.asList(1L, 3L))).thenReturn(new int[]{0, 1});
+        Mockito.when(registrationSubjectRepository.insertAll(Mockito.anyList(), Mockito.eq(SUBJECT_LIMIT_FOR_COURSE)))
+                .thenReturn(new int[]{1});
+
+        List<SubjectRegistrationResult> results = registrationCourseService.createRegistrationSubjects(request);
+
+        Assertions.assertEquals(Arrays.asList(3L, 1L),
+                results.stream().map(SubjectRegistrationResult::getSubjectID).collect(Collectors.toList()));
+        Assertions.assertTrue(results.get(0).isRegistered());
+        Assertions.assertEquals(ErrorCode.SUBJECT_FULL.getCode(), results.get(1).getCode());
+        Assertions.assertEquals(Collections.singletonList(3L), insertedSubjectIDs());
+    }
+
+    @Test
+    void testCreateRegistrationSubjects_notOwner_fail() {
+        setUp(!IS_ADMIN, GMAIL_NOT_OWNER);
+        RegistrationSubjectBatchCreateRequest request = getRegistrationSubjectBatchCreateRequest(RegistrationBatchMode.BEST_EFFORT);
+        Mockito.when(studentRepository.findSummaryByStudentID(STUDENT_ID)).thenReturn(getStudent(GMAIL_OWNER));
+
+        AppException resultActual = Assertions.assertThrows(AppException.class, () -> registrationCourseService.createRegistrationSubjects(request));
+        Assertions.assertEquals(ErrorCode.UNAUTHORIZED, resultActual.getErrorCode());
+        Mockito.verify(registrationSubjectRepository, Mockito.never()).findCandidates(Mockito.anyLong(), Mockito.any());
+    }
+
+    private RegistrationSubjectBatchCreateRequest getRegistrationSubjectBatchCreateRequest(RegistrationBatchMode mode) {
+        return RegistrationSubjectBatchCreateRequest.builder()
+                .studentID(STUDENT_ID)
+                .subjectIDs(Arrays.asList(1L, 2L, 3L, 4L, 1L))
+                .mode(mode)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> insertedSubjectIDs() {
+        ArgumentCaptor<List<RegistrationSubject>> registrations = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(registrationSubjectRepository).insertAll(registrations.capture(), Mockito.eq(SUBJECT_LIMIT_FOR_COURSE));
+        Assertions.assertTrue(registrations.getValue().stream()
+                .allMatch(registration -> registration.getRegistrationSubjectID().getStudentID().equals(STUDENT_ID)
+                        && GMAIL_ADMIN.equals(registration.getUpdateBy())));
+        return registrations.getValue().stream()
+                .map(registration -> registration.getRegistrationSubjectID().getSubjectID())
+                .collect(Collectors.toList());
+    }
+
+    private RegistrationCandidate.RegistrationCandidateBuilder getCandidate(long subjectID) {
+        return RegistrationCandidate.builder()
+                .subjectID(subjectID)
+                .status(IS_STATUS)
+                .courseID(COURSE_ID)
+                .numberOfAvailability(10);
+    }
+
     private Optional<Subject> getSubject(boolean status){
         return Optional.of(
                 Subject.builder()
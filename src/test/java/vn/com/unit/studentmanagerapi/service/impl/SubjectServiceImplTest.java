@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
@@ -20,21 +21,26 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import vn.com.unit.studentmanagerapi.config.SeatAllocator;
 import vn.com.unit.studentmanagerapi.dto.enums.SubjectFieldSearch;
 import vn.com.unit.studentmanagerapi.dto.enums.SubjectSortField;
 import vn.com.unit.studentmanagerapi.dto.request.SubjectCreateRequest;
 import vn.com.unit.studentmanagerapi.dto.request.SubjectSearchRequest;
 import vn.com.unit.studentmanagerapi.dto.request.SubjectUpdateRequest;
+import vn.com.unit.studentmanagerapi.dto.response.CursorSlice;
 import vn.com.unit.studentmanagerapi.entity.Account;
 import vn.com.unit.studentmanagerapi.entity.Subject;
 import vn.com.unit.studentmanagerapi.entity.enums.CourseID;
 import vn.com.unit.studentmanagerapi.exception.AppException;
 import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+import vn.com.unit.studentmanagerapi.repository.SubjectKeysetQuery;
 import vn.com.unit.studentmanagerapi.repository.SubjectRepository;
+import vn.com.unit.studentmanagerapi.util.KeysetCursor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -45,6 +51,8 @@ class SubjectServiceImplTest {
     SubjectServiceImpl subjectService;
     @Mock
     SubjectRepository subjectRepository;
+    @Mock
+    SeatAllocator seatAllocator;
 
     SecurityContext  securityContext;
     Authentication authentication;
@@ -109,14 +117,18 @@ class SubjectServiceImplTest {
         setUp(IS_ADMIN);
         SubjectUpdateRequest subjectUpdateRequest = getSubjectUpdateRequestBuilder().build();
 
-        Mockito.when(subjectRepository.findById(SUBJECT_ID)).thenReturn(getOptionalSubject());
-        Mockito.when(subjectRepository.save(Mockito.any(Subject.class))).thenReturn(null);
+        Mockito.when(subjectRepository.existsById(SUBJECT_ID)).thenReturn(true);
 
         Boolean resultActual = subjectService.updateSubject(SUBJECT_ID, subjectUpdateRequest);
 
         Assertions.assertTrue(resultActual);
-        Mockito.verify(subjectRepository).findById(SUBJECT_ID);
-        Mockito.verify(subjectRepository).save(Mockito.any(Subject.class));
+        Mockito.verify(subjectRepository).existsById(SUBJECT_ID);
+        Mockito.verify(subjectRepository).updateDetails(Mockito.eq(SUBJECT_ID),
+                Mockito.eq(subjectUpdateRequest.getSubjectName()), Mockito.any(), Mockito.any(), Mockito.anyInt(),
+                Mockito.anyBoolean(), Mockito.eq(subjectUpdateRequest.getCourseID().name()), Mockito.anyLong(),
+                Mockito.any(), Mockito.any(LocalDateTime.class), Mockito.anyString());
+        // a full save would overwrite the seat counter
+        Mockito.verify(subjectRepository, Mockito.never()).save(Mockito.any(Subject.class));
         checkSecurityContextUse();
     }
 
@@ -124,13 +136,15 @@ class SubjectServiceImplTest {
     void testUpdateSubject_STT02() {
         SubjectUpdateRequest subjectUpdateRequest = getSubjectUpdateRequestBuilder().build();
 
-        Mockito.when(subjectRepository.findById(SUBJECT_ID)).thenReturn(Optional.empty());
+        Mockito.when(subjectRepository.existsById(SUBJECT_ID)).thenReturn(false);
 
         AppException resultActual = Assertions.assertThrows(AppException.class, () -> subjectService.updateSubject(SUBJECT_ID, subjectUpdateRequest));
 
         Assertions.assertEquals(AppException.class, resultActual.getClass());
-        Mockito.verify(subjectRepository).findById(SUBJECT_ID);
-        Mockito.verify(subjectRepository, Mockito.never()).save(Mockito.any(Subject.class));
+        Mockito.verify(subjectRepository).existsById(SUBJECT_ID);
+        Mockito.verify(subjectRepository, Mockito.never()).updateDetails(Mockito.anyLong(), Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.anyInt(), Mockito.anyBoolean(), Mockito.any(), Mockito.anyLong(), Mockito.any(),
+                Mockito.any(), Mockito.any());
     }
 
     @Test
@@ -326,6 +340,52 @@ class SubjectServiceImplTest {
     }
 
 
+    @Test
+    void testSearchAfter_STT01_ByCourseID_Student() {
+        setUp(!IS_ADMIN);
+        SubjectSearchRequest subjectSearchRequest = getSubjectSearchRequest()
+                .fieldSearch(SubjectFieldSearch.COURSE_ID)
+                .valueSearch(COURSE_ID.toString())
+                .sortField(SubjectSortField.subjectName)
+                .size(1)
+                .cursor("")
+                .build();
+        Subject next = getSubject();
+        next.setSubjectID(2L);
+        next.setSubjectName("Kiểm thử");
+
+        ArgumentCaptor<SubjectKeysetQuery> captor = ArgumentCaptor.forClass(SubjectKeysetQuery.class);
+        Mockito.when(subjectRepository.searchAfter(captor.capture())).thenReturn(Arrays.asList(getSubject(), next));
+
+        CursorSlice<Subject> resultActual = subjectService.searchAfter(subjectSearchRequest);
+
+        Assertions.assertEquals(getSubjectList(), resultActual.getContent());
+        Assertions.assertTrue(resultActual.hasNext());
+        SubjectKeysetQuery query = captor.getValue();
+        Assertions.assertTrue(query.isExcludeDeleted());
+        Assertions.assertEquals(COURSE_ID, query.getCourseID());
+        Assertions.assertNull(query.getAfterID());
+        Assertions.assertEquals(2, query.getLimit());
+
+        // the returned cursor resumes after the last subject of the page
+        subjectSearchRequest.setCursor(resultActual.getNextCursor());
+        subjectService.searchAfter(subjectSearchRequest);
+        Assertions.assertEquals("Công nghệ mới", captor.getValue().getAfterKey());
+        Assertions.assertEquals(SUBJECT_ID, captor.getValue().getAfterID());
+    }
+
+    @Test
+    void testSearchAfter_STT02_CursorFromOtherSort() {
+        String cursor = KeysetCursor.of("", SUBJECT_ID).encode("subjects:DEFAULT::subjectID:DESC");
+        SubjectSearchRequest subjectSearchRequest = getSubjectSearchRequest().cursor(cursor).build();
+
+        AppException exception = Assertions.assertThrows(AppException.class,
+                () -> subjectService.searchAfter(subjectSearchRequest));
+
+        Assertions.assertEquals(ErrorCode.CURSOR_INVALID, exception.getErrorCode());
+        Mockito.verify(subjectRepository, Mockito.never()).searchAfter(Mockito.any());
+    }
+
     private List<Subject> getSubjectList() {
         ArrayList<Subject> subjectArrayList = new ArrayList<>();
         subjectArrayList.add(getSubject());
@@ -0,0 +1,133 @@
+package vn.com.unit.studentmanagerapi.service.impl;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.unit.studentmanagerapi.config.AccountChangeTracker;
+import vn.com.unit.studentmanagerapi.config.GlobalValue;
+import vn.com.unit.studentmanagerapi.config.JwtTokenProvider;
+import vn.com.unit.studentmanagerapi.config.TokenDenylist;
+import vn.com.unit.studentmanagerapi.config.UserDetailsCache;
+import vn.com.unit.studentmanagerapi.config.VerifiedTokenCache;
+import vn.com.unit.studentmanagerapi.entity.RevokedToken;
+import vn.com.unit.studentmanagerapi.repository.RevokedTokenRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class TokenRevocationServiceImplTest {
+    @Mock
+    RevokedTokenRepository revokedTokenRepository;
+    @Mock
+    JwtTokenProvider jwtTokenProvider;
+    @Mock
+    VerifiedTokenCache verifiedTokenCache;
+    @Mock
+    UserDetailsCache userDetailsCache;
+    @Mock
+    GlobalValue globalValue;
+
+    TokenDenylist tokenDenylist;
+    AccountChangeTracker accountChangeTracker;
+    TokenRevocationServiceImpl tokenRevocationService;
+
+    static final String EMAIL = "account@gmail.com";
+    static final String TOKEN = "token";
+    static final Duration OVERLAP = Duration.ofMinutes(1);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.lenient().when(globalValue.getJwtDenylistCapacity()).thenReturn(1000L);
+        Mockito.lenient().when(globalValue.getJwtDenylistFalsePositiveRate()).thenReturn(0.001);
+        Mockito.lenient().when(globalValue.getExpiration()).thenReturn(Duration.ofHours(24));
+        Mockito.lenient().when(globalValue.getJwtDenylistRefreshOverlap()).thenReturn(OVERLAP);
+        Mockito.lenient().when(revokedTokenRepository.save(Mockito.any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        tokenDenylist = new TokenDenylist(globalValue);
+        accountChangeTracker = new AccountChangeTracker();
+        tokenRevocationService = new TokenRevocationServiceImpl(revokedTokenRepository, jwtTokenProvider,
+                tokenDenylist, verifiedTokenCache, accountChangeTracker, userDetailsCache, globalValue);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testRevokeToken_inTransaction_appliedOnlyAfterCommit() {
+        Mockito.when(jwtTokenProvider.getExpiration(TOKEN)).thenReturn(new Date(System.currentTimeMillis() + 60_000));
+        TransactionSynchronizationManager.initSynchronization();
+
+        tokenRevocationService.revokeToken(EMAIL, TOKEN);
+
+        Assertions.assertFalse(tokenDenylist.isRevoked(JwtTokenProvider.digest(TOKEN)));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        Assertions.assertTrue(tokenDenylist.isRevoked(JwtTokenProvider.digest(TOKEN)));
+    }
+
+    @Test
+    void testReload_accountChangedBeforeRestart_olderTokensRechecked() {
+        LocalDateTime changedAt = LocalDateTime.now().minusMinutes(10);
+        Mockito.when(revokedTokenRepository.findActive(Mockito.any())).thenReturn(Collections.singletonList(
+                RevokedToken.builder()
+                        .id(1L)
+                        .email(EMAIL)
+                        .recheckOnly(true)
+                        .revokedAt(changedAt)
+                        .expiresAt(changedAt.plusHours(24))
+                        .build()));
+
+        tokenRevocationService.reload();
+
+        long changedAtMillis = changedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Assertions.assertTrue(accountChangeTracker.isChangedSince(EMAIL, changedAtMillis - 1));
+        Assertions.assertFalse(accountChangeTracker.isChangedSince(EMAIL, changedAtMillis + 1));
+        // re-checked, not rejected
+        Assertions.assertFalse(tokenDenylist.isRevoked(EMAIL, changedAtMillis - 1000));
+        Mockito.verify(userDetailsCache).evict(EMAIL);
+    }
+
+    @Test
+    void testRefresh_rowCommittedLate_stillLoaded() {
+        tokenRevocationService.reload();
+        ArgumentCaptor<LocalDateTime> loadedAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        Mockito.verify(revokedTokenRepository).findActive(loadedAt.capture());
+
+        // revoked before the reload read the table, committed after it
+        LocalDateTime revokedAt = loadedAt.getValue().minusSeconds(5);
+        RevokedToken lateRow = RevokedToken.builder()
+                .id(1L)
+                .tokenDigest(JwtTokenProvider.digest(TOKEN))
+                .email(EMAIL)
+                .revokedAt(revokedAt)
+                .expiresAt(revokedAt.plusHours(1))
+                .build();
+        Mockito.when(revokedTokenRepository.findActiveRevokedSince(Mockito.any(), Mockito.any()))
+                .thenReturn(Collections.singletonList(lateRow));
+
+        tokenRevocationService.refresh();
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        Mockito.verify(revokedTokenRepository).findActiveRevokedSince(since.capture(), Mockito.any());
+        Assertions.assertEquals(loadedAt.getValue().minus(OVERLAP), since.getValue());
+        Assertions.assertTrue(tokenDenylist.isRevoked(JwtTokenProvider.digest(TOKEN)));
+    }
+}
@@ -0,0 +1,81 @@
+package vn.com.unit.studentmanagerapi.service.impl;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import vn.com.unit.studentmanagerapi.config.GlobalValue;
+import vn.com.unit.studentmanagerapi.config.UserDetailsCache;
+import vn.com.unit.studentmanagerapi.entity.Account;
+import vn.com.unit.studentmanagerapi.repository.AccountRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class UserDetailServiceImplTest {
+    @Mock
+    AccountRepository accountRepository;
+    @Mock
+    GlobalValue globalValue;
+
+    UserDetailsCache userDetailsCache;
+    UserDetailServiceImpl userDetailService;
+
+    static final String EMAIL = "student@mail.com";
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(globalValue.isAccountCacheEnabled()).thenReturn(true);
+        Mockito.when(globalValue.getAccountCacheMaxSize()).thenReturn(100);
+        Mockito.when(globalValue.getAccountCacheTtl()).thenReturn(Duration.ofMinutes(10));
+        userDetailsCache = new UserDetailsCache(globalValue);
+        userDetailService = new UserDetailServiceImpl(accountRepository, userDetailsCache);
+    }
+
+    @Test
+    void testLoadUserByUsername_cached_singleQuery() {
+        Account account = getAccount(false);
+        Mockito.when(accountRepository.findById(EMAIL)).thenReturn(Optional.of(account));
+
+        Assertions.assertSame(account, userDetailService.loadUserByUsername(EMAIL));
+        Assertions.assertSame(account, userDetailService.loadUserByUsername(EMAIL));
+        Mockito.verify(accountRepository, Mockito.times(1)).findById(EMAIL);
+    }
+
+    @Test
+    void testLoadUserByUsername_softDeleted_negativeEntry() {
+        Mockito.when(accountRepository.findById(EMAIL)).thenReturn(Optional.of(getAccount(true)));
+
+        Assertions.assertNull(userDetailService.loadUserByUsername(EMAIL));
+        Assertions.assertNull(userDetailService.loadUserByUsername(EMAIL));
+        Mockito.verify(accountRepository, Mockito.times(1)).findById(EMAIL);
+    }
+
+    @Test
+    void testLoadUserByUsername_evicted_reloads() {
+        Mockito.when(accountRepository.findById(EMAIL))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(getAccount(false)));
+
+        Assertions.assertNull(userDetailService.loadUserByUsername(EMAIL));
+        userDetailsCache.evict(EMAIL);
+        Assertions.assertNotNull(userDetailService.loadUserByUsername(EMAIL));
+        Mockito.verify(accountRepository, Mockito.times(2)).findById(EMAIL);
+    }
+
+    private Account getAccount(boolean isDeleted) {
+        return Account.builder()
+                .email(EMAIL)
+                .password("encodedPassword")
+                .role('T')
+                .isDeleted(isDeleted)
+                .build();
+    }
+}
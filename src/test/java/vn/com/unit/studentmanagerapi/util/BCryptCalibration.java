@@ -0,0 +1,104 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures BCrypt hash time per cost on the current machine and recommends
+ * the highest cost that still fits a target login latency.
+ * <p>
+ * Run it on the production hardware with the target in milliseconds:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=vn.com.unit.studentmanagerapi.util.BCryptCalibration -Dexec.args=250}
+ */
+public class BCryptCalibration {
+
+    public static final int MIN_COST = 4;
+    public static final int MAX_COST = 16;
+
+    public static Result calibrate(Duration target, int samples) {
+        List<Measurement> measurements = new ArrayList<>();
+        int recommended = MIN_COST;
+
+        for (int cost = MIN_COST; cost <= MAX_COST; cost++) {
+            Duration median = measure(cost, samples);
+            measurements.add(new Measurement(cost, median));
+            if (median.compareTo(target) > 0) break;
+            recommended = cost;
+        }
+        return new Result(target, recommended, measurements);
+    }
+
+    private static Duration measure(int cost, int samples) {
+        String salt = BCrypt.gensalt(cost);
+        BCrypt.hashpw("warm-up-password", salt);
+
+        long[] times = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration-password-" + i, salt);
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return Duration.ofNanos(times[samples / 2]);
+    }
+
+    public static void main(String[] args) {
+        Duration target = Duration.ofMillis(args.length > 0 ? Long.parseLong(args[0]) : 250);
+        int samples = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Result result = calibrate(target, samples);
+        for (Measurement measurement : result.getMeasurements()) {
+            System.out.printf("cost %2d: %6d ms%n", measurement.getCost(), measurement.getMedian().toMillis());
+        }
+        System.out.printf("recommended student-manager.password.bcrypt-strength for %d ms: %d%n",
+                target.toMillis(), result.getRecommendedCost());
+    }
+
+    public static class Result {
+        private final Duration target;
+        private final int recommendedCost;
+        private final List<Measurement> measurements;
+
+        Result(Duration target, int recommendedCost, List<Measurement> measurements) {
+            this.target = target;
+            this.recommendedCost = recommendedCost;
+            this.measurements = Collections.unmodifiableList(measurements);
+        }
+
+        public Duration getTarget() {
+            return target;
+        }
+
+        public int getRecommendedCost() {
+            return recommendedCost;
+        }
+
+        public List<Measurement> getMeasurements() {
+            return measurements;
+        }
+    }
+
+    public static class Measurement {
+        private final int cost;
+        private final Duration median;
+
+        Measurement(int cost, Duration median) {
+            this.cost = cost;
+            this.median = median;
+        }
+
+        public int getCost() {
+            return cost;
+        }
+
+        public Duration getMedian() {
+            return median;
+        }
+    }
+}
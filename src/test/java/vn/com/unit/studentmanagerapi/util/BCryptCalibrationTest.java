@@ -0,0 +1,21 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class BCryptCalibrationTest {
+
+    @Test
+    void testCalibrate_recommendsCostWithinTarget() {
+        BCryptCalibration.Result result = BCryptCalibration.calibrate(Duration.ofMillis(20), 3);
+
+        Assertions.assertFalse(result.getMeasurements().isEmpty());
+        for (BCryptCalibration.Measurement measurement : result.getMeasurements()) {
+            if (measurement.getCost() <= result.getRecommendedCost() && measurement.getCost() > BCryptCalibration.MIN_COST) {
+                Assertions.assertTrue(measurement.getMedian().compareTo(result.getTarget()) <= 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+class BkTreeTest {
+
+    @Test
+    void testDistance_levenshtein() {
+        Assertions.assertEquals(3, distance("kitten", "sitting"));
+        Assertions.assertEquals(0, distance("an", "an"));
+        Assertions.assertEquals(2, distance("", "an"));
+        Assertions.assertEquals(1, distance("nguyen", "nguyn"));
+    }
+
+    @Test
+    void testSearch_ranksByDistanceThenKey() {
+        BkTree tree = new BkTree();
+        tree.put("nguyen van an", 1);
+        tree.put("nguyen van anh", 2);
+        tree.put("nguyen van can", 3);
+        tree.put("tran thi binh", 4);
+        tree.put("nguyen van an", 5);
+
+        List<BkTree.Match> matches = tree.search("nguyen van an", 1);
+
+        Assertions.assertEquals(Arrays.asList(1L, 5L, 2L, 3L), ids(matches));
+        Assertions.assertEquals(Arrays.asList(0, 0, 1, 1),
+                matches.stream().map(BkTree.Match::getDistance).collect(Collectors.toList()));
+        Assertions.assertEquals(4, tree.nodeCount());
+    }
+
+    @Test
+    void testRemove_keepsRoutingThroughEmptiedKey() {
+        BkTree tree = new BkTree();
+        tree.put("le van tam", 1);
+        tree.put("le van tan", 2);
+        tree.put("le van lam", 3);
+
+        tree.remove("le van tam", 1);
+        tree.remove("le van tam", 1);
+
+        Assertions.assertEquals(Arrays.asList(3L, 2L), ids(tree.search("le van tam", 1)));
+        Assertions.assertEquals(Collections.emptyList(), ids(tree.search("le van tam", 0)));
+        Assertions.assertEquals(2, tree.size());
+    }
+
+    @Test
+    void testSearch_matchesLinearScan() {
+        Random random = new Random(42);
+        String[] parts = {"an", "anh", "binh", "van", "thi", "nguyen", "tran", "le", "minh", "hoa"};
+        BkTree tree = new BkTree();
+        String[] keys = new String[2000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = parts[random.nextInt(parts.length)] + " " + parts[random.nextInt(parts.length)]
+                    + " " + parts[random.nextInt(parts.length)];
+            tree.put(keys[i], i);
+        }
+
+        String query = "nguyen vn anh";
+        for (int radius = 0; radius <= 3; radius++) {
+            int expected = 0;
+            for (String key : keys) {
+                if (distance(key, query) <= radius) expected++;
+            }
+            Assertions.assertEquals(expected, tree.search(query, radius).size(), "radius " + radius);
+        }
+    }
+
+    private static int distance(String a, String b) {
+        return BkTree.distance(a, b, new int[b.length() + 1], new int[b.length() + 1]);
+    }
+
+    private static List<Long> ids(List<BkTree.Match> matches) {
+        return matches.stream().map(BkTree.Match::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,28 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void testMightContain_noFalseNegatives() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) filter.put("token-" + i);
+
+        for (int i = 0; i < 1000; i++) Assertions.assertTrue(filter.mightContain("token-" + i));
+        Assertions.assertEquals(1000, filter.insertionCount());
+    }
+
+    @Test
+    void testMightContain_falsePositiveRateNearConfigured() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) filter.put("token-" + i);
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("other-" + i)) falsePositives++;
+        }
+        Assertions.assertTrue(falsePositives < 2000, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,54 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class ConcurrentLruCacheTest {
+
+    @Test
+    void testGet_hitAndMiss_counted() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(100, Duration.ofMinutes(1));
+        cache.put("key", "value");
+
+        Assertions.assertEquals("value", cache.get("key"));
+        Assertions.assertNull(cache.get("other"));
+        Assertions.assertEquals(1, cache.hitCount());
+        Assertions.assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void testGet_expiredEntry_miss() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(100, Duration.ofMinutes(1));
+        cache.put("key", "value", System.currentTimeMillis() - 1);
+
+        Assertions.assertNull(cache.get("key"));
+        Assertions.assertEquals(1, cache.evictionCount());
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPut_overCapacity_evictsLeastRecentlyUsed() {
+        // 16 segments of one entry each, Integer keys 0 and 16 share a segment
+        ConcurrentLruCache<Integer, String> cache = new ConcurrentLruCache<>(16, Duration.ofMinutes(1));
+        cache.put(0, "first");
+        cache.put(16, "second");
+
+        Assertions.assertNull(cache.get(0));
+        Assertions.assertEquals("second", cache.get(16));
+        Assertions.assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void testInvalidateIf_matchingValues_removed() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(100, Duration.ofMinutes(1));
+        cache.put("a", "owner@mail.com");
+        cache.put("b", "other@mail.com");
+
+        cache.invalidateIf((key, value) -> value.equals("owner@mail.com"));
+
+        Assertions.assertNull(cache.get("a"));
+        Assertions.assertEquals("other@mail.com", cache.get("b"));
+    }
+}
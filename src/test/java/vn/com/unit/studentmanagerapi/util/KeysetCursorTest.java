@@ -0,0 +1,40 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import vn.com.unit.studentmanagerapi.exception.AppException;
+import vn.com.unit.studentmanagerapi.exception.ErrorCode;
+
+class KeysetCursorTest {
+
+    @Test
+    void testEncode_roundTripsKeyAndId() {
+        String token = KeysetCursor.of("nguyen van an", 42L).encode("students:name");
+
+        KeysetCursor cursor = KeysetCursor.decode(token, "students:name");
+
+        Assertions.assertEquals("nguyen van an", cursor.getKey());
+        Assertions.assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void testDecode_emptyTokenStartsAtTheBeginning() {
+        Assertions.assertNull(KeysetCursor.decode(null, "students:name"));
+        Assertions.assertNull(KeysetCursor.decode("", "students:name"));
+    }
+
+    @Test
+    void testDecode_otherScope_fail() {
+        String token = KeysetCursor.of("Nguyễn Văn An", 42L).encode("students:name");
+
+        AppException exception = Assertions.assertThrows(AppException.class,
+                () -> KeysetCursor.decode(token, "students:admission"));
+        Assertions.assertEquals(ErrorCode.CURSOR_INVALID, exception.getErrorCode());
+    }
+
+    @Test
+    void testDecode_malformedToken_fail() {
+        Assertions.assertThrows(AppException.class, () -> KeysetCursor.decode("not a cursor!", "students:name"));
+        Assertions.assertThrows(AppException.class, () -> KeysetCursor.decode("c3R1ZGVudHM6bmFtZQ", "students:name"));
+    }
+}
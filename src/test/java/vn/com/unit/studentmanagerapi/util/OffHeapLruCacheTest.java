@@ -0,0 +1,122 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+class OffHeapLruCacheTest {
+
+    @Test
+    void testOpen_contentSpanningPages_readBack() throws IOException {
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(1024, 64);
+        byte[] content = randomBytes(200);
+
+        Assertions.assertTrue(cache.put("key", content));
+
+        Assertions.assertEquals(200, cache.length("key"));
+        try (InputStream in = cache.open("key")) {
+            Assertions.assertArrayEquals(content, StreamUtils.copyToByteArray(in));
+        }
+        Assertions.assertEquals(4 * 64, cache.residentBytes());
+    }
+
+    @Test
+    void testLength_hitAndMiss_counted() {
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(1024, 64);
+        cache.put("key", randomBytes(10));
+
+        Assertions.assertEquals(10, cache.length("key"));
+        Assertions.assertEquals(-1, cache.length("other"));
+        Assertions.assertNull(cache.open("other"));
+        Assertions.assertEquals(1, cache.hitCount());
+        Assertions.assertEquals(1, cache.missCount());
+        Assertions.assertEquals(0.5, cache.hitRatio());
+    }
+
+    @Test
+    void testPut_overCapacity_evictsLeastRecentlyUsed() {
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(256, 64);
+        cache.put("first", randomBytes(128));
+        cache.put("second", randomBytes(128));
+        cache.length("first");
+
+        Assertions.assertTrue(cache.put("third", randomBytes(100)));
+
+        Assertions.assertTrue(cache.contains("first"));
+        Assertions.assertFalse(cache.contains("second"));
+        Assertions.assertTrue(cache.contains("third"));
+        Assertions.assertEquals(1, cache.evictionCount());
+        Assertions.assertEquals(256, cache.residentBytes());
+    }
+
+    @Test
+    void testPut_largerThanCapacity_notCached() {
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(256, 64);
+        cache.put("small", randomBytes(10));
+
+        Assertions.assertFalse(cache.put("large", randomBytes(257)));
+
+        Assertions.assertTrue(cache.contains("small"));
+        Assertions.assertEquals(0, cache.evictionCount());
+    }
+
+    @Test
+    void testPut_evictedWhileRead_pagesKeptUntilClosed() throws IOException {
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(256, 64);
+        byte[] content = randomBytes(256);
+        cache.put("first", content);
+        InputStream in = cache.open("first");
+
+        // every page is still being read
+        Assertions.assertFalse(cache.put("second", randomBytes(64)));
+        Assertions.assertFalse(cache.contains("first"));
+        Assertions.assertArrayEquals(content, StreamUtils.copyToByteArray(in));
+        in.close();
+
+        Assertions.assertEquals(0, cache.residentBytes());
+        Assertions.assertTrue(cache.put("second", randomBytes(64)));
+    }
+
+    @Test
+    void testPut_sameKey_replacesContent() throws IOException {
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(256, 64);
+        byte[] replacement = randomBytes(30);
+        cache.put("key", randomBytes(100));
+
+        cache.put("key", replacement);
+
+        try (InputStream in = cache.open("key")) {
+            Assertions.assertArrayEquals(replacement, StreamUtils.copyToByteArray(in));
+        }
+        Assertions.assertEquals(64, cache.residentBytes());
+    }
+
+    @Test
+    void testInvalidateIf_matchingKeys_removed() {
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(1024, 64);
+        cache.put("abc", randomBytes(10));
+        cache.put("abc.64", randomBytes(10));
+        cache.put("def", randomBytes(10));
+
+        cache.invalidateIf(key -> key.startsWith("abc"));
+
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertTrue(cache.contains("def"));
+        Assertions.assertEquals(64, cache.residentBytes());
+    }
+
+    @Test
+    void testConstructor_capacityBelowPageSize_fail() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new OffHeapLruCache<String>(32, 64));
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,57 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+class PrefixTrieTest {
+
+    @Test
+    void testCollect_returnsIdsInKeyOrder() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.put("nguyen van binh", 3);
+        trie.put("nguyen van an", 1);
+        trie.put("nguyen thi cuc", 2);
+        trie.put("tran an", 4);
+
+        Assertions.assertEquals(Arrays.asList(2L, 1L, 3L), trie.collect("nguyen", 10));
+        Assertions.assertEquals(Arrays.asList(1L, 3L), trie.collect("nguyen va", 10));
+        Assertions.assertEquals(Collections.singletonList(4L), trie.collect("tr", 10));
+        Assertions.assertEquals(Collections.emptyList(), trie.collect("nguyen x", 10));
+        Assertions.assertEquals(Collections.emptyList(), trie.collect("tran an b", 10));
+    }
+
+    @Test
+    void testCollect_stopsAtLimitWithDistinctIds() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.put("an binh", 1);
+        trie.put("an", 1);
+        trie.put("an cuong", 2);
+        trie.put("an dung", 3);
+
+        Assertions.assertEquals(Arrays.asList(1L, 2L), trie.collect("an", 2));
+        Assertions.assertEquals(4, trie.size());
+    }
+
+    @Test
+    void testRemove_prunesAndMergesEdges() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.put("le van tam", 1);
+        trie.put("le van tan", 2);
+        trie.put("le thi", 3);
+
+        trie.remove("le van tam", 1);
+        trie.remove("le van tam", 1);
+        Assertions.assertEquals(Arrays.asList(3L, 2L), trie.collect("le", 10));
+
+        trie.remove("le thi", 3);
+        Assertions.assertEquals(Collections.singletonList(2L), trie.collect("le", 10));
+        Assertions.assertEquals(Collections.singletonList(2L), trie.collect("le van t", 10));
+        Assertions.assertEquals(1, trie.size());
+
+        trie.put("le van", 5);
+        Assertions.assertEquals(Arrays.asList(5L, 2L), trie.collect("le v", 10));
+    }
+}
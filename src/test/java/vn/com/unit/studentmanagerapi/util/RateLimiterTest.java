@@ -0,0 +1,48 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class RateLimiterTest {
+
+    @Test
+    void testTryAcquire_burstThenRejected() {
+        RateLimiter limiter = new RateLimiter(3, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 3; i++) Assertions.assertEquals(0, limiter.tryAcquire("a@mail.com"));
+        long wait = limiter.tryAcquire("a@mail.com");
+
+        Assertions.assertTrue(wait > 0 && wait <= Duration.ofSeconds(20).toNanos(), "wait: " + wait);
+        Assertions.assertEquals(0, limiter.tryAcquire("b@mail.com"));
+        Assertions.assertEquals(1, limiter.rejectedCount());
+    }
+
+    @Test
+    void testTryAcquire_refillsOverTime() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(2, Duration.ofMillis(100));
+        limiter.tryAcquire("key");
+        limiter.tryAcquire("key");
+        Assertions.assertTrue(limiter.tryAcquire("key") > 0);
+
+        Thread.sleep(60);
+
+        Assertions.assertEquals(0, limiter.tryAcquire("key"));
+    }
+
+    @Test
+    void testEvictIdle_dropsRefilledBuckets() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(5, Duration.ofMillis(500));
+        limiter.tryAcquire("idle");
+        limiter.tryAcquire("busy");
+
+        Thread.sleep(150);
+        limiter.tryAcquire("busy");
+        limiter.tryAcquire("busy");
+        limiter.tryAcquire("busy");
+        limiter.evictIdle();
+
+        Assertions.assertEquals(1, limiter.size());
+    }
+}
@@ -0,0 +1,81 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+class ThumbnailUtilTest {
+
+    @Test
+    void testDecode_subsamplesLargeImages() throws IOException {
+        byte[] png = png(800, 600, false);
+
+        BufferedImage image = ThumbnailUtil.decode(new ByteArrayInputStream(png), 1_000_000, 64);
+
+        // 600 / (64 * 2) = 4
+        Assertions.assertEquals(200, image.getWidth());
+        Assertions.assertEquals(150, image.getHeight());
+    }
+
+    @Test
+    void testDecode_tooManyPixels_fail() throws IOException {
+        byte[] png = png(800, 600, false);
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ThumbnailUtil.decode(new ByteArrayInputStream(png), 800 * 600 - 1, 64));
+    }
+
+    @Test
+    void testDecode_unreadableFormat_returnsNull() throws IOException {
+        byte[] svg = "<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertNull(ThumbnailUtil.decode(new ByteArrayInputStream(svg), 1_000_000, 64));
+    }
+
+    @Test
+    void testThumbnail_cropsCentreSquare() throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png(300, 100, false)));
+
+        BufferedImage thumbnail = ThumbnailUtil.thumbnail(image, 64);
+
+        Assertions.assertEquals(64, thumbnail.getWidth());
+        Assertions.assertEquals(64, thumbnail.getHeight());
+        // the red side bands are cropped away
+        Color edge = new Color(thumbnail.getRGB(1, 32));
+        Assertions.assertTrue(edge.getBlue() > 200 && edge.getRed() < 50, edge.toString());
+    }
+
+    @Test
+    void testEncode_keepsTransparencyAsPng() throws IOException {
+        BufferedImage opaque = ThumbnailUtil.thumbnail(ImageIO.read(new ByteArrayInputStream(png(100, 100, false))), 64);
+        BufferedImage transparent = ThumbnailUtil.thumbnail(ImageIO.read(new ByteArrayInputStream(png(100, 100, true))), 64);
+
+        Assertions.assertEquals("image/jpeg", MyImageUtil.detectContentType(ThumbnailUtil.encode(opaque)));
+        Assertions.assertEquals("image/png", MyImageUtil.detectContentType(ThumbnailUtil.encode(transparent)));
+    }
+
+    // red image with a blue centre square
+    static byte[] png(int width, int height, boolean alpha) throws IOException {
+        BufferedImage image = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, width, height);
+        int side = Math.min(width, height);
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect((width - side) / 2, (height - side) / 2, side, side);
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
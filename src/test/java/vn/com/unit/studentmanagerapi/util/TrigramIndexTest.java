@@ -0,0 +1,121 @@
+package vn.com.unit.studentmanagerapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class TrigramIndexTest {
+
+    @Test
+    void testFold_removesDiacriticsAndCase() {
+        Assertions.assertEquals("nguyen duc anh", TrigramIndex.fold("  Nguyễn  Đức Ánh "));
+        Assertions.assertEquals("tran thi hoa", TrigramIndex.fold("TRẦN THỊ HOÀ"));
+    }
+
+    @Test
+    void testSearch_matchesSubstringIgnoringDiacritics() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Nguyễn Văn An");
+        index.put(2, "Trần Thị Bình");
+        index.put(3, "Nguyen Van Binh");
+
+        Assertions.assertEquals(Arrays.asList(1L, 3L), index.search("nguyen van"));
+        Assertions.assertEquals(Arrays.asList(3L, 2L), index.search("BÌNH"));
+        Assertions.assertEquals(Collections.singletonList(2L), index.search("trần"));
+        Assertions.assertEquals(Collections.emptyList(), index.search("le van"));
+    }
+
+    @Test
+    void testSearch_rejectsTrigramsOutOfOrder() {
+        TrigramIndex index = new TrigramIndex();
+        // holds every trigram of "abcab" but not the substring
+        index.put(1, "abcxcabx");
+
+        Assertions.assertEquals(Collections.emptyList(), index.search("abcab"));
+    }
+
+    @Test
+    void testSearch_shortQueryScansAll() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "An");
+        index.put(2, "Bình");
+
+        Assertions.assertEquals(Collections.singletonList(1L), index.search("a"));
+        Assertions.assertEquals(Arrays.asList(1L, 2L), index.search(""));
+    }
+
+    @Test
+    void testPutAndRemove_updatePostings() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Lê Văn Tám");
+        index.put(1, "Lê Văn Tâm Minh");
+
+        Assertions.assertEquals(Collections.singletonList(1L), index.search("minh"));
+        Assertions.assertEquals(Collections.emptyList(), index.search("tam minh x"));
+
+        index.remove(1);
+        Assertions.assertEquals(Collections.emptyList(), index.search("le van"));
+        Assertions.assertEquals(0, index.size());
+        Assertions.assertEquals(0, index.gramCount());
+    }
+
+    @Test
+    void testSearchAfter_continuesFromLastNameAndId() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Nguyễn Văn An");
+        index.put(4, "Nguyen Van An");
+        index.put(3, "Nguyen Van Binh");
+        index.put(2, "Trần Văn Cường");
+
+        Assertions.assertEquals(Arrays.asList(1L, 4L), index.searchAfter("van", "", 0, 2));
+        Assertions.assertEquals(Arrays.asList(4L, 3L), index.searchAfter("van", "nguyen van an", 1, 2));
+        Assertions.assertEquals(Collections.singletonList(2L), index.searchAfter("van", "nguyen van binh", 3, 2));
+        Assertions.assertEquals(Collections.emptyList(), index.searchAfter("van", "tran van cuong", 2, 2));
+    }
+
+    @Test
+    void testSearchAfter_storedName_foldedLikeTheIndex() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Nguyễn Văn An");
+        index.put(3, "Nguyen Van Binh");
+        index.put(2, "Trần Văn Cường");
+
+        Assertions.assertEquals(Arrays.asList(3L, 2L), index.searchAfter("van", "Nguyễn Văn An", 1, 2));
+    }
+
+    @Test
+    void testSearch_namesChangingMeanwhile_noFailure() throws Exception {
+        TrigramIndex index = new TrigramIndex();
+        for (long id = 0; id < 2000; id++) {
+            index.put(id, "Nguyen Van " + id);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> writes = writer.submit(() -> {
+                for (long round = 0; running.get(); round++) {
+                    long id = round % 2000;
+                    index.put(id, (round % 2 == 0 ? "A Nguyen Van " : "Z Nguyen Van ") + id);
+                }
+            });
+            // an entry being rewritten may be missed, the sort must not fail
+            for (int i = 0; i < 200; i++) {
+                List<Long> ids = index.search("nguyen van");
+                Assertions.assertFalse(ids.isEmpty());
+            }
+            running.set(false);
+            writes.get(10, TimeUnit.SECONDS);
+        } finally {
+            running.set(false);
+            writer.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+-- the tables behind subject registration, for tests against an embedded H2
+DROP TABLE IF EXISTS bus_registration_subject;
+DROP TABLE IF EXISTS bus_subject;
+
+CREATE TABLE bus_subject
+(
+    subject_id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    subject_name           VARCHAR(200),
+    start_date             DATE,
+    end_date               DATE,
+    number_of_student      INT     NOT NULL,
+    number_of_availability INT     NOT NULL,
+    status                 BOOLEAN NOT NULL DEFAULT TRUE,
+    number_of_credit       INT,
+    course_id              VARCHAR(3),
+    tuition                BIGINT,
+    description            VARCHAR(1000),
+    created_at             TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_at              TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_by              VARCHAR(100),
+    is_deleted             BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT ck_bus_subject_availability CHECK (number_of_availability BETWEEN 0 AND number_of_student)
+);
+
+CREATE TABLE bus_registration_subject
+(
+    subject_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_at  TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_by  VARCHAR(100),
+    PRIMARY KEY (subject_id, student_id)
+);